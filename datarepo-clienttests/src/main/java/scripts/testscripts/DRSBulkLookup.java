@@ -0,0 +1,181 @@
+package scripts.testscripts;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.datarepo.api.DataRepositoryServiceApi;
+import bio.terra.datarepo.api.RepositoryApi;
+import bio.terra.datarepo.client.ApiClient;
+import bio.terra.datarepo.model.BulkLoadArrayRequestModel;
+import bio.terra.datarepo.model.BulkLoadArrayResultModel;
+import bio.terra.datarepo.model.BulkLoadFileResultModel;
+import bio.terra.datarepo.model.BulkLoadResultModel;
+import bio.terra.datarepo.model.DRSBulkObjectRequest;
+import bio.terra.datarepo.model.DRSBulkObjectResponse;
+import bio.terra.datarepo.model.DeleteResponseModel;
+import bio.terra.datarepo.model.IngestRequestModel;
+import bio.terra.datarepo.model.IngestResponseModel;
+import bio.terra.datarepo.model.JobModel;
+import bio.terra.datarepo.model.PolicyMemberRequest;
+import bio.terra.datarepo.model.SnapshotSummaryModel;
+import com.google.cloud.storage.BlobId;
+import common.utils.FileUtils;
+import common.utils.StorageUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import runner.config.TestUserSpecification;
+import scripts.testscripts.baseclasses.SimpleDataset;
+import scripts.utils.BulkLoadUtils;
+import scripts.utils.DataRepoUtils;
+
+/*
+ * WARNING: if making any changes to this class make sure to notify the #dsp-batch channel! Describe the change and
+ * any consequences downstream to DRS clients.
+ */
+public class DRSBulkLookup extends SimpleDataset {
+  private static final Logger logger = LoggerFactory.getLogger(DRSBulkLookup.class);
+
+  /** Public constructor so that this class can be instantiated via reflection. */
+  public DRSBulkLookup() {
+    super();
+  }
+
+  private static final int MAX_IDS_PER_BULK_REQUEST = 1000;
+
+  private boolean bulk;
+  private int filesToLoad;
+  private SnapshotSummaryModel snapshotSummaryModel;
+  private final List<String> drsObjectIds = new ArrayList<>();
+  private static List<BlobId> scratchFiles = new ArrayList<>();
+
+  public void setParameters(List<String> parameters) {
+    if (parameters == null || parameters.size() < 2) {
+      throw new IllegalArgumentException(
+          "Required parameters: lookup mode (single or bulk), number of files");
+    }
+    bulk = StringUtils.equalsIgnoreCase(parameters.get(0), "bulk");
+    filesToLoad = Integer.parseInt(parameters.get(1));
+    logger.info("Look up {} files with {} lookups", filesToLoad, bulk ? "bulk" : "single");
+  }
+
+  public void setup(List<TestUserSpecification> testUsers) throws Exception {
+    // create the profile and dataset
+    super.setup(testUsers);
+
+    ApiClient datasetCreatorClient = DataRepoUtils.getClientForTestUser(datasetCreator, server);
+    RepositoryApi repositoryApi = new RepositoryApi(datasetCreatorClient);
+
+    // load small files into the dataset
+    BulkLoadArrayRequestModel arrayLoad =
+        BulkLoadUtils.buildBulkLoadFileRequest100B(filesToLoad, billingProfileModel.getId());
+    JobModel bulkLoadArrayJobResponse =
+        repositoryApi.bulkFileLoadArray(datasetSummaryModel.getId(), arrayLoad);
+    bulkLoadArrayJobResponse =
+        DataRepoUtils.waitForJobToFinish(repositoryApi, bulkLoadArrayJobResponse, datasetCreator);
+    BulkLoadArrayResultModel result =
+        DataRepoUtils.expectJobSuccess(
+            repositoryApi, bulkLoadArrayJobResponse, BulkLoadArrayResultModel.class);
+    BulkLoadResultModel loadSummary = result.getLoadSummary();
+    assertThat(
+        "Number of successful files loaded should equal total files.",
+        loadSummary.getTotalFiles(),
+        equalTo(loadSummary.getSucceededFiles()));
+
+    // reference every file from the simple dataset's table so that they all land in the snapshot
+    String fileRefName = "scratch/drsBulkLookup/" + FileUtils.randomizeName("input") + ".json";
+    BlobId scratchFile =
+        BulkLoadUtils.writeScratchFileForIngestRequest(
+            server.testRunnerServiceAccount, result, "jade-testdata", fileRefName);
+    scratchFiles.add(scratchFile); // make sure the scratch file gets cleaned up later
+    IngestRequestModel ingestRequest = BulkLoadUtils.makeIngestRequestFromScratchFile(scratchFile);
+    JobModel ingestTabularDataJobResponse =
+        repositoryApi.ingestDataset(datasetSummaryModel.getId(), ingestRequest);
+    ingestTabularDataJobResponse =
+        DataRepoUtils.waitForJobToFinish(
+            repositoryApi, ingestTabularDataJobResponse, datasetCreator);
+    DataRepoUtils.expectJobSuccess(
+        repositoryApi, ingestTabularDataJobResponse, IngestResponseModel.class);
+
+    JobModel createSnapshotJobResponse =
+        DataRepoUtils.createSnapshot(
+            repositoryApi, datasetSummaryModel, "snapshot-simple.json", datasetCreator, true);
+    snapshotSummaryModel =
+        DataRepoUtils.expectJobSuccess(
+            repositoryApi, createSnapshotJobResponse, SnapshotSummaryModel.class);
+    logger.info("Successfully created snapshot: {}", snapshotSummaryModel.getName());
+
+    for (TestUserSpecification user : testUsers) {
+      if (!StringUtils.equals(datasetCreator.userEmail, user.userEmail)) {
+        repositoryApi.addSnapshotPolicyMember(
+            snapshotSummaryModel.getId(),
+            "steward",
+            new PolicyMemberRequest().email(user.userEmail));
+      }
+    }
+
+    for (BulkLoadFileResultModel fileResult : result.getLoadFileResults()) {
+      drsObjectIds.add("v1_" + snapshotSummaryModel.getId() + "_" + fileResult.getFileId());
+    }
+  }
+
+  // The purpose of this test is to compare the throughput of single and bulk DRS lookups
+  public void userJourney(TestUserSpecification testUser) throws Exception {
+    ApiClient apiClient = DataRepoUtils.getClientForTestUser(testUser, server);
+    DataRepositoryServiceApi dataRepositoryServiceApi = new DataRepositoryServiceApi(apiClient);
+
+    long start = System.currentTimeMillis();
+    int resolved = 0;
+    if (bulk) {
+      for (int i = 0; i < drsObjectIds.size(); i += MAX_IDS_PER_BULK_REQUEST) {
+        List<String> batch =
+            drsObjectIds.subList(
+                i, Math.min(i + MAX_IDS_PER_BULK_REQUEST, drsObjectIds.size()));
+        DRSBulkObjectResponse response =
+            dataRepositoryServiceApi.getBulkObjects(
+                new DRSBulkObjectRequest().bulkObjectIds(batch).expand(false));
+        resolved += response.getSummary().getResolved();
+      }
+    } else {
+      for (String drsObjectId : drsObjectIds) {
+        dataRepositoryServiceApi.getObject(drsObjectId, false);
+        resolved++;
+      }
+    }
+    long elapsedMillis = Math.max(System.currentTimeMillis() - start, 1);
+
+    assertThat("Every DRS object is resolved", resolved, equalTo(drsObjectIds.size()));
+    logger.info(
+        "Resolved {} DRS objects with {} lookups in {} ms ({} objects/s)",
+        resolved,
+        bulk ? "bulk" : "single",
+        elapsedMillis,
+        resolved * 1000L / elapsedMillis);
+  }
+
+  @Override
+  public void cleanup(List<TestUserSpecification> testUsers) throws Exception {
+    ApiClient datasetCreatorClient = DataRepoUtils.getClientForTestUser(datasetCreator, server);
+    RepositoryApi repositoryApi = new RepositoryApi(datasetCreatorClient);
+
+    if (snapshotSummaryModel != null) {
+      JobModel deleteSnapshotJobResponse =
+          repositoryApi.deleteSnapshot(snapshotSummaryModel.getId());
+      deleteSnapshotJobResponse =
+          DataRepoUtils.waitForJobToFinish(
+              repositoryApi, deleteSnapshotJobResponse, datasetCreator);
+      DataRepoUtils.expectJobSuccess(
+          repositoryApi, deleteSnapshotJobResponse, DeleteResponseModel.class);
+      logger.info("Successfully deleted snapshot: {}", snapshotSummaryModel.getName());
+    }
+
+    // delete the scratch files used for ingesting tabular data
+    StorageUtils.deleteFiles(
+        StorageUtils.getClientForServiceAccount(server.testRunnerServiceAccount), scratchFiles);
+
+    // delete the profile and dataset
+    super.cleanup(testUsers);
+  }
+}
@@ -9,11 +9,13 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.microsoft.sqlserver.jdbc.SQLServerDataSource;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -75,6 +77,18 @@ public class ApplicationConfiguration {
    */
   private int loadDriverWaitSeconds;
 
+  /**
+   * When true, the bulk file load driver waits for completion notifications from the load flights
+   * instead of polling for them, and claims files to load in batches
+   */
+  private boolean loadDriverEventDriven;
+
+  /**
+   * Number of files the bulk file load driver hands to each load flight of a GCP dataset. With 1,
+   * every file is loaded by its own flight
+   */
+  private int loadBatchFiles;
+
   /** Number of seconds to wait between loads of data into laod_history table */
   private int loadHistoryWaitSeconds;
 
@@ -114,21 +128,43 @@ public class ApplicationConfiguration {
   /** Size of batches to operate on when creating snapshot file system directory entries */
   private int firestoreSnapshotBatchSize;
 
-  /** Size of cache of directories maintain when building the snapshot file system */
-  private int snapshotCacheSize;
+  /** Number of directories to enumerate and compute concurrently when computing snapshot sizes */
+  private int snapshotComputeParallelism;
 
   /** Size of batches to operate on when validating file system directory entry ids */
   private int firestoreValidateBatchSize;
 
+  /** Number of batches of file reference ids to validate concurrently during ingest */
+  private int refIdValidationParallelism;
+
+  /** Number of invalid file reference ids after which ingest validation stops looking for more */
+  private int refIdValidationMaxErrors;
+
+  /**
+   * When true, updating a GCP snapshot's snapshot builder settings starts a flight that
+   * materializes the snapshot's concept hierarchy and roll-up counts into a table, which concept
+   * children and hierarchy requests read instead of the OMOP tables
+   */
+  private boolean snapshotBuilderIndexEnabled;
+
   /** Sizes of batches of query results from firestore */
   private int firestoreQueryBatchSize;
 
+  /** Number of document id ranges of a Firestore collection to delete concurrently */
+  private int firestoreDeleteParallelism;
+
+  /** Write rate that Firestore bulk writers start at, before they ramp up */
+  private int firestoreBulkWriteInitialOpsPerSecond;
+
   /** Maximum time that a request to Firestore should take */
   private int firestoreFutureTimeoutSeconds;
 
   /** Time in seconds of auth cache timeout */
   private int authCacheTimeoutSeconds;
 
+  /** Time in seconds that a denied authorization check stays in the auth cache */
+  private int authCacheNegativeTimeoutSeconds;
+
   /**
    * Certain operations can be spread to run asynchronously to gain a performance boost. Instead of
    * having each such task create its own threadpool, this property is used to create a globally
@@ -225,6 +261,22 @@ public class ApplicationConfiguration {
     this.loadDriverWaitSeconds = loadDriverWaitSeconds;
   }
 
+  public boolean isLoadDriverEventDriven() {
+    return loadDriverEventDriven;
+  }
+
+  public void setLoadDriverEventDriven(boolean loadDriverEventDriven) {
+    this.loadDriverEventDriven = loadDriverEventDriven;
+  }
+
+  public int getLoadBatchFiles() {
+    return loadBatchFiles;
+  }
+
+  public void setLoadBatchFiles(int loadBatchFiles) {
+    this.loadBatchFiles = loadBatchFiles;
+  }
+
   public int getLoadHistoryWaitSeconds() {
     return loadHistoryWaitSeconds;
   }
@@ -297,12 +349,12 @@ public class ApplicationConfiguration {
     this.firestoreSnapshotBatchSize = firestoreSnapshotBatchSize;
   }
 
-  public int getSnapshotCacheSize() {
-    return snapshotCacheSize;
+  public int getSnapshotComputeParallelism() {
+    return snapshotComputeParallelism;
   }
 
-  public void setSnapshotCacheSize(int snapshotCacheSize) {
-    this.snapshotCacheSize = snapshotCacheSize;
+  public void setSnapshotComputeParallelism(int snapshotComputeParallelism) {
+    this.snapshotComputeParallelism = snapshotComputeParallelism;
   }
 
   public int getFirestoreValidateBatchSize() {
@@ -313,6 +365,30 @@ public class ApplicationConfiguration {
     this.firestoreValidateBatchSize = firestoreValidateBatchSize;
   }
 
+  public int getRefIdValidationParallelism() {
+    return refIdValidationParallelism;
+  }
+
+  public void setRefIdValidationParallelism(int refIdValidationParallelism) {
+    this.refIdValidationParallelism = refIdValidationParallelism;
+  }
+
+  public int getRefIdValidationMaxErrors() {
+    return refIdValidationMaxErrors;
+  }
+
+  public void setRefIdValidationMaxErrors(int refIdValidationMaxErrors) {
+    this.refIdValidationMaxErrors = refIdValidationMaxErrors;
+  }
+
+  public boolean isSnapshotBuilderIndexEnabled() {
+    return snapshotBuilderIndexEnabled;
+  }
+
+  public void setSnapshotBuilderIndexEnabled(boolean snapshotBuilderIndexEnabled) {
+    this.snapshotBuilderIndexEnabled = snapshotBuilderIndexEnabled;
+  }
+
   public int getFirestoreQueryBatchSize() {
     return firestoreQueryBatchSize;
   }
@@ -321,6 +397,22 @@ public class ApplicationConfiguration {
     this.firestoreQueryBatchSize = firestoreQueryBatchSize;
   }
 
+  public int getFirestoreDeleteParallelism() {
+    return firestoreDeleteParallelism;
+  }
+
+  public void setFirestoreDeleteParallelism(int firestoreDeleteParallelism) {
+    this.firestoreDeleteParallelism = firestoreDeleteParallelism;
+  }
+
+  public int getFirestoreBulkWriteInitialOpsPerSecond() {
+    return firestoreBulkWriteInitialOpsPerSecond;
+  }
+
+  public void setFirestoreBulkWriteInitialOpsPerSecond(int firestoreBulkWriteInitialOpsPerSecond) {
+    this.firestoreBulkWriteInitialOpsPerSecond = firestoreBulkWriteInitialOpsPerSecond;
+  }
+
   public int getFirestoreFutureTimeoutSeconds() {
     return firestoreFutureTimeoutSeconds;
   }
@@ -337,6 +429,14 @@ public class ApplicationConfiguration {
     this.authCacheTimeoutSeconds = authCacheTimeoutSeconds;
   }
 
+  public int getAuthCacheNegativeTimeoutSeconds() {
+    return authCacheNegativeTimeoutSeconds;
+  }
+
+  public void setAuthCacheNegativeTimeoutSeconds(int authCacheNegativeTimeoutSeconds) {
+    this.authCacheNegativeTimeoutSeconds = authCacheNegativeTimeoutSeconds;
+  }
+
   public int getNumPerformanceThreads() {
     return numPerformanceThreads;
   }
@@ -424,6 +524,17 @@ public class ApplicationConfiguration {
         new LinkedBlockingQueue<>(getMaxPerformanceThreadQueueSize()));
   }
 
+  /**
+   * Shared by snapshot directory computes, each of which keeps no more than {@link
+   * #getSnapshotComputeParallelism()} tasks on it at once.
+   */
+  @Bean("snapshotComputeThreadpool")
+  public ExecutorService snapshotComputeThreadpool() {
+    return Executors.newFixedThreadPool(
+        getSnapshotComputeParallelism(),
+        new ThreadFactoryBuilder().setNameFormat("snapshot-compute-%d").setDaemon(true).build());
+  }
+
   @Bean
   public RestTemplate restTemplate(RestTemplateBuilder builder) {
     return builder.build();
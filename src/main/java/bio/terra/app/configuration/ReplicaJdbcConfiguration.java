@@ -0,0 +1,21 @@
+package bio.terra.app.configuration;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connection to an optional read replica of the datarepo database. Read-only lookups that can
+ * tolerate replication lag are sent to it by {@link bio.terra.common.MetadataReadRouter}. When no
+ * uri is configured, those lookups use the primary database.
+ */
+@Configuration
+@EnableConfigurationProperties
+@ConfigurationProperties(prefix = "db.replica")
+public class ReplicaJdbcConfiguration extends JdbcConfiguration {
+
+  public boolean isEnabled() {
+    return StringUtils.isNotBlank(getUri());
+  }
+}
@@ -10,6 +10,8 @@ import bio.terra.common.iam.AuthenticatedUserRequestFactory;
 import bio.terra.controller.DataRepositoryServiceApi;
 import bio.terra.model.DRSAccessURL;
 import bio.terra.model.DRSAuthorizations;
+import bio.terra.model.DRSBulkObjectRequest;
+import bio.terra.model.DRSBulkObjectResponse;
 import bio.terra.model.DRSError;
 import bio.terra.model.DRSObject;
 import bio.terra.model.DRSPassportRequestModel;
@@ -154,6 +156,14 @@ public class DataRepositoryServiceApiController implements DataRepositoryService
     return new ResponseEntity<>(drsObject, HttpStatus.OK);
   }
 
+  @Override
+  public ResponseEntity<DRSBulkObjectResponse> getBulkObjects(DRSBulkObjectRequest body) {
+    AuthenticatedUserRequest authUser = getAuthenticatedInfo();
+    DRSBulkObjectResponse response =
+        drsService.lookupObjectsByDrsIds(authUser, body.getBulkObjectIds(), body.isExpand());
+    return new ResponseEntity<>(response, HttpStatus.OK);
+  }
+
   @Override
   public ResponseEntity<DRSAuthorizations> optionsObject(String objectId) {
     DRSAuthorizations auths = drsService.lookupAuthorizationsByDrsId(objectId);
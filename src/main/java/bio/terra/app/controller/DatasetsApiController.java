@@ -178,7 +178,8 @@ public class DatasetsApiController implements DatasetsApi {
             queryDataRequest.getOffset(),
             queryDataRequest.getSort(),
             sortDirection,
-            queryDataRequest.getFilter());
+            queryDataRequest.getFilter(),
+            queryDataRequest.getPageToken());
     return ResponseEntity.ok(previewModel);
   }
 
@@ -299,7 +299,8 @@ public class SnapshotsApiController implements SnapshotsApi {
             queryDataRequest.getOffset(),
             queryDataRequest.getSort(),
             sortDirection,
-            queryDataRequest.getFilter());
+            queryDataRequest.getFilter(),
+            queryDataRequest.getPageToken());
     return ResponseEntity.ok(previewModel);
   }
 
@@ -476,7 +477,7 @@ public class SnapshotsApiController implements SnapshotsApi {
         IamResourceType.DATASNAPSHOT,
         id.toString(),
         IamAction.UPDATE_SNAPSHOT);
-    snapshotService.updateSnapshotBuilderSettings(id, settings);
+    snapshotService.updateSnapshotBuilderSettings(id, settings, getAuthenticatedInfo());
     return ResponseEntity.ok(settings);
   }
 
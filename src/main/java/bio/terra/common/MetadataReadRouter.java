@@ -0,0 +1,111 @@
+package bio.terra.common;
+
+import bio.terra.app.configuration.ReplicaJdbcConfiguration;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs read-only metadata lookups that can tolerate replication lag - enumerations, tag counts and
+ * DRS id mapping - in a READ COMMITTED, read-only transaction. Serializable isolation buys nothing
+ * for these lookups, and costs predicate locks and serialization failures on the primary.
+ *
+ * <p>When a read replica is configured (see {@link ReplicaJdbcConfiguration}), lookups made
+ * outside any transaction run on the replica. Lookups made inside a transaction, such as those of
+ * a flight step that has just written what it reads, run on the primary as part of that
+ * transaction. Reads that must see the latest committed state, like the summaries and retrieves
+ * that flights depend on, should not be routed here at all.
+ *
+ * <p>The latency of each lookup is recorded in {@link #READ_TIMER_NAME}, tagged with the
+ * datasource it ran on.
+ */
+@Component
+public class MetadataReadRouter {
+  @VisibleForTesting static final String READ_TIMER_NAME = "datarepo.db.metadataRead";
+
+  private final Route primary;
+  private final Route replica;
+
+  @Autowired
+  public MetadataReadRouter(
+      NamedParameterJdbcTemplate jdbcTemplate,
+      @Qualifier("dataRepoTransactionManager") PlatformTransactionManager transactionManager,
+      ReplicaJdbcConfiguration replicaConfiguration,
+      MeterRegistry meterRegistry) {
+    this(
+        jdbcTemplate,
+        transactionManager,
+        replicaConfiguration.isEnabled()
+            ? new NamedParameterJdbcTemplate(replicaConfiguration.getDataSource())
+            : null,
+        replicaConfiguration.isEnabled()
+            ? new DataSourceTransactionManager(replicaConfiguration.getDataSource())
+            : null,
+        meterRegistry);
+  }
+
+  @VisibleForTesting
+  MetadataReadRouter(
+      NamedParameterJdbcTemplate primaryTemplate,
+      PlatformTransactionManager primaryTransactionManager,
+      NamedParameterJdbcTemplate replicaTemplate,
+      PlatformTransactionManager replicaTransactionManager,
+      MeterRegistry meterRegistry) {
+    primary = new Route(primaryTemplate, primaryTransactionManager, "primary", meterRegistry);
+    replica =
+        replicaTemplate == null
+            ? null
+            : new Route(replicaTemplate, replicaTransactionManager, "replica", meterRegistry);
+  }
+
+  /**
+   * Run a read-only lookup on the replica, if there is one and no transaction is active, or
+   * otherwise on the primary.
+   *
+   * @param query runs the lookup's queries with the given template
+   * @return the result of the lookup
+   */
+  public <T> T read(Function<NamedParameterJdbcTemplate, T> query) {
+    Route route =
+        replica == null || TransactionSynchronizationManager.isActualTransactionActive()
+            ? primary
+            : replica;
+    return route.read(query);
+  }
+
+  private static class Route {
+    private final NamedParameterJdbcTemplate template;
+    private final TransactionTemplate transactions;
+    private final Timer timer;
+
+    Route(
+        NamedParameterJdbcTemplate template,
+        PlatformTransactionManager transactionManager,
+        String datasource,
+        MeterRegistry meterRegistry) {
+      this.template = template;
+      this.transactions = new TransactionTemplate(transactionManager);
+      transactions.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+      transactions.setReadOnly(true);
+      this.timer =
+          Timer.builder(READ_TIMER_NAME)
+              .description("Latency of read-only metadata lookups")
+              .tag("datasource", datasource)
+              .register(meterRegistry);
+    }
+
+    <T> T read(Function<NamedParameterJdbcTemplate, T> query) {
+      return timer.record(() -> transactions.execute(status -> query.apply(template)));
+    }
+  }
+}
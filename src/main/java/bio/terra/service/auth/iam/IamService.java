@@ -1,5 +1,6 @@
 package bio.terra.service.auth.iam;
 
+import static bio.terra.service.configuration.ConfigEnum.AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.AUTH_CACHE_TIMEOUT_SECONDS;
 
 import bio.terra.common.iam.AuthenticatedUserRequest;
@@ -13,20 +14,32 @@ import bio.terra.service.auth.iam.exception.IamUnavailableException;
 import bio.terra.service.auth.oauth2.GoogleCredentialsService;
 import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.journal.JournalService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.google.auth.oauth2.ImpersonatedCredentials;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.map.PassiveExpiringMap;
 import org.broadinstitute.dsde.workbench.client.sam.model.UserIdInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,9 +66,27 @@ public class IamService {
   private static final Duration TOKEN_LENGTH = Duration.ofMinutes(5);
 
   private static final int AUTH_CACHE_TIMEOUT_SECONDS_DEFAULT = 60;
+  private static final int AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS_DEFAULT = 10;
+  @VisibleForTesting static final int AUTH_CACHE_MAX_SIZE = 100_000;
+
+  private static final String METRIC_NAME_PREFIX = "datarepo.iam";
+  @VisibleForTesting static final String AUTH_CACHE_NAME = METRIC_NAME_PREFIX + ".authorized";
+
+  @VisibleForTesting
+  static final String AUTH_COALESCED_COUNTER_NAME = AUTH_CACHE_NAME + ".coalesced";
+
+  @VisibleForTesting static final String SAM_CALL_TIMER_NAME = METRIC_NAME_PREFIX + ".sam.call";
 
   private final IamProviderInterface iamProvider;
-  private final Map<AuthorizedCacheKey, Boolean> authorizedMap;
+  private final Cache<AuthorizedCacheKey, Boolean> authorizedCache;
+  // SAM checks that are currently running, so that concurrent identical checks share one call
+  private final ConcurrentMap<AuthorizedCacheKey, CompletableFuture<Boolean>>
+      pendingAuthorizations = new ConcurrentHashMap<>();
+  // Bumped on invalidation so that checks started before a policy change are not cached after it
+  private final AtomicLong authorizedCacheGeneration = new AtomicLong();
+  private final Timer isAuthorizedTimer;
+  private final Timer listActionsTimer;
+  private final Counter coalescedCounter;
   private final JournalService journalService;
   private final GoogleCredentialsService googleCredentialsService;
 
@@ -64,7 +95,8 @@ public class IamService {
       IamProviderInterface iamProvider,
       ConfigurationService configurationService,
       JournalService journalService,
-      GoogleCredentialsService googleCredentialsService) {
+      GoogleCredentialsService googleCredentialsService,
+      MeterRegistry meterRegistry) {
     this.iamProvider = iamProvider;
     this.journalService = journalService;
     this.googleCredentialsService = googleCredentialsService;
@@ -72,8 +104,53 @@ public class IamService {
         Objects.requireNonNullElse(
             configurationService.getParameterValue(AUTH_CACHE_TIMEOUT_SECONDS),
             AUTH_CACHE_TIMEOUT_SECONDS_DEFAULT);
-    // wrap the cache map with a synchronized map to safely share the cache across threads
-    authorizedMap = Collections.synchronizedMap(new PassiveExpiringMap<>(ttl, TimeUnit.SECONDS));
+    int negativeTtl =
+        Objects.requireNonNullElse(
+            configurationService.getParameterValue(AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS),
+            AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS_DEFAULT);
+    authorizedCache =
+        Caffeine.newBuilder()
+            .maximumSize(AUTH_CACHE_MAX_SIZE)
+            .expireAfter(
+                new AuthorizedExpiry(Duration.ofSeconds(ttl), Duration.ofSeconds(negativeTtl)))
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, authorizedCache, AUTH_CACHE_NAME);
+    isAuthorizedTimer = samCallTimer(meterRegistry, "isAuthorized");
+    listActionsTimer = samCallTimer(meterRegistry, "listActions");
+    coalescedCounter = meterRegistry.counter(AUTH_COALESCED_COUNTER_NAME);
+  }
+
+  private static Timer samCallTimer(MeterRegistry meterRegistry, String operation) {
+    return Timer.builder(SAM_CALL_TIMER_NAME)
+        .description("Latency of SAM calls made to answer authorization checks")
+        .tag("operation", operation)
+        .register(meterRegistry);
+  }
+
+  /**
+   * Keeps granted authorizations in the cache for the configured auth cache timeout and denied
+   * ones for the (usually shorter) negative timeout, so that a user who was just granted access is
+   * not refused for long.
+   */
+  private record AuthorizedExpiry(Duration positiveTtl, Duration negativeTtl)
+      implements Expiry<AuthorizedCacheKey, Boolean> {
+    @Override
+    public long expireAfterCreate(AuthorizedCacheKey key, Boolean authorized, long currentTime) {
+      return (authorized ? positiveTtl : negativeTtl).toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        AuthorizedCacheKey key, Boolean authorized, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, authorized, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        AuthorizedCacheKey key, Boolean authorized, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
   }
 
   private interface Call<T> {
@@ -100,8 +177,19 @@ public class IamService {
         });
   }
 
+  private <T> T callProvider(Timer timer, Call<T> call) {
+    Timer.Sample sample = Timer.start();
+    try {
+      return callProvider(call);
+    } finally {
+      sample.stop(timer);
+    }
+  }
+
   /**
-   * Check a cache to determine whether a user is authorized to do an action on a resource.
+   * Check a cache to determine whether a user is authorized to do an action on a resource. On a
+   * miss, the first caller makes the SAM call without holding any lock, and concurrent callers
+   * asking the same question wait for its answer instead of making their own call.
    *
    * @return true if authorized, false otherwise
    */
@@ -110,9 +198,30 @@ public class IamService {
       IamResourceType iamResourceType,
       String resourceId,
       IamAction action) {
-    return authorizedMap.computeIfAbsent(
-        new AuthorizedCacheKey(userReq, iamResourceType, resourceId, action),
-        this::computeAuthorized);
+    AuthorizedCacheKey key = new AuthorizedCacheKey(userReq, iamResourceType, resourceId, action);
+    Boolean cached = authorizedCache.getIfPresent(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    CompletableFuture<Boolean> pending = new CompletableFuture<>();
+    CompletableFuture<Boolean> inFlight = pendingAuthorizations.putIfAbsent(key, pending);
+    if (inFlight != null) {
+      coalescedCounter.increment();
+      return awaitAuthorization(inFlight);
+    }
+    try {
+      long generation = authorizedCacheGeneration.get();
+      boolean authorized = computeAuthorized(key);
+      cacheAuthorization(generation, key, authorized);
+      pending.complete(authorized);
+      return authorized;
+    } catch (RuntimeException e) {
+      pending.completeExceptionally(e);
+      throw e;
+    } finally {
+      pendingAuthorizations.remove(key, pending);
+    }
   }
 
   /**
@@ -122,11 +231,70 @@ public class IamService {
    */
   private boolean computeAuthorized(AuthorizedCacheKey key) {
     return callProvider(
+        isAuthorizedTimer,
         () ->
             iamProvider.isAuthorized(
                 key.userReq(), key.iamResourceType(), key.resourceId(), key.action()));
   }
 
+  private boolean awaitAuthorization(CompletableFuture<Boolean> inFlight) {
+    try {
+      return inFlight.get();
+    } catch (InterruptedException e) {
+      throw new IamUnavailableException("service unavailable", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IamUnavailableException("service unavailable", e.getCause());
+    }
+  }
+
+  private void cacheAuthorization(long generation, AuthorizedCacheKey key, boolean authorized) {
+    // Check the generation under the entry's lock: an invalidation bumps the generation before it
+    // removes the entry, so it cannot slip between the check and the put and leave a stale result
+    authorizedCache
+        .asMap()
+        .compute(
+            key,
+            (k, cached) -> authorizedCacheGeneration.get() == generation ? authorized : cached);
+  }
+
+  private void invalidateAuthorizations() {
+    authorizedCacheGeneration.incrementAndGet();
+    authorizedCache.invalidateAll();
+  }
+
+  /**
+   * Fetch all of a user's actions on a resource with a single SAM call, and cache the outcome of
+   * checking each {@link IamAction} on it so that subsequent {@link #isAuthorized} calls for the
+   * resource do not need to call SAM.
+   *
+   * @param userReq authenticated user
+   * @param iamResourceType resource type; e.g. dataset
+   * @param resourceId resource in question
+   * @return the actions that the user holds on the resource
+   */
+  public Set<IamAction> prefetchActions(
+      AuthenticatedUserRequest userReq, IamResourceType iamResourceType, String resourceId) {
+    long generation = authorizedCacheGeneration.get();
+    List<String> availableActions =
+        callProvider(
+            listActionsTimer, () -> iamProvider.listActions(userReq, iamResourceType, resourceId));
+    Set<IamAction> actions =
+        availableActions.stream()
+            .map(IamAction::fromValue)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(IamAction.class)));
+    for (IamAction action : IamAction.values()) {
+      cacheAuthorization(
+          generation,
+          new AuthorizedCacheKey(userReq, iamResourceType, resourceId, action),
+          actions.contains(action));
+    }
+    return actions;
+  }
+
   /**
    * This is a wrapper method around {@link #isAuthorized(AuthenticatedUserRequest, IamResourceType,
    * String, IamAction)} that throws an exception instead of returning false when the user is NOT
@@ -213,8 +381,8 @@ public class IamService {
   }
 
   /**
-   * Note: calling this method will trigger a call to SAM API. No cache backs it. If calling,
-   * consider whether new usage patterns necessitate refactoring to add a cache.
+   * Note: calling this method will trigger a call to SAM API. No cache backs it, but the actions it
+   * retrieves are cached for subsequent {@link #isAuthorized} checks on the resource.
    *
    * @param userReq authenticated user
    * @param iamResourceType resource type; e.g. dataset
@@ -229,13 +397,12 @@ public class IamService {
       Collection<IamAction> actions)
       throws IamForbiddenException {
     String userEmail = userReq.getEmail();
-    List<String> availableActions =
-        callProvider(() -> iamProvider.listActions(userReq, iamResourceType, resourceId));
+    Set<IamAction> availableActions = prefetchActions(userReq, iamResourceType, resourceId);
 
     List<String> unavailableActions =
         actions.stream()
-            .map(IamAction::toString)
             .filter(action -> !availableActions.contains(action))
+            .map(IamAction::toString)
             .toList();
 
     if (!unavailableActions.isEmpty()) {
@@ -381,7 +548,7 @@ public class IamService {
               iamProvider.addPolicyMember(
                   userReq, iamResourceType, resourceId, policyName, userEmail);
           // Invalidate the cache
-          authorizedMap.clear();
+          invalidateAuthorizations();
           journalService.recordUpdate(
               userReq,
               resourceId,
@@ -404,7 +571,7 @@ public class IamService {
               iamProvider.deletePolicyMember(
                   userReq, iamResourceType, resourceId, policyName, userEmail);
           // Invalidate the cache
-          authorizedMap.clear();
+          invalidateAuthorizations();
           journalService.recordUpdate(
               userReq,
               resourceId,
@@ -1,5 +1,6 @@
 package bio.terra.service.common;
 
+import bio.terra.common.SqlSortDirection;
 import bio.terra.grammar.Query;
 import bio.terra.grammar.exception.InvalidFilterException;
 import bio.terra.grammar.exception.InvalidQueryException;
@@ -35,4 +36,35 @@ public class QueryUtils {
     }
     return filterWithWhere;
   }
+
+  /**
+   * Build the condition selecting the rows that come after an anchor row when rows are ordered by
+   * a sort column and then by row id, both in the given direction. Null sort values come first in
+   * ascending order and last in descending order, as they do in both BigQuery and Synapse.
+   *
+   * @param sortColumn qualified sort column of the rows being paged
+   * @param anchorColumn qualified column holding the anchor row's sort value
+   * @param rowIdColumn qualified row id column of the rows being paged
+   * @param anchorRowId parameter reference for the anchor row's id
+   * @param direction direction of the sort
+   * @return a condition to AND with any other filter
+   */
+  public static String keysetSeekCondition(
+      String sortColumn,
+      String anchorColumn,
+      String rowIdColumn,
+      String anchorRowId,
+      SqlSortDirection direction) {
+    if (direction == SqlSortDirection.ASC) {
+      return String.format(
+          "((%2$s IS NULL AND (%1$s IS NOT NULL OR %3$s > %4$s))"
+              + " OR %1$s > %2$s OR (%1$s = %2$s AND %3$s > %4$s))",
+          sortColumn, anchorColumn, rowIdColumn, anchorRowId);
+    }
+    return String.format(
+        "((%2$s IS NULL AND %1$s IS NULL AND %3$s < %4$s)"
+            + " OR (%2$s IS NOT NULL AND %1$s IS NULL)"
+            + " OR %1$s < %2$s OR (%1$s = %2$s AND %3$s < %4$s))",
+        sortColumn, anchorColumn, rowIdColumn, anchorRowId);
+  }
 }
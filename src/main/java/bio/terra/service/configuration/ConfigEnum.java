@@ -19,15 +19,22 @@ public enum ConfigEnum {
   LOAD_CONCURRENT_FILES,
   LOAD_CONCURRENT_INGESTS,
   LOAD_DRIVER_WAIT_SECONDS,
+  LOAD_DRIVER_EVENT_DRIVEN,
+  LOAD_BATCH_FILES,
   LOAD_HISTORY_COPY_CHUNK_SIZE,
   LOAD_HISTORY_WAIT_SECONDS,
   AZURE_SNAPSHOT_BATCH_SIZE,
   FIRESTORE_SNAPSHOT_BATCH_SIZE,
-  SNAPSHOT_CACHE_SIZE,
+  SNAPSHOT_COMPUTE_PARALLELISM,
   FIRESTORE_VALIDATE_BATCH_SIZE,
+  REF_ID_VALIDATION_PARALLELISM,
+  REF_ID_VALIDATION_MAX_ERRORS,
   FIRESTORE_RETRIES,
   FIRESTORE_QUERY_BATCH_SIZE,
+  FIRESTORE_DELETE_PARALLELISM,
+  FIRESTORE_BULK_WRITE_INITIAL_OPS_PER_SECOND,
   AUTH_CACHE_TIMEOUT_SECONDS,
+  AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS,
   ALLOW_REUSE_EXISTING_BUCKETS,
 
   // -- faults --
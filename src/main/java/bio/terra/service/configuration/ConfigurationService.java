@@ -1,6 +1,7 @@
 package bio.terra.service.configuration;
 
 import static bio.terra.service.configuration.ConfigEnum.ALLOW_REUSE_EXISTING_BUCKETS;
+import static bio.terra.service.configuration.ConfigEnum.AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.AUTH_CACHE_TIMEOUT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.AZURE_SNAPSHOT_BATCH_SIZE;
 import static bio.terra.service.configuration.ConfigEnum.BUCKET_LOCK_CONFLICT_CONTINUE_FAULT;
@@ -11,22 +12,28 @@ import static bio.terra.service.configuration.ConfigEnum.FILE_INGEST_LOCK_FATAL_
 import static bio.terra.service.configuration.ConfigEnum.FILE_INGEST_LOCK_RETRY_FAULT;
 import static bio.terra.service.configuration.ConfigEnum.FILE_INGEST_UNLOCK_FATAL_FAULT;
 import static bio.terra.service.configuration.ConfigEnum.FILE_INGEST_UNLOCK_RETRY_FAULT;
+import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_BULK_WRITE_INITIAL_OPS_PER_SECOND;
+import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_DELETE_PARALLELISM;
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_QUERY_BATCH_SIZE;
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_RETRIES;
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_SNAPSHOT_BATCH_SIZE;
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_VALIDATE_BATCH_SIZE;
+import static bio.terra.service.configuration.ConfigEnum.LOAD_BATCH_FILES;
 import static bio.terra.service.configuration.ConfigEnum.LOAD_BULK_ARRAY_FILES_MAX;
 import static bio.terra.service.configuration.ConfigEnum.LOAD_CONCURRENT_FILES;
 import static bio.terra.service.configuration.ConfigEnum.LOAD_CONCURRENT_INGESTS;
+import static bio.terra.service.configuration.ConfigEnum.LOAD_DRIVER_EVENT_DRIVEN;
 import static bio.terra.service.configuration.ConfigEnum.LOAD_DRIVER_WAIT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.LOAD_HISTORY_COPY_CHUNK_SIZE;
 import static bio.terra.service.configuration.ConfigEnum.LOAD_HISTORY_WAIT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.LOAD_SKIP_FILE_LOAD;
+import static bio.terra.service.configuration.ConfigEnum.REF_ID_VALIDATION_MAX_ERRORS;
+import static bio.terra.service.configuration.ConfigEnum.REF_ID_VALIDATION_PARALLELISM;
 import static bio.terra.service.configuration.ConfigEnum.SAM_OPERATION_TIMEOUT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.SAM_RETRY_INITIAL_WAIT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.SAM_RETRY_MAXIMUM_WAIT_SECONDS;
 import static bio.terra.service.configuration.ConfigEnum.SAM_TIMEOUT_FAULT;
-import static bio.terra.service.configuration.ConfigEnum.SNAPSHOT_CACHE_SIZE;
+import static bio.terra.service.configuration.ConfigEnum.SNAPSHOT_COMPUTE_PARALLELISM;
 import static bio.terra.service.configuration.ConfigEnum.SNAPSHOT_GRANT_ACCESS_FAULT;
 import static bio.terra.service.configuration.ConfigEnum.SNAPSHOT_GRANT_FILE_ACCESS_FAULT;
 import static bio.terra.service.configuration.ConfigEnum.SOFT_DELETE_LOCK_CONFLICT_CONTINUE_FAULT;
@@ -203,14 +210,24 @@ public class ConfigurationService {
     addParameter(LOAD_CONCURRENT_FILES, appConfiguration.getLoadConcurrentFiles());
     addParameter(LOAD_CONCURRENT_INGESTS, appConfiguration.getLoadConcurrentIngests());
     addParameter(LOAD_DRIVER_WAIT_SECONDS, appConfiguration.getLoadDriverWaitSeconds());
+    addParameter(LOAD_DRIVER_EVENT_DRIVEN, appConfiguration.isLoadDriverEventDriven());
+    addParameter(LOAD_BATCH_FILES, appConfiguration.getLoadBatchFiles());
     addParameter(LOAD_HISTORY_COPY_CHUNK_SIZE, appConfiguration.getLoadHistoryCopyChunkSize());
     addParameter(LOAD_HISTORY_WAIT_SECONDS, appConfiguration.getLoadHistoryWaitSeconds());
     addParameter(AZURE_SNAPSHOT_BATCH_SIZE, appConfiguration.getAzureSnapshotBatchSize());
     addParameter(FIRESTORE_SNAPSHOT_BATCH_SIZE, appConfiguration.getFirestoreSnapshotBatchSize());
-    addParameter(SNAPSHOT_CACHE_SIZE, appConfiguration.getSnapshotCacheSize());
+    addParameter(SNAPSHOT_COMPUTE_PARALLELISM, appConfiguration.getSnapshotComputeParallelism());
     addParameter(FIRESTORE_VALIDATE_BATCH_SIZE, appConfiguration.getFirestoreValidateBatchSize());
+    addParameter(REF_ID_VALIDATION_PARALLELISM, appConfiguration.getRefIdValidationParallelism());
+    addParameter(REF_ID_VALIDATION_MAX_ERRORS, appConfiguration.getRefIdValidationMaxErrors());
     addParameter(FIRESTORE_QUERY_BATCH_SIZE, appConfiguration.getFirestoreQueryBatchSize());
+    addParameter(FIRESTORE_DELETE_PARALLELISM, appConfiguration.getFirestoreDeleteParallelism());
+    addParameter(
+        FIRESTORE_BULK_WRITE_INITIAL_OPS_PER_SECOND,
+        appConfiguration.getFirestoreBulkWriteInitialOpsPerSecond());
     addParameter(AUTH_CACHE_TIMEOUT_SECONDS, appConfiguration.getAuthCacheTimeoutSeconds());
+    addParameter(
+        AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS, appConfiguration.getAuthCacheNegativeTimeoutSeconds());
     addParameter(
         ALLOW_REUSE_EXISTING_BUCKETS, googleResourceConfiguration.allowReuseExistingBuckets());
     addParameter(FIRESTORE_RETRIES, googleResourceConfiguration.firestoreRetries());
@@ -1,12 +1,8 @@
 package bio.terra.service.dataset;
 
-import bio.terra.common.Column;
 import bio.terra.common.DaoKeyHolder;
-import bio.terra.common.Relationship;
 import bio.terra.service.dataset.exception.InvalidAssetException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DuplicateKeyException;
@@ -21,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class AssetDao {
 
   @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+  @Autowired private DatasetSchemaVersionDao schemaVersionDao;
 
   @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE)
   public void createAssets(Dataset dataset) {
@@ -58,6 +55,7 @@ public class AssetDao {
 
     createAssetColumns(assetSpecification);
     createAssetRelationships(assetSpecification);
+    schemaVersionDao.advance(datasetId);
   }
 
   private void createAssetColumns(AssetSpecification assetSpec) {
@@ -100,92 +98,6 @@ public class AssetDao {
             });
   }
 
-  public void retrieve(Dataset dataset) {
-    dataset.assetSpecifications(retrieveAssetSpecifications(dataset));
-  }
-
-  // also retrieves dependent objects
-  public List<AssetSpecification> retrieveAssetSpecifications(Dataset dataset) {
-    Map<UUID, DatasetTable> allTables = dataset.getTablesById();
-    Map<UUID, Column> allColumns = dataset.getAllColumnsById();
-    Map<UUID, Relationship> allRelationships = dataset.getRelationshipsById();
-
-    String sql =
-        "SELECT id, name, root_table_id, root_column_id FROM asset_specification WHERE dataset_id = "
-            + ":datasetId";
-    MapSqlParameterSource params =
-        new MapSqlParameterSource().addValue("datasetId", dataset.getId());
-
-    return jdbcTemplate.query(
-        sql,
-        params,
-        (rs, rowNum) -> {
-          UUID specId = rs.getObject("id", UUID.class);
-          AssetSpecification spec = new AssetSpecification().id(specId).name(rs.getString("name"));
-          spec.assetTables(
-              retrieveAssetTablesAndColumns(
-                  spec,
-                  rs.getObject("root_table_id", UUID.class),
-                  rs.getObject("root_column_id", UUID.class),
-                  allTables,
-                  allColumns));
-          spec.assetRelationships(retrieveAssetRelationships(spec.getId(), allRelationships));
-
-          return spec;
-        });
-  }
-
-  // also retrieves columns
-  private List<AssetTable> retrieveAssetTablesAndColumns(
-      AssetSpecification spec,
-      UUID rootTableId,
-      UUID rootColumnId,
-      Map<UUID, DatasetTable> allTables,
-      Map<UUID, Column> allColumns) {
-    Map<UUID, AssetTable> tables = new HashMap<>();
-    String sql =
-        "SELECT asset_column.id, asset_column.dataset_column_id, dataset_column.table_id "
-            + "FROM asset_column "
-            + "INNER JOIN dataset_column ON asset_column.dataset_column_id = dataset_column.id "
-            + "WHERE asset_id = :assetId "
-            + "ORDER BY dataset_column.ordinal";
-    MapSqlParameterSource params = new MapSqlParameterSource().addValue("assetId", spec.getId());
-    List<Map<String, Object>> results = jdbcTemplate.queryForList(sql, params);
-    results.forEach(
-        rs -> {
-          UUID tableId = (UUID) rs.get("table_id");
-          UUID columnId = (UUID) rs.get("dataset_column_id");
-          if (!tables.containsKey(tableId)) {
-            tables.put(tableId, new AssetTable().datasetTable(allTables.get(tableId)));
-          }
-          AssetTable assetTable = tables.get(tableId);
-          AssetColumn newColumn =
-              new AssetColumn().id((UUID) rs.get("id")).datasetColumn(allColumns.get(columnId));
-          // check to see if this table and column are the root values
-          if (rootTableId.equals(tableId) && rootColumnId.equals(columnId)) {
-            spec.rootTable(assetTable);
-            spec.rootColumn(newColumn);
-          }
-          // add the new column to the asset table object
-          assetTable.getColumns().add(newColumn);
-        });
-    return List.copyOf(tables.values());
-  }
-
-  private List<AssetRelationship> retrieveAssetRelationships(
-      UUID specId, Map<UUID, Relationship> allRelationships) {
-    String sql = "SELECT id, relationship_id FROM asset_relationship WHERE asset_id = :assetId";
-    MapSqlParameterSource params = new MapSqlParameterSource().addValue("assetId", specId);
-    return jdbcTemplate.query(
-        sql,
-        params,
-        (rs, rowNum) ->
-            new AssetRelationship()
-                .id(rs.getObject("id", UUID.class))
-                .datasetRelationship(
-                    allRelationships.get(rs.getObject("relationship_id", UUID.class))));
-  }
-
   public List<UUID> retrieveSnapshotsForAsset(UUID datasetId, UUID specId) {
     String sql =
         "SELECT snapshot_id FROM snapshot_source WHERE dataset_id = :datasetId AND asset_id = :assetId";
@@ -196,6 +108,7 @@ public class AssetDao {
 
   @Transactional
   public boolean delete(UUID id) {
+    schemaVersionDao.advanceForAsset(id);
     int rowsAffected =
         jdbcTemplate.update(
             "DELETE FROM asset_specification WHERE id = :id ",
@@ -7,6 +7,7 @@ import bio.terra.common.DaoKeyHolder;
 import bio.terra.common.DaoUtils;
 import bio.terra.common.LockOperation;
 import bio.terra.common.MetadataEnumeration;
+import bio.terra.common.MetadataReadRouter;
 import bio.terra.common.SqlSortDirection;
 import bio.terra.common.exception.RetryQueryException;
 import bio.terra.common.iam.AuthenticatedUserRequest;
@@ -72,6 +73,8 @@ public class DatasetDao implements TaggableResourceDao {
   private final JournalService journalService;
   private final ObjectMapper objectMapper;
   private final DataSource jdbcDataSource;
+  private final DatasetSchemaCache schemaCache;
+  private final MetadataReadRouter readRouter;
 
   private static final Logger logger = LoggerFactory.getLogger(DatasetDao.class);
 
@@ -80,7 +83,8 @@ public class DatasetDao implements TaggableResourceDao {
   private static final String summaryQueryColumns =
       " dataset.id, dataset.name, description, default_profile_id, project_resource_id, "
           + "dataset.application_resource_id, secure_monitoring, phs_id, self_hosted, "
-          + "properties, created_date, predictable_file_ids, tags, flightid, sharedlock,";
+          + "properties, created_date, predictable_file_ids, tags, flightid, sharedlock, "
+          + "schema_version,";
 
   private static final String summaryCloudPlatformQuery =
       "(SELECT pr.google_project_id "
@@ -116,6 +120,69 @@ public class DatasetDao implements TaggableResourceDao {
           + "'createdBy', created_by)) "
           + "FROM billing_profile where id = dataset.default_profile_id) AS billing_profiles ";
 
+  // Loads a dataset's whole schema in one round trip. Columns and asset columns are in ordinal
+  // order. As in DatasetTableDao.retrieveTables, tables without columns are left out.
+  private static final String sqlSelectSchema =
+      """
+  SELECT d.schema_version,
+    (SELECT jsonb_agg(jsonb_build_object(
+        'id', t.id,
+        'name', t.name,
+        'rawTableName', t.raw_table_name,
+        'softDeleteTableName', t.soft_delete_table_name,
+        'rowMetadataTableName', t.row_metadata_table_name,
+        'primaryKey', t.primary_key,
+        'bigQueryPartitionConfigVersion',
+          COALESCE((t.bigquery_partition_config->>'version')::bigint, 0),
+        'bigQueryPartitionConfig', t.bigquery_partition_config,
+        'columns',
+          (SELECT jsonb_agg(jsonb_build_object(
+              'id', c.id,
+              'name', c.name,
+              'type', c.type,
+              'arrayOf', c.array_of,
+              'required', c.required) ORDER BY c.ordinal)
+           FROM dataset_column c
+           WHERE c.table_id = t.id)))
+     FROM dataset_table t
+     WHERE t.dataset_id = d.id
+       AND EXISTS (SELECT 1 FROM dataset_column c WHERE c.table_id = t.id)) AS tables,
+    -- Relationships are only between tables in the same dataset, so joining on from_table is enough
+    (SELECT jsonb_agg(jsonb_build_object(
+        'id', r.id,
+        'name', r.name,
+        'fromTable', r.from_table,
+        'fromColumn', r.from_column,
+        'toTable', r.to_table,
+        'toColumn', r.to_column))
+     FROM dataset_relationship r
+       JOIN dataset_table dt ON r.from_table = dt.id
+     WHERE dt.dataset_id = d.id) AS relationships,
+    (SELECT jsonb_agg(jsonb_build_object(
+        'id', a.id,
+        'name', a.name,
+        'rootTableId', a.root_table_id,
+        'rootColumnId', a.root_column_id,
+        'columns',
+          (SELECT jsonb_agg(jsonb_build_object(
+              'id', ac.id,
+              'columnId', ac.dataset_column_id,
+              'tableId', c.table_id) ORDER BY c.ordinal)
+           FROM asset_column ac
+             JOIN dataset_column c ON ac.dataset_column_id = c.id
+           WHERE ac.asset_id = a.id),
+        'relationships',
+          (SELECT jsonb_agg(jsonb_build_object(
+              'id', ar.id,
+              'relationshipId', ar.relationship_id))
+           FROM asset_relationship ar
+           WHERE ar.asset_id = a.id)))
+     FROM asset_specification a
+     WHERE a.dataset_id = d.id) AS assets
+  FROM dataset d
+  WHERE d.id = :id
+  """;
+
   @Autowired
   public DatasetDao(
       NamedParameterJdbcTemplate jdbcTemplate,
@@ -127,7 +194,9 @@ public class DatasetDao implements TaggableResourceDao {
       StorageResourceDao storageResourceDao,
       JournalService journalService,
       @Qualifier("daoObjectMapper") ObjectMapper objectMapper,
-      DataRepoJdbcConfiguration jdbcConfiguration)
+      DataRepoJdbcConfiguration jdbcConfiguration,
+      DatasetSchemaCache schemaCache,
+      MetadataReadRouter readRouter)
       throws SQLException {
     this.jdbcTemplate = jdbcTemplate;
     this.tableDao = tableDao;
@@ -139,6 +208,8 @@ public class DatasetDao implements TaggableResourceDao {
     this.journalService = journalService;
     this.objectMapper = objectMapper;
     this.jdbcDataSource = jdbcConfiguration.getDataSource();
+    this.schemaCache = schemaCache;
+    this.readRouter = readRouter;
   }
 
   @Override
@@ -151,6 +222,11 @@ public class DatasetDao implements TaggableResourceDao {
     return jdbcDataSource;
   }
 
+  @Override
+  public MetadataReadRouter getReadRouter() {
+    return readRouter;
+  }
+
   @Override
   public String getTable() {
     return TABLE_NAME;
@@ -480,6 +556,7 @@ public class DatasetDao implements TaggableResourceDao {
     int rowsAffected =
         jdbcTemplate.update(
             "DELETE FROM dataset WHERE id = :id", new MapSqlParameterSource().addValue("id", id));
+    schemaCache.invalidate(id);
     return rowsAffected > 0;
   }
 
@@ -507,17 +584,12 @@ public class DatasetDao implements TaggableResourceDao {
     Dataset dataset = null;
     try {
       if (summary != null) {
-        summary.storage(storageResourceDao.getStorageResourcesByDatasetId(summary.getId()));
+        // The summary already holds the storage resources, and the schema is loaded in one query
+        // only when the cached one is older than the summary's schema version.
         dataset = new Dataset(summary);
-        dataset.tables(tableDao.retrieveTables(dataset.getId()));
-        if (retrieveRelationship) {
-          // This query is costly and should only be run when necessary.
-          relationshipDao.retrieve(dataset);
-        }
-        if (retrieveAsset) {
-          // This query is costly and should only be run when necessary.
-          assetDao.retrieve(dataset);
-        }
+        schemaCache
+            .get(summary.getId(), summary.getSchemaVersion(), () -> retrieveSchema(summary.getId()))
+            .applyTo(dataset, retrieveRelationship, retrieveAsset);
         // Retrieve the project and application deployment resource associated with the dataset
         // This is a bit sketchy filling in the object via a dao in another package.
         // It seemed like the cleanest thing to me at the time.
@@ -537,6 +609,54 @@ public class DatasetDao implements TaggableResourceDao {
     }
   }
 
+  private DatasetSchema retrieveSchema(UUID id) {
+    MapSqlParameterSource params = new MapSqlParameterSource().addValue("id", id);
+    try {
+      return jdbcTemplate.queryForObject(
+          sqlSelectSchema,
+          params,
+          (rs, rowNum) -> {
+            DatasetSchema schema =
+                new DatasetSchema(
+                    id,
+                    rs.getLong("schema_version"),
+                    readSchemaPart(
+                        id, rs, "tables", new TypeReference<List<DatasetSchema.TableRow>>() {}),
+                    readSchemaPart(
+                        id,
+                        rs,
+                        "relationships",
+                        new TypeReference<List<DatasetSchema.RelationshipRow>>() {}),
+                    readSchemaPart(
+                        id, rs, "assets", new TypeReference<List<DatasetSchema.AssetRow>>() {}));
+            for (DatasetSchema.TableRow table : schema.tables()) {
+              if (table.bigQueryPartitionConfigVersion() != 1) {
+                throw new CorruptMetadataException(
+                    "Unknown BigQuery partition config version: "
+                        + table.bigQueryPartitionConfigVersion());
+              }
+            }
+            return schema;
+          });
+    } catch (EmptyResultDataAccessException ex) {
+      throw new DatasetNotFoundException("Dataset not found for id " + id);
+    }
+  }
+
+  private <T> List<T> readSchemaPart(
+      UUID id, ResultSet rs, String column, TypeReference<List<T>> type) throws SQLException {
+    String json = rs.getString(column);
+    if (json == null) {
+      return List.of();
+    }
+    try {
+      return objectMapper.readValue(json, type);
+    } catch (JsonProcessingException e) {
+      throw new CorruptMetadataException(
+          String.format("Invalid %s for dataset - id: %s", column, id), e);
+    }
+  }
+
   /**
    * Retrieves a DatasetSummary object from the dataset id.
    *
@@ -591,10 +711,6 @@ public class DatasetDao implements TaggableResourceDao {
    *     service)
    * @return a list of dataset summary objects
    */
-  @Transactional(
-      readOnly = true,
-      propagation = Propagation.REQUIRED,
-      isolation = Isolation.SERIALIZABLE)
   public MetadataEnumeration<DatasetSummary> enumerate(
       int offset,
       int limit,
@@ -604,6 +720,30 @@ public class DatasetDao implements TaggableResourceDao {
       String region,
       Collection<UUID> accessibleDatasetIds,
       List<String> tags) {
+    return readRouter.read(
+        template ->
+            enumerate(
+                template,
+                offset,
+                limit,
+                sort,
+                direction,
+                filter,
+                region,
+                accessibleDatasetIds,
+                tags));
+  }
+
+  private MetadataEnumeration<DatasetSummary> enumerate(
+      NamedParameterJdbcTemplate template,
+      int offset,
+      int limit,
+      EnumerateSortByParam sort,
+      SqlSortDirection direction,
+      String filter,
+      String region,
+      Collection<UUID> accessibleDatasetIds,
+      List<String> tags) {
     MapSqlParameterSource params = new MapSqlParameterSource();
     List<String> whereClauses = new ArrayList<>();
     DaoUtils.addAuthzIdsClause(accessibleDatasetIds, params, whereClauses, TABLE_NAME);
@@ -611,7 +751,7 @@ public class DatasetDao implements TaggableResourceDao {
     // get total count of objects
     String countSql =
         "SELECT count(id) AS total FROM dataset WHERE " + StringUtils.join(whereClauses, " AND ");
-    Integer total = jdbcTemplate.queryForObject(countSql, params, Integer.class);
+    Integer total = template.queryForObject(countSql, params, Integer.class);
     if (total == null) {
       throw new CorruptMetadataException("Impossible null value from total count");
     }
@@ -635,7 +775,7 @@ public class DatasetDao implements TaggableResourceDao {
     String filteredTotalSql =
         "SELECT count(id) AS total FROM dataset WHERE " + StringUtils.join(whereClauses, " AND ");
 
-    Integer filteredTotal = jdbcTemplate.queryForObject(filteredTotalSql, params, Integer.class);
+    Integer filteredTotal = template.queryForObject(filteredTotalSql, params, Integer.class);
     if (filteredTotal == null) {
       throw new CorruptMetadataException("Impossible null value from filtered count");
     }
@@ -651,7 +791,7 @@ public class DatasetDao implements TaggableResourceDao {
             + DaoUtils.orderByClause(sort, direction, TABLE_NAME)
             + " OFFSET :offset LIMIT :limit";
     params.addValue("offset", offset).addValue("limit", limit);
-    List<DatasetSummary> summaries = jdbcTemplate.query(sql, params, new DatasetSummaryMapper());
+    List<DatasetSummary> summaries = template.query(sql, params, new DatasetSummaryMapper());
 
     return new MetadataEnumeration<DatasetSummary>()
         .items(summaries)
@@ -717,7 +857,8 @@ public class DatasetDao implements TaggableResourceDao {
           .properties(properties)
           .tags(DaoUtils.getStringList(rs, "tags"))
           .resourceLocks(
-              new ResourceLocks().exclusive(rs.getString("flightid")).shared(sharedLocks));
+              new ResourceLocks().exclusive(rs.getString("flightid")).shared(sharedLocks))
+          .schemaVersion(rs.getLong("schema_version"));
     }
   }
 
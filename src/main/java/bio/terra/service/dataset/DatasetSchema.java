@@ -0,0 +1,185 @@
+package bio.terra.service.dataset;
+
+import bio.terra.common.Column;
+import bio.terra.common.Relationship;
+import bio.terra.model.TableDataType;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The tables, relationships and assets of a dataset at one schema version, as loaded by {@link
+ * DatasetDao} in a single query. It is immutable so that it can be cached and shared between
+ * threads; {@link #applyTo} builds new model objects from it for each retrieved dataset, since
+ * callers are free to modify those.
+ */
+record DatasetSchema(
+    UUID datasetId,
+    long version,
+    List<TableRow> tables,
+    List<RelationshipRow> relationships,
+    List<AssetRow> assets) {
+
+  DatasetSchema {
+    // Tables are ordered by id, as DatasetTableDao.retrieveTables returns them
+    tables =
+        tables == null
+            ? List.of()
+            : tables.stream().sorted(Comparator.comparing(TableRow::id)).toList();
+    relationships = copyOf(relationships);
+    assets = copyOf(assets);
+  }
+
+  record TableRow(
+      UUID id,
+      String name,
+      String rawTableName,
+      String softDeleteTableName,
+      String rowMetadataTableName,
+      List<String> primaryKey,
+      long bigQueryPartitionConfigVersion,
+      BigQueryPartitionConfigV1 bigQueryPartitionConfig,
+      List<ColumnRow> columns) {
+
+    TableRow {
+      primaryKey = copyOf(primaryKey);
+      columns = copyOf(columns);
+    }
+
+    DatasetTable toDatasetTable() {
+      DatasetTable table =
+          new DatasetTable()
+              .id(id)
+              .name(name)
+              .rawTableName(rawTableName)
+              .softDeleteTableName(softDeleteTableName)
+              .rowMetadataTableName(rowMetadataTableName)
+              .bigQueryPartitionConfig(bigQueryPartitionConfig)
+              .columns(new ArrayList<>());
+      columns.forEach(column -> table.getColumns().add(column.toColumn(table)));
+      // Validation is done on table creation and primary key columns cannot be removed, so every
+      // primary key column is found.
+      table.primaryKey(
+          primaryKey.stream()
+              .map(columnName -> table.getColumnByName(columnName).orElse(null))
+              .collect(Collectors.toCollection(ArrayList::new)));
+      return table;
+    }
+  }
+
+  record ColumnRow(UUID id, String name, String type, boolean arrayOf, boolean required) {
+    Column toColumn(DatasetTable table) {
+      return new Column()
+          .id(id)
+          .table(table)
+          .name(name)
+          .type(TableDataType.fromValue(type))
+          .arrayOf(arrayOf)
+          .required(required);
+    }
+  }
+
+  /**
+   * Relationships are assumed to exist only between tables in the same dataset, so both ends are
+   * found among the dataset's tables.
+   */
+  record RelationshipRow(
+      UUID id, String name, UUID fromTable, UUID fromColumn, UUID toTable, UUID toColumn) {
+    Relationship toRelationship(
+        Map<UUID, DatasetTable> tablesById, Map<UUID, Column> columnsById) {
+      return new Relationship()
+          .id(id)
+          .name(name)
+          .fromTable(tablesById.get(fromTable))
+          .fromColumn(columnsById.get(fromColumn))
+          .toTable(tablesById.get(toTable))
+          .toColumn(columnsById.get(toColumn));
+    }
+  }
+
+  record AssetRow(
+      UUID id,
+      String name,
+      UUID rootTableId,
+      UUID rootColumnId,
+      List<AssetColumnRow> columns,
+      List<AssetRelationshipRow> relationships) {
+
+    AssetRow {
+      columns = copyOf(columns);
+      relationships = copyOf(relationships);
+    }
+
+    AssetSpecification toAssetSpecification(
+        Map<UUID, DatasetTable> tablesById,
+        Map<UUID, Column> columnsById,
+        Map<UUID, Relationship> relationshipsById) {
+      AssetSpecification spec = new AssetSpecification().id(id).name(name);
+      Map<UUID, AssetTable> assetTables = new LinkedHashMap<>();
+      for (AssetColumnRow columnRow : columns) {
+        AssetTable assetTable =
+            assetTables.computeIfAbsent(
+                columnRow.tableId(),
+                tableId -> new AssetTable().datasetTable(tablesById.get(tableId)));
+        AssetColumn column =
+            new AssetColumn()
+                .id(columnRow.id())
+                .datasetColumn(columnsById.get(columnRow.columnId()));
+        // check to see if this table and column are the root values
+        if (rootTableId.equals(columnRow.tableId()) && rootColumnId.equals(columnRow.columnId())) {
+          spec.rootTable(assetTable);
+          spec.rootColumn(column);
+        }
+        assetTable.getColumns().add(column);
+      }
+      spec.assetTables(List.copyOf(assetTables.values()));
+      spec.assetRelationships(
+          relationships.stream()
+              .map(
+                  relationshipRow ->
+                      new AssetRelationship()
+                          .id(relationshipRow.id())
+                          .datasetRelationship(
+                              relationshipsById.get(relationshipRow.relationshipId())))
+              .collect(Collectors.toCollection(ArrayList::new)));
+      return spec;
+    }
+  }
+
+  record AssetColumnRow(UUID id, UUID columnId, UUID tableId) {}
+
+  record AssetRelationshipRow(UUID id, UUID relationshipId) {}
+
+  /**
+   * Fill in the tables of a dataset and, if asked for, its relationships and assets. The asset
+   * relationships of assets retrieved without relationships have no dataset relationship.
+   */
+  void applyTo(Dataset dataset, boolean withRelationships, boolean withAssets) {
+    dataset.tables(tables.stream().map(TableRow::toDatasetTable).toList());
+    Map<UUID, DatasetTable> tablesById = dataset.getTablesById();
+    Map<UUID, Column> columnsById = dataset.getAllColumnsById();
+    if (withRelationships) {
+      dataset.relationships(
+          relationships.stream()
+              .map(relationship -> relationship.toRelationship(tablesById, columnsById))
+              .toList());
+    }
+    if (withAssets) {
+      Map<UUID, Relationship> relationshipsById = dataset.getRelationshipsById();
+      dataset.assetSpecifications(
+          assets.stream()
+              .map(
+                  asset -> asset.toAssetSpecification(tablesById, columnsById, relationshipsById))
+              .toList());
+    }
+  }
+
+  /** Aggregates over no rows are null. */
+  private static <T> List<T> copyOf(List<T> list) {
+    return list == null ? List.of() : List.copyOf(list);
+  }
+}
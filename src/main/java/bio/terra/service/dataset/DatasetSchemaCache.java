@@ -0,0 +1,66 @@
+package bio.terra.service.dataset;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of dataset schemas - tables, columns, relationships and assets - so that retrieving a
+ * dataset, which happens on nearly every request and in many flight steps, does not load its whole
+ * schema each time.
+ *
+ * <p>Each schema is cached with the dataset's schema version, which every schema change advances
+ * in the database (see {@link DatasetSchemaVersionDao}). A cached schema is only used if it is at
+ * least as new as the version a caller read from the dataset row, so a schema changed by a flight
+ * on another instance is never served stale. Schemas are dropped when their dataset is deleted.
+ */
+@Component
+public class DatasetSchemaCache {
+  @VisibleForTesting static final String CACHE_NAME = "datarepo.dataset.schemas";
+  @VisibleForTesting static final int MAX_SIZE = 1_000;
+
+  private final Cache<UUID, DatasetSchema> schemas;
+
+  public DatasetSchemaCache(MeterRegistry meterRegistry) {
+    schemas = Caffeine.newBuilder().maximumSize(MAX_SIZE).recordStats().build();
+    CaffeineCacheMetrics.monitor(meterRegistry, schemas, CACHE_NAME);
+  }
+
+  /**
+   * Return the cached schema of a dataset if it is current, or load and cache it.
+   *
+   * @param datasetId the dataset id
+   * @param version the dataset's schema version, as read from the dataset row
+   * @param loader loads the schema; the version it loads may be newer than {@code version}
+   */
+  DatasetSchema get(UUID datasetId, long version, Supplier<DatasetSchema> loader) {
+    DatasetSchema cached = schemas.getIfPresent(datasetId);
+    if (cached != null && cached.version() >= version) {
+      return cached;
+    }
+    DatasetSchema loaded = loader.get();
+    // A concurrent load may have cached a newer version; keep whichever is newest
+    schemas
+        .asMap()
+        .merge(
+            datasetId,
+            loaded,
+            (existing, replacement) ->
+                replacement.version() >= existing.version() ? replacement : existing);
+    return loaded;
+  }
+
+  /**
+   * Drop the cached schema of a dataset, after it is deleted.
+   *
+   * @param datasetId the dataset id
+   */
+  public void invalidate(UUID datasetId) {
+    schemas.invalidate(datasetId);
+  }
+}
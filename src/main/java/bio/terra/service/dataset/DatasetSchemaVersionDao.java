@@ -0,0 +1,70 @@
+package bio.terra.service.dataset;
+
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Advances the schema version of a dataset. Every change to a dataset's tables, columns,
+ * relationships or assets must advance it in the same transaction, so that a schema cached in
+ * {@link DatasetSchemaCache} under an older version is never used again, on this instance or any
+ * other.
+ */
+@Repository
+public class DatasetSchemaVersionDao {
+
+  private static final String sqlAdvance =
+      "UPDATE dataset SET schema_version = schema_version + 1 WHERE id = :dataset_id";
+
+  private static final String sqlAdvanceForTable =
+      """
+  UPDATE dataset SET schema_version = schema_version + 1
+  WHERE id = (SELECT dataset_id FROM dataset_table WHERE id = :table_id)
+  """;
+
+  private static final String sqlAdvanceForRelationship =
+      """
+  UPDATE dataset SET schema_version = schema_version + 1
+  WHERE id = (SELECT dt.dataset_id
+              FROM dataset_relationship r
+                JOIN dataset_table dt ON r.from_table = dt.id
+              WHERE r.id = :relationship_id)
+  """;
+
+  private static final String sqlAdvanceForAsset =
+      """
+  UPDATE dataset SET schema_version = schema_version + 1
+  WHERE id = (SELECT dataset_id FROM asset_specification WHERE id = :asset_id)
+  """;
+
+  private final NamedParameterJdbcTemplate jdbcTemplate;
+
+  @Autowired
+  public DatasetSchemaVersionDao(NamedParameterJdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void advance(UUID datasetId) {
+    jdbcTemplate.update(sqlAdvance, new MapSqlParameterSource().addValue("dataset_id", datasetId));
+  }
+
+  public void advanceForTable(UUID tableId) {
+    jdbcTemplate.update(
+        sqlAdvanceForTable, new MapSqlParameterSource().addValue("table_id", tableId));
+  }
+
+  /** Must be called before the relationship is deleted, while it can still be found. */
+  public void advanceForRelationship(UUID relationshipId) {
+    jdbcTemplate.update(
+        sqlAdvanceForRelationship,
+        new MapSqlParameterSource().addValue("relationship_id", relationshipId));
+  }
+
+  /** Must be called before the asset is deleted, while it can still be found. */
+  public void advanceForAsset(UUID assetId) {
+    jdbcTemplate.update(
+        sqlAdvanceForAsset, new MapSqlParameterSource().addValue("asset_id", assetId));
+  }
+}
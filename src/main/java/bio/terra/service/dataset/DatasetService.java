@@ -74,6 +74,9 @@ import bio.terra.service.resourcemanagement.MetadataDataAccessUtils;
 import bio.terra.service.resourcemanagement.ResourceService;
 import bio.terra.service.resourcemanagement.azure.AzureStorageAccountResource;
 import bio.terra.service.snapshot.exception.AssetNotFoundException;
+import bio.terra.service.tabulardata.DataPageToken;
+import bio.terra.service.tabulardata.DataResultModel;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.azure.StorageTableService;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDataResultModel;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDatasetPdao;
@@ -118,6 +121,7 @@ public class DatasetService {
   private final DatasetTableDao datasetTableDao;
   private final AzureSynapsePdao azureSynapsePdao;
   private final MetadataDataAccessUtils metadataDataAccessUtils;
+  private final TableDataCache tableDataCache;
 
   @Autowired
   public DatasetService(
@@ -138,7 +142,8 @@ public class DatasetService {
       IamService iamService,
       DatasetTableDao datasetTableDao,
       AzureSynapsePdao azureSynapsePdao,
-      MetadataDataAccessUtils metadataDataAccessUtils) {
+      MetadataDataAccessUtils metadataDataAccessUtils,
+      TableDataCache tableDataCache) {
     this.datasetJsonConversion = datasetJsonConversion;
     this.datasetDao = datasetDao;
     this.jobService = jobService;
@@ -157,6 +162,7 @@ public class DatasetService {
     this.datasetTableDao = datasetTableDao;
     this.azureSynapsePdao = azureSynapsePdao;
     this.metadataDataAccessUtils = metadataDataAccessUtils;
+    this.tableDataCache = tableDataCache;
   }
 
   public String createDataset(
@@ -509,7 +515,8 @@ public class DatasetService {
       int offset,
       String sort,
       SqlSortDirection direction,
-      String filter) {
+      String filter,
+      String pageToken) {
     Dataset dataset = retrieve(datasetId);
 
     DatasetTable table =
@@ -531,22 +538,65 @@ public class DatasetService {
                       "No dataset table column exists with the name: " + sort));
     }
 
+    return tableDataCache.getDatasetResult(
+        datasetId,
+        Arrays.asList("data", tableName, limit, offset, sort, direction, filter, pageToken),
+        () ->
+            queryData(
+                userRequest,
+                dataset,
+                table,
+                tableName,
+                limit,
+                offset,
+                sort,
+                direction,
+                filter,
+                pageToken));
+  }
+
+  private DatasetDataModel queryData(
+      AuthenticatedUserRequest userRequest,
+      Dataset dataset,
+      DatasetTable table,
+      String tableName,
+      int limit,
+      int offset,
+      String sort,
+      SqlSortDirection direction,
+      String filter,
+      String pageToken) {
+    // Rows are paged by keyset unless the caller asks to skip rows without a page token
+    boolean pageByOffset = offset > 0 && StringUtils.isEmpty(pageToken);
+    DataPageToken token =
+        pageByOffset ? null : DataPageToken.decode(pageToken, sort, direction, filter);
+    UUID afterRowId = token == null ? null : token.afterRowId();
+
     var cloudPlatformWrapper = CloudPlatformWrapper.of(dataset.getCloudPlatform());
 
     if (cloudPlatformWrapper.isGcp()) {
       try {
         List<String> columns = datasetTableDao.retrieveColumnNames(table, true);
         List<BigQueryDataResultModel> values =
-            BigQueryPdao.getTable(
-                dataset, tableName, columns, limit, offset, sort, direction, filter);
-        return new DatasetDataModel()
-            .result(
-                List.copyOf(values.stream().map(BigQueryDataResultModel::getRowResult).toList()))
-            .totalRowCount(
-                values.isEmpty()
-                    ? BigQueryPdao.getTableTotalRowCount(dataset, tableName)
-                    : values.get(0).getTotalCount())
-            .filteredRowCount(values.isEmpty() ? 0 : values.get(0).getFilteredCount());
+            pageByOffset
+                ? BigQueryPdao.getTable(
+                    dataset, tableName, columns, limit, offset, sort, direction, filter)
+                : BigQueryPdao.getTablePage(
+                    dataset, tableName, columns, limit, sort, direction, filter, afterRowId);
+        DatasetDataModel dataModel =
+            new DatasetDataModel()
+                .result(
+                    List.copyOf(
+                        values.stream().map(BigQueryDataResultModel::getRowResult).toList()));
+        if (token == null) {
+          dataModel
+              .totalRowCount(
+                  values.isEmpty()
+                      ? BigQueryPdao.getTableTotalRowCount(dataset, tableName)
+                      : values.get(0).getTotalCount())
+              .filteredRowCount(values.isEmpty() ? 0 : values.get(0).getFilteredCount());
+        }
+        return withPageCounts(dataModel, token, pageByOffset, sort, direction, filter, values);
       } catch (InterruptedException e) {
         throw new DatasetDataException("Error retrieving data for dataset " + dataset.getName(), e);
       }
@@ -556,30 +606,78 @@ public class DatasetService {
       String datasourceName = getOrCreateExternalAzureDataSource(dataset, userRequest);
 
       List<SynapseDataResultModel> values =
-          azureSynapsePdao.getTableData(
-              table,
-              tableName,
-              datasourceName,
-              sourceParquetFilePath,
-              limit,
-              offset,
-              sort,
-              direction,
-              filter,
-              CollectionType.DATASET);
-      return new DatasetDataModel()
-          .result(List.copyOf(values.stream().map(SynapseDataResultModel::getRowResult).toList()))
-          .totalRowCount(
-              values.isEmpty()
-                  ? azureSynapsePdao.getTableTotalRowCount(
-                      tableName, datasourceName, sourceParquetFilePath)
-                  : values.get(0).getTotalCount())
-          .filteredRowCount(values.isEmpty() ? 0 : values.get(0).getFilteredCount());
+          pageByOffset
+              ? azureSynapsePdao.getTableData(
+                  table,
+                  tableName,
+                  datasourceName,
+                  sourceParquetFilePath,
+                  limit,
+                  offset,
+                  sort,
+                  direction,
+                  filter,
+                  CollectionType.DATASET)
+              : azureSynapsePdao.getTableDataPage(
+                  table,
+                  tableName,
+                  datasourceName,
+                  sourceParquetFilePath,
+                  limit,
+                  sort,
+                  direction,
+                  filter,
+                  CollectionType.DATASET,
+                  afterRowId);
+      DatasetDataModel dataModel =
+          new DatasetDataModel()
+              .result(
+                  List.copyOf(values.stream().map(SynapseDataResultModel::getRowResult).toList()));
+      if (token == null) {
+        dataModel
+            .totalRowCount(
+                values.isEmpty()
+                    ? azureSynapsePdao.getTableTotalRowCount(
+                        tableName, datasourceName, sourceParquetFilePath)
+                    : values.get(0).getTotalCount())
+            .filteredRowCount(values.isEmpty() ? 0 : values.get(0).getFilteredCount());
+      }
+      return withPageCounts(dataModel, token, pageByOffset, sort, direction, filter, values);
     } else {
       throw new DatasetDataException("Cloud not supported");
     }
   }
 
+  /**
+   * Fill in the row counts carried by the page token for pages after the first, and the token for
+   * the next page when paging by keyset.
+   */
+  private DatasetDataModel withPageCounts(
+      DatasetDataModel dataModel,
+      DataPageToken token,
+      boolean pageByOffset,
+      String sort,
+      SqlSortDirection direction,
+      String filter,
+      List<? extends DataResultModel> values) {
+    if (token != null) {
+      token.checkPageRead(values);
+      dataModel.totalRowCount(token.totalRowCount()).filteredRowCount(token.filteredRowCount());
+    }
+    if (pageByOffset) {
+      return dataModel;
+    }
+    return dataModel.nextPageToken(
+        DataPageToken.next(
+            token,
+            sort,
+            direction,
+            filter,
+            values,
+            dataModel.getFilteredRowCount(),
+            dataModel.getTotalRowCount()));
+  }
+
   public ColumnStatisticsModel retrieveColumnStatistics(
       AuthenticatedUserRequest userRequest,
       UUID datasetId,
@@ -590,6 +688,18 @@ public class DatasetService {
 
     Column column = dataset.getColumn(tableName, columnName);
 
+    return tableDataCache.getDatasetResult(
+        datasetId,
+        Arrays.asList("columnStatistics", tableName, columnName, filter),
+        () -> queryColumnStatistics(userRequest, dataset, tableName, column, filter));
+  }
+
+  private ColumnStatisticsModel queryColumnStatistics(
+      AuthenticatedUserRequest userRequest,
+      Dataset dataset,
+      String tableName,
+      Column column,
+      String filter) {
     var cloudPlatformWrapper = CloudPlatformWrapper.of(dataset.getCloudPlatform());
 
     if (cloudPlatformWrapper.isGcp()) {
@@ -37,6 +37,7 @@ public class DatasetSummary {
   private boolean predictableFileIds;
   private List<String> tags;
   private ResourceLocks resourceLocks;
+  private long schemaVersion;
 
   public UUID getId() {
     return id;
@@ -253,6 +254,16 @@ public class DatasetSummary {
     return this;
   }
 
+  /** Advanced by every change to the dataset's tables, columns, relationships or assets. */
+  public long getSchemaVersion() {
+    return schemaVersion;
+  }
+
+  public DatasetSummary schemaVersion(long schemaVersion) {
+    this.schemaVersion = schemaVersion;
+    return this;
+  }
+
   public DatasetSummaryModel toModel() {
     return new DatasetSummaryModel()
         .id(getId())
@@ -92,15 +92,18 @@ public class DatasetTableDao {
   private final DataSource jdbcDataSource;
   private final NamedParameterJdbcTemplate jdbcTemplate;
   private final ObjectMapper objectMapper;
+  private final DatasetSchemaVersionDao schemaVersionDao;
 
   @Autowired
   public DatasetTableDao(
       DataRepoJdbcConfiguration jdbcConfiguration,
       NamedParameterJdbcTemplate jdbcTemplate,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      DatasetSchemaVersionDao schemaVersionDao) {
     this.jdbcDataSource = jdbcConfiguration.getDataSource();
     this.jdbcTemplate = jdbcTemplate;
     this.objectMapper = objectMapper;
+    this.schemaVersionDao = schemaVersionDao;
   }
 
   // Assumes transaction propagation from parent's create
@@ -134,6 +137,7 @@ public class DatasetTableDao {
       table.id(tableId);
       createColumnsNewTable(tableId, table.getColumns());
     }
+    schemaVersionDao.advance(parentId);
   }
 
   public void removeTables(UUID parentId, List<String> tableNames) {
@@ -149,6 +153,7 @@ public class DatasetTableDao {
       params.addValue("dataset_id", parentId);
       jdbcTemplate.update(sqlDeleteTable, params);
     }
+    schemaVersionDao.advance(parentId);
   }
 
   private void createColumnsNewTable(UUID tableId, Collection<Column> columns) {
@@ -160,6 +165,7 @@ public class DatasetTableDao {
     params.addValue("table_id", tableId);
     Integer maxOrdinal = jdbcTemplate.queryForObject(sqlGetMaxColumnOrdinal, params, Integer.class);
     createColumns(tableId, columns, Objects.requireNonNullElse(maxOrdinal, 0) + 1);
+    schemaVersionDao.advanceForTable(tableId);
   }
 
   private void createColumns(UUID tableId, Collection<Column> columns, int ordinal) {
@@ -188,6 +194,7 @@ public class DatasetTableDao {
       params.addValue("column_id", column.getId());
       jdbcTemplate.update(sqlDeleteColumn, params);
     }
+    schemaVersionDao.advanceForTable(table.getId());
   }
 
   private void removeColumns(UUID datasetId, UUID tableId, Collection<Column> columns) {
@@ -16,6 +16,8 @@ public final class DatasetWorkingMapKeys extends ProjectCreatingFlightKeys {
   public static final String STORAGE_ACCOUNT_RESOURCE_ID = "storageAccountResourceId";
   public static final String SERVICE_ACCOUNT_EMAIL = "serviceAccountEmail";
   public static final String SECURE_MONITORING_ENABLED = "secureMonitoringEnabled";
+  public static final String BIGQUERY_DATASET_DELETED = "bigQueryDatasetDeleted";
+  public static final String FILE_METADATA_DELETED = "fileMetadataDeleted";
 
   public static final String IS_SHARED_LOCK = "isSharedLock";
 }
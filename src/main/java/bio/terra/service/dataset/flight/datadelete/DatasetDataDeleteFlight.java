@@ -22,6 +22,8 @@ import bio.terra.service.filedata.google.gcs.GcsPdao;
 import bio.terra.service.job.JobMapKeys;
 import bio.terra.service.journal.JournalService;
 import bio.terra.service.resourcemanagement.ResourceService;
+import bio.terra.service.tabulardata.InvalidateTableDataCacheStep;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDatasetPdao;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryTransactionPdao;
 import bio.terra.stairway.Flight;
@@ -46,6 +48,7 @@ public class DatasetDataDeleteFlight extends Flight {
     ResourceService resourceService = appContext.getBean(ResourceService.class);
     GcsPdao gcsPdao = appContext.getBean(GcsPdao.class);
     JournalService journalService = appContext.getBean(JournalService.class);
+    TableDataCache tableDataCache = appContext.getBean(TableDataCache.class);
 
     // get data from inputs that steps need
     String datasetId = inputParameters.get(JobMapKeys.DATASET_ID.getKeyName(), String.class);
@@ -122,6 +125,8 @@ public class DatasetDataDeleteFlight extends Flight {
           randomBackoffRetry);
     }
 
+    addStep(new InvalidateTableDataCacheStep(tableDataCache, UUID.fromString(datasetId)));
+
     // unlock
     addStep(
         new UnlockDatasetStep(datasetService, UUID.fromString(datasetId), true), lockDatasetRetry);
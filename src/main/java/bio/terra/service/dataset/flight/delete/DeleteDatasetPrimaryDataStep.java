@@ -2,6 +2,8 @@ package bio.terra.service.dataset.flight.delete;
 
 import bio.terra.service.dataset.Dataset;
 import bio.terra.service.dataset.DatasetService;
+import bio.terra.service.dataset.flight.DatasetWorkingMapKeys;
+import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
 import bio.terra.service.filedata.google.firestore.FireStoreDao;
 import bio.terra.service.filedata.google.gcs.GcsPdao;
 import bio.terra.service.job.DefaultUndoStep;
@@ -10,6 +12,7 @@ import bio.terra.service.tabulardata.google.bigquery.BigQueryDatasetPdao;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
 import java.util.UUID;
 import org.springframework.http.HttpStatus;
 
@@ -37,11 +40,28 @@ public class DeleteDatasetPrimaryDataStep extends DefaultUndoStep {
   @Override
   public StepResult doStep(FlightContext context) throws InterruptedException {
     Dataset dataset = datasetService.retrieve(datasetId);
-    bigQueryDatasetPdao.deleteDataset(dataset);
-    fileDao.deleteFilesFromDataset(dataset, gcsPdao::deleteFile);
-
     FlightMap map = context.getWorkingMap();
+    // Each part of the delete is recorded in the working map once it is done, so that a retry
+    // resumes with the part that failed instead of scanning everything again
+    try {
+      if (!isDone(map, DatasetWorkingMapKeys.BIGQUERY_DATASET_DELETED)) {
+        bigQueryDatasetPdao.deleteDataset(dataset);
+        map.put(DatasetWorkingMapKeys.BIGQUERY_DATASET_DELETED, true);
+      }
+      if (!isDone(map, DatasetWorkingMapKeys.FILE_METADATA_DELETED)) {
+        fileDao.deleteFileMetadataFromDataset(dataset, gcsPdao::deleteFile);
+        map.put(DatasetWorkingMapKeys.FILE_METADATA_DELETED, true);
+      }
+      fileDao.deleteDirectoryEntriesFromDataset(dataset);
+    } catch (FileSystemAbortTransactionException ex) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, ex);
+    }
+
     map.put(JobMapKeys.STATUS_CODE.getKeyName(), HttpStatus.NO_CONTENT);
     return StepResult.getStepResultSuccess();
   }
+
+  private static boolean isDone(FlightMap map, String key) {
+    return Boolean.TRUE.equals(map.get(key, Boolean.class));
+  }
 }
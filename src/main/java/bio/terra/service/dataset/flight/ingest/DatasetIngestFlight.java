@@ -61,6 +61,8 @@ import bio.terra.service.resourcemanagement.azure.AzureContainerPdao;
 import bio.terra.service.resourcemanagement.azure.AzureMonitoringService;
 import bio.terra.service.resourcemanagement.flight.AzureStorageMonitoringStepProvider;
 import bio.terra.service.resourcemanagement.google.GoogleProjectService;
+import bio.terra.service.tabulardata.InvalidateTableDataCacheStep;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.azure.StorageTableService;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDatasetPdao;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryTransactionPdao;
@@ -98,7 +100,9 @@ public class DatasetIngestFlight extends Flight {
     FileService fileService = appContext.getBean(FileService.class);
     GcsPdao gcsPdao = appContext.getBean(GcsPdao.class);
     JournalService journalService = appContext.getBean(JournalService.class);
+    TableDataCache tableDataCache = appContext.getBean(TableDataCache.class);
     AzureMonitoringService monitoringService = appContext.getBean(AzureMonitoringService.class);
+    ExecutorService executor = appContext.getBean("performanceThreadpool", ExecutorService.class);
 
     IngestRequestModel ingestRequestModel =
         inputParameters.get(JobMapKeys.REQUEST.getKeyName(), IngestRequestModel.class);
@@ -265,7 +269,9 @@ public class DatasetIngestFlight extends Flight {
               datasetService,
               bigQueryDatasetPdao,
               IngestUtils.shouldIgnoreUserSpecifiedRowIds(inputParameters)));
-      addStep(new IngestValidateGcpRefsStep(datasetService, bigQueryDatasetPdao, fileDao));
+      addStep(
+          new IngestValidateGcpRefsStep(
+              configService, datasetService, bigQueryDatasetPdao, fileDao, executor));
       // Loads data into the final target raw data table
       addStep(
           new IngestInsertIntoDatasetTableStep(
@@ -284,7 +290,12 @@ public class DatasetIngestFlight extends Flight {
       addStep(new IngestValidateScratchTableStep(azureSynapsePdao, datasetService));
       addStep(
           new IngestValidateScratchTableFilerefsStep(
-              azureAuthService, datasetService, azureSynapsePdao, tableDirectoryDao));
+              configService,
+              azureAuthService,
+              datasetService,
+              azureSynapsePdao,
+              tableDirectoryDao,
+              executor));
       addStep(
           new IngestCreateParquetFilesStep(
               azureSynapsePdao, azureBlobStorePdao, datasetService, userReq));
@@ -308,6 +319,7 @@ public class DatasetIngestFlight extends Flight {
             randomBackoffRetry);
       }
     }
+    addStep(new InvalidateTableDataCacheStep(tableDataCache, datasetId));
     addStep(new UnlockDatasetStep(datasetService, datasetId, useSharedLock), lockDatasetRetry);
     addStep(
         new JournalRecordUpdateEntryStep(
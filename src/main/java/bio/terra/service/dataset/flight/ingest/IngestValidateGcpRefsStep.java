@@ -2,6 +2,7 @@ package bio.terra.service.dataset.flight.ingest;
 
 import bio.terra.common.Column;
 import bio.terra.common.Table;
+import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.dataset.Dataset;
 import bio.terra.service.dataset.DatasetService;
 import bio.terra.service.filedata.google.firestore.FireStoreDao;
@@ -9,8 +10,8 @@ import bio.terra.service.tabulardata.google.bigquery.BigQueryDatasetPdao;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.StepResult;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 public class IngestValidateGcpRefsStep extends IngestValidateRefsStep {
 
@@ -19,9 +20,12 @@ public class IngestValidateGcpRefsStep extends IngestValidateRefsStep {
   private final FireStoreDao fileDao;
 
   public IngestValidateGcpRefsStep(
+      ConfigurationService configurationService,
       DatasetService datasetService,
       BigQueryDatasetPdao bigQueryDatasetPdao,
-      FireStoreDao fileDao) {
+      FireStoreDao fileDao,
+      ExecutorService executor) {
+    super(configurationService, executor);
     this.datasetService = datasetService;
     this.bigQueryDatasetPdao = bigQueryDatasetPdao;
     this.fileDao = fileDao;
@@ -33,19 +37,26 @@ public class IngestValidateGcpRefsStep extends IngestValidateRefsStep {
     Table table = IngestUtils.getDatasetTable(context, dataset);
     String stagingTableName = IngestUtils.getStagingTableName(context);
 
-    // For each fileref column, scan the staging table and build an array of file ids
-    // Then probe the file system to validate that the file exists and is part
-    // of this dataset. We check all ids and return one complete error.
+    // For each fileref column, stream the file ids out of the staging table and probe the file
+    // system in batches as they arrive, to validate that each file exists and is part of this
+    // dataset. We check ids until the configured number are invalid and return one error.
 
     Set<InvalidRefId> invalidRefIds = new HashSet<>();
+    boolean reachedMaxErrors = false;
     for (Column column : table.getColumns()) {
-      if (column.isFileOrDirRef()) {
-        List<String> refIdArray = bigQueryDatasetPdao.getRefIds(dataset, stagingTableName, column);
-        List<String> badRefIds = fileDao.validateRefIds(dataset, refIdArray);
-        badRefIds.forEach(id -> invalidRefIds.add(new InvalidRefId(id, column.getName())));
+      if (column.isFileOrDirRef() && !reachedMaxErrors) {
+        try (RefIdValidator validator =
+            newRefIdValidator(
+                batch -> fileDao.validateRefIds(dataset, batch), invalidRefIds.size())) {
+          bigQueryDatasetPdao.streamRefIds(dataset, stagingTableName, column, validator::add);
+          validator
+              .finish()
+              .forEach(id -> invalidRefIds.add(new InvalidRefId(id, column.getName())));
+          reachedMaxErrors = validator.reachedMaxErrors();
+        }
       }
     }
 
-    return handleInvalidRefs(invalidRefIds);
+    return handleInvalidRefs(invalidRefIds, reachedMaxErrors);
   }
 }
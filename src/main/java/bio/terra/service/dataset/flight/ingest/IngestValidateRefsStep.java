@@ -1,5 +1,10 @@
 package bio.terra.service.dataset.flight.ingest;
 
+import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_VALIDATE_BATCH_SIZE;
+import static bio.terra.service.configuration.ConfigEnum.REF_ID_VALIDATION_MAX_ERRORS;
+import static bio.terra.service.configuration.ConfigEnum.REF_ID_VALIDATION_PARALLELISM;
+
+import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.dataset.exception.InvalidFileRefException;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.Step;
@@ -8,11 +13,50 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 public abstract class IngestValidateRefsStep implements Step {
   private static final int MAX_ERROR_REF_IDS = 20;
 
+  private final ConfigurationService configurationService;
+  private final ExecutorService executor;
+
+  /**
+   * @param executor the shared performance thread pool, which the batches of ids are validated on
+   */
+  protected IngestValidateRefsStep(
+      ConfigurationService configurationService, ExecutorService executor) {
+    this.configurationService = configurationService;
+    this.executor = executor;
+  }
+
+  /**
+   * Make a validator for the ids of one fileref column, which stops once the configured number of
+   * invalid ids, counting those already found in other columns, is reached.
+   *
+   * @param batchValidator validates a batch of ids against the dataset's file system
+   * @param invalidIdsFound the number of invalid ids already found in other columns
+   */
+  RefIdValidator newRefIdValidator(
+      RefIdValidator.BatchValidator batchValidator, int invalidIdsFound) {
+    int maxErrors = configurationService.getParameterValue(REF_ID_VALIDATION_MAX_ERRORS);
+    return new RefIdValidator(
+        batchValidator,
+        executor,
+        configurationService.getParameterValue(FIRESTORE_VALIDATE_BATCH_SIZE),
+        configurationService.getParameterValue(REF_ID_VALIDATION_PARALLELISM),
+        Math.max(maxErrors - invalidIdsFound, 1));
+  }
+
   public StepResult handleInvalidRefs(Set<InvalidRefId> invalidRefIds) {
+    return handleInvalidRefs(invalidRefIds, false);
+  }
+
+  /**
+   * @param reachedMaxErrors true if validation stopped at the configured number of invalid ids, so
+   *     that there may be more than were found
+   */
+  public StepResult handleInvalidRefs(Set<InvalidRefId> invalidRefIds, boolean reachedMaxErrors) {
     int invalidIdCount = invalidRefIds.size();
     if (invalidIdCount != 0) {
       // Made a string buffer to appease findbugs; it saw + in the loop and said "bad!"
@@ -22,12 +66,15 @@ public abstract class IngestValidateRefsStep implements Step {
       int count = 0;
       for (InvalidRefId badId : invalidRefIds) {
         if (count >= MAX_ERROR_REF_IDS) {
-          errorMessage.append(MAX_ERROR_REF_IDS + "out of ");
+          errorMessage.append(MAX_ERROR_REF_IDS + " out of ");
           break;
         }
         errorDetails.add(badId.toString());
         count++;
       }
+      if (reachedMaxErrors) {
+        errorMessage.append("at least ");
+      }
       errorMessage.append(invalidIdCount + " returned in details)");
       throw new InvalidFileRefException(errorMessage.toString(), errorDetails);
     }
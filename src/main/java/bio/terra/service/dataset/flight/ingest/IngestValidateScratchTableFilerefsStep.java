@@ -1,8 +1,10 @@
 package bio.terra.service.dataset.flight.ingest;
 
 import bio.terra.common.Column;
+import bio.terra.common.SynapseColumn;
 import bio.terra.common.Table;
 import bio.terra.service.common.CommonMapKeys;
+import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.dataset.DatasetService;
 import bio.terra.service.filedata.azure.AzureSynapsePdao;
 import bio.terra.service.filedata.azure.tables.TableDirectoryDao;
@@ -10,9 +12,10 @@ import bio.terra.service.resourcemanagement.azure.AzureAuthService;
 import bio.terra.service.resourcemanagement.azure.AzureStorageAuthInfo;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.StepResult;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
 
 public class IngestValidateScratchTableFilerefsStep extends IngestValidateRefsStep {
 
@@ -23,10 +26,13 @@ public class IngestValidateScratchTableFilerefsStep extends IngestValidateRefsSt
 
   /** Check that all file references staged in the scratch table point to files in the dataset. */
   public IngestValidateScratchTableFilerefsStep(
+      ConfigurationService configurationService,
       AzureAuthService azureAuthService,
       DatasetService datasetService,
       AzureSynapsePdao azureSynapsePdao,
-      TableDirectoryDao tableDirectoryDao) {
+      TableDirectoryDao tableDirectoryDao,
+      ExecutorService executor) {
+    super(configurationService, executor);
     this.azureAuthService = azureAuthService;
     this.datasetService = datasetService;
     this.azureSynapsePdao = azureSynapsePdao;
@@ -41,30 +47,38 @@ public class IngestValidateScratchTableFilerefsStep extends IngestValidateRefsSt
     var storageAuthInfo =
         workingMap.get(CommonMapKeys.DATASET_STORAGE_AUTH_INFO, AzureStorageAuthInfo.class);
 
-    var tableServiceClient = azureAuthService.getTableServiceClient(storageAuthInfo);
+    var tableServiceClient = azureAuthService.getTableServiceAsyncClient(storageAuthInfo);
     Table table = IngestUtils.getDatasetTable(context, dataset);
     var scratchTableName = IngestUtils.getSynapseScratchTableName(context.getFlightId());
 
-    // For each fileref column, scan the staging table and build an array of file ids
-    // Then probe the file system to validate that the file exists and is part
-    // of this dataset. We check all ids and return one complete error.
+    // For each fileref column, stream the file ids out of the scratch table and probe the file
+    // system in batches as they arrive, to validate that each file exists and is part of this
+    // dataset. We check ids until the configured number are invalid and return one error.
 
-    Set<InvalidRefId> invalidRefIds =
+    List<SynapseColumn> refColumns =
         table.getColumns().stream()
             .map(Column::toSynapseColumn)
             .filter(Column::isFileOrDirRef)
-            .flatMap(
-                column -> {
-                  List<String> refIdArray =
-                      azureSynapsePdao.getRefIds(
-                          scratchTableName, column, dataset.getCollectionType());
-                  return tableDirectoryDao
-                      .validateRefIds(tableServiceClient, dataset.getId(), refIdArray)
-                      .stream()
-                      .map(id -> new InvalidRefId(id, column.getName()));
-                })
-            .collect(Collectors.toSet());
+            .toList();
+    Set<InvalidRefId> invalidRefIds = new HashSet<>();
+    boolean reachedMaxErrors = false;
+    for (SynapseColumn column : refColumns) {
+      if (reachedMaxErrors) {
+        break;
+      }
+      try (RefIdValidator validator =
+          newRefIdValidator(
+              batch -> tableDirectoryDao.validateRefIds(tableServiceClient, dataset.getId(), batch),
+              invalidRefIds.size())) {
+        azureSynapsePdao.streamRefIds(
+            scratchTableName, column, dataset.getCollectionType(), validator::add);
+        validator
+            .finish()
+            .forEach(id -> invalidRefIds.add(new InvalidRefId(id, column.getName())));
+        reachedMaxErrors = validator.reachedMaxErrors();
+      }
+    }
 
-    return handleInvalidRefs(invalidRefIds);
+    return handleInvalidRefs(invalidRefIds, reachedMaxErrors);
   }
 }
@@ -0,0 +1,75 @@
+package bio.terra.service.dataset.flight.ingest;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Filters repeated file reference ids out of a stream, in bounded memory. A bloom filter answers
+ * most lookups for ids that have not been seen; ids that it may have seen are checked against an
+ * exact set of up to {@code maxExactIds} ids. Once the exact set is full, an id the bloom filter
+ * may have seen is passed as new, so an unseen id is never dropped, though a repeat may be passed
+ * more than once. Ids that are UUIDs, as file ids are, are kept in the exact set as UUIDs rather
+ * than strings to halve their footprint.
+ *
+ * <p>Not thread safe.
+ */
+class RefIdDeduplicator {
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final BloomFilter<CharSequence> seen;
+  private final int maxExactIds;
+  private final Set<UUID> exactUuids = new HashSet<>();
+  private final Set<String> exactOthers = new HashSet<>();
+
+  /**
+   * @param expectedIds the number of distinct ids that the bloom filter is sized for; more may be
+   *     added, at the cost of more lookups in the exact set
+   * @param maxExactIds the most ids to keep in the exact set
+   */
+  RefIdDeduplicator(long expectedIds, int maxExactIds) {
+    this.seen =
+        BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8), expectedIds, FALSE_POSITIVE_RATE);
+    this.maxExactIds = maxExactIds;
+  }
+
+  /**
+   * @return true if the id has not been added before, or cannot be ruled out as new
+   */
+  boolean add(String refId) {
+    boolean maybeSeen = !seen.put(refId);
+    UUID uuid = asUuid(refId);
+    if (maybeSeen && (uuid != null ? exactUuids.contains(uuid) : exactOthers.contains(refId))) {
+      return false;
+    }
+    if (exactSize() < maxExactIds) {
+      if (uuid != null) {
+        exactUuids.add(uuid);
+      } else {
+        exactOthers.add(refId);
+      }
+    }
+    return true;
+  }
+
+  private int exactSize() {
+    return exactUuids.size() + exactOthers.size();
+  }
+
+  /** Parse an id in canonical UUID form; UUID.fromString also accepts forms that aren't. */
+  private static UUID asUuid(String refId) {
+    if (refId.length() != 36) {
+      return null;
+    }
+    try {
+      UUID uuid = UUID.fromString(refId);
+      return uuid.toString().equals(refId) ? uuid : null;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+package bio.terra.service.dataset.flight.ingest;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validates file reference ids as they are streamed out of a staging table, so that the ids of a
+ * large ingest are never all held in memory. Repeated ids are dropped by a {@link
+ * RefIdDeduplicator}; distinct ids are gathered into batches, and up to {@code parallelism}
+ * batches are validated at once on a shared pool. Once {@code maxErrors} invalid ids are found, no
+ * more are validated and {@link #add} asks the caller to stop streaming.
+ */
+class RefIdValidator implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(RefIdValidator.class);
+
+  /** Distinct ids the deduplicator's bloom filter is sized for: about 12 MB */
+  private static final long EXPECTED_DISTINCT_IDS = 10_000_000;
+
+  /** Ids the deduplicator remembers exactly: about 70 MB when they are UUIDs */
+  private static final int MAX_EXACT_IDS = 1_000_000;
+
+  /** Finds the ids in a batch that do not refer to a file or directory in the dataset. */
+  @FunctionalInterface
+  interface BatchValidator {
+    List<String> findInvalid(List<String> refIds) throws InterruptedException;
+  }
+
+  private final BatchValidator batchValidator;
+  private final int batchSize;
+  private final int parallelism;
+  private final int maxErrors;
+  private final RefIdDeduplicator deduplicator;
+  private final ExecutorService executor;
+  private final Semaphore window;
+  private final List<Future<?>> running = new ArrayList<>();
+  private final List<String> invalidRefIds = new ArrayList<>();
+  private final AtomicReference<Throwable> failure = new AtomicReference<>();
+  private List<String> batch = new ArrayList<>();
+  private long distinctCount;
+  private long batchCount;
+
+  /**
+   * @param batchValidator validates one batch of ids
+   * @param executor the shared pool to validate the batches on
+   * @param batchSize the number of ids to validate in one batch
+   * @param parallelism the most batches to validate at once
+   * @param maxErrors the number of invalid ids after which validation stops
+   */
+  RefIdValidator(
+      BatchValidator batchValidator,
+      ExecutorService executor,
+      int batchSize,
+      int parallelism,
+      int maxErrors) {
+    this(
+        batchValidator,
+        executor,
+        batchSize,
+        parallelism,
+        maxErrors,
+        new RefIdDeduplicator(EXPECTED_DISTINCT_IDS, MAX_EXACT_IDS));
+  }
+
+  @VisibleForTesting
+  RefIdValidator(
+      BatchValidator batchValidator,
+      ExecutorService executor,
+      int batchSize,
+      int parallelism,
+      int maxErrors,
+      RefIdDeduplicator deduplicator) {
+    this.batchValidator = batchValidator;
+    this.executor = executor;
+    this.batchSize = batchSize;
+    this.parallelism = parallelism;
+    this.maxErrors = maxErrors;
+    this.deduplicator = deduplicator;
+    this.window = new Semaphore(parallelism);
+  }
+
+  /**
+   * Add an id to validate. Blocks while a full window of batches is being validated. May be called
+   * concurrently.
+   *
+   * @return false once validation has stopped, because enough invalid ids were found or a batch
+   *     failed, and no more ids need be added
+   */
+  synchronized boolean add(String refId) {
+    if (isStopped()) {
+      return false;
+    }
+    if (deduplicator.add(refId)) {
+      distinctCount++;
+      batch.add(refId);
+      if (batch.size() >= batchSize) {
+        submitBatch();
+      }
+    }
+    return !isStopped();
+  }
+
+  /**
+   * Validate the ids added since the last full batch and wait for all batches to be validated.
+   *
+   * @return the invalid ids found, at most {@code maxErrors} of them
+   */
+  synchronized List<String> finish() throws InterruptedException {
+    if (!isStopped() && !batch.isEmpty()) {
+      submitBatch();
+    }
+    window.acquire(parallelism);
+    window.release(parallelism);
+
+    Throwable t = failure.get();
+    if (t != null) {
+      Throwables.throwIfInstanceOf(t, InterruptedException.class);
+      Throwables.throwIfUnchecked(t);
+      throw new IllegalStateException("Unexpected failure validating file ids", t);
+    }
+    synchronized (invalidRefIds) {
+      logger.info(
+          "Validated {} distinct file ids in {} batches; found {} invalid{}",
+          distinctCount,
+          batchCount,
+          invalidRefIds.size(),
+          reachedMaxErrors() ? ", stopping at the limit" : "");
+      return List.copyOf(invalidRefIds);
+    }
+  }
+
+  /** True if validation stopped at {@code maxErrors}, so there may be more invalid ids. */
+  boolean reachedMaxErrors() {
+    synchronized (invalidRefIds) {
+      return invalidRefIds.size() >= maxErrors;
+    }
+  }
+
+  /** Cancel the batches still being validated, which is only needed if finish was not reached. */
+  @Override
+  public synchronized void close() {
+    running.forEach(future -> future.cancel(true));
+  }
+
+  private boolean isStopped() {
+    return failure.get() != null || reachedMaxErrors();
+  }
+
+  private void submitBatch() {
+    List<String> refIds = batch;
+    batch = new ArrayList<>();
+    batchCount++;
+    try {
+      window.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failure.compareAndSet(null, e);
+      return;
+    }
+    Runnable task =
+        () -> {
+          try {
+            if (!isStopped()) {
+              recordInvalid(batchValidator.findInvalid(refIds));
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          } finally {
+            window.release();
+          }
+        };
+    running.removeIf(Future::isDone);
+    try {
+      running.add(executor.submit(task));
+    } catch (RejectedExecutionException ex) {
+      // The shared pool is full, so validate the batch on this thread
+      task.run();
+    }
+  }
+
+  private void recordInvalid(List<String> refIds) {
+    synchronized (invalidRefIds) {
+      for (String refId : refIds) {
+        if (invalidRefIds.size() >= maxErrors) {
+          return;
+        }
+        invalidRefIds.add(refId);
+      }
+    }
+  }
+}
@@ -12,6 +12,8 @@ import bio.terra.service.dataset.Dataset;
 import bio.terra.service.dataset.DatasetService;
 import bio.terra.service.job.JobMapKeys;
 import bio.terra.service.journal.JournalService;
+import bio.terra.service.tabulardata.InvalidateTableDataCacheStep;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryTransactionPdao;
 import bio.terra.stairway.Flight;
 import bio.terra.stairway.FlightMap;
@@ -31,6 +33,7 @@ public class TransactionCommitFlight extends Flight {
     BigQueryTransactionPdao bigQueryTransactionPdao =
         appContext.getBean(BigQueryTransactionPdao.class);
     JournalService journalService = appContext.getBean(JournalService.class);
+    TableDataCache tableDataCache = appContext.getBean(TableDataCache.class);
 
     UUID datasetId =
         UUID.fromString(inputParameters.get(JobMapKeys.DATASET_ID.getKeyName(), String.class));
@@ -54,6 +57,7 @@ public class TransactionCommitFlight extends Flight {
           new TransactionCommitStep(
               datasetService, bigQueryTransactionPdao, userReq, true, transactionId),
           randomBackoffRetry);
+      addStep(new InvalidateTableDataCacheStep(tableDataCache, datasetId));
       addStep(
           new TransactionUnlockStep(
               datasetService, bigQueryTransactionPdao, transactionId, userReq));
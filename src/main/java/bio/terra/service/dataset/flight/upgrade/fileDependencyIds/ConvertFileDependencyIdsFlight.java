@@ -0,0 +1,53 @@
+package bio.terra.service.dataset.flight.upgrade.fileDependencyIds;
+
+import static bio.terra.common.FlightUtils.getDefaultRandomBackoffRetryRule;
+
+import bio.terra.app.configuration.ApplicationConfiguration;
+import bio.terra.common.iam.AuthenticatedUserRequest;
+import bio.terra.service.auth.iam.IamResourceType;
+import bio.terra.service.common.JournalRecordUpdateEntryStep;
+import bio.terra.service.dataset.DatasetService;
+import bio.terra.service.dataset.flight.LockDatasetStep;
+import bio.terra.service.dataset.flight.UnlockDatasetStep;
+import bio.terra.service.filedata.google.firestore.FireStoreDependencyDao;
+import bio.terra.service.job.JobMapKeys;
+import bio.terra.service.journal.JournalService;
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.RetryRuleRandomBackoff;
+import java.util.UUID;
+import org.springframework.context.ApplicationContext;
+
+public class ConvertFileDependencyIdsFlight extends Flight {
+
+  public ConvertFileDependencyIdsFlight(FlightMap inputParameters, Object applicationContext) {
+    super(inputParameters, applicationContext);
+
+    // get the required daos to pass into the steps
+    ApplicationContext appContext = (ApplicationContext) applicationContext;
+
+    ApplicationConfiguration appConfig = appContext.getBean(ApplicationConfiguration.class);
+    DatasetService datasetService = appContext.getBean(DatasetService.class);
+    FireStoreDependencyDao dependencyDao = appContext.getBean(FireStoreDependencyDao.class);
+    JournalService journalService = appContext.getBean(JournalService.class);
+    AuthenticatedUserRequest userReq =
+        inputParameters.get(JobMapKeys.AUTH_USER_INFO.getKeyName(), AuthenticatedUserRequest.class);
+
+    UUID datasetId = inputParameters.get(JobMapKeys.DATASET_ID.getKeyName(), UUID.class);
+
+    RetryRuleRandomBackoff retryRule =
+        getDefaultRandomBackoffRetryRule(appConfig.getMaxStairwayThreads());
+
+    // Snapshots of the dataset must not be created or deleted while their dependencies move
+    addStep(new LockDatasetStep(datasetService, datasetId, false));
+    addStep(new ConvertFileDependencyIdsStep(datasetId, datasetService, dependencyDao), retryRule);
+    addStep(
+        new JournalRecordUpdateEntryStep(
+            journalService,
+            userReq,
+            datasetId,
+            IamResourceType.DATASET,
+            "File dependencies converted to deterministic ids on dataset."));
+    addStep(new UnlockDatasetStep(datasetService, datasetId, false));
+  }
+}
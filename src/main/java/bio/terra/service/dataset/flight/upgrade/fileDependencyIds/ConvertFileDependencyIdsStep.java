@@ -0,0 +1,53 @@
+package bio.terra.service.dataset.flight.upgrade.fileDependencyIds;
+
+import bio.terra.model.CloudPlatform;
+import bio.terra.service.dataset.Dataset;
+import bio.terra.service.dataset.DatasetService;
+import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
+import bio.terra.service.filedata.google.firestore.FireStoreDependencyDao;
+import bio.terra.service.job.DefaultUndoStep;
+import bio.terra.service.job.JobMapKeys;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import bio.terra.stairway.exception.RetryException;
+import java.util.UUID;
+
+/**
+ * Renames the Firestore file dependency documents of a dataset that were stored under random ids.
+ * The conversion copies each document before deleting it, so running the step again after a
+ * failure picks up where it left off and there is nothing to undo.
+ */
+public class ConvertFileDependencyIdsStep extends DefaultUndoStep {
+
+  private final UUID datasetId;
+  private final DatasetService datasetService;
+  private final FireStoreDependencyDao dependencyDao;
+
+  public ConvertFileDependencyIdsStep(
+      UUID datasetId, DatasetService datasetService, FireStoreDependencyDao dependencyDao) {
+    this.datasetId = datasetId;
+    this.datasetService = datasetService;
+    this.dependencyDao = dependencyDao;
+  }
+
+  @Override
+  public StepResult doStep(FlightContext context) throws InterruptedException, RetryException {
+    Dataset dataset = datasetService.retrieve(datasetId);
+    if (dataset.getCloudPlatform() != CloudPlatform.GCP) {
+      throw new IllegalArgumentException(
+          "Only the file dependencies of GCP datasets are stored in Firestore");
+    }
+    int converted;
+    try {
+      converted = dependencyDao.convertDependencyDocumentIds(dataset);
+    } catch (FileSystemAbortTransactionException ex) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, ex);
+    }
+    String responseMessage =
+        "Migrated dataset %s: %s file dependencies renamed"
+            .formatted(dataset.toLogString(), converted);
+    context.getWorkingMap().put(JobMapKeys.RESPONSE.getKeyName(), responseMessage);
+    return StepResult.getStepResultSuccess();
+  }
+}
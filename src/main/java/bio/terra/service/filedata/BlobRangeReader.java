@@ -0,0 +1,23 @@
+package bio.terra.service.filedata;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Random access to the bytes of a blob, so that different parts of it can be read concurrently. */
+public interface BlobRangeReader {
+
+  /**
+   * @return the size of the blob in bytes
+   */
+  long size();
+
+  /**
+   * Open a stream of the blob's bytes from an offset to the end of the blob. Bytes are fetched as
+   * they are read, so a caller can read a range and then as far past it as it needs over one
+   * connection. Implementations must be safe to call from several threads at once.
+   *
+   * @param offset offset of the first byte to read; must lie within the blob
+   * @return a stream that the caller must close
+   */
+  InputStream openStream(long offset) throws IOException;
+}
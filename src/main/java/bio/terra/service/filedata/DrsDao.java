@@ -1,9 +1,14 @@
 package bio.terra.service.filedata;
 
+import bio.terra.common.MetadataReadRouter;
 import bio.terra.common.iam.AuthenticatedUserRequest;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.EmptyResultDataAccessException;
@@ -20,10 +25,16 @@ public class DrsDao {
 
   private final DrsIdService drsIdService;
 
+  private final MetadataReadRouter readRouter;
+
   @Autowired
-  public DrsDao(NamedParameterJdbcTemplate jdbcTemplate, DrsIdService drsIdService) {
+  public DrsDao(
+      NamedParameterJdbcTemplate jdbcTemplate,
+      DrsIdService drsIdService,
+      MetadataReadRouter readRouter) {
     this.jdbcTemplate = jdbcTemplate;
     this.drsIdService = drsIdService;
+    this.readRouter = readRouter;
   }
 
   public static final String INSERT_DRS_ID =
@@ -64,10 +75,46 @@ public class DrsDao {
   public List<UUID> retrieveReferencedSnapshotIds(DrsId drsId) {
     MapSqlParameterSource parameters =
         new MapSqlParameterSource().addValue("drs_object_id", drsId.toDrsObjectId());
-    return jdbcTemplate.query(
-        ENUMERATE_DRS_IDS_BY_DRS_ID,
-        parameters,
-        (rs, rowNum) -> UUID.fromString(rs.getString("snapshot_id")));
+    return readRouter.read(
+        template ->
+            template.query(
+                ENUMERATE_DRS_IDS_BY_DRS_ID,
+                parameters,
+                (rs, rowNum) -> UUID.fromString(rs.getString("snapshot_id"))));
+  }
+
+  public static final String ENUMERATE_DRS_IDS_BY_DRS_IDS =
+      """
+      SELECT drs_object_id, snapshot_id FROM drs_id WHERE drs_object_id IN (:drs_object_ids)
+      """;
+
+  /**
+   * Look up the snapshots that each of a batch of DRS ids is referenced by, with one query.
+   *
+   * @return the ids of the referencing snapshots keyed by DRS object id. Ids that no snapshot
+   *     references are left out.
+   */
+  public Map<String, List<UUID>> batchRetrieveReferencedSnapshotIds(Collection<DrsId> drsIds) {
+    if (drsIds.isEmpty()) {
+      return Map.of();
+    }
+    MapSqlParameterSource parameters =
+        new MapSqlParameterSource()
+            .addValue(
+                "drs_object_ids", drsIds.stream().map(DrsId::toDrsObjectId).distinct().toList());
+    return readRouter.read(
+        template -> {
+          Map<String, List<UUID>> snapshotIds = new HashMap<>();
+          template.query(
+              ENUMERATE_DRS_IDS_BY_DRS_IDS,
+              parameters,
+              rs -> {
+                snapshotIds
+                    .computeIfAbsent(rs.getString("drs_object_id"), k -> new ArrayList<>())
+                    .add(UUID.fromString(rs.getString("snapshot_id")));
+              });
+          return snapshotIds;
+        });
   }
 
   public static final String INSERT_DRS_ALIAS =
@@ -115,22 +162,23 @@ public class DrsDao {
    * @param aliasDrsId The alias to use to look up the alias
    * @return The DRS alias object or null if not found
    */
-  @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE)
   public DrsAlias retrieveDrsAliasByAlias(String aliasDrsId) {
     MapSqlParameterSource parameters =
         new MapSqlParameterSource().addValue("alias_drs_object_id", aliasDrsId);
     try {
-      return jdbcTemplate.queryForObject(
-          GET_DRS_ALIAS_BY_ALIAS,
-          parameters,
-          (rs, rowNum) ->
-              new DrsAlias(
-                  UUID.fromString(rs.getString("id")),
-                  rs.getString("alias_drs_object_id"),
-                  drsIdService.fromObjectId(rs.getString("tdr_drs_object_id")),
-                  rs.getTimestamp("created_date").toInstant(),
-                  rs.getString("created_by"),
-                  rs.getString("flightid")));
+      return readRouter.read(
+          template ->
+              template.queryForObject(
+                  GET_DRS_ALIAS_BY_ALIAS,
+                  parameters,
+                  (rs, rowNum) ->
+                      new DrsAlias(
+                          UUID.fromString(rs.getString("id")),
+                          rs.getString("alias_drs_object_id"),
+                          drsIdService.fromObjectId(rs.getString("tdr_drs_object_id")),
+                          rs.getTimestamp("created_date").toInstant(),
+                          rs.getString("created_by"),
+                          rs.getString("flightid"))));
     } catch (EmptyResultDataAccessException e) {
       return null;
     }
@@ -30,11 +30,23 @@ public class DrsMetricsService {
    *     allowed
    */
   public void tryIncrementCurrentDrsRequestCount() throws TooManyRequestsException {
-    if (currentDrsRequestCount.get() >= drsRequestCountMax.get()) {
+    tryIncrementCurrentDrsRequestCount(1);
+  }
+
+  /**
+   * Increment request count gauge by the weight of a request that does the work of several DRS
+   * requests, such as a bulk lookup.
+   *
+   * @param weight number of DRS requests this request counts as
+   * @throws TooManyRequestsException if incrementing the request count would exceed the maximum
+   *     allowed
+   */
+  public void tryIncrementCurrentDrsRequestCount(int weight) throws TooManyRequestsException {
+    if (currentDrsRequestCount.get() + weight > drsRequestCountMax.get()) {
       throw new TooManyRequestsException(
           "Too many DataRepositoryService requests are being made at once. Please try again later.");
     }
-    currentDrsRequestCount.incrementAndGet();
+    currentDrsRequestCount.addAndGet(weight);
   }
 
   /**
@@ -42,7 +54,14 @@ public class DrsMetricsService {
    * be called on request response.
    */
   public void decrementCurrentDrsRequestCount() {
-    currentDrsRequestCount.decrementAndGet();
+    decrementCurrentDrsRequestCount(1);
+  }
+
+  /**
+   * @param weight the weight that the request being responded to was counted with
+   */
+  public void decrementCurrentDrsRequestCount(int weight) {
+    currentDrsRequestCount.addAndGet(-weight);
   }
 
   /**
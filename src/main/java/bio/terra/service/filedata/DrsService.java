@@ -12,6 +12,8 @@ import bio.terra.app.usermetrics.BardEventProperties;
 import bio.terra.app.usermetrics.UserLoggingMetrics;
 import bio.terra.common.CloudPlatformWrapper;
 import bio.terra.common.FutureUtils;
+import bio.terra.common.exception.BadRequestException;
+import bio.terra.common.exception.ErrorReportException;
 import bio.terra.common.exception.FeatureNotImplementedException;
 import bio.terra.common.exception.InvalidCloudPlatformException;
 import bio.terra.common.exception.UnauthorizedException;
@@ -21,10 +23,13 @@ import bio.terra.model.CloudPlatform;
 import bio.terra.model.DRSAccessMethod;
 import bio.terra.model.DRSAccessURL;
 import bio.terra.model.DRSAuthorizations;
+import bio.terra.model.DRSBulkObjectResponse;
 import bio.terra.model.DRSChecksum;
 import bio.terra.model.DRSContentsObject;
 import bio.terra.model.DRSObject;
 import bio.terra.model.DRSPassportRequestModel;
+import bio.terra.model.DRSSummary;
+import bio.terra.model.DRSUnresolved;
 import bio.terra.model.DrsAliasModel;
 import bio.terra.model.SnapshotSummaryModel;
 import bio.terra.service.admin.flight.DrsAliasRegisterFlight;
@@ -42,6 +47,7 @@ import bio.terra.service.filedata.exception.GoogleInternalServerErrorException;
 import bio.terra.service.filedata.exception.InvalidDrsIdException;
 import bio.terra.service.filedata.exception.InvalidDrsObjectException;
 import bio.terra.service.filedata.google.gcs.GcsProjectFactory;
+import bio.terra.service.filedata.google.gcs.GcsUrlSigner;
 import bio.terra.service.job.JobService;
 import bio.terra.service.resourcemanagement.ResourceService;
 import bio.terra.service.resourcemanagement.azure.AzureStorageAccountResource;
@@ -51,15 +57,20 @@ import bio.terra.service.snapshot.Snapshot;
 import bio.terra.service.snapshot.SnapshotProject;
 import bio.terra.service.snapshot.SnapshotService;
 import bio.terra.service.snapshot.SnapshotSummary;
+import bio.terra.service.snapshot.SnapshotUpdatedEvent;
 import bio.terra.service.snapshot.exception.SnapshotNotFoundException;
 import com.azure.storage.blob.sas.BlobSasPermission;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Bucket;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.Storage.BucketGetOption;
-import com.google.cloud.storage.StorageOptions;
 import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import java.net.URL;
 import java.time.Duration;
 import java.time.Instant;
@@ -68,11 +79,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -80,10 +95,13 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.collections4.map.PassiveExpiringMap;
 import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
 /*
@@ -92,6 +110,7 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class DrsService {
+  private static final Logger logger = LoggerFactory.getLogger(DrsService.class);
 
   private static final String ACCESS_ID_PREFIX_GCP = "gcp-";
   private static final String ACCESS_ID_PREFIX_AZURE = "az-";
@@ -100,6 +119,14 @@ public class DrsService {
   private static final String DRS_OBJECT_VERSION = "0";
   @VisibleForTesting static final Duration URL_TTL = Duration.ofMinutes(15);
 
+  @VisibleForTesting static final int MAX_BULK_OBJECT_IDS = 5000;
+  @VisibleForTesting static final int BULK_OBJECT_IDS_PER_REQUEST = 100;
+
+  private static final String CACHE_NAME_PREFIX = "datarepo.drs.";
+  @VisibleForTesting static final int SNAPSHOT_CACHE_MAX_SIZE = 10_000;
+  private static final Duration SNAPSHOT_CACHE_TTL = Duration.ofMinutes(15);
+  private static final Duration SNAPSHOT_CACHE_REFRESH = Duration.ofMinutes(10);
+
   private final SnapshotService snapshotService;
   private final FileService fileService;
   private final DrsIdService drsIdService;
@@ -110,18 +137,16 @@ public class DrsService {
   private final PerformanceLogger performanceLogger;
   private final AzureBlobStorePdao azureBlobStorePdao;
   private final GcsProjectFactory gcsProjectFactory;
+  private final GcsUrlSigner gcsUrlSigner;
   private final EcmConfiguration ecmConfiguration;
   private final DrsDao drsDao;
   private final DrsMetricsService drsMetricsService;
   private final AsyncTaskExecutor executor;
   private final UserLoggingMetrics loggingMetrics;
 
-  private final Map<UUID, SnapshotProject> snapshotProjectsCache =
-      Collections.synchronizedMap(new PassiveExpiringMap<>(15, TimeUnit.MINUTES));
-  private final Map<UUID, SnapshotCacheResult> snapshotCache =
-      Collections.synchronizedMap(new PassiveExpiringMap<>(15, TimeUnit.MINUTES));
-  private final Map<UUID, SnapshotSummaryModel> snapshotSummariesCache =
-      Collections.synchronizedMap(new PassiveExpiringMap<>(15, TimeUnit.MINUTES));
+  private final LoadingCache<UUID, SnapshotProject> snapshotProjectsCache;
+  private final LoadingCache<UUID, SnapshotCacheResult> snapshotCache;
+  private final LoadingCache<UUID, SnapshotSummaryModel> snapshotSummariesCache;
 
   public DrsService(
       SnapshotService snapshotService,
@@ -134,11 +159,13 @@ public class DrsService {
       PerformanceLogger performanceLogger,
       AzureBlobStorePdao azureBlobStorePdao,
       GcsProjectFactory gcsProjectFactory,
+      GcsUrlSigner gcsUrlSigner,
       EcmConfiguration ecmConfiguration,
       DrsDao drsDao,
       DrsMetricsService drsMetricsService,
       @Qualifier("drsResolutionThreadpool") AsyncTaskExecutor executor,
-      UserLoggingMetrics loggingMetrics) {
+      UserLoggingMetrics loggingMetrics,
+      MeterRegistry meterRegistry) {
     this.snapshotService = snapshotService;
     this.fileService = fileService;
     this.drsIdService = drsIdService;
@@ -149,24 +176,66 @@ public class DrsService {
     this.performanceLogger = performanceLogger;
     this.azureBlobStorePdao = azureBlobStorePdao;
     this.gcsProjectFactory = gcsProjectFactory;
+    this.gcsUrlSigner = gcsUrlSigner;
     this.ecmConfiguration = ecmConfiguration;
     this.drsDao = drsDao;
     this.drsMetricsService = drsMetricsService;
     this.executor = executor;
     this.loggingMetrics = loggingMetrics;
+
+    this.snapshotProjectsCache =
+        buildSnapshotCache(
+            meterRegistry, "snapshotProjects", snapshotService::retrieveSnapshotProject);
+    this.snapshotCache =
+        buildSnapshotCache(
+            meterRegistry,
+            "snapshots",
+            id -> new SnapshotCacheResult(snapshotService.retrieve(id)));
+    this.snapshotSummariesCache =
+        buildSnapshotCache(
+            meterRegistry, "snapshotSummaries", snapshotService::retrieveSnapshotSummary);
+  }
+
+  /**
+   * Build a bounded cache of per-snapshot values. Concurrent lookups of a missing snapshot wait on
+   * a single load, and entries that are read after {@link #SNAPSHOT_CACHE_REFRESH} are reloaded in
+   * the background so that hot snapshots do not stall DRS resolution when they expire. Hit, miss,
+   * eviction and load time meters are registered under the {@code cache} metric names, tagged with
+   * the cache name.
+   */
+  private static <V> LoadingCache<UUID, V> buildSnapshotCache(
+      MeterRegistry meterRegistry, String name, CacheLoader<UUID, V> loader) {
+    LoadingCache<UUID, V> cache =
+        Caffeine.newBuilder()
+            .maximumSize(SNAPSHOT_CACHE_MAX_SIZE)
+            .expireAfterWrite(SNAPSHOT_CACHE_TTL)
+            .refreshAfterWrite(SNAPSHOT_CACHE_REFRESH)
+            .recordStats()
+            .build(loader);
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME_PREFIX + name);
+    return cache;
   }
 
   private class DrsRequestResource implements AutoCloseable {
+    private final int weight;
 
     DrsRequestResource() {
+      this(1);
+    }
+
+    /**
+     * @param weight number of DRS requests this request counts as against the concurrency limit
+     */
+    DrsRequestResource(int weight) {
+      this.weight = weight;
       int podCount = jobService.getActivePodCount();
       drsMetricsService.setDrsRequestMax(drsConfiguration.maxDrsLookups() / podCount);
-      drsMetricsService.tryIncrementCurrentDrsRequestCount();
+      drsMetricsService.tryIncrementCurrentDrsRequestCount(weight);
     }
 
     @Override
     public void close() {
-      drsMetricsService.decrementCurrentDrsRequestCount();
+      drsMetricsService.decrementCurrentDrsRequestCount(weight);
     }
   }
 
@@ -310,6 +379,219 @@ public class DrsService {
     }
   }
 
+  /**
+   * Look up the DRS objects for a list of DRS object IDs. The IDs are grouped by snapshot so that
+   * access is verified once per snapshot and the file system objects of each snapshot are read in
+   * one batch. IDs that cannot be resolved are reported with the HTTP status that a single lookup
+   * would have failed with, rather than failing the whole request.
+   *
+   * <p>The request counts against the DRS concurrency limit as one request for every {@link
+   * #BULK_OBJECT_IDS_PER_REQUEST} IDs.
+   *
+   * @param authUser the user to authenticate this request for
+   * @param drsObjectIds the object IDs to look up
+   * @param expand if false and an object ID refers to a bundle, then the returned object contains
+   *     only those objects directly contained in the bundle
+   * @return the resolved DRS objects and the IDs that could not be resolved
+   * @throws BadRequestException if more than {@link #MAX_BULK_OBJECT_IDS} IDs are requested
+   * @throws TooManyRequestsException if there are too many concurrent DRS lookup requests
+   */
+  public DRSBulkObjectResponse lookupObjectsByDrsIds(
+      AuthenticatedUserRequest authUser, List<String> drsObjectIds, boolean expand) {
+    List<String> requestedIds = drsObjectIds.stream().distinct().toList();
+    if (requestedIds.size() > MAX_BULK_OBJECT_IDS) {
+      throw new BadRequestException(
+          "At most %d DRS object ids can be looked up at once".formatted(MAX_BULK_OBJECT_IDS));
+    }
+    int weight =
+        (requestedIds.size() + BULK_OBJECT_IDS_PER_REQUEST - 1) / BULK_OBJECT_IDS_PER_REQUEST;
+    try (DrsRequestResource r = new DrsRequestResource(Math.max(weight, 1))) {
+      Map<Integer, List<String>> unresolved = new TreeMap<>();
+
+      // Parse each id, resolving aliases
+      Map<String, DrsId> parsedIds = new LinkedHashMap<>();
+      for (String drsObjectId : requestedIds) {
+        try {
+          parsedIds.put(drsObjectId, resolveDrsObjectId(drsObjectId));
+        } catch (RuntimeException ex) {
+          addUnresolved(unresolved, ex, drsObjectId);
+        }
+      }
+
+      // Resolve each id to the snapshots that it can be found in, reading the snapshots of every
+      // v2 id with one query
+      Map<String, List<UUID>> referencedSnapshotIds =
+          drsDao.batchRetrieveReferencedSnapshotIds(
+              parsedIds.values().stream().filter(id -> id.getVersion().equals("v2")).toList());
+      Map<String, DrsId> resolvedIds = new LinkedHashMap<>();
+      Map<String, List<SnapshotCacheResult>> snapshotsById = new HashMap<>();
+      Map<UUID, SnapshotCacheResult> snapshots = new HashMap<>();
+      parsedIds.forEach(
+          (drsObjectId, drsId) -> {
+            try {
+              List<SnapshotCacheResult> idSnapshots =
+                  lookupSnapshotsForDRSObject(
+                      drsId,
+                      id -> referencedSnapshotIds.getOrDefault(id.toDrsObjectId(), List.of()));
+              resolvedIds.put(drsObjectId, drsId);
+              snapshotsById.put(drsObjectId, idSnapshots);
+              idSnapshots.forEach(s -> snapshots.put(s.id, s));
+            } catch (RuntimeException ex) {
+              addUnresolved(unresolved, ex, drsObjectId);
+            }
+          });
+
+      // Only look at snapshots that the user has access to
+      String samTimer = performanceLogger.timerStart();
+      Set<UUID> authorizedSnapshotIds =
+          FutureUtils.waitFor(
+                  snapshots.values().stream()
+                      .map(
+                          s ->
+                              executor.submit(
+                                  () -> {
+                                    try {
+                                      samService.verifyAuthorization(
+                                          authUser,
+                                          IamResourceType.DATASNAPSHOT,
+                                          s.id.toString(),
+                                          IamAction.READ_DATA);
+                                      return s.id;
+                                    } catch (IamForbiddenException e) {
+                                      return null;
+                                    }
+                                  }))
+                      .toList())
+              .stream()
+              .collect(Collectors.toSet());
+      performanceLogger.timerEndAndLog(
+          samTimer,
+          "bulk lookup of %d ids".formatted(requestedIds.size()), // not a flight, so no job id
+          this.getClass().getName(),
+          "samService.verifyAuthorization");
+
+      // Read the file system objects of each snapshot in one batch
+      Map<UUID, Set<String>> fsObjectIdsBySnapshot = new HashMap<>();
+      resolvedIds.forEach(
+          (drsObjectId, drsId) ->
+              snapshotsById.get(drsObjectId).stream()
+                  .map(SnapshotCacheResult::id)
+                  .filter(authorizedSnapshotIds::contains)
+                  .forEach(
+                      snapshotId ->
+                          fsObjectIdsBySnapshot
+                              .computeIfAbsent(snapshotId, k -> new LinkedHashSet<>())
+                              .add(drsId.getFsObjectId())));
+      String lookupTimer = performanceLogger.timerStart();
+      Map<UUID, Map<String, FSItem>> fsItemsBySnapshot =
+          FutureUtils.waitFor(
+                  fsObjectIdsBySnapshot.entrySet().stream()
+                      .map(
+                          e ->
+                              executor.submit(
+                                  () ->
+                                      new SnapshotFSItems(
+                                          e.getKey(),
+                                          fileService.batchLookupSnapshotFSItems(
+                                              getSnapshotProject(e.getKey()),
+                                              List.copyOf(e.getValue()),
+                                              expand ? -1 : 1))))
+                      .toList())
+              .stream()
+              .collect(Collectors.toMap(SnapshotFSItems::snapshotId, SnapshotFSItems::items));
+      performanceLogger.timerEndAndLog(
+          lookupTimer,
+          "bulk lookup of %d ids".formatted(requestedIds.size()), // not a flight, so no job id
+          this.getClass().getName(),
+          "fileService.batchLookupSnapshotFSItems");
+
+      List<DRSObject> resolved = new ArrayList<>();
+      resolvedIds.forEach(
+          (drsObjectId, drsId) -> {
+            try {
+              resolved.add(
+                  resolveBulkDRSObject(
+                      authUser,
+                      drsId,
+                      snapshotsById.get(drsObjectId).stream()
+                          .filter(s -> authorizedSnapshotIds.contains(s.id))
+                          .toList(),
+                      fsItemsBySnapshot));
+            } catch (RuntimeException ex) {
+              addUnresolved(unresolved, ex, drsObjectId);
+            }
+          });
+
+      int unresolvedCount = unresolved.values().stream().mapToInt(List::size).sum();
+      return new DRSBulkObjectResponse()
+          .summary(
+              new DRSSummary()
+                  .requested(requestedIds.size())
+                  .resolved(resolved.size())
+                  .unresolved(unresolvedCount))
+          .resolvedDrsObject(resolved)
+          .unresolvedDrsObjects(
+              unresolved.entrySet().stream()
+                  .map(e -> new DRSUnresolved().errorCode(e.getKey()).objectIds(e.getValue()))
+                  .toList());
+    }
+  }
+
+  private record SnapshotFSItems(UUID snapshotId, Map<String, FSItem> items) {}
+
+  /**
+   * Record that an id of a bulk lookup could not be resolved, under the status code of the error.
+   * Unexpected errors are reported as internal errors, so that one bad id does not fail the rest.
+   */
+  private static void addUnresolved(
+      Map<Integer, List<String>> unresolved, RuntimeException ex, String drsObjectId) {
+    int statusCode;
+    if (ex instanceof ErrorReportException ere) {
+      statusCode = ere.getStatusCode().value();
+    } else {
+      logger.warn("Unexpected error resolving DRS object id {}", drsObjectId, ex);
+      statusCode = HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+    unresolved.computeIfAbsent(statusCode, k -> new ArrayList<>()).add(drsObjectId);
+  }
+
+  /**
+   * Build the DRS object for one id of a bulk lookup out of the file system objects read for each
+   * of its snapshots that the user has access to.
+   */
+  private DRSObject resolveBulkDRSObject(
+      AuthenticatedUserRequest authUser,
+      DrsId drsId,
+      List<SnapshotCacheResult> authorizedSnapshots,
+      Map<UUID, Map<String, FSItem>> fsItemsBySnapshot) {
+    if (authorizedSnapshots.isEmpty()) {
+      throw new IamForbiddenException("User does not have access");
+    }
+    Map<UUID, UUID> snapshotToBillingSnapshot =
+        chooseBillingSnapshotsPerSnapshot(authorizedSnapshots);
+    List<DRSObject> drsObjects = new ArrayList<>();
+    for (SnapshotCacheResult snapshot : authorizedSnapshots) {
+      FSItem fsObject =
+          fsItemsBySnapshot.getOrDefault(snapshot.id, Map.of()).get(drsId.getFsObjectId());
+      if (fsObject instanceof FSFile fsFile) {
+        drsObjects.add(
+            drsObjectFromFSFile(
+                fsFile,
+                snapshot,
+                authUser,
+                false,
+                snapshotToBillingSnapshot.get(snapshot.id).toString()));
+      } else if (fsObject instanceof FSDir fsDir) {
+        drsObjects.add(drsObjectFromFSDir(fsDir, snapshot));
+      }
+    }
+    if (drsObjects.isEmpty()) {
+      throw new DrsObjectNotFoundException(
+          "No file system object found for DRS Object ID %s".formatted(drsId.toDrsObjectId()));
+    }
+    return mergeDRSObjects(drsObjects);
+  }
+
   /**
    * Given the precalculated list of associated snapshots, look up the DRS object in the various
    * firestore/azure table dbs and merged into a single DRSObject. Note: this will fail if object
@@ -375,12 +657,20 @@ public class DrsService {
 
   @VisibleForTesting
   List<SnapshotCacheResult> lookupSnapshotsForDRSObject(DrsId drsId) {
+    return lookupSnapshotsForDRSObject(drsId, this::retrieveReferencedSnapshotIds);
+  }
+
+  /**
+   * @param referencedSnapshotIds looks up the snapshots that a v2 DRS id is referenced by
+   */
+  private List<SnapshotCacheResult> lookupSnapshotsForDRSObject(
+      DrsId drsId, Function<DrsId, List<UUID>> referencedSnapshotIds) {
     try {
       List<UUID> snapshotIds = new ArrayList<>();
       if (drsId.getVersion().equals("v1")) {
         snapshotIds.add(UUID.fromString(drsId.getSnapshotId()));
       } else if (drsId.getVersion().equals("v2")) {
-        snapshotIds.addAll(retrieveReferencedSnapshotIds(drsId));
+        snapshotIds.addAll(referencedSnapshotIds.apply(drsId));
       } else {
         throw new InvalidDrsIdException("Invalid DRS ID version %s".formatted(drsId.getVersion()));
       }
@@ -585,13 +875,8 @@ public class DrsService {
 
     BlobInfo blobInfo = BlobInfo.newBuilder(locator).build();
 
-    Function<Storage, URL> signUrlFunction =
-        storage ->
-            storage.signUrl(
-                blobInfo,
-                URL_TTL.toMinutes(),
-                TimeUnit.MINUTES,
-                getUrlSigningOptions(cachedSnapshot, userProject, authUser));
+    Storage.SignUrlOption[] signUrlOptions =
+        getUrlSigningOptions(cachedSnapshot, userProject, authUser);
 
     final URL signedUrl;
     if (cachedSnapshot.isSelfHosted) {
@@ -604,10 +889,13 @@ public class DrsService {
       // In the base case of a self-hosted dataset, use the dataset's service account to sign the
       // url
       signedUrl =
-          signUrlFunction.apply(gcsProjectFactory.getStorage(cachedSnapshot.datasetProjectId));
+          gcsProjectFactory
+              .getStorage(cachedSnapshot.datasetProjectId)
+              .signUrl(blobInfo, URL_TTL.toMinutes(), TimeUnit.MINUTES, signUrlOptions);
     } else {
-      try (Storage storage = initStorage(cachedSnapshot.googleProjectId)) {
-        signedUrl = signUrlFunction.apply(storage);
+      try {
+        signedUrl =
+            gcsUrlSigner.signUrl(cachedSnapshot.googleProjectId, blobInfo, URL_TTL, signUrlOptions);
       } catch (Exception e) {
         throw new GoogleInternalServerErrorException("Error getting storage ", e);
       }
@@ -616,11 +904,6 @@ public class DrsService {
     return new DRSAccessURL().url(signedUrl.toString());
   }
 
-  @VisibleForTesting
-  Storage initStorage(String projectId) {
-    return StorageOptions.newBuilder().setProjectId(projectId).build().getService();
-  }
-
   /**
    * Returns the options to use when signing a URL from TDR
    *
@@ -894,18 +1177,32 @@ public class DrsService {
   }
 
   private SnapshotProject getSnapshotProject(UUID snapshotId) {
-    return snapshotProjectsCache.computeIfAbsent(
-        snapshotId, snapshotService::retrieveSnapshotProject);
+    return snapshotProjectsCache.get(snapshotId);
   }
 
   private SnapshotCacheResult getSnapshot(UUID snapshotId) {
-    return snapshotCache.computeIfAbsent(
-        snapshotId, id -> new SnapshotCacheResult(snapshotService.retrieve(id)));
+    return snapshotCache.get(snapshotId);
   }
 
   private SnapshotSummaryModel getSnapshotSummary(UUID snapshotId) {
-    return snapshotSummariesCache.computeIfAbsent(
-        snapshotId, snapshotService::retrieveSnapshotSummary);
+    return snapshotSummariesCache.get(snapshotId);
+  }
+
+  /**
+   * Drop any cached information about a snapshot, so that the next DRS lookup reads it fresh. Only
+   * this instance's caches are cleared: other pods pick up the change when their entries expire.
+   *
+   * @param snapshotId the snapshot that was updated or deleted
+   */
+  public void invalidateSnapshot(UUID snapshotId) {
+    snapshotProjectsCache.invalidate(snapshotId);
+    snapshotCache.invalidate(snapshotId);
+    snapshotSummariesCache.invalidate(snapshotId);
+  }
+
+  @EventListener
+  public void onSnapshotUpdated(SnapshotUpdatedEvent event) {
+    invalidateSnapshot(event.snapshotId());
   }
 
   public String registerDrsAliases(List<DrsAliasModel> aliases, AuthenticatedUserRequest userReq) {
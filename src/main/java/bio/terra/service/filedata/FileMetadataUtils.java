@@ -14,15 +14,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 
 public class FileMetadataUtils {
@@ -101,30 +98,6 @@ public class FileMetadataUtils {
     return StringUtils.removeStart(lookupPath, ROOT_DIR_NAME);
   }
 
-  public static Set<String> findNewDirectoryPaths(
-      List<FireStoreDirectoryEntry> datasetEntries, LRUMap<String, Boolean> pathMap) {
-
-    Set<String> pathsToCheck = new HashSet<>();
-    for (FireStoreDirectoryEntry entry : datasetEntries) {
-      // Only probe the real directories - not leaf file reference or the root
-      String lookupDirPath = makeLookupPath(entry.getPath());
-      for (String testPath = lookupDirPath;
-          !testPath.isEmpty() && !testPath.equals(FileMetadataUtils.ROOT_DIR_NAME);
-          testPath = getDirectoryPath(testPath)) {
-
-        // check the cache
-        pathMap.computeIfAbsent(
-            testPath,
-            s -> {
-              // not in the cache: add to checklist and a to cache
-              pathsToCheck.add(s);
-              return true;
-            });
-      }
-    }
-    return pathsToCheck;
-  }
-
   /**
    * Given an absolute path to a file or directory, return a List of absolute paths for all parent
    * directories
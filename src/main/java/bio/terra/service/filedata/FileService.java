@@ -41,6 +41,7 @@ import bio.terra.service.snapshot.SnapshotProject;
 import bio.terra.service.snapshot.SnapshotService;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -345,6 +346,35 @@ public class FileService {
     }
   }
 
+  /**
+   * Look up a batch of files or directories in a snapshot.
+   *
+   * @return map of file id to item; ids that are not found in the snapshot are left out
+   */
+  Map<String, FSItem> batchLookupSnapshotFSItems(
+      SnapshotProject snapshot, List<String> fileIds, int depth) throws InterruptedException {
+    CloudPlatformWrapper cloudPlatformWrapper =
+        CloudPlatformWrapper.of(snapshot.getCloudPlatform());
+    if (cloudPlatformWrapper.isGcp()) {
+      return fileDao.batchRetrieveBySnapshotAndId(snapshot, fileIds, depth);
+    } else {
+      AzureStorageAuthInfo storageAuthInfo =
+          resourceService.getSnapshotStorageAuthInfo(snapshot.getProfileId(), snapshot.getId());
+      Dataset dataset =
+          datasetService.retrieve(snapshot.getSourceDatasetProjects().iterator().next().getId());
+      AzureStorageAuthInfo datasetTableStorageAuthInfo =
+          resourceService.getDatasetStorageAuthInfo(dataset);
+
+      return tableDao.batchRetrieveSnapshotItems(
+          dataset.getId(),
+          snapshot.getId(),
+          fileIds,
+          depth,
+          storageAuthInfo,
+          datasetTableStorageAuthInfo);
+    }
+  }
+
   FSItem lookupSnapshotFSItemByPath(String snapshotId, String path, int depth)
       throws InterruptedException {
     Snapshot snapshot = snapshotService.retrieve(UUID.fromString(snapshotId));
@@ -0,0 +1,239 @@
+package bio.terra.service.filedata;
+
+import bio.terra.app.controller.exception.ApiException;
+import bio.terra.common.ErrorCollector;
+import bio.terra.common.exception.ErrorReportException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a newline-delimited blob, such as a JSON-lines control file, by splitting it into byte
+ * ranges that are fetched and parsed concurrently.
+ *
+ * <p>A range owns the lines that start within it. It skips the end of the line it starts in, and
+ * reads past its end, over the same stream, to finish its last line. Each range is fetched and
+ * parsed by a task on the executor, with at most {@code rangesInFlight} ranges held in memory at a
+ * time. Ranges are handed back in order, so parsed lines come out in file order and errors are
+ * reported with the number of the line they were found on.
+ */
+public class ParallelLineReader {
+  // Size of the reads past the end of a range to find the end of its last line
+  private static final int LINE_END_READ_SIZE = 64 * 1024;
+
+  private final ExecutorService executor;
+  private final int rangeSize;
+  private final int rangesInFlight;
+
+  /**
+   * @param executor executor to read and parse ranges on
+   * @param rangeSize size in bytes of the ranges the blob is split into
+   * @param rangesInFlight maximum number of ranges read, parsed, or waiting to be consumed at once
+   */
+  public ParallelLineReader(ExecutorService executor, int rangeSize, int rangesInFlight) {
+    this.executor = executor;
+    this.rangeSize = rangeSize;
+    this.rangesInFlight = rangesInFlight;
+  }
+
+  @FunctionalInterface
+  public interface LineParser<T> {
+    /**
+     * Parse one line. This is called from executor threads, so it must be thread safe.
+     *
+     * @param line the line, without its line terminator
+     * @param errors accepts a message reporting that the line is invalid
+     * @return the parsed line, or null if the line has no value
+     */
+    T parse(String line, Consumer<String> errors);
+  }
+
+  /**
+   * Parse the lines of a blob in parallel. Errors reported by the parser are recorded in the error
+   * collector as they are reached in file order, so the collector's limit on reported errors stops
+   * the read early.
+   *
+   * <p>The returned stream must be closed, which cancels the ranges still being read.
+   *
+   * @return the non-null parsed lines, in file order
+   */
+  public <T> Stream<T> parseLines(
+      BlobRangeReader reader, LineParser<T> parser, ErrorCollector errorCollector) {
+    RangeIterator<T> ranges = new RangeIterator<>(reader, parser, errorCollector);
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(ranges, Spliterator.ORDERED), false)
+        .onClose(ranges::cancel)
+        .flatMap(List::stream);
+  }
+
+  private record LineError(int lineIndex, String message) {}
+
+  private record ParsedRange<T>(List<T> values, List<LineError> errors, int lineCount) {}
+
+  private class RangeIterator<T> implements Iterator<List<T>> {
+    private final BlobRangeReader reader;
+    private final LineParser<T> parser;
+    private final ErrorCollector errorCollector;
+    private final long size;
+    private final Deque<Future<ParsedRange<T>>> pending = new ArrayDeque<>();
+    private long nextRangeStart = 0;
+    private long linesBefore = 0;
+
+    RangeIterator(BlobRangeReader reader, LineParser<T> parser, ErrorCollector errorCollector) {
+      this.reader = reader;
+      this.parser = parser;
+      this.errorCollector = errorCollector;
+      this.size = reader.size();
+    }
+
+    @Override
+    public boolean hasNext() {
+      fill();
+      return !pending.isEmpty();
+    }
+
+    @Override
+    public List<T> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      ParsedRange<T> range = waitFor(pending.removeFirst());
+      for (LineError error : range.errors()) {
+        errorCollector.record(
+            "Error at line %d: %s", linesBefore + error.lineIndex() + 1, error.message());
+      }
+      linesBefore += range.lineCount();
+      return range.values();
+    }
+
+    void cancel() {
+      pending.forEach(future -> future.cancel(true));
+      pending.clear();
+    }
+
+    private void fill() {
+      while (pending.size() < rangesInFlight && nextRangeStart < size) {
+        long start = nextRangeStart;
+        long end = Math.min(start + rangeSize, size);
+        pending.addLast(executor.submit(() -> parseRange(reader, parser, start, end)));
+        nextRangeStart = end;
+      }
+    }
+
+    private ParsedRange<T> waitFor(Future<ParsedRange<T>> future) {
+      try {
+        return future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        cancel();
+        throw new ApiException("Thread was interrupted", e);
+      } catch (ExecutionException e) {
+        cancel();
+        if (e.getCause() instanceof ErrorReportException ere) {
+          throw ere;
+        }
+        if (e.getCause() instanceof IOException ioe) {
+          throw new UncheckedIOException(ioe);
+        }
+        throw new ApiException(e.getMessage(), e.getCause());
+      }
+    }
+  }
+
+  private static <T> ParsedRange<T> parseRange(
+      BlobRangeReader reader, LineParser<T> parser, long start, long end) throws IOException {
+    // Read the byte before the range too, to tell whether a line starts right at the range start
+    long readStart = Math.max(start - 1, 0);
+    try (InputStream stream = reader.openStream(readStart)) {
+      byte[] bytes = stream.readNBytes((int) (end - readStart));
+      return parseRange(stream, bytes, start > 0, parser);
+    }
+  }
+
+  private static <T> ParsedRange<T> parseRange(
+      InputStream stream, byte[] bytes, boolean skipFirstLine, LineParser<T> parser)
+      throws IOException {
+    int position = 0;
+    if (skipFirstLine) {
+      int newline = indexOfNewline(bytes, 0);
+      if (newline < 0) {
+        // The whole range is within a line that started in an earlier range
+        return new ParsedRange<>(List.of(), List.of(), 0);
+      }
+      position = newline + 1;
+    }
+
+    List<T> values = new ArrayList<>();
+    List<LineError> errors = new ArrayList<>();
+    int lineCount = 0;
+    while (position < bytes.length) {
+      String line;
+      int newline = indexOfNewline(bytes, position);
+      if (newline >= 0) {
+        line = decodeLine(bytes, position, newline - position);
+        position = newline + 1;
+      } else {
+        // The last line continues past the end of the range
+        ByteArrayOutputStream lineBytes = new ByteArrayOutputStream();
+        lineBytes.write(bytes, position, bytes.length - position);
+        readToEndOfLine(stream, lineBytes);
+        line = decodeLine(lineBytes.toByteArray(), 0, lineBytes.size());
+        position = bytes.length;
+      }
+      int lineIndex = lineCount++;
+      T value = parser.parse(line, message -> errors.add(new LineError(lineIndex, message)));
+      if (value != null) {
+        values.add(value);
+      }
+    }
+    return new ParsedRange<>(values, errors, lineCount);
+  }
+
+  private static void readToEndOfLine(InputStream stream, ByteArrayOutputStream lineBytes)
+      throws IOException {
+    byte[] bytes;
+    do {
+      bytes = stream.readNBytes(LINE_END_READ_SIZE);
+      int newline = indexOfNewline(bytes, 0);
+      if (newline >= 0) {
+        lineBytes.write(bytes, 0, newline);
+        return;
+      }
+      lineBytes.write(bytes, 0, bytes.length);
+    } while (bytes.length == LINE_END_READ_SIZE);
+  }
+
+  private static int indexOfNewline(byte[] bytes, int from) {
+    for (int i = from; i < bytes.length; i++) {
+      if (bytes[i] == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  // Newlines never occur inside a UTF-8 multibyte character, so lines can be split on bytes.
+  // Like BufferedReader, a carriage return before the newline is not part of the line.
+  private static String decodeLine(byte[] bytes, int offset, int length) {
+    if (length > 0 && bytes[offset + length - 1] == '\r') {
+      length--;
+    }
+    return new String(bytes, offset, length, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,255 @@
+package bio.terra.service.filedata;
+
+import bio.terra.common.FutureUtils;
+import bio.terra.service.filedata.exception.FileNotFoundException;
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import bio.terra.service.filedata.google.firestore.FireStoreFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes the size and checksums of every directory in a snapshot file system, one level of the
+ * tree at a time.
+ *
+ * <p>{@link SnapshotCompute#computeDirectory} walks the tree depth first on a single thread, making
+ * one enumerate and one metadata round trip per directory. Here, the tree is processed in two
+ * passes:
+ *
+ * <ol>
+ *   <li>Top down: every directory at a given depth is enumerated concurrently, and the metadata for
+ *       all file references found at that depth is retrieved in batches that span sibling
+ *       directories. Each file is then folded into its directory and dropped.
+ *   <li>Bottom up: starting from the deepest level, each directory's checksums are computed from
+ *       what its children folded into it, the directory is folded into its parent and the entry is
+ *       handed to {@link SnapshotComputeHelper#updateEntry}.
+ * </ol>
+ *
+ * Only directories are held between the passes, each with the total size and the checksums of its
+ * contents. The checksum algorithm itself is {@link SnapshotCompute#updateDirectoryEntryChecksums},
+ * which sorts its inputs, so the results are identical to the sequential computation.
+ *
+ * <p>The work is run on a shared pool, with at most {@code parallelism} tasks of one computation on
+ * it at once. All calls to {@link SnapshotComputeHelper#updateEntry} are made from the calling
+ * thread, so helpers do not have to make their update batching thread safe.
+ */
+public class ParallelSnapshotCompute {
+  private static final Logger logger = LoggerFactory.getLogger(ParallelSnapshotCompute.class);
+
+  private final SnapshotComputeHelper computeHelper;
+  private final ExecutorService executor;
+  private final Semaphore permits;
+  private final int metadataBatchSize;
+
+  /**
+   * @param computeHelper cloud specific accessors for the snapshot and dataset file systems
+   * @param executor the shared pool to make calls through the helper on
+   * @param parallelism maximum number of concurrent calls made through the helper
+   * @param metadataBatchSize maximum number of file references to retrieve in a single call to
+   *     {@link SnapshotComputeHelper#batchRetrieveFileMetadata}
+   */
+  public ParallelSnapshotCompute(
+      SnapshotComputeHelper computeHelper,
+      ExecutorService executor,
+      int parallelism,
+      int metadataBatchSize) {
+    this.computeHelper = computeHelper;
+    this.executor = executor;
+    this.permits = new Semaphore(Math.max(1, parallelism));
+    this.metadataBatchSize = Math.max(1, metadataBatchSize);
+  }
+
+  /**
+   * Compute the size and checksums of topDir and every directory beneath it.
+   *
+   * @param topDir the directory entry at the root of the tree to compute
+   * @param updateBatch list passed through to {@link SnapshotComputeHelper#updateEntry}
+   * @return topDir, updated in place
+   */
+  public FireStoreDirectoryEntry computeDirectory(
+      FireStoreDirectoryEntry topDir, List<FireStoreDirectoryEntry> updateBatch)
+      throws InterruptedException {
+    // Top down: enumerate each level and fold the files it contains into their directories
+    List<List<DirectoryNode>> levels = new ArrayList<>();
+    List<DirectoryNode> level = List.of(new DirectoryNode(topDir, null));
+    while (!level.isEmpty()) {
+      levels.add(level);
+      List<DirectoryNode> subdirectories = new ArrayList<>();
+      List<FileRef> files = enumerateLevel(level, subdirectories);
+      foldLevelFiles(files);
+      level = subdirectories;
+    }
+    logger.info("Snapshot compute enumerated {} directory levels", levels.size());
+
+    // Bottom up: every child of a level has been folded into it by the time we get to it
+    for (int depth = levels.size() - 1; depth >= 0; depth--) {
+      List<DirectoryNode> nodes = levels.set(depth, List.of());
+      computeLevelChecksums(nodes);
+      for (DirectoryNode node : nodes) {
+        computeHelper.updateEntry(node.entry, updateBatch);
+      }
+    }
+    return topDir;
+  }
+
+  /**
+   * Enumerate the directories of a level.
+   *
+   * @param nodes the directories to enumerate
+   * @param subdirectories receives the directories found, which make up the next level
+   * @return the file references found
+   */
+  private List<FileRef> enumerateLevel(
+      List<DirectoryNode> nodes, List<DirectoryNode> subdirectories) throws InterruptedException {
+    ConcurrentLinkedQueue<DirectoryNode> foundDirectories = new ConcurrentLinkedQueue<>();
+    ConcurrentLinkedQueue<FileRef> foundFiles = new ConcurrentLinkedQueue<>();
+    List<Callable<Integer>> tasks =
+        nodes.stream()
+            .<Callable<Integer>>map(
+                node ->
+                    () -> {
+                      String fullPath =
+                          SnapshotCompute.getFullPath(node.entry.getPath(), node.entry.getName());
+                      List<FireStoreDirectoryEntry> children =
+                          computeHelper.enumerateDirectory(fullPath);
+                      for (FireStoreDirectoryEntry child : children) {
+                        if (child.getIsFileRef()) {
+                          foundFiles.add(new FileRef(node, child));
+                        } else {
+                          foundDirectories.add(new DirectoryNode(child, node));
+                        }
+                      }
+                      return children.size();
+                    })
+            .toList();
+    runAll(tasks);
+    subdirectories.addAll(foundDirectories);
+    return new ArrayList<>(foundFiles);
+  }
+
+  private void foldLevelFiles(List<FileRef> files) throws InterruptedException {
+    // Batch the file references of all sibling directories together, one dataset at a time
+    Map<String, List<FileRef>> fileRefsByDatasetId =
+        files.stream().collect(Collectors.groupingBy(fileRef -> fileRef.entry.getDatasetId()));
+
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (Map.Entry<String, List<FileRef>> entry : fileRefsByDatasetId.entrySet()) {
+      for (List<FileRef> batch : ListUtils.partition(entry.getValue(), metadataBatchSize)) {
+        tasks.add(
+            () -> {
+              List<FireStoreDirectoryEntry> batchEntries =
+                  batch.stream().map(FileRef::entry).toList();
+              List<FireStoreFile> fireStoreFiles =
+                  computeHelper.batchRetrieveFileMetadata(Map.entry(entry.getKey(), batchEntries));
+              if (fireStoreFiles.size() != batch.size()) {
+                throw new FileNotFoundException("File metadata was missing");
+              }
+              for (int i = 0; i < batch.size(); i++) {
+                FireStoreFile file = fireStoreFiles.get(i);
+                if (file == null) {
+                  throw new FileNotFoundException("File metadata was missing");
+                }
+                batch
+                    .get(i)
+                    .parent
+                    .fold(file.getSize(), file.getChecksumMd5(), file.getChecksumCrc32c());
+              }
+              return batch.size();
+            });
+      }
+    }
+    runAll(tasks);
+  }
+
+  private void computeLevelChecksums(List<DirectoryNode> nodes) throws InterruptedException {
+    List<Callable<Integer>> tasks =
+        nodes.stream()
+            .<Callable<Integer>>map(
+                node ->
+                    () -> {
+                      node.compute();
+                      if (node.parent != null) {
+                        node.parent.fold(
+                            node.entry.getSize(),
+                            node.entry.getChecksumMd5(),
+                            node.entry.getChecksumCrc32c());
+                      }
+                      return 1;
+                    })
+            .toList();
+    runAll(tasks);
+  }
+
+  /**
+   * Run the tasks on the shared pool, with no more than the permitted number running at once, and
+   * wait for them to complete. If one fails or this thread is interrupted, the rest are cancelled.
+   */
+  private <T> void runAll(List<Callable<T>> tasks) throws InterruptedException {
+    List<Future<T>> futures = new ArrayList<>(tasks.size());
+    try {
+      for (Callable<T> task : tasks) {
+        permits.acquire();
+        futures.add(
+            executor.submit(
+                () -> {
+                  try {
+                    return task.call();
+                  } finally {
+                    permits.release();
+                  }
+                }));
+      }
+    } catch (InterruptedException e) {
+      futures.forEach(future -> future.cancel(true));
+      throw e;
+    }
+    FutureUtils.waitFor(futures);
+  }
+
+  /** A file reference found while enumerating a level, with the directory it is in */
+  private record FileRef(DirectoryNode parent, FireStoreDirectoryEntry entry) {}
+
+  /**
+   * A directory in the tree being computed. It holds no children, only the total size and the
+   * checksums of those folded into it so far, which are released once it has been computed.
+   */
+  private static class DirectoryNode {
+    private final FireStoreDirectoryEntry entry;
+    private final DirectoryNode parent;
+    private long size;
+    private List<String> md5s = new ArrayList<>();
+    private List<String> crc32cs = new ArrayList<>();
+
+    DirectoryNode(FireStoreDirectoryEntry entry, DirectoryNode parent) {
+      this.entry = entry;
+      this.parent = parent;
+    }
+
+    // Same filtering as SnapshotCompute.updateDirectoryEntryChecksums
+    synchronized void fold(long childSize, String md5, String crc32c) {
+      size += childSize;
+      if (!StringUtils.isEmpty(md5)) {
+        md5s.add(md5.toLowerCase());
+      }
+      if (!StringUtils.isEmpty(crc32c)) {
+        crc32cs.add(crc32c.toLowerCase());
+      }
+    }
+
+    synchronized void compute() {
+      SnapshotCompute.updateDirectoryEntryChecksums(entry, size, md5s, crc32cs);
+      md5s = null;
+      crc32cs = null;
+    }
+  }
+}
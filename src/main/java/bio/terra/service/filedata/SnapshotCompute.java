@@ -109,7 +109,22 @@ public class SnapshotCompute {
         md5Collection.add(dirItem.getChecksumMd5().toLowerCase());
       }
     }
+    updateDirectoryEntryChecksums(dirEntry, totalSize, md5Collection, crc32cCollection);
+  }
 
+  /**
+   * Compute a directory's checksums from the lowercase, non-empty checksums of its contents.
+   *
+   * @param dirEntry the directory, updated in place
+   * @param totalSize the total size of the directory's contents
+   * @param md5Collection the md5 checksums of its contents; sorted in place
+   * @param crc32cCollection the crc32c checksums of its contents; sorted in place
+   */
+  public static void updateDirectoryEntryChecksums(
+      FireStoreDirectoryEntry dirEntry,
+      long totalSize,
+      List<String> md5Collection,
+      List<String> crc32cCollection) {
     // Compute checksums
     // The spec is not 100% clear on the algorithm. I made specific choices on
     // how to implement it:
@@ -0,0 +1,61 @@
+package bio.terra.service.filedata;
+
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of the directory paths copied into a snapshot's file system while it is being built. One
+ * index is used for the whole of a snapshot creation, so each directory shared by the files in the
+ * snapshot is looked up in the dataset and written to the snapshot exactly once, however the files
+ * are batched.
+ *
+ * <p>The index is safe to use from several threads: each new directory path is handed to exactly
+ * one caller.
+ */
+public class SnapshotDirectoryPathIndex {
+  private final Set<String> paths = ConcurrentHashMap.newKeySet();
+  private final AtomicLong directoryReferences = new AtomicLong();
+
+  /**
+   * Add the directories containing the given file entries to the index.
+   *
+   * @param fileEntries dataset entries of files being added to the snapshot
+   * @return lookup paths of the directories that were not in the index yet. The caller is
+   *     responsible for copying them into the snapshot.
+   */
+  public Set<String> addDirectoriesOf(List<FireStoreDirectoryEntry> fileEntries) {
+    Set<String> newPaths = new HashSet<>();
+    for (FireStoreDirectoryEntry entry : fileEntries) {
+      // Only the real directories - not the leaf file reference or the root
+      String lookupDirPath = FileMetadataUtils.makeLookupPath(entry.getPath());
+      for (String testPath = lookupDirPath;
+          !testPath.isEmpty() && !testPath.equals(FileMetadataUtils.ROOT_DIR_NAME);
+          testPath = FileMetadataUtils.getDirectoryPath(testPath)) {
+        directoryReferences.incrementAndGet();
+        if (paths.add(testPath)) {
+          newPaths.add(testPath);
+        }
+      }
+    }
+    return newPaths;
+  }
+
+  /**
+   * @return the number of distinct directories in the index, each read and written once
+   */
+  public int getDirectoryCount() {
+    return paths.size();
+  }
+
+  /**
+   * @return the number of times a directory was found above a file entry, which is the number of
+   *     times directories would be read and written without the index
+   */
+  public long getDirectoryReferenceCount() {
+    return directoryReferences.get();
+  }
+}
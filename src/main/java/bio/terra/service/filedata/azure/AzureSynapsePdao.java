@@ -4,6 +4,8 @@ import static bio.terra.common.PdaoConstant.PDAO_COUNT_COLUMN_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_FILTERED_ROW_COUNT_COLUMN_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_MAX_VALUE_COLUMN_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_MIN_VALUE_COLUMN_NAME;
+import static bio.terra.common.PdaoConstant.PDAO_PAGE_ANCHOR_COLUMN_NAME;
+import static bio.terra.common.PdaoConstant.PDAO_PAGE_ROW_ID_COLUMN_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_ROW_ID_COLUMN;
 import static bio.terra.common.PdaoConstant.PDAO_ROW_ID_PARQUET_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_ROW_ID_TABLE;
@@ -65,6 +67,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.NotImplementedException;
@@ -315,6 +318,8 @@ public class AzureSynapsePdao {
               FILE_FORMAT = [<fileFormat>]
           ) AS SELECT <columns:{c|[<c.name>]}; separator=","> FROM [<scratchTableName>] <where> <nullChecks>;""";
 
+  private static final int REF_ID_FETCH_SIZE = 10_000;
+
   private static final String QUERY_COLUMNS_FROM_EXTERNAL_TABLE_TEMPLATE =
       "SELECT DISTINCT [<refCol>] FROM [<tableName>] WHERE [<refCol>] IS NOT NULL;";
 
@@ -363,6 +368,42 @@ public class AzureSynapsePdao {
           WHERE final_rows.[datarepo_row_number] >= :offset
             AND final_rows.[datarepo_row_number] \\<= :offset + :limit;""";
 
+  // Rows are ordered by the sort column and then by row id, so a page can continue after the last
+  // row of the previous page by seeking past it. The row counts are only computed for the first
+  // page.
+  private static final String QUERY_PAGE_FROM_DATASOURCE_TEMPLATE =
+      """
+          WITH all_rows AS (
+            SELECT <columns:{c|
+              <if(c.requiresTypeCast)>CAST(rows.[<c.name>] as <c.synapseDataType>) AS [<c.name>]
+              <else>rows.[<c.name>]<endif>}; separator=",">
+            <if(includeTotalRowCount)>,
+            count(*) over () <totalRowCountColumnName>
+            <endif>
+            FROM OPENROWSET(BULK '<parquetFileLocation>',
+                          DATA_SOURCE = '<datasource>',
+                          FORMAT='PARQUET') WITH (
+                            <columns:{c|[<c.name>] <if(c.requiresTypeCast)>varchar(max)<else><c.synapseDataType><endif>
+                            <if(c.requiresCollate)> COLLATE <collation><endif>
+                            }; separator=", ">
+                           ) AS rows),
+          filtered_rows AS (SELECT * FROM all_rows <userFilter>)
+          SELECT TOP (:limit) <columns:{c|filtered_rows.[<c.name>]}; separator=",">,
+            filtered_rows.[<rowIdColumn>] AS [<pageRowIdColumnName>]
+            <if(includeCounts)>
+              ,count(*) over () <filteredRowCountColumnName>
+              <if(includeTotalRowCount)>,filtered_rows.[<totalRowCountColumnName>]<endif>
+            <endif>
+          FROM filtered_rows
+          <if(seekCondition)>
+          CROSS JOIN (
+            SELECT [<sort>] AS [<pageAnchorColumnName>]
+              FROM filtered_rows
+              WHERE [<rowIdColumn>] = :afterRowId) AS page_anchor
+          WHERE <seekCondition>
+          <endif>
+          ORDER BY filtered_rows.[<sort>] <direction>, filtered_rows.[<rowIdColumn>] <direction>;""";
+
   private static final String QUERY_TEXT_COLUMN_STATS_TEMPLATE =
       """
       SELECT <column>,count(*) AS <countColumn>
@@ -471,6 +512,21 @@ public class AzureSynapsePdao {
 
   public List<String> getRefIds(
       String tableName, SynapseColumn refColumn, CollectionType collectionType) {
+    var refIds = new ArrayList<String>();
+    streamRefIds(tableName, refColumn, collectionType, refIds::add);
+    return refIds;
+  }
+
+  /**
+   * Pass the distinct file ids of a fileref column to a consumer until it returns false. Rows are
+   * fetched from Synapse {@link #REF_ID_FETCH_SIZE} at a time as the consumer takes them, so the
+   * ids of a large table are never all held in memory.
+   */
+  public void streamRefIds(
+      String tableName,
+      SynapseColumn refColumn,
+      CollectionType collectionType,
+      Predicate<String> refIdConsumer) {
 
     var template =
         refColumn.isArrayOf()
@@ -483,25 +539,20 @@ public class AzureSynapsePdao {
     SQLServerDataSource ds = getDatasource();
     var query = template.render();
     try (Connection connection = ds.getConnection();
-        Statement statement = connection.createStatement();
-        ResultSet resultSet = statement.executeQuery(query)) {
-      var refIds = new ArrayList<String>();
-      switch (collectionType) {
-        case SNAPSHOT:
-          while (resultSet.next()) {
-            extractFileIdFromDrs(resultSet.getString(refColumn.getName())).ifPresent(refIds::add);
-          }
-          break;
-        case DATASET:
-          while (resultSet.next()) {
-            String refId = resultSet.getString(refColumn.getName());
-            if (!StringUtils.isEmpty(refId)) {
-              refIds.add(refId);
-            }
-          }
-          break;
+        Statement statement = connection.createStatement()) {
+      statement.setFetchSize(REF_ID_FETCH_SIZE);
+      try (ResultSet resultSet = statement.executeQuery(query)) {
+        boolean more = true;
+        while (more && resultSet.next()) {
+          String value = resultSet.getString(refColumn.getName());
+          Optional<String> refId =
+              switch (collectionType) {
+                case SNAPSHOT -> extractFileIdFromDrs(value);
+                case DATASET -> Optional.ofNullable(value).filter(v -> !StringUtils.isEmpty(v));
+              };
+          more = refId.map(refIdConsumer::test).orElse(true);
+        }
       }
-      return refIds;
     } catch (SQLException ex) {
       throw new AzureResourceException("Could not query dataset table for fileref columns", ex);
     }
@@ -1374,6 +1425,105 @@ public class AzureSynapsePdao {
     }
   }
 
+  /**
+   * Read a page of table data by keyset: the page starts after the row with the given row id, in
+   * the order of the sort column and then the row id. Each result row carries its page row id, so
+   * the next page can start after the last of them.
+   *
+   * @param afterRowId row id of the last row of the previous page, or null to read the first page.
+   *     The filtered and total row counts are only included in the first page.
+   */
+  public List<SynapseDataResultModel> getTableDataPage(
+      Table table,
+      String tableName,
+      String dataSourceName,
+      String parquetFileLocation,
+      int limit,
+      String sort,
+      SqlSortDirection direction,
+      String userFilter,
+      CollectionType collectionType,
+      UUID afterRowId) {
+
+    // Ensure that the sort column is a valid column
+    if (!sort.equals(PDAO_ROW_ID_COLUMN)) {
+      table
+          .getColumnByName(sort)
+          .orElseThrow(
+              () ->
+                  new InvalidColumnException(
+                      "Column %s was not found in the snapshot table %s"
+                          .formatted(sort, tableName)));
+    }
+
+    List<SynapseColumn> columns =
+        ListUtils.union(
+            List.of(
+                Column.toSynapseColumn(
+                    new Column().name(PDAO_ROW_ID_COLUMN).type(TableDataType.STRING))),
+            table.getSynapseColumns());
+    boolean firstPage = afterRowId == null;
+    boolean includeTotalRowCount = collectionType.equals(CollectionType.DATASET) && firstPage;
+    final String sql =
+        new ST(QUERY_PAGE_FROM_DATASOURCE_TEMPLATE)
+            .add("columns", columns)
+            .add("datasource", dataSourceName)
+            .add("parquetFileLocation", parquetFileLocation)
+            .add("sort", sort)
+            .add("direction", direction)
+            .add("userFilter", QueryUtils.formatAndParseUserFilter(userFilter))
+            .add("includeCounts", firstPage)
+            .add("includeTotalRowCount", includeTotalRowCount)
+            .add("totalRowCountColumnName", PDAO_TOTAL_ROW_COUNT_COLUMN_NAME)
+            .add("filteredRowCountColumnName", PDAO_FILTERED_ROW_COUNT_COLUMN_NAME)
+            .add("rowIdColumn", PDAO_ROW_ID_COLUMN)
+            .add("pageRowIdColumnName", PDAO_PAGE_ROW_ID_COLUMN_NAME)
+            .add("pageAnchorColumnName", PDAO_PAGE_ANCHOR_COLUMN_NAME)
+            .add(
+                "seekCondition",
+                firstPage
+                    ? null
+                    : QueryUtils.keysetSeekCondition(
+                        "filtered_rows.[%s]".formatted(sort),
+                        "page_anchor.[%s]".formatted(PDAO_PAGE_ANCHOR_COLUMN_NAME),
+                        "filtered_rows.[%s]".formatted(PDAO_ROW_ID_COLUMN),
+                        ":afterRowId",
+                        direction))
+            .add("collation", DEFAULT_COLLATION)
+            .render();
+    Map<String, Object> params = new HashMap<>();
+    params.put("limit", limit);
+    if (!firstPage) {
+      params.put("afterRowId", afterRowId.toString());
+    }
+    try {
+      return synapseJdbcTemplate.query(
+          sql,
+          params,
+          (rs, rowNum) -> {
+            SynapseDataResultModel resultModel =
+                new SynapseDataResultModel()
+                    .rowResult(
+                        columns.stream()
+                            .collect(
+                                Collectors.toMap(
+                                    Column::getName,
+                                    c -> Optional.ofNullable(extractValue(rs, c)))))
+                    .pageRowId(rs.getString(PDAO_PAGE_ROW_ID_COLUMN_NAME));
+            if (firstPage) {
+              resultModel.filteredCount(rs.getInt(PDAO_FILTERED_ROW_COUNT_COLUMN_NAME));
+            }
+            if (includeTotalRowCount) {
+              resultModel.totalCount(rs.getInt(PDAO_TOTAL_ROW_COUNT_COLUMN_NAME));
+            }
+            return resultModel;
+          });
+    } catch (DataAccessException ex) {
+      logger.warn(EMPTY_TABLE_ERROR_MESSAGE, ex);
+      return new ArrayList<>();
+    }
+  }
+
   public int executeSynapseQuery(String query) throws SQLException {
     SQLServerDataSource ds = getDatasource();
     try (Connection connection = ds.getConnection();
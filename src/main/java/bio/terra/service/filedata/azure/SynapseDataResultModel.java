@@ -36,4 +36,9 @@ public class SynapseDataResultModel extends DataResultModel {
     this.filteredCount = filteredCount;
     return this;
   }
+
+  public SynapseDataResultModel pageRowId(String pageRowId) {
+    this.pageRowId = pageRowId;
+    return this;
+  }
 }
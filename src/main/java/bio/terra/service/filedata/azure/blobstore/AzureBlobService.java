@@ -2,20 +2,26 @@ package bio.terra.service.filedata.azure.blobstore;
 
 import bio.terra.service.filedata.azure.util.BlobContainerClientFactory;
 import bio.terra.service.filedata.azure.util.BlobCrl;
+import bio.terra.service.filedata.azure.util.UserDelegationKeyCache;
 import bio.terra.service.resourcemanagement.azure.AzureResourceConfiguration;
 import com.azure.core.credential.TokenCredential;
 import com.azure.storage.common.policy.RequestRetryOptions;
 import com.azure.storage.common.policy.RetryPolicyType;
+import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AzureBlobService {
   private final AzureResourceConfiguration resourceConfiguration;
+  private final UserDelegationKeyCache delegationKeyCache;
 
   @Autowired
-  public AzureBlobService(AzureResourceConfiguration resourceConfiguration) {
+  public AzureBlobService(
+      AzureResourceConfiguration resourceConfiguration,
+      UserDelegationKeyCache delegationKeyCache) {
     this.resourceConfiguration = resourceConfiguration;
+    this.delegationKeyCache = delegationKeyCache;
   }
 
   public RequestRetryOptions getRetryOptions() {
@@ -36,9 +42,19 @@ public class AzureBlobService {
     return new BlobContainerClientFactory(url, getRetryOptions());
   }
 
+  /**
+   * Build a client factory for a container that authenticates with a tenant's application token.
+   * The tenant scopes the delegation keys the factory signs with: they are only shared with other
+   * factories of the same tenant.
+   */
   public BlobContainerClientFactory getSourceClientFactory(
-      String accountName, TokenCredential azureCredential, String containerName) {
+      String accountName, TokenCredential azureCredential, UUID tenantId, String containerName) {
     return new BlobContainerClientFactory(
-        accountName, azureCredential, containerName, getRetryOptions());
+        accountName,
+        azureCredential,
+        String.valueOf(tenantId),
+        containerName,
+        getRetryOptions(),
+        delegationKeyCache);
   }
 }
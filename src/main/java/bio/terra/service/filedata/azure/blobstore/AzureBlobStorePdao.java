@@ -25,6 +25,7 @@ import bio.terra.service.filedata.azure.util.BlobContainerCopier;
 import bio.terra.service.filedata.azure.util.BlobContainerCopyInfo;
 import bio.terra.service.filedata.azure.util.BlobCrl;
 import bio.terra.service.filedata.azure.util.BlobSasTokenOptions;
+import bio.terra.service.filedata.azure.util.ContainerSasTokenSasUrlFactory;
 import bio.terra.service.filedata.google.firestore.FireStoreFile;
 import bio.terra.service.filedata.google.gcs.GcsPdao;
 import bio.terra.service.filedata.google.gcs.GcsProjectFactory;
@@ -323,6 +324,7 @@ public class AzureBlobStorePdao implements CloudFileReader {
       return azureBlobService.getSourceClientFactory(
           blobUrlParts.getAccountName(),
           resourceConfiguration.getAppToken(tenantId),
+          tenantId,
           blobUrlParts.getBlobContainerName());
     }
   }
@@ -462,9 +464,6 @@ public class AzureBlobStorePdao implements CloudFileReader {
       AzureStorageAccountResource storageAccountResource,
       String url,
       BlobSasTokenOptions blobSasTokenOptions) {
-    BlobContainerClientFactory destinationClientFactory =
-        getTargetDataClientFactory(profileModel, storageAccountResource, blobSasTokenOptions);
-
     BlobUrlParts blobParts = BlobUrlParts.parse(url);
     if (!blobParts.getAccountName().equals(storageAccountResource.getName())) {
       throw new PdaoException(
@@ -473,8 +472,11 @@ public class AzureBlobStorePdao implements CloudFileReader {
               blobParts.getAccountName(), storageAccountResource.getName()));
     }
     String blobName = blobParts.getBlobName();
-    return destinationClientFactory
-        .getBlobSasUrlFactory()
+    // Only the container's SAS token is needed to sign a blob URL, so no client is built for it
+    String signedContainerUrl =
+        azureContainerPdao.getDestinationContainerSignedUrl(
+            profileModel, storageAccountResource, blobSasTokenOptions);
+    return new ContainerSasTokenSasUrlFactory(BlobUrlParts.parse(signedContainerUrl))
         .createSasUrlForBlob(blobName, blobSasTokenOptions);
   }
 
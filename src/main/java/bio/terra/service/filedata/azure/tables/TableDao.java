@@ -12,7 +12,7 @@ import bio.terra.service.filedata.FSDir;
 import bio.terra.service.filedata.FSFile;
 import bio.terra.service.filedata.FSItem;
 import bio.terra.service.filedata.FileMetadataUtils;
-import bio.terra.service.filedata.SnapshotCompute;
+import bio.terra.service.filedata.ParallelSnapshotCompute;
 import bio.terra.service.filedata.SnapshotComputeHelper;
 import bio.terra.service.filedata.exception.FileNotFoundException;
 import bio.terra.service.filedata.exception.FileSystemExecutionException;
@@ -22,18 +22,24 @@ import bio.terra.service.filedata.google.firestore.InterruptibleConsumer;
 import bio.terra.service.resourcemanagement.azure.AzureAuthService;
 import bio.terra.service.resourcemanagement.azure.AzureStorageAuthInfo;
 import bio.terra.service.snapshot.Snapshot;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 // Operations on a file often need to touch file and directory collections that is,
@@ -59,6 +65,7 @@ public class TableDao {
   private final AzureAuthService azureAuthService;
   private final ConfigurationService configurationService;
   private final PerformanceLogger performanceLogger;
+  private final ExecutorService snapshotComputeExecutor;
 
   @Autowired
   public TableDao(
@@ -66,12 +73,14 @@ public class TableDao {
       TableFileDao fileDao,
       AzureAuthService azureAuthService,
       ConfigurationService configurationService,
-      PerformanceLogger performanceLogger) {
+      PerformanceLogger performanceLogger,
+      @Qualifier("snapshotComputeThreadpool") ExecutorService snapshotComputeExecutor) {
     this.directoryDao = directoryDao;
     this.fileDao = fileDao;
     this.azureAuthService = azureAuthService;
     this.configurationService = configurationService;
     this.performanceLogger = performanceLogger;
+    this.snapshotComputeExecutor = snapshotComputeExecutor;
   }
 
   public void createDirectoryEntry(
@@ -151,8 +160,8 @@ public class TableDao {
     TableServiceClient tableServiceClient = azureAuthService.getTableServiceClient(storageAuthInfo);
     List<FireStoreDirectoryEntry> directoryEntries =
         directoryDao.enumerateFileRefEntries(tableServiceClient, collectionId, offset, limit);
-    TableServiceClient datasetTableServiceClient =
-        azureAuthService.getTableServiceClient(datasetStorageAuthInfo);
+    TableServiceAsyncClient datasetTableServiceClient =
+        azureAuthService.getTableServiceAsyncClient(datasetStorageAuthInfo);
     List<FireStoreFile> files =
         fileDao.batchRetrieveFileMetadata(datasetTableServiceClient, datasetId, directoryEntries);
     // setting enforceMatchingDirectoryEntries to false in order to ignore directory entries that
@@ -163,7 +172,7 @@ public class TableDao {
   public void snapshotCompute(
       Snapshot snapshot,
       TableServiceClient snapshotTableServiceClient,
-      TableServiceClient datasetTableServiceClient)
+      TableServiceAsyncClient datasetTableServiceClient)
       throws InterruptedException {
 
     UUID datasetId = snapshot.getSourceDataset().getId();
@@ -182,7 +191,12 @@ public class TableDao {
 
       StorageTableComputeHelper helper =
           getHelper(datasetTableServiceClient, snapshotTableServiceClient, datasetId, snapshotId);
-      SnapshotCompute.computeDirectory(helper, topDir, updateBatch);
+      new ParallelSnapshotCompute(
+              helper,
+              snapshotComputeExecutor,
+              configurationService.getParameterValue(ConfigEnum.SNAPSHOT_COMPUTE_PARALLELISM),
+              configurationService.getParameterValue(ConfigEnum.AZURE_SNAPSHOT_BATCH_SIZE))
+          .computeDirectory(topDir, updateBatch);
 
       performanceLogger.timerEndAndLog(
           retrieveTimer,
@@ -296,6 +310,65 @@ public class TableDao {
         fileId);
   }
 
+  /**
+   * Retrieve a batch of files and directories of a snapshot. The directory entries are looked up
+   * concurrently on the non-blocking table client, and the metadata of all of the files among them
+   * is then retrieved from the dataset together.
+   *
+   * @param datasetId the dataset that the snapshot's files belong to
+   * @param snapshotId the snapshot containing the directory entries
+   * @param fileIds ids of the files or directories
+   * @param enumerateDepth how far to enumerate the directories, as for {@link #retrieveById}
+   * @return map of file id to item; ids that are not found, and files whose metadata is not found,
+   *     are left out
+   */
+  public Map<String, FSItem> batchRetrieveSnapshotItems(
+      UUID datasetId,
+      UUID snapshotId,
+      List<String> fileIds,
+      int enumerateDepth,
+      AzureStorageAuthInfo snapshotStorageAuthInfo,
+      AzureStorageAuthInfo datasetStorageAuthInfo) {
+    Map<String, FireStoreDirectoryEntry> entries =
+        directoryDao.batchRetrieveById(
+            azureAuthService.getTableServiceAsyncClient(snapshotStorageAuthInfo),
+            StorageTableName.SNAPSHOT.toTableName(snapshotId),
+            fileIds);
+
+    List<FireStoreDirectoryEntry> fileRefs =
+        entries.values().stream().filter(FireStoreDirectoryEntry::getIsFileRef).toList();
+    Map<String, FireStoreFile> filesById =
+        fileDao
+            .batchRetrieveFileMetadata(
+                azureAuthService.getTableServiceAsyncClient(datasetStorageAuthInfo),
+                datasetId.toString(),
+                fileRefs)
+            .stream()
+            .collect(Collectors.toMap(FireStoreFile::getFileId, Function.identity()));
+
+    TableServiceClient tableServiceClient =
+        azureAuthService.getTableServiceClient(snapshotStorageAuthInfo);
+    TableServiceClient datasetTableServiceClient =
+        azureAuthService.getTableServiceClient(datasetStorageAuthInfo);
+    Map<String, FSItem> items = new HashMap<>();
+    entries.forEach(
+        (fileId, entry) -> {
+          if (!entry.getIsFileRef()) {
+            items.put(
+                fileId,
+                makeFSDir(
+                    tableServiceClient,
+                    datasetTableServiceClient,
+                    datasetId.toString(),
+                    enumerateDepth,
+                    entry));
+          } else if (filesById.containsKey(fileId)) {
+            items.put(fileId, toFSFile(datasetId.toString(), entry, filesById.get(fileId)));
+          }
+        });
+    return items;
+  }
+
   public List<String> retrieveAllFileIds(TableServiceClient tableServiceClient, UUID snapshotId) {
     return directoryDao
         .enumerateAll(tableServiceClient, StorageTableName.SNAPSHOT.toTableName(snapshotId))
@@ -427,19 +500,26 @@ public class TableDao {
       throw new IllegalStateException("Expected file; got directory!");
     }
 
-    String fullPath =
-        FileMetadataUtils.getFullPath(
-            fireStoreDirectoryEntry.getPath(), fireStoreDirectoryEntry.getName());
-    String fileId = fireStoreDirectoryEntry.getFileId();
-
     // Lookup the file in its owning dataset, not in the collection. The collection may be a
     // snapshot directory
     // pointing to the files in one or more datasets.
     FireStoreFile fireStoreFile =
-        fileDao.retrieveFileMetadata(datasetTableServiceClient, datasetId, fileId);
+        fileDao.retrieveFileMetadata(
+            datasetTableServiceClient, datasetId, fireStoreDirectoryEntry.getFileId());
     if (fireStoreFile == null) {
       throw new FileSystemExecutionException("Error retrieving file metadata for file");
     }
+    return toFSFile(datasetId, fireStoreDirectoryEntry, fireStoreFile);
+  }
+
+  private FSFile toFSFile(
+      String datasetId,
+      FireStoreDirectoryEntry fireStoreDirectoryEntry,
+      FireStoreFile fireStoreFile) {
+    String fullPath =
+        FileMetadataUtils.getFullPath(
+            fireStoreDirectoryEntry.getPath(), fireStoreDirectoryEntry.getName());
+    String fileId = fireStoreDirectoryEntry.getFileId();
 
     FSFile fsFile = new FSFile();
     fsFile
@@ -481,7 +561,7 @@ public class TableDao {
   // TODO: Implement computeDirectory to recursively compute the size and checksums of a directory
 
   public StorageTableComputeHelper getHelper(
-      TableServiceClient datasetTableServiceClient,
+      TableServiceAsyncClient datasetTableServiceClient,
       TableServiceClient snapshotTableServiceClient,
       UUID datasetId,
       UUID snapshotId) {
@@ -499,7 +579,7 @@ public class TableDao {
 
     private final TableDirectoryDao directoryDao;
     private final TableFileDao fileDao;
-    private final TableServiceClient datasetTableServiceClient;
+    private final TableServiceAsyncClient datasetTableServiceClient;
     private final TableServiceClient snapshotTableServiceClient;
     private final UUID datasetId;
     private final UUID snapshotId;
@@ -509,7 +589,7 @@ public class TableDao {
     StorageTableComputeHelper(
         TableDirectoryDao directoryDao,
         TableFileDao fileDao,
-        TableServiceClient datasetTableServiceClient,
+        TableServiceAsyncClient datasetTableServiceClient,
         TableServiceClient snapshotTableServiceClient,
         UUID datasetId,
         UUID snapshotId,
@@ -10,7 +10,6 @@ import com.azure.data.tables.TableClient;
 import com.azure.data.tables.TableServiceClient;
 import com.azure.data.tables.models.ListEntitiesOptions;
 import com.azure.data.tables.models.TableEntity;
-import com.azure.data.tables.models.TableTransactionAction;
 import com.azure.data.tables.models.TableTransactionActionType;
 import java.util.ArrayList;
 import java.util.List;
@@ -49,6 +48,10 @@ public class TableDependencyDao {
     String dependencyTableName = StorageTableName.DEPENDENCIES.toTableName(datasetId);
     tableServiceClient.createTableIfNotExists(dependencyTableName);
     TableClient tableClient = tableServiceClient.getTableClient(dependencyTableName);
+    // All of a snapshot's dependencies share a partition, so they are written in full transactions
+    TableTransactionBatcher batcher =
+        new TableTransactionBatcher(
+            tableClient, TableTransactionActionType.UPSERT_REPLACE, azureTableThreadpool);
     // The partition size is one less than the MAX_FILTER_CLAUSES to account for the snapshotId
     // filter
     List<Future<Void>> futures = new ArrayList<>();
@@ -76,35 +79,25 @@ public class TableDependencyDao {
                     entities.stream()
                         .map(e -> e.getProperty(FireStoreDependency.FILE_ID_FIELD_NAME).toString())
                         .toList();
-                // Create any entities that do not already exist
-                List<TableTransactionAction> batchEntities =
+                // Create any entities that do not already exist. Every entity may already exist
+                // if retrying a failed step, in which case nothing is added.
+                batcher.add(
                     refIdChunk.stream()
                         .filter(id -> !existing.contains(id))
                         .map(
-                            refId -> {
-                              FireStoreDependency fireStoreDependency =
-                                  new FireStoreDependency()
-                                      .snapshotId(snapshotId.toString())
-                                      .fileId(refId)
-                                      .refCount(1L);
-                              TableEntity fireStoreDependencyEntity =
-                                  FireStoreDependency.toTableEntity(fireStoreDependency);
-                              return new TableTransactionAction(
-                                  TableTransactionActionType.UPSERT_REPLACE,
-                                  fireStoreDependencyEntity);
-                            })
-                        .toList();
-                if (!batchEntities.isEmpty()) {
-                  // This can happen if retrying a failed transaction.  This would cause an
-                  // IllegalArgumentException with message "A transaction must contain at least one
-                  // operation"
-                  tableClient.submitTransaction(batchEntities);
-                }
+                            refId ->
+                                FireStoreDependency.toTableEntity(
+                                    new FireStoreDependency()
+                                        .snapshotId(snapshotId.toString())
+                                        .fileId(refId)
+                                        .refCount(1L)))
+                        .toList());
                 // Needed in order to return a Future<Void>
                 return null;
               }));
     }
     FutureUtils.waitFor(futures);
+    batcher.flush();
   }
 
   public void deleteSnapshotFileDependencies(
@@ -118,7 +111,11 @@ public class TableDependencyDao {
       PagedIterable<TableEntity> entities = tableClient.listEntities(options, null, null);
       logger.info(
           "Deleting snapshot {} file dependencies from {}", snapshotId, dependencyTableName);
-      entities.stream().forEach(tableClient::deleteEntity);
+      TableTransactionBatcher batcher =
+          new TableTransactionBatcher(
+              tableClient, TableTransactionActionType.DELETE, azureTableThreadpool);
+      entities.iterableByPage().forEach(page -> batcher.add(page.getValue()));
+      batcher.flush();
     } else {
       logger.warn("No snapshot file dependencies found to be deleted from dataset");
     }
@@ -1,39 +1,44 @@
 package bio.terra.service.filedata.azure.tables;
 
+import bio.terra.app.logging.PerformanceLogger;
 import bio.terra.common.FutureUtils;
 import bio.terra.service.common.azure.StorageTableName;
-import bio.terra.service.configuration.ConfigEnum;
-import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.filedata.FileMetadataUtils;
+import bio.terra.service.filedata.SnapshotDirectoryPathIndex;
 import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
 import bio.terra.service.filedata.exception.FileSystemExecutionException;
 import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
 import bio.terra.service.resourcemanagement.azure.AzureResourceConfiguration;
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.data.tables.TableAsyncClient;
 import com.azure.data.tables.TableClient;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 import com.azure.data.tables.models.ListEntitiesOptions;
 import com.azure.data.tables.models.TableEntity;
 import com.azure.data.tables.models.TableServiceException;
+import com.azure.data.tables.models.TableTransactionActionType;
 import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.map.LRUMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 /**
  * Paths and document names Azure uses forward slash (/) for its path separator. We also use forward
@@ -69,15 +74,19 @@ import org.springframework.stereotype.Component;
 public class TableDirectoryDao {
   private final Logger logger = LoggerFactory.getLogger(TableDirectoryDao.class);
   private static final int MAX_FILTER_CLAUSES = 15;
-  private final ConfigurationService configurationService;
+  private static final int HTTP_NOT_FOUND = 404;
   private final AsyncTaskExecutor azureTableThreadpool;
+  private final TableRequestWindow tableRequestWindow;
+  private final PerformanceLogger performanceLogger;
 
   public TableDirectoryDao(
-      ConfigurationService configurationService,
       @Qualifier(AzureResourceConfiguration.TABLE_THREADPOOL_NAME)
-          AsyncTaskExecutor azureTableThreadpool) {
-    this.configurationService = configurationService;
+          AsyncTaskExecutor azureTableThreadpool,
+      TableRequestWindow tableRequestWindow,
+      PerformanceLogger performanceLogger) {
     this.azureTableThreadpool = azureTableThreadpool;
+    this.tableRequestWindow = tableRequestWindow;
+    this.performanceLogger = performanceLogger;
   }
 
   public String encodePathAsAzureRowKey(String path) {
@@ -135,14 +144,20 @@ public class TableDirectoryDao {
       UUID collectionId,
       String tableName,
       FireStoreDirectoryEntry createEntry) {
-    String fullPath = FileMetadataUtils.getFullPath(createEntry.getPath(), createEntry.getName());
+    TableEntity createEntryEntity = toEntityForPath(collectionId, createEntry);
+    logger.info(
+        "Upserting directory entry for {} in table {}",
+        FileMetadataUtils.getFullPath(createEntry.getPath(), createEntry.getName()),
+        tableName);
+    tableClient.upsertEntity(createEntryEntity);
+  }
+
+  private TableEntity toEntityForPath(UUID collectionId, FireStoreDirectoryEntry entry) {
+    String fullPath = FileMetadataUtils.getFullPath(entry.getPath(), entry.getName());
     String lookupPath = FileMetadataUtils.makeLookupPath(fullPath);
     String partitionKey = getCollectionPartitionKey(collectionId, lookupPath);
     String rowKey = encodePathAsAzureRowKey(lookupPath);
-    TableEntity createEntryEntity =
-        FireStoreDirectoryEntry.toTableEntity(partitionKey, rowKey, createEntry);
-    logger.info("Upserting directory entry for {} in table {}", fullPath, tableName);
-    tableClient.upsertEntity(createEntryEntity);
+    return FireStoreDirectoryEntry.toTableEntity(partitionKey, rowKey, entry);
   }
 
   // true - directory entry existed and was deleted; false - directory entry did not exist
@@ -200,6 +215,54 @@ public class TableDirectoryDao {
         .orElse(null);
   }
 
+  /**
+   * Look up directory entries by file id. The ids are looked up in chunks sent concurrently on the
+   * non-blocking table client, bounded by the {@link TableRequestWindow}.
+   *
+   * @return the entries found, by file id; ids with no entry, or with more than one, are left out
+   */
+  public Map<String, FireStoreDirectoryEntry> batchRetrieveById(
+      TableServiceAsyncClient tableServiceClient, String tableName, List<String> fileIds) {
+    TableAsyncClient tableClient = tableServiceClient.getTableClient(tableName);
+    Map<String, List<FireStoreDirectoryEntry>> entriesById =
+        tableRequestWindow
+            .requestAll(
+                ListUtils.partition(fileIds.stream().distinct().toList(), MAX_FILTER_CLAUSES),
+                fileIdChunk -> lookupByFileIds(tableClient, fileIdChunk))
+            .stream()
+            .flatMap(List::stream)
+            .collect(Collectors.groupingBy(FireStoreDirectoryEntry::getFileId));
+    Map<String, FireStoreDirectoryEntry> entries = new HashMap<>();
+    entriesById.forEach(
+        (fileId, found) -> {
+          if (found.size() == 1) {
+            entries.put(fileId, found.get(0));
+          } else {
+            logger.warn("batchRetrieveById found {} entries for fileId {}", found.size(), fileId);
+          }
+        });
+    return entries;
+  }
+
+  private Mono<List<FireStoreDirectoryEntry>> lookupByFileIds(
+      TableAsyncClient tableClient, List<String> fileIdChunk) {
+    ListEntitiesOptions options =
+        new ListEntitiesOptions().setFilter(TableServiceClientUtils.fileIdFilter(fileIdChunk));
+    return tableClient
+        .listEntities(options)
+        .map(FireStoreDirectoryEntry::fromTableEntity)
+        .collectList()
+        // if there is no table yet, then none of the ids are found
+        .onErrorResume(
+            TableServiceException.class,
+            ex -> {
+              if (ex.getResponse() != null && ex.getResponse().getStatusCode() == HTTP_NOT_FOUND) {
+                return Mono.just(List.of());
+              }
+              return Mono.error(ex);
+            });
+  }
+
   // Returns null if not found - upper layers do any throwing
   public FireStoreDirectoryEntry retrieveByPath(
       TableServiceClient tableServiceClient, UUID collectionId, String tableName, String fullPath) {
@@ -225,31 +288,44 @@ public class TableDirectoryDao {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Find the file ids that are not in the dataset. The ids are looked up in chunks sent
+   * concurrently on the non-blocking table client, bounded by the {@link TableRequestWindow}.
+   *
+   * @return the ids in refIdArray that are not files of the dataset
+   */
   public List<String> validateRefIds(
-      TableServiceClient tableServiceClient, UUID datasetId, List<String> refIdArray) {
-    logger.info("validateRefIds for {} file ids", refIdArray.size());
-    List<Future<Stream<String>>> futures = new ArrayList<>();
-    for (List<String> refIdChunk : ListUtils.partition(refIdArray, MAX_FILTER_CLAUSES)) {
-      futures.add(
-          azureTableThreadpool.submit(
-              () -> {
-                List<TableEntity> fileRefs =
-                    TableServiceClientUtils.batchRetrieveFiles(
-                        tableServiceClient, datasetId, refIdChunk);
-                // if no files were retrieved, then every file in list is not valid
-                if (fileRefs.isEmpty()) {
-                  return refIdChunk.stream();
-                }
-                // if any files were retrieved, then remove from invalid list
-                Set<String> validRefIds =
-                    fileRefs.stream()
-                        .map(e -> e.getProperty("fileId").toString())
-                        .collect(Collectors.toSet());
-                return refIdChunk.stream().filter(id -> !validRefIds.contains(id));
-              }));
-    }
-    // Flat map the results of the futures since each future returns a list of refIds
-    return FutureUtils.waitFor(futures).stream().flatMap(s -> s).toList();
+      TableServiceAsyncClient tableServiceClient, UUID datasetId, List<String> refIdArray) {
+    logger.debug("validateRefIds for {} file ids", refIdArray.size());
+    TableAsyncClient tableClient =
+        tableServiceClient.getTableClient(StorageTableName.DATASET.toTableName(datasetId));
+    return tableRequestWindow
+        .requestAll(
+            ListUtils.partition(refIdArray, MAX_FILTER_CLAUSES),
+            refIdChunk -> findInvalidRefIds(tableClient, refIdChunk))
+        .stream()
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  private Mono<List<String>> findInvalidRefIds(
+      TableAsyncClient tableClient, List<String> refIdChunk) {
+    ListEntitiesOptions options =
+        new ListEntitiesOptions().setFilter(TableServiceClientUtils.fileIdFilter(refIdChunk));
+    return tableClient
+        .listEntities(options)
+        .map(e -> e.getProperty("fileId").toString())
+        .collect(Collectors.toSet())
+        // if the dataset has no file table yet, then every file in list is not valid
+        .onErrorResume(
+            TableServiceException.class,
+            ex -> {
+              if (ex.getResponse() != null && ex.getResponse().getStatusCode() == HTTP_NOT_FOUND) {
+                return Mono.just(Set.of());
+              }
+              return Mono.error(ex);
+            })
+        .map(validRefIds -> refIdChunk.stream().filter(id -> !validRefIds.contains(id)).toList());
   }
 
   public List<FireStoreDirectoryEntry> enumerateAll(
@@ -331,13 +407,15 @@ public class TableDirectoryDao {
 
   // To improve performance of building the snapshot file system, we use three techniques:
   // 1. Operate over batches so that we can issue requests to fire store in parallel
-  // 2. Cache directory paths so that we do not due extra lookups or creates on shared directory
-  // structure
+  // 2. Index directory paths across the whole snapshot so that each directory shared by the
+  // files is looked up and created exactly once
   // 3. Rewrite rather than read, check existence, and then write. The logic here is that there is
   // no contention so the writing doesn't generate conflicts, and the typical use case is that
   // overwrites will be rare:
   //      a. File references are usually unique in the datasets we know about
-  //      b. Directories are cached, so will be overwritten based on the effectiveness of the cache
+  //      b. Directories are indexed, so are only overwritten if they were in the snapshot before
+  // 4. Write entries as storage table transactions of up to 100 entries in the same partition
+  // (directory), collected across all the batches
 
   public void addEntriesToSnapshot(
       TableServiceClient datasetTableServiceClient,
@@ -347,9 +425,10 @@ public class TableDirectoryDao {
       UUID snapshotId,
       Set<String> fileIds,
       boolean usesGlobalFileIds) {
-    int cacheSize = configurationService.getParameterValue(ConfigEnum.SNAPSHOT_CACHE_SIZE);
-    LRUMap<String, Boolean> pathMap = new LRUMap<>(cacheSize);
+    SnapshotDirectoryPathIndex pathIndex = new SnapshotDirectoryPathIndex();
     storeTopDirectory(snapshotTableServiceClient, snapshotId, datasetDirName);
+    TableTransactionBatcher batcher =
+        newSnapshotEntryBatcher(snapshotTableServiceClient, snapshotId);
     List<Future<Void>> futures = new ArrayList<>();
     for (List<String> fileIdsBatch :
         ListUtils.partition(List.copyOf(fileIds), MAX_FILTER_CLAUSES)) {
@@ -377,9 +456,8 @@ public class TableDirectoryDao {
                   throw new FileSystemExecutionException("No fileIds found in batch lookup");
                 }
 
-                // Find directory paths that need to be created; plus add to the cache
-                Set<String> newPaths =
-                    FileMetadataUtils.findNewDirectoryPaths(directoryEntries, pathMap);
+                // Find directory paths that need to be created; plus add to the index
+                Set<String> newPaths = pathIndex.addDirectoriesOf(directoryEntries);
                 List<FireStoreDirectoryEntry> datasetDirectoryEntries =
                     batchRetrieveByPath(
                         datasetTableServiceClient,
@@ -403,12 +481,30 @@ public class TableDirectoryDao {
                 // Store the batch of entries. This will override existing entries,
                 // but that is not the typical case and it is lower cost just overwrite
                 // rather than retrieve to avoid the write.
-                batchStoreDirectoryEntry(snapshotTableServiceClient, snapshotId, snapshotEntries);
+                storeDirectoryEntries(batcher, snapshotId, snapshotEntries);
 
                 return null;
               }));
     }
     FutureUtils.waitFor(futures);
+    batcher.flush();
+    logger.info(
+        "addEntriesToSnapshot wrote {} entries in {} transactions",
+        batcher.getEntityCount(),
+        batcher.getTransactionCount());
+
+    long references = pathIndex.getDirectoryReferenceCount();
+    int directories = pathIndex.getDirectoryCount();
+    logger.info(
+        "addEntriesToSnapshot copied {} directories, saving {} directory reads and writes",
+        directories,
+        references - directories);
+    performanceLogger.log(
+        snapshotId.toString(),
+        this.getClass().getName(),
+        "addEntriesToSnapshot:directoryReadsAndWritesSaved",
+        Duration.ZERO,
+        references - directories);
   }
 
   /**
@@ -450,15 +546,26 @@ public class TableDirectoryDao {
       TableServiceClient snapshotTableServiceClient,
       UUID snapshotId,
       List<FireStoreDirectoryEntry> snapshotEntries) {
+    TableTransactionBatcher batcher =
+        newSnapshotEntryBatcher(snapshotTableServiceClient, snapshotId);
+    storeDirectoryEntries(batcher, snapshotId, snapshotEntries);
+    batcher.flush();
+  }
+
+  private TableTransactionBatcher newSnapshotEntryBatcher(
+      TableServiceClient snapshotTableServiceClient, UUID snapshotId) {
     String tableName = StorageTableName.SNAPSHOT.toTableName(snapshotId);
-    TableClient tableClient = snapshotTableServiceClient.getTableClient(tableName);
-    FutureUtils.waitFor(
-        snapshotEntries.stream()
-            .map(
-                snapshotEntry ->
-                    azureTableThreadpool.submit(
-                        () ->
-                            createEntityForPath(tableClient, snapshotId, tableName, snapshotEntry)))
-            .toList());
+    return new TableTransactionBatcher(
+        snapshotTableServiceClient.getTableClient(tableName),
+        TableTransactionActionType.UPSERT_MERGE,
+        azureTableThreadpool);
+  }
+
+  private void storeDirectoryEntries(
+      TableTransactionBatcher batcher,
+      UUID snapshotId,
+      List<FireStoreDirectoryEntry> snapshotEntries) {
+    batcher.add(
+        snapshotEntries.stream().map(entry -> toEntityForPath(snapshotId, entry)).toList());
   }
 }
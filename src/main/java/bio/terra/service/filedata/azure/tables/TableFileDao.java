@@ -2,7 +2,6 @@ package bio.terra.service.filedata.azure.tables;
 
 import static bio.terra.service.common.azure.StorageTableName.FILES_TABLE;
 
-import bio.terra.common.FutureUtils;
 import bio.terra.service.filedata.exception.FileSystemExecutionException;
 import bio.terra.service.filedata.google.firestore.ApiFutureGenerator;
 import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
@@ -10,13 +9,17 @@ import bio.terra.service.filedata.google.firestore.FireStoreFile;
 import bio.terra.service.filedata.google.firestore.InterruptibleConsumer;
 import bio.terra.service.resourcemanagement.azure.AzureResourceConfiguration;
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.data.tables.TableAsyncClient;
 import com.azure.data.tables.TableClient;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 import com.azure.data.tables.models.ListEntitiesOptions;
 import com.azure.data.tables.models.TableEntity;
 import com.azure.data.tables.models.TableServiceException;
+import com.azure.data.tables.models.TableTransactionActionType;
 import com.google.api.core.SettableApiFuture;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import org.slf4j.Logger;
@@ -24,6 +27,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
 
 /**
  * TableFileDao provides CRUD operations on the "files" storage table in Azure. Objects in the file
@@ -36,12 +40,15 @@ import org.springframework.stereotype.Component;
 public class TableFileDao {
   private final Logger logger = LoggerFactory.getLogger(TableFileDao.class);
   private final AsyncTaskExecutor azureTableThreadpool;
+  private final TableRequestWindow tableRequestWindow;
   private static final String PARTITION_KEY = "partitionKey";
 
   TableFileDao(
       @Qualifier(AzureResourceConfiguration.TABLE_THREADPOOL_NAME)
-          AsyncTaskExecutor azureTableThreadpool) {
+          AsyncTaskExecutor azureTableThreadpool,
+      TableRequestWindow tableRequestWindow) {
     this.azureTableThreadpool = azureTableThreadpool;
+    this.tableRequestWindow = tableRequestWindow;
   }
 
   public void createFileMetadata(
@@ -87,25 +94,39 @@ public class TableFileDao {
   }
 
   /**
-   * Retrieve metadata from a list of directory entries.
+   * Retrieve metadata from a list of directory entries. The lookups are sent concurrently on the
+   * non-blocking table client, bounded by the {@link TableRequestWindow}.
    *
-   * @param tableServiceClient An Azure table service client
+   * @param tableServiceClient An Azure async table service client
    * @param directoryEntries List of objects to retrieve metadata for
    * @return A list of metadata object for the specified files. Note: the order of the list matches
-   *     with the order of the input list objects
+   *     with the order of the input list objects, leaving out entries that have no metadata
    */
   List<FireStoreFile> batchRetrieveFileMetadata(
-      TableServiceClient tableServiceClient,
+      TableServiceAsyncClient tableServiceClient,
       String collectionId,
       List<FireStoreDirectoryEntry> directoryEntries) {
-    return FutureUtils.waitFor(
-        directoryEntries.stream()
-            .map(
-                f ->
-                    azureTableThreadpool.submit(
-                        () ->
-                            retrieveFileMetadata(tableServiceClient, collectionId, f.getFileId())))
-            .toList());
+    TableAsyncClient tableClient =
+        tableServiceClient.getTableClient(FILES_TABLE.toTableName(UUID.fromString(collectionId)));
+    return tableRequestWindow
+        .requestAll(directoryEntries, f -> retrieveFileMetadata(tableClient, f.getFileId()))
+        .stream()
+        .flatMap(Optional::stream)
+        .toList();
+  }
+
+  private Mono<Optional<FireStoreFile>> retrieveFileMetadata(
+      TableAsyncClient tableClient, String fileId) {
+    return tableClient
+        .getEntity(PARTITION_KEY, fileId)
+        .map(entity -> Optional.of(FireStoreFile.fromTableEntity(entity)))
+        .onErrorResume(
+            TableServiceException.class,
+            ex -> {
+              // As in retrieveFileMetadata, ignore directory entries without file entries (DC-1259)
+              logger.warn("Error retrieving file metadata for fileId: {}", fileId);
+              return Mono.just(Optional.empty());
+            });
   }
 
   <V> void scanTableObjects(TableClient tableClient, ApiFutureGenerator<V, TableEntity> generator) {
@@ -134,24 +155,32 @@ public class TableFileDao {
 
     if (TableServiceClientUtils.tableHasEntries(
         tableServiceClient, FILES_TABLE.toTableName(datasetId))) {
-      scanTableObjects(
-          tableClient,
-          entity -> {
-            SettableApiFuture<Boolean> future = SettableApiFuture.create();
-            azureTableThreadpool.execute(
-                () -> {
-                  try {
-                    FireStoreFile fireStoreFile = FireStoreFile.fromTableEntity(entity);
-                    func.accept(fireStoreFile);
-                    future.set(
-                        deleteFileMetadata(
-                            tableServiceClient, datasetId.toString(), fireStoreFile.getFileId()));
-                  } catch (final Exception e) {
-                    future.setException(e);
-                  }
-                });
-            return future;
-          });
+      // File metadata is deleted in transactions of entries whose files were deleted
+      TableTransactionBatcher metadataDeletes =
+          new TableTransactionBatcher(
+              tableClient, TableTransactionActionType.DELETE, azureTableThreadpool);
+      try {
+        scanTableObjects(
+            tableClient,
+            entity -> {
+              SettableApiFuture<Boolean> future = SettableApiFuture.create();
+              azureTableThreadpool.execute(
+                  () -> {
+                    try {
+                      FireStoreFile fireStoreFile = FireStoreFile.fromTableEntity(entity);
+                      func.accept(fireStoreFile);
+                      metadataDeletes.add(List.of(entity));
+                      future.set(true);
+                    } catch (final Exception e) {
+                      future.setException(e);
+                    }
+                  });
+              return future;
+            });
+      } finally {
+        // Also after a failure, so that a retry does not delete the same files again
+        metadataDeletes.flush();
+      }
 
     } else {
       logger.warn("No files found to be deleted from dataset.");
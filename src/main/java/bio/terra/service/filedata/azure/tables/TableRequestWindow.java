@@ -0,0 +1,98 @@
+package bio.terra.service.filedata.azure.tables;
+
+import bio.terra.service.resourcemanagement.azure.AzureResourceConfiguration;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Sends batches of storage table requests on the non-blocking async table clients, rather than
+ * tying up a pool thread for the duration of every request. At most {@code
+ * maxInFlightTableRequests} requests are in flight at once across all batches sent from this pod.
+ *
+ * <p>Reports the number of requests in flight and how long requests wait for a slot in the window.
+ */
+@Component
+public class TableRequestWindow {
+  @VisibleForTesting
+  static final String IN_FLIGHT_GAUGE_NAME = "datarepo.azure.table.requests.inflight";
+
+  @VisibleForTesting
+  static final String QUEUE_WAIT_TIMER_NAME = "datarepo.azure.table.requests.queue.wait";
+
+  private final int maxInFlightRequests;
+  private final Semaphore permits;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final Timer queueWaitTimer;
+
+  @Autowired
+  public TableRequestWindow(AzureResourceConfiguration configuration, MeterRegistry meterRegistry) {
+    this(configuration.threading().maxInFlightTableRequests(), meterRegistry);
+  }
+
+  @VisibleForTesting
+  TableRequestWindow(int maxInFlightRequests, MeterRegistry meterRegistry) {
+    this.maxInFlightRequests = maxInFlightRequests;
+    this.permits = new Semaphore(maxInFlightRequests);
+    Gauge.builder(IN_FLIGHT_GAUGE_NAME, inFlight, AtomicInteger::get)
+        .description("Storage table requests sent and not yet answered")
+        .register(meterRegistry);
+    queueWaitTimer =
+        Timer.builder(QUEUE_WAIT_TIMER_NAME)
+            .description("Time storage table requests wait for a slot in the in-flight window")
+            .register(meterRegistry);
+  }
+
+  /**
+   * Send a request for each input and wait for all of them to complete. Requests wait for a slot in
+   * the pod's window before they are sent.
+   *
+   * @param inputs the inputs to send a request for
+   * @param request builds the request for an input; it is not sent until subscribed to, and must
+   *     complete with exactly one value
+   * @return the responses, in the order of the inputs
+   */
+  public <T, R> List<R> requestAll(List<T> inputs, Function<T, Mono<R>> request) {
+    // A single batch never waits on more slots than the window holds
+    return Flux.fromIterable(inputs)
+        .flatMapSequential(input -> send(input, request), maxInFlightRequests)
+        .collectList()
+        .block();
+  }
+
+  /**
+   * Send the request once a slot is free. Waiting for the slot blocks, so it is done on the bounded
+   * elastic scheduler, and the slot is released however the request ends, including by being
+   * cancelled.
+   */
+  private <T, R> Mono<R> send(T input, Function<T, Mono<R>> request) {
+    return Mono.defer(
+        () -> {
+          long queuedAt = System.nanoTime();
+          return Mono.using(
+                  () -> {
+                    permits.acquire();
+                    queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    inFlight.incrementAndGet();
+                    return input;
+                  },
+                  acquired -> request.apply(acquired).single(),
+                  acquired -> {
+                    inFlight.decrementAndGet();
+                    permits.release();
+                  })
+              .subscribeOn(Schedulers.boundedElastic());
+        });
+  }
+}
@@ -57,12 +57,20 @@ public class TableServiceClientUtils {
 
   public static List<TableEntity> batchRetrieveFiles(
       TableServiceClient tableServiceClient, UUID datasetId, List<String> fileIdArray) {
-    String filter =
-        fileIdArray.stream()
-            // maybe wrap or cause in parentheses
-            .map(refId -> String.format("fileId eq '%s'", refId))
-            .collect(Collectors.joining(" or "));
-    return filterTable(tableServiceClient, StorageTableName.DATASET.toTableName(datasetId), filter);
+    return filterTable(
+        tableServiceClient,
+        StorageTableName.DATASET.toTableName(datasetId),
+        fileIdFilter(fileIdArray));
+  }
+
+  /**
+   * @return a filter matching the entities of any of the given file ids
+   */
+  public static String fileIdFilter(List<String> fileIdArray) {
+    return fileIdArray.stream()
+        // maybe wrap or cause in parentheses
+        .map(refId -> String.format("fileId eq '%s'", refId))
+        .collect(Collectors.joining(" or "));
   }
 
   /**
@@ -0,0 +1,198 @@
+package bio.terra.service.filedata.azure.tables;
+
+import bio.terra.common.FutureUtils;
+import bio.terra.service.filedata.exception.FileSystemExecutionException;
+import com.azure.data.tables.TableClient;
+import com.azure.data.tables.models.TableEntity;
+import com.azure.data.tables.models.TableServiceException;
+import com.azure.data.tables.models.TableTransactionAction;
+import com.azure.data.tables.models.TableTransactionActionType;
+import com.azure.data.tables.models.TableTransactionFailedException;
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Collects writes to one storage table and submits them as Azure Tables transactions instead of
+ * one request per entity. A transaction may only touch a single partition and hold at most {@link
+ * #MAX_TRANSACTION_ACTIONS} actions, so entities are buffered by partition key: a partition is
+ * submitted as soon as it has a full transaction, and the rest are submitted by {@link #flush()}.
+ *
+ * <p>A transaction either applies all of its actions or none of them, so a failed transaction is
+ * simply submitted again: after a short wait if the failure is transient, or without the failed
+ * action if that action's target is already in the desired state (a delete of a missing entity).
+ * Any other failure is thrown.
+ *
+ * <p>The batcher is safe to use from several threads. Entities added more than once before they are
+ * submitted are only written once, with the last value added.
+ */
+class TableTransactionBatcher {
+  private static final Logger logger = LoggerFactory.getLogger(TableTransactionBatcher.class);
+
+  // Limit imposed by the Azure Tables service
+  @VisibleForTesting static final int MAX_TRANSACTION_ACTIONS = 100;
+  // Bounds the memory held by partitions that never fill a transaction
+  @VisibleForTesting static final int MAX_BUFFERED_ENTITIES = 10_000;
+  @VisibleForTesting static final int MAX_TRANSACTION_ATTEMPTS = 3;
+  private static final Duration RETRY_WAIT = Duration.ofSeconds(1);
+
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final int HTTP_REQUEST_TIMEOUT = 408;
+  private static final int HTTP_TOO_MANY_REQUESTS = 429;
+  private static final int HTTP_SERVER_ERROR = 500;
+
+  private final TableClient tableClient;
+  private final TableTransactionActionType actionType;
+  private final AsyncTaskExecutor executor;
+  // partition key -> row key -> entity
+  private final Map<String, Map<String, TableEntity>> partitions = new HashMap<>();
+  private int bufferedEntities = 0;
+  private final AtomicLong transactionCount = new AtomicLong();
+  private final AtomicLong entityCount = new AtomicLong();
+
+  /**
+   * @param tableClient client of the table to write to
+   * @param actionType the action applied to each entity added
+   * @param executor executor on which {@link #flush()} submits the remaining transactions
+   */
+  TableTransactionBatcher(
+      TableClient tableClient, TableTransactionActionType actionType, AsyncTaskExecutor executor) {
+    this.tableClient = tableClient;
+    this.actionType = actionType;
+    this.executor = executor;
+  }
+
+  /**
+   * Add entities to the batch. Transactions that are filled by the entities are submitted on the
+   * calling thread before this returns.
+   */
+  void add(Collection<TableEntity> entities) {
+    List<List<TableEntity>> ready = new ArrayList<>();
+    synchronized (this) {
+      for (TableEntity entity : entities) {
+        Map<String, TableEntity> partition =
+            partitions.computeIfAbsent(entity.getPartitionKey(), k -> new LinkedHashMap<>());
+        if (partition.put(entity.getRowKey(), entity) == null) {
+          bufferedEntities++;
+        }
+        if (partition.size() == MAX_TRANSACTION_ACTIONS) {
+          ready.add(List.copyOf(partition.values()));
+          partitions.remove(entity.getPartitionKey());
+          bufferedEntities -= MAX_TRANSACTION_ACTIONS;
+        }
+      }
+      if (bufferedEntities >= MAX_BUFFERED_ENTITIES) {
+        ready.addAll(drain());
+      }
+    }
+    ready.forEach(this::submit);
+  }
+
+  /** Submit the transactions for all buffered entities, in parallel, and wait for them. */
+  void flush() {
+    List<List<TableEntity>> ready;
+    synchronized (this) {
+      ready = drain();
+    }
+    List<Future<Void>> futures = new ArrayList<>();
+    for (List<TableEntity> transaction : ready) {
+      futures.add(
+          executor.submit(
+              () -> {
+                submit(transaction);
+                return null;
+              }));
+    }
+    FutureUtils.waitFor(futures);
+  }
+
+  /**
+   * @return the number of transactions submitted so far
+   */
+  long getTransactionCount() {
+    return transactionCount.get();
+  }
+
+  /**
+   * @return the number of entities written by the transactions submitted so far
+   */
+  long getEntityCount() {
+    return entityCount.get();
+  }
+
+  // Must be called holding the lock
+  private List<List<TableEntity>> drain() {
+    List<List<TableEntity>> ready = new ArrayList<>();
+    for (Map<String, TableEntity> partition : partitions.values()) {
+      ready.add(List.copyOf(partition.values()));
+    }
+    partitions.clear();
+    bufferedEntities = 0;
+    return ready;
+  }
+
+  private void submit(List<TableEntity> entities) {
+    List<TableTransactionAction> actions =
+        new ArrayList<>(
+            entities.stream().map(e -> new TableTransactionAction(actionType, e)).toList());
+    int attempt = 1;
+    while (!actions.isEmpty()) {
+      try {
+        tableClient.submitTransaction(actions);
+        transactionCount.incrementAndGet();
+        entityCount.addAndGet(actions.size());
+        return;
+      } catch (TableTransactionFailedException ex) {
+        Integer failedIndex = ex.getFailedTransactionActionIndex();
+        if (failedIndex != null && isAlreadyApplied(ex)) {
+          // Nothing in the transaction was applied; submit it again without the failed action
+          actions.remove(failedIndex.intValue());
+          continue;
+        }
+        retryOrThrow(ex, attempt++);
+      } catch (TableServiceException ex) {
+        retryOrThrow(ex, attempt++);
+      }
+    }
+  }
+
+  private boolean isAlreadyApplied(TableServiceException ex) {
+    return actionType == TableTransactionActionType.DELETE
+        && ex.getResponse() != null
+        && ex.getResponse().getStatusCode() == HTTP_NOT_FOUND;
+  }
+
+  private void retryOrThrow(TableServiceException ex, int attempt) {
+    if (attempt >= MAX_TRANSACTION_ATTEMPTS || !isTransient(ex)) {
+      throw new FileSystemExecutionException("Storage table transaction failed", ex);
+    }
+    logger.warn(
+        "Storage table transaction failed on attempt {}; retrying: {}", attempt, ex.getMessage());
+    try {
+      Thread.sleep(RETRY_WAIT.multipliedBy(attempt).toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FileSystemExecutionException(e);
+    }
+  }
+
+  private static boolean isTransient(TableServiceException ex) {
+    if (ex.getResponse() == null) {
+      return true;
+    }
+    int status = ex.getResponse().getStatusCode();
+    return status == HTTP_REQUEST_TIMEOUT
+        || status == HTTP_TOO_MANY_REQUESTS
+        || status >= HTTP_SERVER_ERROR;
+  }
+}
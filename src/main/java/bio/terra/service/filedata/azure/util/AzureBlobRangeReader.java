@@ -0,0 +1,28 @@
+package bio.terra.service.filedata.azure.util;
+
+import bio.terra.service.filedata.BlobRangeReader;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobClientBuilder;
+import com.azure.storage.blob.models.BlobRange;
+import java.io.InputStream;
+
+/** Given a url to an azure blob, read ranges of the blob */
+public class AzureBlobRangeReader implements BlobRangeReader {
+  private final BlobClient blobClient;
+  private final long size;
+
+  public AzureBlobRangeReader(String signedUrl) {
+    this.blobClient = new BlobClientBuilder().endpoint(signedUrl).buildClient();
+    this.size = blobClient.getProperties().getBlobSize();
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public InputStream openStream(long offset) {
+    return blobClient.openInputStream(new BlobRange(offset), null);
+  }
+}
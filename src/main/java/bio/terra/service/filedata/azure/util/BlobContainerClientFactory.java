@@ -22,7 +22,8 @@ import java.util.Objects;
 public class BlobContainerClientFactory {
 
   public static final Duration DELEGATED_KEY_DURATION = Duration.ofHours(24);
-  private final HttpClient httpClient = HttpClient.createDefault();
+  // HTTP clients hold connection pools and are safe to share, so all factories use the same one
+  private static final HttpClient HTTP_CLIENT = HttpClient.createDefault();
   private final BlobContainerClient blobContainerClient;
 
   public BlobSasUrlFactory getBlobSasUrlFactory() {
@@ -51,6 +52,26 @@ public class BlobContainerClientFactory {
       TokenCredential azureCredential,
       String containerName,
       RequestRetryOptions retryOptions) {
+    this(
+        accountName,
+        azureCredential,
+        null,
+        containerName,
+        retryOptions,
+        new UserDelegationKeyCache());
+  }
+
+  /**
+   * @param credentialId identifies azureCredential, e.g. its tenant, so that delegation keys
+   *     fetched with it are only shared through delegationKeyCache with the same credential
+   */
+  public BlobContainerClientFactory(
+      String accountName,
+      TokenCredential azureCredential,
+      String credentialId,
+      String containerName,
+      RequestRetryOptions retryOptions,
+      UserDelegationKeyCache delegationKeyCache) {
 
     var blobServiceClient =
         createBlobServiceClientUsingTokenCredentials(
@@ -65,7 +86,12 @@ public class BlobContainerClientFactory {
     // There is little benefit for the caller to adjust this value.
     // A long duration minimizes the number of calls to get it and noise in audits logs.
     blobSasUrlFactory =
-        new UserDelegatedKeySasUrlFactory(blobServiceClient, containerName, DELEGATED_KEY_DURATION);
+        new UserDelegatedKeySasUrlFactory(
+            blobServiceClient,
+            containerName,
+            credentialId,
+            DELEGATED_KEY_DURATION,
+            delegationKeyCache);
   }
 
   public BlobContainerClientFactory(
@@ -75,7 +101,7 @@ public class BlobContainerClientFactory {
 
     blobContainerClient =
         new BlobContainerClientBuilder()
-            .httpClient(httpClient)
+            .httpClient(HTTP_CLIENT)
             .endpoint(
                 String.format(
                     Locale.ROOT,
@@ -97,7 +123,7 @@ public class BlobContainerClientFactory {
       String accountName, String accountKey, RequestRetryOptions retryOptions) {
     return new BlobServiceClientBuilder()
         .credential(new StorageSharedKeyCredential(accountName, accountKey))
-        .httpClient(httpClient)
+        .httpClient(HTTP_CLIENT)
         .endpoint(String.format(Locale.ROOT, "https://%s.blob.core.windows.net", accountName))
         .retryOptions(retryOptions)
         .buildClient();
@@ -107,7 +133,7 @@ public class BlobContainerClientFactory {
       String accountName, TokenCredential credentials, RequestRetryOptions retryOptions) {
     return new BlobServiceClientBuilder()
         .credential(credentials)
-        .httpClient(httpClient)
+        .httpClient(HTTP_CLIENT)
         .endpoint(String.format(Locale.ROOT, "https://%s.blob.core.windows.net", accountName))
         .retryOptions(retryOptions)
         .buildClient();
@@ -5,35 +5,42 @@ import com.azure.storage.blob.BlobServiceClient;
 import com.azure.storage.blob.models.UserDelegationKey;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
 import java.time.Duration;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 
 /** Generates a SAS token using a User delegated key. */
 public class UserDelegatedKeySasUrlFactory extends KeySasUrlFactory {
   private final BlobServiceClient blobServiceClient;
+  private final String credentialId;
   private final Duration delegatedKeyDuration;
-  private UserDelegationKey delegationKey;
+  private final UserDelegationKeyCache delegationKeyCache;
 
   UserDelegatedKeySasUrlFactory(
       BlobServiceClient blobServiceClient, String containerName, Duration delegatedKeyDuration) {
+    this(
+        blobServiceClient, containerName, null, delegatedKeyDuration, new UserDelegationKeyCache());
+  }
+
+  UserDelegatedKeySasUrlFactory(
+      BlobServiceClient blobServiceClient,
+      String containerName,
+      String credentialId,
+      Duration delegatedKeyDuration,
+      UserDelegationKeyCache delegationKeyCache) {
     super(blobServiceClient.getBlobContainerClient(containerName));
+    this.credentialId = credentialId;
     this.delegatedKeyDuration = delegatedKeyDuration;
     this.blobServiceClient = blobServiceClient;
+    this.delegationKeyCache = delegationKeyCache;
   }
 
   @Override
   String generateSasToken(BlobServiceSasSignatureValues sasSignatureValues, BlobClient blobClient) {
-    UserDelegationKey userDelegationKey = getUserDelegationKey();
+    UserDelegationKey userDelegationKey =
+        delegationKeyCache.get(blobServiceClient, credentialId, delegatedKeyDuration);
 
-    return blobClient.generateUserDelegationSas(sasSignatureValues, userDelegationKey);
-  }
-
-  private synchronized UserDelegationKey getUserDelegationKey() {
-    if (delegationKey == null
-        || delegationKey.getSignedExpiry().isBefore(OffsetDateTime.now(ZoneOffset.UTC))) {
-      OffsetDateTime keyExpiry = OffsetDateTime.now(ZoneOffset.UTC).plus(delegatedKeyDuration);
-      delegationKey = blobServiceClient.getUserDelegationKey(null, keyExpiry);
+    // A SAS stops working when the key that signed it expires, so never promise more than that
+    if (sasSignatureValues.getExpiryTime().isAfter(userDelegationKey.getSignedExpiry())) {
+      sasSignatureValues.setExpiryTime(userDelegationKey.getSignedExpiry());
     }
-    return delegationKey;
+    return blobClient.generateUserDelegationSas(sasSignatureValues, userDelegationKey);
   }
 }
@@ -0,0 +1,98 @@
+package bio.terra.service.filedata.azure.util;
+
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.UserDelegationKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Process-wide cache of user delegation keys, shared by every {@link UserDelegatedKeySasUrlFactory}
+ * so that signing blobs in the same account does not fetch a new key from Azure AD for each
+ * factory. Cached keys are read without locking; concurrent callers missing the same key wait on a
+ * single fetch.
+ *
+ * <p>A delegation key carries the permissions of the principal that fetched it, so keys are cached
+ * per storage account and credential: a caller is only ever handed a key fetched with the same
+ * credential it would have used itself.
+ *
+ * <p>A SAS token signed with a delegation key stops working when the key expires, so keys are
+ * dropped {@link #EXPIRY_MARGIN} before they expire and fetched again by the next caller. Hit
+ * counts, which are the key fetches avoided, are registered under the {@code cache} metric names
+ * tagged with {@link #CACHE_NAME}.
+ */
+@Component
+public class UserDelegationKeyCache {
+  @VisibleForTesting static final String CACHE_NAME = "datarepo.azure.delegationKeys";
+  @VisibleForTesting static final int MAX_SIZE = 1_000;
+  @VisibleForTesting static final Duration EXPIRY_MARGIN = Duration.ofHours(1);
+
+  private final Cache<KeyId, UserDelegationKey> keys;
+
+  /** Build a cache that is not shared or monitored, for factories built outside the application. */
+  public UserDelegationKeyCache() {
+    keys =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .expireAfter(new KeyExpiry())
+            .recordStats()
+            .build();
+  }
+
+  @Autowired
+  public UserDelegationKeyCache(MeterRegistry meterRegistry) {
+    this();
+    CaffeineCacheMetrics.monitor(meterRegistry, keys, CACHE_NAME);
+  }
+
+  /**
+   * Return the cached delegation key of a storage account, or fetch and cache a new one.
+   *
+   * @param blobServiceClient a client of the storage account, used to fetch the key
+   * @param credentialId identifies the credential blobServiceClient authenticates with, e.g. the
+   *     tenant of an application token. Keys fetched with different credentials are never shared.
+   * @param keyDuration how long a newly fetched key is valid for
+   * @return a delegation key that is valid for at least {@link #EXPIRY_MARGIN}
+   */
+  public UserDelegationKey get(
+      BlobServiceClient blobServiceClient, String credentialId, Duration keyDuration) {
+    return keys.get(
+        new KeyId(blobServiceClient.getAccountName(), credentialId),
+        keyId ->
+            blobServiceClient.getUserDelegationKey(
+                null, OffsetDateTime.now(ZoneOffset.UTC).plus(keyDuration)));
+  }
+
+  private record KeyId(String accountName, String credentialId) {}
+
+  /** Keeps each key until {@link #EXPIRY_MARGIN} before it expires. */
+  private static class KeyExpiry implements Expiry<KeyId, UserDelegationKey> {
+    @Override
+    public long expireAfterCreate(KeyId keyId, UserDelegationKey key, long currentTime) {
+      Duration remaining =
+          Duration.between(OffsetDateTime.now(ZoneOffset.UTC), key.getSignedExpiry())
+              .minus(EXPIRY_MARGIN);
+      return Math.max(0, remaining.toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        KeyId keyId, UserDelegationKey key, long currentTime, long currentDuration) {
+      return expireAfterCreate(keyId, key, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        KeyId keyId, UserDelegationKey key, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
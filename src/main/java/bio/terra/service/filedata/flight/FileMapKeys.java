@@ -11,6 +11,9 @@ public final class FileMapKeys {
   public static final String FIRESTORE_FILE = "fireStoreFile";
   public static final String FIRESTORE_DIRECTORY_ENTRY = "fireStoreDirectoryEntry";
   public static final String REQUEST = "request";
+  public static final String BATCH_REQUESTS = "batchRequests";
+  public static final String BATCH_RESULTS = "batchResults";
+  public static final String BATCH_CREATED_FILES = "batchCreatedFiles";
   public static final String LOAD_COMPLETED = "loadCompleted";
   public static final String PROJECT_RESOURCE = "projectResource";
   public static final String GOOGLE_PROJECT_ID = "googleProjectId";
@@ -0,0 +1,59 @@
+package bio.terra.service.filedata.flight.ingest;
+
+import static bio.terra.common.FlightUtils.getDefaultRandomBackoffRetryRule;
+
+import bio.terra.app.configuration.ApplicationConfiguration;
+import bio.terra.service.configuration.ConfigurationService;
+import bio.terra.service.dataset.Dataset;
+import bio.terra.service.dataset.DatasetService;
+import bio.terra.service.filedata.google.firestore.FireStoreDao;
+import bio.terra.service.filedata.google.gcs.GcsPdao;
+import bio.terra.service.job.JobMapKeys;
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.RetryRuleRandomBackoff;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import org.springframework.context.ApplicationContext;
+
+/*
+ * The flight is launched from the IngestDriverStep within one of the bulk load flights when
+ * LOAD_BATCH_FILES is more than 1. It ingests a batch of files into a GCP dataset in a single
+ * step, instead of running a FileIngestWorkerFlight for each file.
+ * Input parameters expected:
+ * - DATASET_ID - dataset into which we load the files
+ * - BATCH_REQUESTS - a list of FileLoadModels describing the files to load
+ * The outcome of each file is returned in BATCH_RESULTS, a list of LoadFileUpdates.
+ */
+
+public class FileIngestBatchWorkerFlight extends Flight {
+
+  public FileIngestBatchWorkerFlight(FlightMap inputParameters, Object applicationContext) {
+    super(inputParameters, applicationContext);
+
+    ApplicationContext appContext = (ApplicationContext) applicationContext;
+    FireStoreDao fileDao = appContext.getBean(FireStoreDao.class);
+    GcsPdao gcsPdao = appContext.getBean(GcsPdao.class);
+    DatasetService datasetService = appContext.getBean(DatasetService.class);
+    ApplicationConfiguration appConfig = appContext.getBean(ApplicationConfiguration.class);
+    ConfigurationService configService = appContext.getBean(ConfigurationService.class);
+    ExecutorService executor = appContext.getBean("performanceThreadpool", ExecutorService.class);
+
+    UUID datasetId =
+        UUID.fromString(inputParameters.get(JobMapKeys.DATASET_ID.getKeyName(), String.class));
+    Dataset dataset = datasetService.retrieve(datasetId);
+
+    RetryRuleRandomBackoff fileSystemRetry =
+        getDefaultRandomBackoffRetryRule(appConfig.getMaxStairwayThreads());
+
+    addStep(
+        new IngestFileBatchStep(
+            fileDao,
+            gcsPdao,
+            configService,
+            dataset,
+            executor,
+            appConfig.getNumPerformanceThreads()),
+        fileSystemRetry);
+  }
+}
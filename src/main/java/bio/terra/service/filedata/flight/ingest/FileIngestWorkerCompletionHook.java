@@ -0,0 +1,49 @@
+package bio.terra.service.filedata.flight.ingest;
+
+import bio.terra.service.load.LoadService;
+import bio.terra.service.load.flight.LoadMapKeys;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.HookAction;
+import bio.terra.stairway.StairwayHook;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Notifies the ingest driver of a bulk load whenever one of its {@link FileIngestWorkerFlight}s or
+ * {@link FileIngestBatchWorkerFlight}s stops running on this pod, so that an event-driven driver
+ * can check on it and launch the next file load right away. Worker flights may run on any pod, so
+ * the notification goes through Postgres rather than staying in-process.
+ */
+@Component
+public class FileIngestWorkerCompletionHook implements StairwayHook {
+  private static final Logger logger =
+      LoggerFactory.getLogger(FileIngestWorkerCompletionHook.class);
+
+  private final LoadService loadService;
+
+  public FileIngestWorkerCompletionHook(LoadService loadService) {
+    this.loadService = loadService;
+  }
+
+  @Override
+  public HookAction endFlight(FlightContext context) {
+    String flightClassName = context.getFlightClassName();
+    if (!FileIngestWorkerFlight.class.getName().equals(flightClassName)
+        && !FileIngestBatchWorkerFlight.class.getName().equals(flightClassName)) {
+      return HookAction.CONTINUE;
+    }
+    String loadId = context.getInputParameters().get(LoadMapKeys.LOAD_ID, String.class);
+    if (loadId != null) {
+      try {
+        loadService.notifyLoadFileCompleted(UUID.fromString(loadId), context.getFlightId());
+      } catch (Exception ex) {
+        // The driver still finds the completion when it next checks on all running loads
+        logger.warn(
+            "Unable to notify load {} that flight {} ended", loadId, context.getFlightId(), ex);
+      }
+    }
+    return HookAction.CONTINUE;
+  }
+}
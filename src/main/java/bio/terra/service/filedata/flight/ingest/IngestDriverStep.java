@@ -2,6 +2,7 @@ package bio.terra.service.filedata.flight.ingest;
 
 import bio.terra.common.iam.AuthenticatedUserRequest;
 import bio.terra.model.BillingProfileModel;
+import bio.terra.model.BulkLoadFileState;
 import bio.terra.model.CloudPlatform;
 import bio.terra.model.FileLoadModel;
 import bio.terra.service.auth.iam.IamAction;
@@ -17,7 +18,10 @@ import bio.terra.service.job.DefaultUndoStep;
 import bio.terra.service.job.JobMapKeys;
 import bio.terra.service.job.JobService;
 import bio.terra.service.load.LoadCandidates;
+import bio.terra.service.load.LoadCompletionListener;
 import bio.terra.service.load.LoadFile;
+import bio.terra.service.load.LoadFileUpdate;
+import bio.terra.service.load.LoadFileUpdateBuffer;
 import bio.terra.service.load.LoadService;
 import bio.terra.service.load.flight.LoadMapKeys;
 import bio.terra.service.profile.flight.ProfileMapKeys;
@@ -25,6 +29,7 @@ import bio.terra.service.resourcemanagement.azure.AzureStorageAccountResource;
 import bio.terra.service.resourcemanagement.azure.AzureStorageAuthInfo;
 import bio.terra.service.resourcemanagement.google.GoogleBucketResource;
 import bio.terra.service.snapshot.exception.CorruptMetadataException;
+import bio.terra.stairway.Flight;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.FlightState;
@@ -35,9 +40,18 @@ import bio.terra.stairway.exception.DatabaseOperationException;
 import bio.terra.stairway.exception.DuplicateFlightIdException;
 import bio.terra.stairway.exception.FlightNotFoundException;
 import bio.terra.stairway.exception.StairwayExecutionException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
@@ -58,8 +72,27 @@ import org.slf4j.LoggerFactory;
 // - BUCKET_INFO is a GoogleBucketResource
 // - STORAGE_ACCOUNT_RESOURCE is a AzureStorageAccountResource
 //
+// By default, the driver polls the load_file table and Stairway for the state of the loads. When
+// LOAD_DRIVER_EVENT_DRIVEN is set, it instead waits for the notifications that worker flights send
+// when they end (see FileIngestWorkerCompletionHook), only checks on the flights that ended, and
+// claims the next files to load in one statement. It still checks on every running load when no
+// notification arrives for a wait period, or every RECONCILE_INTERVAL, in case one was missed.
+//
+// Either way, the final states of file loads are not written one file at a time. They are
+// collected in a LoadFileUpdateBuffer and written together: every time the driver checks on all
+// running loads, and at least every STATE_FLUSH_INTERVAL in the event-driven mode. Files going to
+// RUNNING are written before their worker flights are submitted, as the orphan check requires.
+//
+// For GCP datasets, LOAD_BATCH_FILES can hand several files to each worker flight: each group of
+// files is then loaded by a FileIngestBatchWorkerFlight, which reports the outcome of every file
+// in its result map. Files of the same flight share its flight id in the load_file table, so the
+// driver looks up each flight once and records the outcomes of all of its files together.
+//
 public class IngestDriverStep extends DefaultUndoStep {
   private static final Logger logger = LoggerFactory.getLogger(IngestDriverStep.class);
+  private static final Duration RECONCILE_INTERVAL = Duration.ofSeconds(30);
+  private static final Duration STATE_FLUSH_INTERVAL = Duration.ofSeconds(5);
+  private static final int MAX_PENDING_STATE_UPDATES = 1000;
 
   private final LoadService loadService;
   private final ConfigurationService configurationService;
@@ -111,70 +144,51 @@ public class IngestDriverStep extends DefaultUndoStep {
             CommonMapKeys.DATASET_STORAGE_ACCOUNT_RESOURCE, AzureStorageAccountResource.class);
 
     int concurrentFiles = configurationService.getParameterValue(ConfigEnum.LOAD_CONCURRENT_FILES);
-    boolean maxBadRecordsReached = false;
+    boolean eventDriven =
+        Boolean.TRUE.equals(
+            configurationService.getParameterValue(ConfigEnum.LOAD_DRIVER_EVENT_DRIVEN));
+    int batchFiles = getBatchFiles();
+    boolean maxBadRecordsReached;
+    Instant startTime = Instant.now();
+    LoadFileUpdateBuffer updates =
+        new LoadFileUpdateBuffer(
+            loadService, loadId, MAX_PENDING_STATE_UPDATES, STATE_FLUSH_INTERVAL);
 
     try {
       // Check for launch orphans - these are loads in the RUNNING state that never
       // got recorded by stairway.
       checkForOrphans(context, loadId);
 
-      // Load Loop
-      while (true) {
-        int podCount = jobService.getActivePodCount();
-        int scaledConcurrentFiles = podCount * concurrentFiles;
-        // Get the state of active and failed loads
-        LoadCandidates candidates = getLoadCandidates(context, loadId, scaledConcurrentFiles);
-
-        int currentRunning = candidates.getRunningLoads().size();
-        int candidateCount = candidates.getCandidateFiles().size();
-
-        if (maxFailedFileLoads != -1 && candidates.getFailedLoads() > maxFailedFileLoads) {
-          maxBadRecordsReached = true;
-        }
-
-        if (currentRunning == 0 && candidateCount == 0) {
-          // Nothing doing and nothing to do
-          break;
-        }
-
-        // Test for exceeding max failed loads; if so, wait for all RUNNINGs to finish
-        // If we exceed tha max failed loads, fail the flight.
-        if (maxBadRecordsReached) {
-          waitForAll(context, loadId, scaledConcurrentFiles);
-          break;
-        }
-
-        // Launch new loads
-        if (currentRunning < scaledConcurrentFiles) {
-          // Compute how many loads to launch
-          int launchCount = scaledConcurrentFiles - currentRunning;
-          if (candidateCount < launchCount) {
-            launchCount = candidateCount;
-          }
-
-          launchLoads(
-              context,
-              userReq,
-              launchCount,
-              candidates.getCandidateFiles(),
-              profileId,
-              loadId,
-              bucketResource,
-              billingProfileModel,
-              storageAccountResource,
-              platform);
-
-          currentRunning += launchCount;
-        }
-
-        // Wait until some loads complete
-        waitForAny(context, loadId, scaledConcurrentFiles, currentRunning);
+      if (eventDriven) {
+        maxBadRecordsReached =
+            driveLoadsOnCompletion(
+                context,
+                loadId,
+                updates,
+                concurrentFiles,
+                batchFiles,
+                bucketResource,
+                billingProfileModel,
+                storageAccountResource);
+      } else {
+        maxBadRecordsReached =
+            driveLoadsByPolling(
+                context,
+                loadId,
+                updates,
+                concurrentFiles,
+                batchFiles,
+                bucketResource,
+                billingProfileModel,
+                storageAccountResource);
       }
+      updates.flush();
     } catch (DatabaseOperationException
         | StairwayExecutionException
         | DuplicateFlightIdException ex) {
       return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, ex);
     }
+    logThroughput(loadId, startTime);
 
     if (maxBadRecordsReached) {
       String errorMessage =
@@ -195,14 +209,223 @@ public class IngestDriverStep extends DefaultUndoStep {
     return StepResult.getStepResultSuccess();
   }
 
+  private boolean driveLoadsByPolling(
+      FlightContext context,
+      UUID loadId,
+      LoadFileUpdateBuffer updates,
+      int concurrentFiles,
+      int batchFiles,
+      GoogleBucketResource bucketResource,
+      BillingProfileModel billingProfileModel,
+      AzureStorageAccountResource storageAccountResource)
+      throws DatabaseOperationException,
+          StairwayExecutionException,
+          DuplicateFlightIdException,
+          InterruptedException {
+    boolean maxBadRecordsReached = false;
+
+    // Load Loop
+    while (true) {
+      int podCount = jobService.getActivePodCount();
+      int scaledConcurrentFiles = podCount * concurrentFiles;
+      // Get the state of active and failed loads
+      LoadCandidates candidates =
+          getLoadCandidates(context, loadId, updates, scaledConcurrentFiles);
+
+      int currentRunning = candidates.getRunningLoads().size();
+      int candidateCount = candidates.getCandidateFiles().size();
+
+      if (maxFailedFileLoads != -1 && candidates.getFailedLoads() > maxFailedFileLoads) {
+        maxBadRecordsReached = true;
+      }
+
+      if (currentRunning == 0 && candidateCount == 0) {
+        // Nothing doing and nothing to do
+        break;
+      }
+
+      // Test for exceeding max failed loads; if so, wait for all RUNNINGs to finish
+      // If we exceed tha max failed loads, fail the flight.
+      if (maxBadRecordsReached) {
+        waitForAll(context, loadId, updates, scaledConcurrentFiles);
+        break;
+      }
+
+      // Launch new loads
+      if (currentRunning < scaledConcurrentFiles) {
+        // Compute how many loads to launch
+        int launchCount = scaledConcurrentFiles - currentRunning;
+        if (candidateCount < launchCount) {
+          launchCount = candidateCount;
+        }
+
+        launchLoads(
+            context,
+            userReq,
+            launchCount,
+            batchFiles,
+            candidates.getCandidateFiles(),
+            profileId,
+            loadId,
+            bucketResource,
+            billingProfileModel,
+            storageAccountResource,
+            platform);
+
+        currentRunning += launchCount;
+      }
+
+      // Wait until some loads complete
+      waitForAny(context, loadId, updates, scaledConcurrentFiles, currentRunning);
+    }
+    return maxBadRecordsReached;
+  }
+
+  private boolean driveLoadsOnCompletion(
+      FlightContext context,
+      UUID loadId,
+      LoadFileUpdateBuffer updates,
+      int concurrentFiles,
+      int batchFiles,
+      GoogleBucketResource bucketResource,
+      BillingProfileModel billingProfileModel,
+      AzureStorageAccountResource storageAccountResource)
+      throws DatabaseOperationException,
+          StairwayExecutionException,
+          DuplicateFlightIdException,
+          InterruptedException {
+    Stairway stairway = context.getStairway();
+    // Listen before looking at the running loads, so that no completion goes unnoticed
+    try (LoadCompletionListener listener = loadService.listenForCompletions(loadId)) {
+      // We only need the running loads and failure count here; candidates are claimed below
+      LoadCandidates loads = getLoadCandidates(context, loadId, updates, 0);
+      Map<String, List<LoadFile>> runningLoads = groupByFlightId(loads.getRunningLoads());
+      int failedLoads = loads.getFailedLoads();
+      Instant lastReconcile = Instant.now();
+
+      while (true) {
+        if (maxFailedFileLoads != -1 && failedLoads > maxFailedFileLoads) {
+          waitForAll(context, loadId, updates, 0);
+          return true;
+        }
+
+        // Refill the free worker slots
+        int freeSlots =
+            jobService.getActivePodCount() * concurrentFiles - countFiles(runningLoads.values());
+        boolean candidatesExhausted = false;
+        if (freeSlots > 0) {
+          List<String> flightIds = new ArrayList<>(freeSlots);
+          String flightId = null;
+          for (int i = 0; i < freeSlots; i++) {
+            if (i % batchFiles == 0) {
+              flightId = stairway.createFlightId();
+            }
+            flightIds.add(flightId);
+          }
+          List<LoadFile> claimed = loadService.claimCandidates(loadId, flightIds);
+          for (Map.Entry<String, List<LoadFile>> flightLoads :
+              groupByFlightId(claimed).entrySet()) {
+            // Claimed files are already recorded as RUNNING, so a failure before the flight is
+            // submitted leaves the same kind of orphan as in launchLoads.
+            submitLoads(
+                context,
+                flightLoads.getValue(),
+                flightLoads.getKey(),
+                loadId,
+                bucketResource,
+                billingProfileModel,
+                storageAccountResource);
+            runningLoads.put(flightLoads.getKey(), flightLoads.getValue());
+          }
+          candidatesExhausted = claimed.size() < freeSlots;
+        }
+
+        if (runningLoads.isEmpty() && candidatesExhausted) {
+          // Nothing doing and nothing to do
+          return false;
+        }
+
+        List<String> endedFlightIds =
+            listener.awaitCompletions(Duration.ofSeconds(driverWaitSeconds));
+        if (endedFlightIds.isEmpty()
+            || Duration.between(lastReconcile, Instant.now()).compareTo(RECONCILE_INTERVAL) > 0) {
+          loads = getLoadCandidates(context, loadId, updates, 0);
+          runningLoads = groupByFlightId(loads.getRunningLoads());
+          failedLoads = loads.getFailedLoads();
+          lastReconcile = Instant.now();
+        } else {
+          for (String flightId : endedFlightIds) {
+            List<LoadFile> flightLoads = runningLoads.get(flightId);
+            if (flightLoads == null) {
+              continue;
+            }
+            List<BulkLoadFileState> states =
+                recordLoadStates(loadId, updates, flightLoads, stairway.getFlightState(flightId));
+            if (!states.contains(BulkLoadFileState.RUNNING)) {
+              runningLoads.remove(flightId);
+            }
+            failedLoads += Collections.frequency(states, BulkLoadFileState.FAILED);
+          }
+          // Running loads are tracked here, so recorded outcomes can wait to be written together
+          updates.flushIfDue();
+        }
+      }
+    }
+  }
+
+  /**
+   * Number of files the worker flights of a GCP dataset load at once. Azure datasets always load
+   * one file per flight: their directory entries span Azure Table partitions, which a single
+   * batched write cannot.
+   */
+  private int getBatchFiles() {
+    Integer batchFiles = configurationService.getParameterValue(ConfigEnum.LOAD_BATCH_FILES);
+    if (platform != CloudPlatform.GCP || batchFiles == null) {
+      return 1;
+    }
+    return Math.max(batchFiles, 1);
+  }
+
+  private static Map<String, List<LoadFile>> groupByFlightId(List<LoadFile> loadFiles) {
+    Map<String, List<LoadFile>> loadsByFlightId = new LinkedHashMap<>();
+    for (LoadFile loadFile : loadFiles) {
+      loadsByFlightId
+          .computeIfAbsent(loadFile.getFlightId(), flightId -> new ArrayList<>())
+          .add(loadFile);
+    }
+    return loadsByFlightId;
+  }
+
+  private static int countFiles(Collection<List<LoadFile>> flightLoads) {
+    return flightLoads.stream().mapToInt(List::size).sum();
+  }
+
+  private void logThroughput(UUID loadId, Instant startTime) {
+    long succeeded = loadService.countLoadFilesCompleted(loadId, BulkLoadFileState.SUCCEEDED);
+    long failed = loadService.countLoadFilesCompleted(loadId, BulkLoadFileState.FAILED);
+    long elapsedMillis = Math.max(Duration.between(startTime, Instant.now()).toMillis(), 1);
+    logger.info(
+        "Load {} finished {} file loads ({} failed) in {} ms: {} files/s",
+        loadId,
+        succeeded + failed,
+        failed,
+        elapsedMillis,
+        (succeeded + failed) * 1000 / elapsedMillis);
+    loadService.removeLoadMetrics(loadId);
+  }
+
   private void waitForAny(
-      FlightContext context, UUID loadId, int concurrentLoads, int originallyRunning)
+      FlightContext context,
+      UUID loadId,
+      LoadFileUpdateBuffer updates,
+      int concurrentLoads,
+      int originallyRunning)
       throws DatabaseOperationException, InterruptedException, DuplicateFlightIdException {
     while (true) {
       // This code used to wait before getting load candidates again. however,
       // when there are a large number of files being loaded, there is always something completing.
       // So we recheck right away before waiting and only wait if we did not find any new work to do
-      LoadCandidates candidates = getLoadCandidates(context, loadId, concurrentLoads);
+      LoadCandidates candidates = getLoadCandidates(context, loadId, updates, concurrentLoads);
       if (candidates.getRunningLoads().size() < originallyRunning) {
         break;
       }
@@ -210,11 +433,12 @@ public class IngestDriverStep extends DefaultUndoStep {
     }
   }
 
-  private void waitForAll(FlightContext context, UUID loadId, int concurrentLoads)
+  private void waitForAll(
+      FlightContext context, UUID loadId, LoadFileUpdateBuffer updates, int concurrentLoads)
       throws DatabaseOperationException, InterruptedException {
     while (true) {
       waiting();
-      LoadCandidates candidates = getLoadCandidates(context, loadId, concurrentLoads);
+      LoadCandidates candidates = getLoadCandidates(context, loadId, updates, concurrentLoads);
       if (candidates.getRunningLoads().size() == 0) {
         break;
       }
@@ -232,17 +456,24 @@ public class IngestDriverStep extends DefaultUndoStep {
     // in the database, but not known to Stairway. We revert them to NOT_TRIED before starting the
     // load loop.
     List<LoadFile> runningLoads = loadService.findRunningLoads(loadId);
-    for (LoadFile load : runningLoads) {
+    List<LoadFileUpdate> orphans = new ArrayList<>();
+    for (Map.Entry<String, List<LoadFile>> flightLoads : groupByFlightId(runningLoads).entrySet()) {
       try {
-        context.getStairway().getFlightState(load.getFlightId());
+        context.getStairway().getFlightState(flightLoads.getKey());
       } catch (FlightNotFoundException ex) {
-        logger.debug("Resetting orphan file load from running to not tried: " + load.getLoadId());
-        loadService.setLoadFileNotTried(load.getLoadId(), load.getTargetPath());
+        for (LoadFile load : flightLoads.getValue()) {
+          logger.debug("Resetting orphan file load from running to not tried: " + load.getLoadId());
+          orphans.add(LoadFileUpdate.notTried(load.getTargetPath()));
+        }
       }
     }
+    if (!orphans.isEmpty()) {
+      loadService.updateLoadFiles(loadId, orphans);
+    }
   }
 
-  private LoadCandidates getLoadCandidates(FlightContext context, UUID loadId, int concurrentLoads)
+  private LoadCandidates getLoadCandidates(
+      FlightContext context, UUID loadId, LoadFileUpdateBuffer updates, int concurrentLoads)
       throws DatabaseOperationException, InterruptedException {
     // We start by getting the database view of the state of loads.
     // For the running loads, we ask Stairway what the actual state is.
@@ -250,6 +481,8 @@ public class IngestDriverStep extends DefaultUndoStep {
     // We then update the failure count and runnings loads list in the
     // LoadCandidates so it correctly reflects the running state
     // right now (more or less).
+    // Outcomes recorded earlier must be written first, or their loads would look still running.
+    updates.flush();
     LoadCandidates candidates = loadService.findCandidates(loadId, concurrentLoads);
     logger.debug(
         "Candidates from db: failedLoads={}  runningLoads={}  candidateFiles={}",
@@ -260,50 +493,22 @@ public class IngestDriverStep extends DefaultUndoStep {
     int failureCount = candidates.getFailedLoads();
     List<LoadFile> realRunningLoads = new LinkedList<>();
 
-    for (LoadFile loadFile : candidates.getRunningLoads()) {
-      FlightState flightState = context.getStairway().getFlightState(loadFile.getFlightId());
-
-      switch (flightState.getFlightStatus()) {
-        case RUNNING:
-        case WAITING:
-        case READY:
-        case QUEUED:
-          logger.debug("~~running load - flight: " + flightState.getFlightId());
-          realRunningLoads.add(loadFile);
-          break;
-
-        case ERROR:
-        case FATAL:
-          {
-            logger.debug("~~error load - flight: " + flightState.getFlightId());
-            String error = "unknown error";
-            if (flightState.getException().isPresent()) {
-              error = flightState.getException().get().toString();
-            }
-            loadService.setLoadFileFailed(loadId, loadFile.getTargetPath(), error);
-            failureCount++;
-            break;
-          }
-
-        case SUCCESS:
-          {
-            logger.debug("~~success load - flight: " + flightState.getFlightId());
-            FlightMap resultMap = flightState.getResultMap().orElse(null);
-            if (resultMap == null) {
-              throw new FileSystemCorruptException("no result map in flight state");
-            }
-            String fileId = resultMap.get(FileMapKeys.FILE_ID, String.class);
-            FSFileInfo fileInfo = resultMap.get(FileMapKeys.FILE_INFO, FSFileInfo.class);
-            loadService.setLoadFileSucceeded(loadId, loadFile.getTargetPath(), fileId, fileInfo);
-            break;
-          }
-
-        default:
-          throw new CorruptMetadataException(
-              "Invalid flight state: " + flightState.getFlightStatus());
+    for (Map.Entry<String, List<LoadFile>> flightLoads :
+        groupByFlightId(candidates.getRunningLoads()).entrySet()) {
+      FlightState flightState = context.getStairway().getFlightState(flightLoads.getKey());
+      List<LoadFile> loadFiles = flightLoads.getValue();
+      List<BulkLoadFileState> states = recordLoadStates(loadId, updates, loadFiles, flightState);
+      for (int i = 0; i < loadFiles.size(); i++) {
+        switch (states.get(i)) {
+          case RUNNING -> realRunningLoads.add(loadFiles.get(i));
+          case FAILED -> failureCount++;
+          default -> {}
+        }
       }
     }
 
+    // Write the outcomes of all the loads that ended since the last check in one statement
+    updates.flush();
     candidates.failedLoads(failureCount).runningLoads(realRunningLoads);
     logger.debug(
         "Candidates resolved: failedLoads={}  runningLoads={}  candidateFiles={}",
@@ -314,6 +519,85 @@ public class IngestDriverStep extends DefaultUndoStep {
     return candidates;
   }
 
+  /**
+   * Record the outcomes of the running loads of a flight that has ended. The load_file table is
+   * updated when the buffer is next flushed.
+   *
+   * @return for each load, RUNNING if its flight is still running, otherwise the state the load
+   *     ended in
+   */
+  private List<BulkLoadFileState> recordLoadStates(
+      UUID loadId,
+      LoadFileUpdateBuffer updates,
+      List<LoadFile> loadFiles,
+      FlightState flightState) {
+    switch (flightState.getFlightStatus()) {
+      case RUNNING:
+      case WAITING:
+      case READY:
+      case QUEUED:
+        logger.debug("~~running load - flight: " + flightState.getFlightId());
+        return Collections.nCopies(loadFiles.size(), BulkLoadFileState.RUNNING);
+
+      case ERROR:
+      case FATAL:
+        {
+          logger.debug("~~error load - flight: " + flightState.getFlightId());
+          String error = "unknown error";
+          if (flightState.getException().isPresent()) {
+            error = flightState.getException().get().toString();
+          }
+          List<BulkLoadFileState> states = new ArrayList<>(loadFiles.size());
+          for (LoadFile loadFile : loadFiles) {
+            LoadFileUpdate failed = LoadFileUpdate.failed(loadFile.getTargetPath(), error);
+            states.add(recordLoadState(loadId, updates, failed));
+          }
+          return states;
+        }
+
+      case SUCCESS:
+        {
+          logger.debug("~~success load - flight: " + flightState.getFlightId());
+          FlightMap resultMap = flightState.getResultMap().orElse(null);
+          if (resultMap == null) {
+            throw new FileSystemCorruptException("no result map in flight state");
+          }
+          List<LoadFileUpdate> batchResults =
+              resultMap.get(FileMapKeys.BATCH_RESULTS, new TypeReference<>() {});
+          if (batchResults == null) {
+            String fileId = resultMap.get(FileMapKeys.FILE_ID, String.class);
+            FSFileInfo fileInfo = resultMap.get(FileMapKeys.FILE_INFO, FSFileInfo.class);
+            String targetPath = loadFiles.get(0).getTargetPath();
+            return List.of(
+                recordLoadState(
+                    loadId, updates, LoadFileUpdate.succeeded(targetPath, fileId, fileInfo)));
+          }
+          Map<String, LoadFileUpdate> resultsByPath = new HashMap<>();
+          batchResults.forEach(result -> resultsByPath.put(result.targetPath(), result));
+          List<BulkLoadFileState> states = new ArrayList<>(loadFiles.size());
+          for (LoadFile loadFile : loadFiles) {
+            LoadFileUpdate result =
+                resultsByPath.getOrDefault(
+                    loadFile.getTargetPath(),
+                    LoadFileUpdate.failed(loadFile.getTargetPath(), "no outcome recorded"));
+            states.add(recordLoadState(loadId, updates, result));
+          }
+          return states;
+        }
+
+      default:
+        throw new CorruptMetadataException(
+            "Invalid flight state: " + flightState.getFlightStatus());
+    }
+  }
+
+  private BulkLoadFileState recordLoadState(
+      UUID loadId, LoadFileUpdateBuffer updates, LoadFileUpdate update) {
+    updates.add(update);
+    loadService.recordLoadFileCompleted(loadId, update.state());
+    return update.state();
+  }
+
   /** Add existing `key`-val pair from `context`'s input parameters to `flightMap`. */
   @VisibleForTesting
   static <T> void propagateContextToFlightMap(
@@ -332,6 +616,7 @@ public class IngestDriverStep extends DefaultUndoStep {
       FlightContext context,
       AuthenticatedUserRequest userReq,
       int launchCount,
+      int batchFiles,
       List<LoadFile> loadFiles,
       UUID profileId,
       UUID loadId,
@@ -343,56 +628,94 @@ public class IngestDriverStep extends DefaultUndoStep {
 
     Stairway stairway = context.getStairway();
 
+    List<String> flightIds = new ArrayList<>(launchCount);
+    List<LoadFileUpdate> runningUpdates = new ArrayList<>(launchCount);
+    String flightId = null;
     for (int i = 0; i < launchCount; i++) {
-      LoadFile loadFile = loadFiles.get(i);
-      String flightId = stairway.createFlightId();
-
-      FileLoadModel fileLoadModel =
-          new FileLoadModel()
-              .sourcePath(loadFile.getSourcePath())
-              .targetPath(loadFile.getTargetPath())
-              .mimeType(loadFile.getMimeType())
-              .md5(loadFile.getMd5())
-              .profileId(profileId)
-              .loadTag(loadTag)
-              .description(loadFile.getDescription());
-
-      FlightMap inputParameters = new FlightMap();
-      inputParameters.put(FileMapKeys.DATASET_ID, datasetId);
-      inputParameters.put(FileMapKeys.REQUEST, fileLoadModel);
-      inputParameters.put(JobMapKeys.AUTH_USER_INFO.getKeyName(), userReq);
-      inputParameters.put(FileMapKeys.BUCKET_INFO, bucketInfo);
-      inputParameters.put(ProfileMapKeys.PROFILE_MODEL, billingProfileModel);
-      inputParameters.put(CommonMapKeys.DATASET_STORAGE_ACCOUNT_RESOURCE, storageAccountResource);
-      inputParameters.put(JobMapKeys.CLOUD_PLATFORM.getKeyName(), platform.name());
-      inputParameters.put(JobMapKeys.PARENT_FLIGHT_ID.getKeyName(), context.getFlightId());
-
-      // Permissions to view child jobs are inherited from the parent:
-      propagateContextToFlightMap(
-          context,
-          inputParameters,
-          JobMapKeys.IAM_RESOURCE_TYPE.getKeyName(),
-          IamResourceType.class);
-      propagateContextToFlightMap(
-          context, inputParameters, JobMapKeys.IAM_RESOURCE_ID.getKeyName(), String.class);
-      propagateContextToFlightMap(
-          context, inputParameters, JobMapKeys.IAM_ACTION.getKeyName(), IamAction.class);
-
-      if (platform == CloudPlatform.AZURE) {
-        AzureStorageAuthInfo storageAuthInfo =
-            AzureStorageAuthInfo.azureStorageAuthInfoBuilder(
-                billingProfileModel, storageAccountResource);
-        inputParameters.put(CommonMapKeys.DATASET_STORAGE_AUTH_INFO, storageAuthInfo);
+      if (i % batchFiles == 0) {
+        flightId = stairway.createFlightId();
+        logger.debug("~~set running load - flight: " + flightId);
       }
+      flightIds.add(flightId);
+      runningUpdates.add(LoadFileUpdate.running(loadFiles.get(i).getTargetPath(), flightId));
+    }
+    loadService.updateLoadFiles(loadId, runningUpdates);
 
-      logger.debug("~~set running load - flight: " + flightId);
-      loadService.setLoadFileRunning(loadId, loadFile.getTargetPath(), flightId);
+    for (int i = 0; i < launchCount; i += batchFiles) {
       // NOTE: this is the window where we have recorded a flight as RUNNING in the load_file
       // table, but it has not yet been launched. A failure in this window leaves "orphan"
       // loads that are marked running, but not actually started. We handle this
       // with the check for launch orphans at the beginning of the do() method.
-      // We use submitToQueue to spread the file loaders across multiple instances of datarepo.
-      stairway.submitToQueue(flightId, FileIngestWorkerFlight.class, inputParameters);
+      submitLoads(
+          context,
+          loadFiles.subList(i, Math.min(i + batchFiles, launchCount)),
+          flightIds.get(i),
+          loadId,
+          bucketInfo,
+          billingProfileModel,
+          storageAccountResource);
     }
   }
+
+  private void submitLoads(
+      FlightContext context,
+      List<LoadFile> loadFiles,
+      String flightId,
+      UUID loadId,
+      GoogleBucketResource bucketInfo,
+      BillingProfileModel billingProfileModel,
+      AzureStorageAccountResource storageAccountResource)
+      throws DatabaseOperationException, StairwayExecutionException, InterruptedException {
+    List<FileLoadModel> fileLoadModels =
+        loadFiles.stream()
+            .map(
+                loadFile ->
+                    new FileLoadModel()
+                        .sourcePath(loadFile.getSourcePath())
+                        .targetPath(loadFile.getTargetPath())
+                        .mimeType(loadFile.getMimeType())
+                        .md5(loadFile.getMd5())
+                        .profileId(profileId)
+                        .loadTag(loadTag)
+                        .description(loadFile.getDescription()))
+            .toList();
+
+    // A single file is loaded by a FileIngestWorkerFlight, even when batching files
+    Class<? extends Flight> flightClass;
+    FlightMap inputParameters = new FlightMap();
+    inputParameters.put(FileMapKeys.DATASET_ID, datasetId);
+    if (fileLoadModels.size() == 1) {
+      flightClass = FileIngestWorkerFlight.class;
+      inputParameters.put(FileMapKeys.REQUEST, fileLoadModels.get(0));
+    } else {
+      flightClass = FileIngestBatchWorkerFlight.class;
+      inputParameters.put(FileMapKeys.BATCH_REQUESTS, fileLoadModels);
+    }
+    inputParameters.put(JobMapKeys.AUTH_USER_INFO.getKeyName(), userReq);
+    inputParameters.put(FileMapKeys.BUCKET_INFO, bucketInfo);
+    inputParameters.put(ProfileMapKeys.PROFILE_MODEL, billingProfileModel);
+    inputParameters.put(CommonMapKeys.DATASET_STORAGE_ACCOUNT_RESOURCE, storageAccountResource);
+    inputParameters.put(JobMapKeys.CLOUD_PLATFORM.getKeyName(), platform.name());
+    inputParameters.put(JobMapKeys.PARENT_FLIGHT_ID.getKeyName(), context.getFlightId());
+    // Lets the worker notify this driver when it ends
+    inputParameters.put(LoadMapKeys.LOAD_ID, loadId.toString());
+
+    // Permissions to view child jobs are inherited from the parent:
+    propagateContextToFlightMap(
+        context, inputParameters, JobMapKeys.IAM_RESOURCE_TYPE.getKeyName(), IamResourceType.class);
+    propagateContextToFlightMap(
+        context, inputParameters, JobMapKeys.IAM_RESOURCE_ID.getKeyName(), String.class);
+    propagateContextToFlightMap(
+        context, inputParameters, JobMapKeys.IAM_ACTION.getKeyName(), IamAction.class);
+
+    if (platform == CloudPlatform.AZURE) {
+      AzureStorageAuthInfo storageAuthInfo =
+          AzureStorageAuthInfo.azureStorageAuthInfoBuilder(
+              billingProfileModel, storageAccountResource);
+      inputParameters.put(CommonMapKeys.DATASET_STORAGE_AUTH_INFO, storageAuthInfo);
+    }
+
+    // We use submitToQueue to spread the file loaders across multiple instances of datarepo.
+    context.getStairway().submitToQueue(flightId, flightClass, inputParameters);
+  }
 }
@@ -0,0 +1,418 @@
+package bio.terra.service.filedata.flight.ingest;
+
+import static bio.terra.service.filedata.DrsService.getLastNameFromPath;
+
+import bio.terra.common.FlightUtils;
+import bio.terra.common.FutureUtils;
+import bio.terra.model.FileLoadModel;
+import bio.terra.service.configuration.ConfigEnum;
+import bio.terra.service.configuration.ConfigurationService;
+import bio.terra.service.dataset.Dataset;
+import bio.terra.service.filedata.FSFileInfo;
+import bio.terra.service.filedata.FileMetadataUtils;
+import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
+import bio.terra.service.filedata.exception.GoogleInternalServerErrorException;
+import bio.terra.service.filedata.exception.InvalidUserProjectException;
+import bio.terra.service.filedata.flight.FileMapKeys;
+import bio.terra.service.filedata.google.firestore.FireStoreDao;
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import bio.terra.service.filedata.google.firestore.FireStoreFile;
+import bio.terra.service.filedata.google.firestore.FireStoreUtils;
+import bio.terra.service.filedata.google.gcs.GcsPdao;
+import bio.terra.service.load.LoadFileUpdate;
+import bio.terra.service.resourcemanagement.google.GoogleBucketResource;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.collections4.ListUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ingests a batch of files into a GCP dataset in one step. It does the work of the steps of a
+ * {@link FileIngestWorkerFlight} for every file of the batch, but writes the directory and file
+ * entries to Firestore in batches and copies the files in parallel on the performance thread pool.
+ *
+ * <p>A file that cannot be loaded fails on its own: its outcome is recorded and the rest of the
+ * batch carries on. The outcome of every file is put in the working map under {@link
+ * FileMapKeys#BATCH_RESULTS}, in the order of the requests. The step only fails as a whole when
+ * Firestore does, in which case the driver fails every file of the batch.
+ *
+ * <p>Running the step again is safe. A file whose directory entry already exists with the same
+ * load tag was either loaded by an earlier run, in which case it is reported as succeeded, or is
+ * completed now, just as IngestFileDirectoryStep does for a single file.
+ */
+public class IngestFileBatchStep implements Step {
+  private static final Logger logger = LoggerFactory.getLogger(IngestFileBatchStep.class);
+  private static final int COPY_ATTEMPTS = 3;
+  private static final int COPY_RETRY_WAIT_SECONDS = 5;
+
+  private final FireStoreDao fileDao;
+  private final GcsPdao gcsPdao;
+  private final ConfigurationService configService;
+  private final Dataset dataset;
+  private final ExecutorService executor;
+  private final int copiesInFlight;
+
+  /**
+   * @param executor the shared performance thread pool, which the files are copied on
+   * @param copiesInFlight the most copies of the batch to have on the pool at once
+   */
+  public IngestFileBatchStep(
+      FireStoreDao fileDao,
+      GcsPdao gcsPdao,
+      ConfigurationService configService,
+      Dataset dataset,
+      ExecutorService executor,
+      int copiesInFlight) {
+    this.fileDao = fileDao;
+    this.gcsPdao = gcsPdao;
+    this.configService = configService;
+    this.dataset = dataset;
+    this.executor = executor;
+    this.copiesInFlight = copiesInFlight;
+  }
+
+  @Override
+  public StepResult doStep(FlightContext context) throws InterruptedException {
+    List<FileLoadModel> requests =
+        context.getInputParameters().get(FileMapKeys.BATCH_REQUESTS, new TypeReference<>() {});
+    FlightMap workingMap = context.getWorkingMap();
+    GoogleBucketResource bucketResource =
+        FlightUtils.getContextValue(context, FileMapKeys.BUCKET_INFO, GoogleBucketResource.class);
+
+    // Outcomes by target path, in the order of the requests
+    Map<String, LoadFileUpdate> outcomes = new LinkedHashMap<>();
+    requests.forEach(r -> outcomes.put(r.getTargetPath(), null));
+
+    try {
+      Map<String, String> fileIdsByPath = new HashMap<>();
+      List<FileLoadModel> toLoad = findFilesToLoad(requests, fileIdsByPath, outcomes);
+
+      Map<String, FSFileInfo> fileInfos;
+      if (dataset.hasPredictableFileIds()) {
+        // File ids come from the copied files, so the copies must come first
+        fileInfos = copyFiles(toLoad, fileIdsByPath, bucketResource, outcomes);
+        createDirectoryEntries(workingMap, copied(toLoad, fileInfos), fileIdsByPath);
+      } else {
+        createDirectoryEntries(workingMap, toLoad, fileIdsByPath);
+        fileInfos = copyFiles(toLoad, fileIdsByPath, bucketResource, outcomes);
+        // Failed files must not be left looking like loads in progress
+        for (FileLoadModel request : toLoad) {
+          if (outcomes.get(request.getTargetPath()) != null) {
+            String fileId = fileIdsByPath.get(request.getTargetPath());
+            fileDao.deleteDirectoryEntry(dataset, fileId);
+            forgetCreatedFile(workingMap, fileId);
+          }
+        }
+      }
+      createFileEntries(copied(toLoad, fileInfos), fileIdsByPath, fileInfos, outcomes);
+    } catch (FileSystemAbortTransactionException ex) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, ex);
+    }
+
+    List<LoadFileUpdate> results = new ArrayList<>(outcomes.values());
+    long failed = results.stream().filter(u -> u.error() != null).count();
+    logger.info("Loaded {} files, {} failed", results.size() - failed, failed);
+    workingMap.put(FileMapKeys.BATCH_RESULTS, results);
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext context) throws InterruptedException {
+    Map<String, String> createdFiles = getCreatedFiles(context.getWorkingMap());
+    GoogleBucketResource bucketResource =
+        FlightUtils.getContextValue(context, FileMapKeys.BUCKET_INFO, GoogleBucketResource.class);
+    try {
+      for (Map.Entry<String, String> createdFile : createdFiles.entrySet()) {
+        String fileId = createdFile.getKey();
+        fileDao.deleteFileMetadata(dataset, fileId);
+        fileDao.deleteDirectoryEntry(dataset, fileId);
+        gcsPdao.deleteFileById(
+            dataset, fileId, getLastNameFromPath(createdFile.getValue()), bucketResource);
+      }
+    } catch (FileSystemAbortTransactionException rex) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, rex);
+    }
+    return StepResult.getStepResultSuccess();
+  }
+
+  /**
+   * Decide which files of the batch need loading, recording the outcome of those that do not.
+   * Without predictable file ids, the id of each file to load is put in fileIdsByPath.
+   */
+  private List<FileLoadModel> findFilesToLoad(
+      List<FileLoadModel> requests,
+      Map<String, String> fileIdsByPath,
+      Map<String, LoadFileUpdate> outcomes)
+      throws InterruptedException {
+    List<FileLoadModel> valid = new ArrayList<>(requests.size());
+    for (FileLoadModel request : requests) {
+      if (request.getTargetPath().startsWith("/")) {
+        valid.add(request);
+      } else {
+        outcomes.put(
+            request.getTargetPath(),
+            LoadFileUpdate.failed(request.getTargetPath(), "A target path must start with '/'"));
+      }
+    }
+
+    Map<String, FireStoreDirectoryEntry> existingEntries = new HashMap<>();
+    for (var batch : ListUtils.partition(valid, FireStoreUtils.MAX_FIRESTORE_BATCH_SIZE)) {
+      List<String> paths = batch.stream().map(FileLoadModel::getTargetPath).toList();
+      for (FireStoreDirectoryEntry entry : fileDao.lookupDirectoryEntriesByPath(dataset, paths)) {
+        existingEntries.put(FileMetadataUtils.getFullPath(entry.getPath(), entry.getName()), entry);
+      }
+    }
+
+    List<FileLoadModel> toLoad = new ArrayList<>(valid.size());
+    for (FileLoadModel request : valid) {
+      String targetPath = request.getTargetPath();
+      FireStoreDirectoryEntry existingEntry = existingEntries.get(entryPath(targetPath));
+      if (existingEntry == null) {
+        if (!dataset.hasPredictableFileIds()) {
+          fileIdsByPath.put(targetPath, UUID.randomUUID().toString());
+        }
+        toLoad.add(request);
+      } else if (!Objects.equals(existingEntry.getLoadTag(), request.getLoadTag())) {
+        outcomes.put(
+            targetPath, LoadFileUpdate.failed(targetPath, "Path already exists: " + targetPath));
+      } else if (fileDao.lookupFile(dataset, existingEntry.getFileId()) != null) {
+        // Loaded by an earlier run of this load
+        outcomes.put(
+            targetPath, LoadFileUpdate.succeeded(targetPath, existingEntry.getFileId(), null));
+      } else {
+        // Interrupted while loading: finish the job under the existing file id
+        fileIdsByPath.put(targetPath, existingEntry.getFileId());
+        toLoad.add(request);
+      }
+    }
+    return toLoad;
+  }
+
+  /**
+   * Create the directory entries of the files, along with their parent directories. Ids of entries
+   * that already exist with the same load tag replace the ids in fileIdsByPath. The files whose
+   * entries were created are recorded in the working map, so that undo can remove them.
+   */
+  private void createDirectoryEntries(
+      FlightMap workingMap, List<FileLoadModel> loadModels, Map<String, String> fileIdsByPath)
+      throws InterruptedException {
+    if (loadModels.isEmpty()) {
+      return;
+    }
+    String loadTag = loadModels.get(0).getLoadTag();
+    List<String> directories =
+        loadModels.stream()
+            .flatMap(m -> FileMetadataUtils.extractDirectoryPaths(m.getTargetPath()).stream())
+            .distinct()
+            .sorted()
+            .toList();
+    for (var batch : ListUtils.partition(directories, FireStoreUtils.MAX_FIRESTORE_BATCH_SIZE)) {
+      fileDao.upsertDirectoryEntries(dataset, loadTag, batch);
+    }
+
+    List<FireStoreDirectoryEntry> leafEntries =
+        loadModels.stream()
+            .map(
+                m ->
+                    new FireStoreDirectoryEntry()
+                        .fileId(fileIdsByPath.get(m.getTargetPath()))
+                        .isFileRef(true)
+                        .path(FileMetadataUtils.getDirectoryPath(m.getTargetPath()))
+                        .name(FileMetadataUtils.getName(m.getTargetPath()))
+                        .datasetId(dataset.getId().toString())
+                        .loadTag(loadTag))
+            .toList();
+    Map<UUID, UUID> idConflicts = new HashMap<>();
+    for (var batch : ListUtils.partition(leafEntries, FireStoreUtils.MAX_FIRESTORE_BATCH_SIZE)) {
+      idConflicts.putAll(fileDao.upsertDirectoryEntries(dataset, batch));
+    }
+
+    Map<String, String> createdFiles = getCreatedFiles(workingMap);
+    for (FileLoadModel loadModel : loadModels) {
+      String fileId = fileIdsByPath.get(loadModel.getTargetPath());
+      UUID existingId = idConflicts.get(UUID.fromString(fileId));
+      if (existingId == null) {
+        createdFiles.put(fileId, loadModel.getSourcePath());
+      } else {
+        fileIdsByPath.put(loadModel.getTargetPath(), existingId.toString());
+      }
+    }
+    workingMap.put(FileMapKeys.BATCH_CREATED_FILES, createdFiles);
+  }
+
+  /**
+   * Copy or link the files in parallel. Files that fail get their outcome recorded; with
+   * predictable file ids, the ids of the others are put in fileIdsByPath.
+   *
+   * <p>Copies that fail with an error that is often transient are retried together, after a
+   * pause that is taken on this thread rather than on the pool's.
+   *
+   * @return the file info of the copied files, by target path
+   */
+  private Map<String, FSFileInfo> copyFiles(
+      List<FileLoadModel> loadModels,
+      Map<String, String> fileIdsByPath,
+      GoogleBucketResource bucketResource,
+      Map<String, LoadFileUpdate> outcomes)
+      throws InterruptedException {
+    Map<String, FSFileInfo> fileInfos = new HashMap<>();
+    List<FileLoadModel> toCopy = loadModels;
+    for (int attempt = 1; !toCopy.isEmpty(); attempt++) {
+      if (attempt > 1) {
+        logger.info("Retrying {} failed file copies", toCopy.size());
+        TimeUnit.SECONDS.sleep(COPY_RETRY_WAIT_SECONDS);
+      }
+      List<FileLoadModel> retries = new ArrayList<>();
+      for (CopyResult result : copyInParallel(toCopy, fileIdsByPath, bucketResource)) {
+        String targetPath = result.loadModel().getTargetPath();
+        if (result.error() == null) {
+          fileIdsByPath.put(targetPath, result.fileInfo().getFileId());
+          fileInfos.put(targetPath, result.fileInfo());
+        } else if (isTransient(result.error()) && attempt < COPY_ATTEMPTS) {
+          retries.add(result.loadModel());
+        } else {
+          outcomes.put(targetPath, LoadFileUpdate.failed(targetPath, result.error().toString()));
+        }
+      }
+      toCopy = retries;
+    }
+    return fileInfos;
+  }
+
+  /**
+   * Run the copies on the shared performance thread pool, with at most {@link #copiesInFlight} of
+   * them on the pool at once so that the batch leaves room in its queue for other work. A copy that
+   * the pool rejects all the same is run on this thread.
+   */
+  private List<CopyResult> copyInParallel(
+      List<FileLoadModel> loadModels,
+      Map<String, String> fileIdsByPath,
+      GoogleBucketResource bucketResource) {
+    List<CopyResult> results = new ArrayList<>(loadModels.size());
+    for (var batch : ListUtils.partition(loadModels, copiesInFlight)) {
+      List<Future<CopyResult>> futures = new ArrayList<>(batch.size());
+      for (FileLoadModel loadModel : batch) {
+        String fileId =
+            dataset.hasPredictableFileIds() ? null : fileIdsByPath.get(loadModel.getTargetPath());
+        try {
+          futures.add(executor.submit(() -> copyFile(loadModel, fileId, bucketResource)));
+        } catch (RejectedExecutionException ex) {
+          futures.add(
+              CompletableFuture.completedFuture(copyFile(loadModel, fileId, bucketResource)));
+        }
+      }
+      results.addAll(FutureUtils.waitFor(futures));
+    }
+    return results;
+  }
+
+  // Both are often transient, so they are retried like the single file steps do
+  private static boolean isTransient(Exception error) {
+    return error instanceof GoogleInternalServerErrorException
+        || error instanceof InvalidUserProjectException;
+  }
+
+  private CopyResult copyFile(
+      FileLoadModel loadModel, String fileId, GoogleBucketResource bucketResource) {
+    try {
+      if (dataset.isSelfHosted()) {
+        return new CopyResult(
+            loadModel,
+            gcsPdao.linkSelfHostedFile(
+                loadModel, fileId, dataset.getProjectResource().getGoogleProjectId()),
+            null);
+      }
+      if (configService.testInsertFault(ConfigEnum.LOAD_SKIP_FILE_LOAD)) {
+        return new CopyResult(
+            loadModel,
+            FSFileInfo.getTestInstance(fileId, bucketResource.getResourceId().toString()),
+            null);
+      }
+      return new CopyResult(
+          loadModel, gcsPdao.copyFile(dataset, loadModel, fileId, bucketResource), null);
+    } catch (Exception ex) {
+      logger.warn("Error loading file {}", loadModel.getTargetPath(), ex);
+      return new CopyResult(loadModel, null, ex);
+    }
+  }
+
+  /** Write the file entries of the copied files, which makes them visible, and record success. */
+  private void createFileEntries(
+      List<FileLoadModel> copied,
+      Map<String, String> fileIdsByPath,
+      Map<String, FSFileInfo> fileInfos,
+      Map<String, LoadFileUpdate> outcomes)
+      throws InterruptedException {
+    List<FireStoreFile> newFiles =
+        copied.stream()
+            .map(
+                m -> {
+                  FSFileInfo fsFileInfo = fileInfos.get(m.getTargetPath());
+                  return new FireStoreFile()
+                      .fileId(fileIdsByPath.get(m.getTargetPath()))
+                      .mimeType(m.getMimeType())
+                      .description(m.getDescription())
+                      .bucketResourceId(fsFileInfo.getBucketResourceId())
+                      .fileCreatedDate(fsFileInfo.getCreatedDate())
+                      .gspath(fsFileInfo.getCloudPath())
+                      .checksumCrc32c(fsFileInfo.getChecksumCrc32c())
+                      .checksumMd5(fsFileInfo.getChecksumMd5())
+                      .userSpecifiedMd5(fsFileInfo.isUserSpecifiedMd5())
+                      .size(fsFileInfo.getSize())
+                      .loadTag(m.getLoadTag());
+                })
+            .toList();
+    for (var batch : ListUtils.partition(newFiles, FireStoreUtils.MAX_FIRESTORE_BATCH_SIZE)) {
+      fileDao.upsertFileMetadata(dataset, batch);
+    }
+    for (FileLoadModel loadModel : copied) {
+      String targetPath = loadModel.getTargetPath();
+      outcomes.put(
+          targetPath,
+          LoadFileUpdate.succeeded(
+              targetPath, fileIdsByPath.get(targetPath), fileInfos.get(targetPath)));
+    }
+  }
+
+  private static List<FileLoadModel> copied(
+      List<FileLoadModel> loadModels, Map<String, FSFileInfo> fileInfos) {
+    return loadModels.stream().filter(m -> fileInfos.containsKey(m.getTargetPath())).toList();
+  }
+
+  private static Map<String, String> getCreatedFiles(FlightMap workingMap) {
+    Map<String, String> createdFiles =
+        workingMap.get(FileMapKeys.BATCH_CREATED_FILES, new TypeReference<>() {});
+    return createdFiles == null ? new HashMap<>() : createdFiles;
+  }
+
+  private static void forgetCreatedFile(FlightMap workingMap, String fileId) {
+    Map<String, String> createdFiles = getCreatedFiles(workingMap);
+    createdFiles.remove(fileId);
+    workingMap.put(FileMapKeys.BATCH_CREATED_FILES, createdFiles);
+  }
+
+  /** The path of the directory entry of a target path, which is how directory entries name it. */
+  private static String entryPath(String targetPath) {
+    return FileMetadataUtils.getFullPath(
+        FileMetadataUtils.getDirectoryPath(targetPath), FileMetadataUtils.getName(targetPath));
+  }
+
+  private record CopyResult(FileLoadModel loadModel, FSFileInfo fileInfo, Exception error) {}
+}
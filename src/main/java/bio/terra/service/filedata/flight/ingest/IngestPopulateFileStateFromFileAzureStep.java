@@ -6,7 +6,7 @@ import bio.terra.model.BulkLoadRequestModel;
 import bio.terra.service.dataset.Dataset;
 import bio.terra.service.dataset.flight.ingest.IngestUtils;
 import bio.terra.service.filedata.azure.blobstore.AzureBlobStorePdao;
-import bio.terra.service.filedata.azure.util.AzureBlobStoreBufferedReader;
+import bio.terra.service.filedata.azure.util.AzureBlobRangeReader;
 import bio.terra.service.filedata.exception.BulkLoadControlFileException;
 import bio.terra.service.job.JobMapKeys;
 import bio.terra.service.load.LoadService;
@@ -15,7 +15,6 @@ import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.StepResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 
@@ -64,9 +63,8 @@ public class IngestPopulateFileStateFromFileAzureStep extends IngestPopulateFile
             blobStoreUrl, billingProfileModel.getTenantId(), userRequest);
 
     // Stream from control file and build list of files to be ingested
-    try (BufferedReader reader = new AzureBlobStoreBufferedReader(ingestRequestSignedUrl)) {
-      readFile(reader, null, context);
-
+    try {
+      readFile(new AzureBlobRangeReader(ingestRequestSignedUrl), null, context);
     } catch (IOException ex) {
       throw new BulkLoadControlFileException(
           "Failure accessing the load control file in Azure blob storage", ex);
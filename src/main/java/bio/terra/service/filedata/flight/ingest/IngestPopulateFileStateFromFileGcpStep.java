@@ -6,7 +6,7 @@ import bio.terra.model.BulkLoadRequestModel;
 import bio.terra.service.dataset.Dataset;
 import bio.terra.service.filedata.exception.BulkLoadControlFileException;
 import bio.terra.service.filedata.flight.FileMapKeys;
-import bio.terra.service.filedata.google.gcs.GcsBufferedReader;
+import bio.terra.service.filedata.google.gcs.GcsBlobRangeReader;
 import bio.terra.service.filedata.google.gcs.GcsPdao;
 import bio.terra.service.job.JobMapKeys;
 import bio.terra.service.load.LoadService;
@@ -16,7 +16,6 @@ import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.StepResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.storage.Storage;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 
@@ -47,7 +46,7 @@ public class IngestPopulateFileStateFromFileGcpStep extends IngestPopulateFileSt
 
   @Override
   public StepResult doStep(FlightContext context) {
-    // Gather vars required to build GcsBufferedReader
+    // Gather vars required to build GcsBlobRangeReader
     FlightMap inputParameters = context.getInputParameters();
     BulkLoadRequestModel loadRequest =
         inputParameters.get(JobMapKeys.REQUEST.getKeyName(), BulkLoadRequestModel.class);
@@ -63,10 +62,11 @@ public class IngestPopulateFileStateFromFileGcpStep extends IngestPopulateFileSt
     Storage storage = gcsPdao.storageForProjectId(projectId);
 
     // Stream from control file and build list of files to be ingested
-    try (BufferedReader reader =
-        new GcsBufferedReader(storage, projectId, loadRequest.getLoadControlFile())) {
-      readFile(reader, projectId, context);
-
+    try {
+      readFile(
+          new GcsBlobRangeReader(storage, projectId, loadRequest.getLoadControlFile()),
+          projectId,
+          context);
     } catch (IOException ex) {
       throw new BulkLoadControlFileException("Failure accessing the load control file in GCS", ex);
     }
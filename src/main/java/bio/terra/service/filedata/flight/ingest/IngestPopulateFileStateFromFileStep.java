@@ -1,13 +1,18 @@
 package bio.terra.service.filedata.flight.ingest;
 
+import static bio.terra.service.filedata.google.gcs.GcsConstants.USER_PROJECT_QUERY_PARAM;
+
 import bio.terra.common.ErrorCollector;
-import bio.terra.common.FutureUtils;
+import bio.terra.common.UriUtils;
 import bio.terra.common.exception.BadRequestException;
 import bio.terra.common.iam.AuthenticatedUserRequest;
 import bio.terra.model.BulkLoadFileModel;
+import bio.terra.service.common.gcs.GcsUriUtils;
 import bio.terra.service.dataset.Dataset;
 import bio.terra.service.dataset.flight.ingest.IngestUtils;
+import bio.terra.service.filedata.BlobRangeReader;
 import bio.terra.service.filedata.CloudFileReader;
+import bio.terra.service.filedata.ParallelLineReader;
 import bio.terra.service.filedata.exception.BlobAccessNotAuthorizedException;
 import bio.terra.service.load.LoadService;
 import bio.terra.service.load.flight.LoadMapKeys;
@@ -16,17 +21,27 @@ import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.Step;
 import bio.terra.stairway.StepResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public abstract class IngestPopulateFileStateFromFileStep implements Step {
+  private static final Logger logger =
+      LoggerFactory.getLogger(IngestPopulateFileStateFromFileStep.class);
+  private static final int CONTROL_FILE_RANGE_SIZE = 4 * 1024 * 1024;
+  private static final int CONTROL_FILE_RANGES_IN_FLIGHT = 8;
+
   private final LoadService loadService;
   private final int maxBadLoadFileLineErrorsReported;
   private final int batchSize;
@@ -55,58 +70,49 @@ public abstract class IngestPopulateFileStateFromFileStep implements Step {
     this.dataset = dataset;
   }
 
-  void readFile(BufferedReader reader, String projectId, FlightContext context) throws IOException {
+  void readFile(BlobRangeReader controlFile, String projectId, FlightContext context)
+      throws IOException {
     FlightMap workingMap = context.getWorkingMap();
     UUID loadId = UUID.fromString(workingMap.get(LoadMapKeys.LOAD_ID, String.class));
 
+    // Each batch is committed as it is populated. If this step is run again after a failure or a
+    // pod restart, the batches that were already committed are kept and their files are skipped.
+    int alreadyPopulated = loadService.countFiles(loadId);
+    boolean resuming = alreadyPopulated > 0;
+    if (resuming) {
+      logger.info("Resuming population of load {} after {} files", loadId, alreadyPopulated);
+    }
+
     ErrorCollector errorCollector =
         new ErrorCollector(
             maxBadLoadFileLineErrorsReported,
             "Invalid lines in the control file. [All lines in control file must be valid in order to proceed - 'maxFailedFileLoads' not applicable here.]");
-    List<Future<BulkLoadFileModel>> futureFiles = new ArrayList<>();
-
-    // Value used in a lambda so needs to be effectively final
-    final AtomicLong lineCount = new AtomicLong(0);
-    String line;
-    while ((line = reader.readLine()) != null) {
-      final String lineCopy = line;
-      final AtomicBoolean shortCircuit = new AtomicBoolean(false);
-      lineCount.incrementAndGet();
-
-      // Run batches in parallel
-      futureFiles.add(
-          executor.submit(
-              () -> {
-                try {
-                  BulkLoadFileModel loadFile =
-                      bulkLoadObjectMapper.readValue(lineCopy, BulkLoadFileModel.class);
-                  IngestUtils.validateBulkLoadFileModel(loadFile);
-                  cloudFileReader.validateUserCanRead(
-                      List.of(loadFile.getSourcePath()), projectId, userRequest, dataset);
-                  return loadFile;
-                } catch (IOException | BlobAccessNotAuthorizedException | BadRequestException ex) {
-                  try {
-                    errorCollector.record("Error at line %d: %s", lineCount.get(), ex.getMessage());
-                  } catch (BadRequestException e) {
-                    // Short circuit throwing.
-                    shortCircuit.set(true);
-                  }
-                  return null;
-                }
-              }));
-      // Keep this check and load out of the inner try; it should only catch objectMapper failures
-      if (futureFiles.size() > batchSize) {
-        loadService.populateFiles(loadId, FutureUtils.waitFor(futureFiles));
-        futureFiles.clear();
-      }
 
-      if (shortCircuit.get()) {
-        throw errorCollector.getFormattedException();
-      }
-    }
+    // The access error, if any, of each source bucket that has been checked
+    Map<String, Optional<String>> bucketAccessErrors = new ConcurrentHashMap<>();
 
-    if (futureFiles.size() > 0) {
-      loadService.populateFiles(loadId, FutureUtils.waitFor(futureFiles));
+    // Ranges of the control file are read and parsed in parallel; lines come back in file order
+    ParallelLineReader lineReader =
+        new ParallelLineReader(executor, CONTROL_FILE_RANGE_SIZE, CONTROL_FILE_RANGES_IN_FLIGHT);
+    try (Stream<BulkLoadFileModel> loadFiles =
+        lineReader.parseLines(
+            controlFile,
+            (line, errors) -> parseLine(line, errors, projectId, bucketAccessErrors),
+            errorCollector)) {
+      List<BulkLoadFileModel> batch = new ArrayList<>(batchSize);
+      Iterator<BulkLoadFileModel> iterator = loadFiles.iterator();
+      while (iterator.hasNext()) {
+        batch.add(iterator.next());
+        if (batch.size() >= batchSize) {
+          populateFiles(loadId, batch, resuming);
+          batch = new ArrayList<>(batchSize);
+        }
+      }
+      if (!batch.isEmpty()) {
+        populateFiles(loadId, batch, resuming);
+      }
+    } catch (UncheckedIOException ex) {
+      throw ex.getCause();
     }
 
     // If there are errors in the load file, don't do the load
@@ -115,6 +121,57 @@ public abstract class IngestPopulateFileStateFromFileStep implements Step {
     }
   }
 
+  private BulkLoadFileModel parseLine(
+      String line,
+      Consumer<String> errors,
+      String projectId,
+      Map<String, Optional<String>> bucketAccessErrors) {
+    BulkLoadFileModel loadFile;
+    try {
+      loadFile = bulkLoadObjectMapper.readValue(line, BulkLoadFileModel.class);
+      IngestUtils.validateBulkLoadFileModel(loadFile);
+    } catch (IOException | BadRequestException ex) {
+      errors.accept(ex.getMessage());
+      return null;
+    }
+
+    String sourcePath = loadFile.getSourcePath();
+    Optional<String> accessError;
+    if (GcsUriUtils.isGsUri(sourcePath)) {
+      // Read access is granted per bucket, so each bucket is checked once rather than every file
+      String bucket =
+          GcsUriUtils.parseBlobUri(sourcePath).getBucket()
+              + "?"
+              + UriUtils.getValueFromQueryParameter(sourcePath, USER_PROJECT_QUERY_PARAM);
+      accessError =
+          bucketAccessErrors.computeIfAbsent(bucket, b -> checkUserCanRead(sourcePath, projectId));
+    } else {
+      accessError = checkUserCanRead(sourcePath, projectId);
+    }
+    accessError.ifPresent(errors);
+    return accessError.isPresent() ? null : loadFile;
+  }
+
+  /**
+   * @return the reason the user cannot read the source path, or empty if they can
+   */
+  private Optional<String> checkUserCanRead(String sourcePath, String projectId) {
+    try {
+      cloudFileReader.validateUserCanRead(List.of(sourcePath), projectId, userRequest, dataset);
+      return Optional.empty();
+    } catch (BlobAccessNotAuthorizedException | BadRequestException ex) {
+      return Optional.of(ex.getMessage());
+    }
+  }
+
+  private void populateFiles(UUID loadId, List<BulkLoadFileModel> files, boolean resuming) {
+    if (resuming) {
+      loadService.populateMissingFiles(loadId, files);
+    } else {
+      loadService.populateFiles(loadId, files);
+    }
+  }
+
   @Override
   public StepResult undoStep(FlightContext context) {
     FlightMap workingMap = context.getWorkingMap();
@@ -0,0 +1,8 @@
+package bio.terra.service.filedata.google.firestore;
+
+import com.google.cloud.firestore.BulkWriter;
+
+@FunctionalInterface
+public interface BulkWriterConsumer {
+  void accept(BulkWriter bulkWriter) throws InterruptedException;
+}
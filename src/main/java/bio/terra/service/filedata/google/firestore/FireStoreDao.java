@@ -1,6 +1,8 @@
 package bio.terra.service.filedata.google.firestore;
 
+import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_QUERY_BATCH_SIZE;
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_SNAPSHOT_BATCH_SIZE;
+import static bio.terra.service.configuration.ConfigEnum.SNAPSHOT_COMPUTE_PARALLELISM;
 
 import bio.terra.app.logging.PerformanceLogger;
 import bio.terra.common.CollectionType;
@@ -14,26 +16,30 @@ import bio.terra.service.filedata.FSDir;
 import bio.terra.service.filedata.FSFile;
 import bio.terra.service.filedata.FSItem;
 import bio.terra.service.filedata.FileMetadataUtils;
-import bio.terra.service.filedata.SnapshotCompute;
+import bio.terra.service.filedata.ParallelSnapshotCompute;
 import bio.terra.service.filedata.SnapshotComputeHelper;
 import bio.terra.service.filedata.exception.FileNotFoundException;
 import bio.terra.service.filedata.exception.FileSystemExecutionException;
 import bio.terra.service.snapshot.Snapshot;
 import bio.terra.service.snapshot.SnapshotProject;
-import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.FieldPath;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.Query;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 // Operations on a file often need to touch file and directory collections that is,
@@ -60,6 +66,7 @@ public class FireStoreDao {
   private final FireStoreUtils fireStoreUtils;
   private final ConfigurationService configurationService;
   private final PerformanceLogger performanceLogger;
+  private final ExecutorService snapshotComputeExecutor;
 
   @Autowired
   public FireStoreDao(
@@ -67,12 +74,14 @@ public class FireStoreDao {
       FireStoreFileDao fileDao,
       FireStoreUtils fireStoreUtils,
       ConfigurationService configurationService,
-      PerformanceLogger performanceLogger) {
+      PerformanceLogger performanceLogger,
+      @Qualifier("snapshotComputeThreadpool") ExecutorService snapshotComputeExecutor) {
     this.directoryDao = directoryDao;
     this.fileDao = fileDao;
     this.fireStoreUtils = fireStoreUtils;
     this.configurationService = configurationService;
     this.performanceLogger = performanceLogger;
+    this.snapshotComputeExecutor = snapshotComputeExecutor;
   }
 
   public void createDirectoryEntry(Dataset dataset, FireStoreDirectoryEntry newEntry)
@@ -191,6 +200,16 @@ public class FireStoreDao {
 
   public void deleteFilesFromDataset(Dataset dataset, InterruptibleConsumer<FireStoreFile> func)
       throws InterruptedException {
+    deleteFileMetadataFromDataset(dataset, func);
+    deleteDirectoryEntriesFromDataset(dataset);
+  }
+
+  /**
+   * Delete the file metadata of a dataset, calling func on each file before its metadata is
+   * deleted. The directory entries of the files are left in place.
+   */
+  public void deleteFileMetadataFromDataset(
+      Dataset dataset, InterruptibleConsumer<FireStoreFile> func) throws InterruptedException {
 
     Firestore firestore =
         FireStoreProject.get(dataset.getProjectResource().getGoogleProjectId()).getFirestore();
@@ -201,6 +220,12 @@ public class FireStoreDao {
     } else {
       fileDao.deleteFilesFromDataset(firestore, datasetId, func);
     }
+  }
+
+  public void deleteDirectoryEntriesFromDataset(Dataset dataset) throws InterruptedException {
+    Firestore firestore =
+        FireStoreProject.get(dataset.getProjectResource().getGoogleProjectId()).getFirestore();
+    String datasetId = dataset.getId().toString();
     directoryDao.deleteDirectoryEntriesFromCollection(firestore, datasetId);
   }
 
@@ -221,6 +246,18 @@ public class FireStoreDao {
     return directoryDao.retrieveByPath(firestore, datasetId, path);
   }
 
+  /**
+   * Look up the directory entries of many paths in batched reads. Paths without an entry are
+   * skipped, so the result may be shorter than the list of paths.
+   */
+  public List<FireStoreDirectoryEntry> lookupDirectoryEntriesByPath(
+      Dataset dataset, List<String> paths) throws InterruptedException {
+    Firestore firestore =
+        FireStoreProject.get(dataset.getProjectResource().getGoogleProjectId()).getFirestore();
+    String datasetId = dataset.getId().toString();
+    return directoryDao.batchRetrieveByPath(firestore, datasetId, paths);
+  }
+
   public FireStoreFile lookupFile(Dataset dataset, String fileId) throws InterruptedException {
     Firestore firestore =
         FireStoreProject.get(dataset.getProjectResource().getGoogleProjectId()).getFirestore();
@@ -283,7 +320,12 @@ public class FireStoreDao {
       String retrieveTimer = performanceLogger.timerStart();
 
       FirestoreComputeHelper helper = getHelper(datasetFirestore, snapshotFirestore, snapshotId);
-      SnapshotCompute.computeDirectory(helper, topDir, updateBatch);
+      new ParallelSnapshotCompute(
+              helper,
+              snapshotComputeExecutor,
+              configurationService.getParameterValue(SNAPSHOT_COMPUTE_PARALLELISM),
+              configurationService.getParameterValue(FIRESTORE_SNAPSHOT_BATCH_SIZE))
+          .computeDirectory(topDir, updateBatch);
 
       performanceLogger.timerEndAndLog(
           retrieveTimer,
@@ -381,25 +423,26 @@ public class FireStoreDao {
   }
 
   /**
-   * Given a snapshot, retrieve the -files metadata collection from its source Dataset Firestore
+   * Given a snapshot, page through the -files metadata collection from its source Dataset
+   * Firestore in document id order. Only one batch of documents is held in memory at a time.
    *
    * @param snapshot target snapshot
-   * @return QuerySnapshot representation of the -files collection in source Dataset.
+   * @param startAfterDocumentId if not null, the iteration resumes after the document with this id
+   * @return batch iterator over the -files collection in source Dataset.
    */
-  public QuerySnapshot retrieveFilesCollection(Snapshot snapshot)
-      throws ExecutionException, InterruptedException {
+  public FireStoreBatchQueryIterator retrieveFilesCollectionIterator(
+      Snapshot snapshot, String startAfterDocumentId) {
     Dataset sourceDataset = snapshot.getSourceDataset();
     String collectionName = String.format("%s-files", sourceDataset.getId());
-    return retrieveCollectionByName(
-        sourceDataset.getProjectResource().getGoogleProjectId(), collectionName);
-  }
-
-  public QuerySnapshot retrieveCollectionByName(String projectId, String collectionName)
-      throws ExecutionException, InterruptedException {
-    final Firestore db = FireStoreProject.get(projectId).getFirestore();
-    ;
-    final CollectionReference collection = db.collection(collectionName);
-    return collection.get().get();
+    Firestore firestore =
+        FireStoreProject.get(sourceDataset.getProjectResource().getGoogleProjectId())
+            .getFirestore();
+    Query query = firestore.collection(collectionName).orderBy(FieldPath.documentId());
+    if (startAfterDocumentId != null) {
+      query = query.startAfter(startAfterDocumentId);
+    }
+    int batchSize = configurationService.getParameterValue(FIRESTORE_QUERY_BATCH_SIZE);
+    return new FireStoreBatchQueryIterator(query, batchSize, fireStoreUtils);
   }
 
   public FSItem retrieveBySnapshotAndId(SnapshotProject snapshot, String fileId, int enumerateDepth)
@@ -422,6 +465,60 @@ public class FireStoreDao {
         fileId);
   }
 
+  /**
+   * Retrieve a batch of file system objects from a snapshot by id. The directory entries of all of
+   * the ids are looked up together, then the file metadata of the file entries is looked up
+   * together, grouped by source dataset. Directories are enumerated one at a time.
+   *
+   * @param snapshot snapshot whose file system holds the objects
+   * @param fileIds ids of the files or directories to retrieve
+   * @param enumerateDepth how far to enumerate any directories
+   * @return map of file id to the retrieved object; ids that are not found, or whose file is not
+   *     done being created, are left out
+   */
+  public Map<String, FSItem> batchRetrieveBySnapshotAndId(
+      SnapshotProject snapshot, List<String> fileIds, int enumerateDepth)
+      throws InterruptedException {
+    String collectionId = snapshot.getId().toString();
+    Firestore fsItemFirestore = FireStoreProject.get(snapshot.getDataProject()).getFirestore();
+    Firestore metadataFirestore =
+        FireStoreProject.get(snapshot.getFirstSourceDatasetProject().getDataProject())
+            .getFirestore();
+
+    List<FireStoreDirectoryEntry> entries =
+        directoryDao.batchLookupById(fsItemFirestore, collectionId, fileIds);
+
+    Map<String, FSItem> items = new HashMap<>();
+    Map<String, List<FireStoreDirectoryEntry>> fileEntriesByDataset =
+        entries.stream()
+            .filter(Objects::nonNull)
+            .filter(FireStoreDirectoryEntry::getIsFileRef)
+            .collect(Collectors.groupingBy(FireStoreDirectoryEntry::getDatasetId));
+    for (var datasetEntries : fileEntriesByDataset.entrySet()) {
+      List<FireStoreFile> files =
+          fileDao.batchLookupFileMetadata(
+              metadataFirestore, datasetEntries.getKey(), datasetEntries.getValue());
+      for (int i = 0; i < files.size(); i++) {
+        FireStoreDirectoryEntry entry = datasetEntries.getValue().get(i);
+        FireStoreFile file = files.get(i);
+        if (file == null) {
+          logger.info("fileId not found in dataset: {}", entry.getFileId());
+        } else {
+          items.put(entry.getFileId(), makeFSFile(collectionId, entry, file));
+        }
+      }
+    }
+
+    for (FireStoreDirectoryEntry entry : entries) {
+      if (entry != null && !entry.getIsFileRef()) {
+        items.put(
+            entry.getFileId(),
+            makeFSDir(fsItemFirestore, metadataFirestore, collectionId, enumerateDepth, entry));
+      }
+    }
+    return items;
+  }
+
   public List<FileModel> batchRetrieveFiles(
       FSContainerInterface container, FSContainerInterface dataset, int offset, int limit)
       throws InterruptedException {
@@ -661,9 +758,6 @@ public class FireStoreDao {
       throw new IllegalStateException("Expected file; got directory!");
     }
 
-    String fullPath =
-        FileMetadataUtils.getFullPath(
-            fireStoreDirectoryEntry.getPath(), fireStoreDirectoryEntry.getName());
     String fileId = fireStoreDirectoryEntry.getFileId();
 
     // Lookup the file in its owning dataset, not in the collection. The collection may be a
@@ -677,9 +771,20 @@ public class FireStoreDao {
       return null;
     }
 
+    return makeFSFile(collectionId, fireStoreDirectoryEntry, fireStoreFile);
+  }
+
+  private static FSFile makeFSFile(
+      String collectionId,
+      FireStoreDirectoryEntry fireStoreDirectoryEntry,
+      FireStoreFile fireStoreFile) {
+    String fullPath =
+        FileMetadataUtils.getFullPath(
+            fireStoreDirectoryEntry.getPath(), fireStoreDirectoryEntry.getName());
+
     FSFile fsFile = new FSFile();
     fsFile
-        .fileId(UUID.fromString(fileId))
+        .fileId(UUID.fromString(fireStoreDirectoryEntry.getFileId()))
         .collectionId(UUID.fromString(collectionId))
         .datasetId(UUID.fromString(fireStoreDirectoryEntry.getDatasetId()))
         .createdDate(Instant.parse(fireStoreFile.getFileCreatedDate()))
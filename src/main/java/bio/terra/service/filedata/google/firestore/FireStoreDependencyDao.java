@@ -1,25 +1,18 @@
 package bio.terra.service.filedata.google.firestore;
 
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_QUERY_BATCH_SIZE;
-import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_SNAPSHOT_BATCH_SIZE;
 
 import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.dataset.Dataset;
-import bio.terra.service.filedata.exception.FileSystemCorruptException;
 import bio.terra.service.resourcemanagement.ResourceService;
-import com.google.api.client.util.Lists;
 import com.google.cloud.firestore.CollectionReference;
-import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
+import com.google.common.annotations.VisibleForTesting;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import org.apache.commons.collections4.ListUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -97,6 +90,11 @@ public class FireStoreDependencyDao {
     return fileIds;
   }
 
+  /**
+   * Record that a snapshot depends on files of a dataset. The document of each dependency is named
+   * after its file and snapshot, so it is created with a single write that needs no lookup first,
+   * and writing it again on a retry leaves a single document.
+   */
   public void storeSnapshotFileDependencies(Dataset dataset, String snapshotId, List<String> refIds)
       throws InterruptedException {
 
@@ -105,105 +103,101 @@ public class FireStoreDependencyDao {
     FireStoreProject fireStoreProject =
         FireStoreProject.get(dataset.getProjectResource().getGoogleProjectId());
     String dependencyCollectionName = getDatasetDependencyId(dataset.getId().toString());
-    CollectionReference depColl =
-        fireStoreProject.getFirestore().collection(dependencyCollectionName);
-
-    List<List<String>> batches =
-        ListUtils.partition(
-            refIds, configurationService.getParameterValue(FIRESTORE_SNAPSHOT_BATCH_SIZE));
-
-    for (List<String> batch : batches) {
-      batchStoreSnapshotFileDependencies(depColl, snapshotId, batch);
-    }
-  }
-
-  private void batchStoreSnapshotFileDependencies(
-      CollectionReference depColl, String snapshotId, List<String> batch)
-      throws InterruptedException {
-
-    // Launch the lookups in parallel. Note Query.get() is returning an ApiFuture<QuerySnapshot>
-    List<QuerySnapshot> querySnapshotList =
-        fireStoreUtils.batchOperation(
-            batch,
-            fileId ->
-                depColl
-                    .whereEqualTo("fileId", fileId)
-                    .whereEqualTo("snapshotId", snapshotId)
-                    .get());
-
-    // Combine the batch inputs with the results from the lookups to be used in the next batch
-    // process
-    int index = 0;
-    final Map<String, QuerySnapshot> fileIdToQuerySnapshot = new HashMap<>();
-    for (QuerySnapshot querySnapshot : querySnapshotList) {
-      String fileId = batch.get(index);
-      fileIdToQuerySnapshot.put(fileId, querySnapshot);
-      index++;
-    }
+    Firestore firestore = fireStoreProject.getFirestore();
+    CollectionReference depColl = firestore.collection(dependencyCollectionName);
 
-    // Collect the set results
-    fireStoreUtils.batchOperation(
-        Lists.newArrayList(fileIdToQuerySnapshot.entrySet()),
-        e -> {
-          final String fileId = e.getKey();
-          final QuerySnapshot querySnapshot = e.getValue();
-          List<QueryDocumentSnapshot> documents = querySnapshot.getDocuments();
-          switch (documents.size()) {
-            case 0:
-              {
-                // no dependency yet. Let's make one
-                FireStoreDependency fireStoreDependency =
-                    new FireStoreDependency().snapshotId(snapshotId).fileId(fileId).refCount(1L);
-                DocumentReference docRef = depColl.document();
-                return docRef.set(fireStoreDependency);
-              }
-
-            case 1:
-              {
-                // existing dependency; increment the reference count
-                QueryDocumentSnapshot docSnap = documents.get(0);
-                FireStoreDependency fireStoreDependency =
-                    docSnap.toObject(FireStoreDependency.class);
-                fireStoreDependency.refCount(fireStoreDependency.getRefCount() + 1);
-                return docSnap.getReference().set(fireStoreDependency);
-              }
-
-            default:
-              throw new FileSystemCorruptException(
-                  "Found more than one document for a file dependency - fileId: " + fileId);
+    fireStoreUtils.bulkWrite(
+        firestore,
+        "storeSnapshotFileDependencies",
+        bulkWriter -> {
+          for (String fileId : refIds) {
+            FireStoreDependency fireStoreDependency =
+                new FireStoreDependency().snapshotId(snapshotId).fileId(fileId).refCount(1L);
+            bulkWriter.set(
+                depColl.document(getDependencyDocumentId(fileId, snapshotId)),
+                fireStoreDependency);
           }
         });
   }
 
-  public void deleteSnapshotFileDependencies(Dataset dataset, String snapshotId)
-      throws InterruptedException {
+  /**
+   * Rename the dependency documents of a dataset that were stored under random ids, from before
+   * dependencies were named after their file and snapshot. Dependencies are looked up by their
+   * fields, so both kinds of documents work; renaming lets a later write of the same dependency
+   * replace the document instead of adding a second one.
+   *
+   * @return the number of documents renamed
+   */
+  public int convertDependencyDocumentIds(Dataset dataset) throws InterruptedException {
     FireStoreProject fireStoreProject =
         FireStoreProject.get(dataset.getProjectResource().getGoogleProjectId());
     String dependencyCollectionName = getDatasetDependencyId(dataset.getId().toString());
     Firestore firestore = fireStoreProject.getFirestore();
     CollectionReference depColl = firestore.collection(dependencyCollectionName);
 
-    Query query = depColl.whereEqualTo("snapshotId", snapshotId);
     int batchSize = configurationService.getParameterValue(FIRESTORE_QUERY_BATCH_SIZE);
-
-    // TODO - Could we just use scan collections instead?
     FireStoreBatchQueryIterator queryIterator =
-        new FireStoreBatchQueryIterator(query, batchSize, fireStoreUtils);
+        new FireStoreBatchQueryIterator(depColl, batchSize, fireStoreUtils);
 
+    int converted = 0;
     for (List<QueryDocumentSnapshot> batch = queryIterator.getBatch();
         !CollectionUtils.isEmpty(batch);
         batch = queryIterator.getBatch()) {
 
-      fireStoreUtils.batchOperation(
-          batch,
-          docSnap -> {
-            logger.info("deleting: " + docSnap.getReference().getPath());
-            return docSnap.getReference().delete();
+      List<QueryDocumentSnapshot> legacyDocs = new ArrayList<>();
+      for (QueryDocumentSnapshot docSnap : batch) {
+        FireStoreDependency fireStoreDependency = docSnap.toObject(FireStoreDependency.class);
+        String documentId =
+            getDependencyDocumentId(
+                fireStoreDependency.getFileId(), fireStoreDependency.getSnapshotId());
+        if (!docSnap.getId().equals(documentId)) {
+          legacyDocs.add(docSnap);
+        }
+      }
+      // Copies come before deletes, so that an interrupted conversion never loses a dependency
+      fireStoreUtils.bulkWrite(
+          firestore,
+          "convertDependencyDocumentIds",
+          bulkWriter -> {
+            for (QueryDocumentSnapshot docSnap : legacyDocs) {
+              FireStoreDependency fireStoreDependency = docSnap.toObject(FireStoreDependency.class);
+              bulkWriter.set(
+                  depColl.document(
+                      getDependencyDocumentId(
+                          fireStoreDependency.getFileId(), fireStoreDependency.getSnapshotId())),
+                  fireStoreDependency);
+            }
           });
+      fireStoreUtils.bulkWrite(
+          firestore,
+          "convertDependencyDocumentIds",
+          bulkWriter -> legacyDocs.forEach(docSnap -> bulkWriter.delete(docSnap.getReference())));
+      converted += legacyDocs.size();
     }
+    logger.info("Converted {} dependency documents of dataset {}", converted, dataset.getId());
+    return converted;
+  }
+
+  public void deleteSnapshotFileDependencies(Dataset dataset, String snapshotId)
+      throws InterruptedException {
+    FireStoreProject fireStoreProject =
+        FireStoreProject.get(dataset.getProjectResource().getGoogleProjectId());
+    String dependencyCollectionName = getDatasetDependencyId(dataset.getId().toString());
+    Firestore firestore = fireStoreProject.getFirestore();
+    CollectionReference depColl = firestore.collection(dependencyCollectionName);
+
+    Query query = depColl.whereEqualTo("snapshotId", snapshotId);
+    int batchSize = configurationService.getParameterValue(FIRESTORE_QUERY_BATCH_SIZE);
+    long deleted = fireStoreUtils.bulkDeleteQuery(firestore, query, batchSize);
+    logger.info("Deleted {} file dependencies of snapshot {}", deleted, snapshotId);
   }
 
   private String getDatasetDependencyId(String datasetId) {
     return datasetId + DEPENDENCY_COLLECTION_NAME;
   }
+
+  @VisibleForTesting
+  static String getDependencyDocumentId(String fileId, String snapshotId) {
+    return fileId + "_" + snapshotId;
+  }
 }
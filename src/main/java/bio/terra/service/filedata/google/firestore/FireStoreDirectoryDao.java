@@ -4,9 +4,9 @@ import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_SNAPSHOT_BATC
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_VALIDATE_BATCH_SIZE;
 
 import bio.terra.app.logging.PerformanceLogger;
-import bio.terra.service.configuration.ConfigEnum;
 import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.filedata.FileMetadataUtils;
+import bio.terra.service.filedata.SnapshotDirectoryPathIndex;
 import bio.terra.service.filedata.exception.FileAlreadyExistsException;
 import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
 import bio.terra.service.filedata.exception.FileSystemExecutionException;
@@ -21,6 +21,7 @@ import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.QuerySnapshot;
 import com.google.cloud.firestore.Transaction;
 import com.google.cloud.firestore.WriteResult;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,7 +34,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.commons.collections4.ListUtils;
-import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,6 +80,8 @@ public class FireStoreDirectoryDao {
 
   private static final int LOOKUP_RETRIES = 30; // up to 5 minutes
   private static final int LOOKUP_WAIT_SECONDS = 10;
+  // The most values Firestore allows in an 'in' filter
+  private static final int IN_FILTER_MAX_VALUES = 30;
 
   private final FireStoreUtils fireStoreUtils;
   private final PerformanceLogger performanceLogger;
@@ -242,14 +244,11 @@ public class FireStoreDirectoryDao {
     return fireStoreUtils.transactionGet("deleteDirectoryEntry", transaction);
   }
 
-  public void deleteDirectoryEntriesFromCollection(Firestore firestore, String collectionId)
+  public long deleteDirectoryEntriesFromCollection(Firestore firestore, String collectionId)
       throws InterruptedException {
 
-    fireStoreUtils.scanCollectionObjectsForDelete(
-        firestore,
-        collectionId,
-        FireStoreUtils.MAX_FIRESTORE_BATCH_SIZE,
-        document -> document.getReference().delete());
+    return fireStoreUtils.bulkDeleteCollection(
+        firestore, collectionId, FireStoreUtils.MAX_FIRESTORE_BATCH_SIZE, documents -> {});
   }
 
   public void updateFileIds(Firestore firestore, String collectionId, Map<UUID, UUID> idMappings)
@@ -312,7 +311,7 @@ public class FireStoreDirectoryDao {
 
     int batchSize = configurationService.getParameterValue(FIRESTORE_VALIDATE_BATCH_SIZE);
     List<List<String>> batches = ListUtils.partition(refIdArray, batchSize);
-    logger.info(
+    logger.debug(
         "validateRefIds on {} file ids, in {} batches of {}",
         refIdArray.size(),
         batches.size(),
@@ -433,14 +432,14 @@ public class FireStoreDirectoryDao {
 
   // To improve performance of building the snapshot file system, we use three techniques:
   // 1. Operate over batches so that we can issue requests to fire store in parallel
-  // 2. Cache directory paths so that we do not due extra lookups or creates on shared directory
-  // structure
+  // 2. Index directory paths across the whole snapshot so that each directory shared by the
+  // files is looked up and created exactly once
   // 3. Rewrite rather than read, check existence, and then write. The logic here is that there is
   // no contention
   //    so the writing doesn't generate conflicts, and the typical use case is that overwrites will
   // be rare:
   //      a. File references are usually unique in the datasets we know about
-  //      b. Directories are cached, so will be overwritten based on the effectiveness of the cache
+  //      b. Directories are indexed, so are only overwritten if they were in the snapshot before
 
   public void addEntriesToSnapshot(
       Firestore datasetFirestore,
@@ -460,8 +459,7 @@ public class FireStoreDirectoryDao {
         batches.size(),
         batchSize);
 
-    int cacheSize = configurationService.getParameterValue(ConfigEnum.SNAPSHOT_CACHE_SIZE);
-    LRUMap<String, Boolean> pathMap = new LRUMap<>(cacheSize);
+    SnapshotDirectoryPathIndex pathIndex = new SnapshotDirectoryPathIndex();
 
     // Create the top directory structure (/_dr_/<datasetDirName>)
     String storeTopTimer = performanceLogger.timerStart();
@@ -481,8 +479,8 @@ public class FireStoreDirectoryDao {
       List<FireStoreDirectoryEntry> datasetEntries =
           batchRetrieveById(datasetFirestore, datasetId, batch);
 
-      // Find directory paths that need to be created; plus add to the cache
-      Set<String> newPaths = FileMetadataUtils.findNewDirectoryPaths(datasetEntries, pathMap);
+      // Find directory paths that need to be created; plus add to the index
+      Set<String> newPaths = pathIndex.addDirectoriesOf(datasetEntries);
       List<FireStoreDirectoryEntry> datasetDirectoryEntries =
           batchRetrieveByPath(datasetFirestore, datasetId, List.copyOf(newPaths));
 
@@ -507,6 +505,23 @@ public class FireStoreDirectoryDao {
       // rather than retrieve to avoid the write.
       batchStoreDirectoryEntry(snapshotFirestore, snapshotId, snapshotEntries);
     }
+
+    logDirectoryIndex(snapshotId, pathIndex);
+  }
+
+  private void logDirectoryIndex(String snapshotId, SnapshotDirectoryPathIndex pathIndex) {
+    long references = pathIndex.getDirectoryReferenceCount();
+    int directories = pathIndex.getDirectoryCount();
+    logger.info(
+        "addEntriesToSnapshot copied {} directories, saving {} directory reads and writes",
+        directories,
+        references - directories);
+    performanceLogger.log(
+        snapshotId,
+        this.getClass().getName(),
+        "addEntriesToSnapshot:directoryReadsAndWritesSaved",
+        Duration.ZERO,
+        references - directories);
   }
 
   private void storeTopDirectory(Firestore firestore, String snapshotId, String dirName)
@@ -535,24 +550,11 @@ public class FireStoreDirectoryDao {
   List<FireStoreDirectoryEntry> batchRetrieveById(
       Firestore firestore, String containerId, List<String> batch) throws InterruptedException {
 
-    CollectionReference collection = firestore.collection(containerId);
-
-    List<QuerySnapshot> querySnapshotList =
-        fireStoreUtils.batchOperation(
-            batch,
-            fileId -> {
-              Query query = collection.whereEqualTo("fileId", fileId);
-              return query.get();
-            });
-
     List<FireStoreDirectoryEntry> entries = new ArrayList<>();
-    for (QuerySnapshot querySnapshot : querySnapshotList) {
-      List<QueryDocumentSnapshot> documents = querySnapshot.getDocuments();
-      if (documents.size() != 1) {
+    for (FireStoreDirectoryEntry entry : batchLookupById(firestore, containerId, batch)) {
+      if (entry == null) {
         throw new FileSystemExecutionException("FileId not found:");
       }
-      QueryDocumentSnapshot docSnap = documents.get(0);
-      FireStoreDirectoryEntry entry = docSnap.toObject(FireStoreDirectoryEntry.class);
       if (!entry.getIsFileRef()) {
         throw new FileSystemExecutionException("Directories are not supported as references");
       }
@@ -562,6 +564,39 @@ public class FireStoreDirectoryDao {
     return entries;
   }
 
+  /**
+   * Look up a batch of directory entries, files or directories, by file id.
+   *
+   * @return a list with the entry for each id in the batch, in order, with null in place of ids
+   *     that were not found
+   */
+  List<FireStoreDirectoryEntry> batchLookupById(
+      Firestore firestore, String containerId, List<String> batch) throws InterruptedException {
+
+    CollectionReference collection = firestore.collection(containerId);
+
+    // Entries are keyed by path, so they are found with one query for each chunk of ids rather
+    // than with a query for each id
+    List<QuerySnapshot> querySnapshotList =
+        fireStoreUtils.batchOperation(
+            ListUtils.partition(batch.stream().distinct().toList(), IN_FILTER_MAX_VALUES),
+            fileIds -> collection.whereIn("fileId", fileIds).get());
+
+    Map<String, List<FireStoreDirectoryEntry>> entriesById =
+        querySnapshotList.stream()
+            .flatMap(querySnapshot -> querySnapshot.getDocuments().stream())
+            .map(document -> document.toObject(FireStoreDirectoryEntry.class))
+            .collect(Collectors.groupingBy(FireStoreDirectoryEntry::getFileId));
+
+    List<FireStoreDirectoryEntry> entries = new ArrayList<>();
+    for (String fileId : batch) {
+      List<FireStoreDirectoryEntry> idEntries = entriesById.getOrDefault(fileId, List.of());
+      entries.add(idEntries.size() == 1 ? idEntries.get(0) : null);
+    }
+
+    return entries;
+  }
+
   public List<FireStoreDirectoryEntry> batchRetrieveByPath(
       Firestore datasetFirestore, String datasetId, List<String> paths)
       throws InterruptedException {
@@ -1,26 +1,31 @@
 package bio.terra.service.filedata.google.firestore;
 
+import bio.terra.common.FutureUtils;
 import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.filedata.exception.FileAlreadyExistsException;
 import bio.terra.service.filedata.exception.FileSystemCorruptException;
 import bio.terra.service.filedata.exception.FileSystemExecutionException;
 import com.google.api.core.ApiFuture;
-import com.google.api.core.SettableApiFuture;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
 import com.google.cloud.firestore.Transaction;
-import com.google.cloud.firestore.WriteResult;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.commons.collections4.ListUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,6 +44,12 @@ import org.springframework.stereotype.Component;
 @Component
 class FireStoreFileDao {
   private final Logger logger = LoggerFactory.getLogger(FireStoreFileDao.class);
+  // Collection ranges are deleted concurrently and each hands a page of files at a time to the
+  // performance thread pool. Smaller pages keep the files of every range within the pool's queue;
+  // files that the pool rejects all the same are handled on the range's own thread.
+  private static final int DELETE_FILES_BATCH_SIZE = 100;
+  // Number of file documents read with each batched get
+  private static final int GET_ALL_BATCH_SIZE = 500;
 
   private final FireStoreUtils fireStoreUtils;
   private final ConfigurationService configurationService;
@@ -178,15 +189,8 @@ class FireStoreFileDao {
       Firestore firestore, String datasetId, List<FireStoreDirectoryEntry> directoryEntries)
       throws InterruptedException {
 
-    CollectionReference collection = firestore.collection(makeCollectionId(datasetId));
-
     List<DocumentSnapshot> documentSnapshotList =
-        fireStoreUtils.batchOperation(
-            directoryEntries,
-            entry -> {
-              DocumentReference docRef = collection.document(entry.getFileId());
-              return docRef.get();
-            });
+        retrieveFileMetadataDocuments(firestore, datasetId, directoryEntries);
 
     List<FireStoreFile> files = new ArrayList<>();
     for (DocumentSnapshot documentSnapshot : documentSnapshotList) {
@@ -204,6 +208,43 @@ class FireStoreFileDao {
     return files;
   }
 
+  /**
+   * Look up the file metadata for a batch of directory entries.
+   *
+   * @return a list with the metadata for each entry, in order, with null in place of files that
+   *     do not exist
+   */
+  List<FireStoreFile> batchLookupFileMetadata(
+      Firestore firestore, String datasetId, List<FireStoreDirectoryEntry> directoryEntries)
+      throws InterruptedException {
+    return retrieveFileMetadataDocuments(firestore, datasetId, directoryEntries).stream()
+        .map(
+            documentSnapshot ->
+                documentSnapshot != null && documentSnapshot.exists()
+                    ? documentSnapshot.toObject(FireStoreFile.class)
+                    : null)
+        .toList();
+  }
+
+  private List<DocumentSnapshot> retrieveFileMetadataDocuments(
+      Firestore firestore, String datasetId, List<FireStoreDirectoryEntry> directoryEntries)
+      throws InterruptedException {
+    CollectionReference collection = firestore.collection(makeCollectionId(datasetId));
+    // Documents are read a batch at a time with one request, rather than with a request for each.
+    // A batched get returns the documents in the order they were asked for.
+    return fireStoreUtils
+        .batchOperation(
+            ListUtils.partition(directoryEntries, GET_ALL_BATCH_SIZE),
+            entries ->
+                firestore.getAll(
+                    entries.stream()
+                        .map(entry -> collection.document(entry.getFileId()))
+                        .toArray(DocumentReference[]::new)))
+        .stream()
+        .flatMap(List::stream)
+        .toList();
+  }
+
   /** Enumerate all file entries in a dataset's file collection */
   List<FireStoreFile> enumerateAll(Firestore firestore, String datasetId)
       throws InterruptedException {
@@ -230,28 +271,40 @@ class FireStoreFileDao {
     }
   }
 
-  void deleteFilesFromDataset(
+  /**
+   * Delete the file metadata of a dataset. func is run on each file before its metadata is deleted,
+   * and the files of a page are handed to it concurrently on the performance thread pool. A file
+   * that the pool rejects is handed to it on the calling thread instead.
+   *
+   * @return the number of files deleted
+   */
+  long deleteFilesFromDataset(
       Firestore firestore, String datasetId, InterruptibleConsumer<FireStoreFile> func)
       throws InterruptedException {
 
     String collectionId = makeCollectionId(datasetId);
-    fireStoreUtils.scanCollectionObjectsForDelete(
+    return fireStoreUtils.bulkDeleteCollection(
         firestore,
         collectionId,
-        FireStoreUtils.MAX_FIRESTORE_BATCH_SIZE,
-        document -> {
-          SettableApiFuture<WriteResult> future = SettableApiFuture.create();
-          executor.execute(
-              () -> {
-                try {
-                  FireStoreFile fireStoreFile = document.toObject(FireStoreFile.class);
-                  func.accept(fireStoreFile);
-                  future.set(document.getReference().delete().get());
-                } catch (final Exception e) {
-                  future.setException(e);
-                }
-              });
-          return future;
+        DELETE_FILES_BATCH_SIZE,
+        documents -> {
+          List<Future<Void>> futures = new ArrayList<>();
+          for (QueryDocumentSnapshot document : documents) {
+            Callable<Void> task =
+                () -> {
+                  func.accept(document.toObject(FireStoreFile.class));
+                  return null;
+                };
+            try {
+              futures.add(executor.submit(task));
+            } catch (RejectedExecutionException ex) {
+              // Run as a future, so that a failure still cancels the rest of the page
+              FutureTask<Void> callerRuns = new FutureTask<>(task);
+              callerRuns.run();
+              futures.add(callerRuns);
+            }
+          }
+          FutureUtils.waitFor(futures);
         });
   }
 
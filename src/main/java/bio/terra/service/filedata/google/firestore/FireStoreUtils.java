@@ -1,8 +1,11 @@
 package bio.terra.service.filedata.google.firestore;
 
+import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_BULK_WRITE_INITIAL_OPS_PER_SECOND;
+import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_DELETE_PARALLELISM;
 import static bio.terra.service.configuration.ConfigEnum.FIRESTORE_QUERY_BATCH_SIZE;
 
 import bio.terra.app.configuration.ApplicationConfiguration;
+import bio.terra.common.FutureUtils;
 import bio.terra.service.configuration.ConfigEnum;
 import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
@@ -13,28 +16,45 @@ import com.google.api.gax.rpc.AbortedException;
 import com.google.api.gax.rpc.DeadlineExceededException;
 import com.google.api.gax.rpc.InternalException;
 import com.google.api.gax.rpc.UnavailableException;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.BulkWriterException;
+import com.google.cloud.firestore.BulkWriterOptions;
+import com.google.cloud.firestore.CollectionGroup;
 import com.google.cloud.firestore.CollectionReference;
 import com.google.cloud.firestore.DocumentSnapshot;
 import com.google.cloud.firestore.Firestore;
 import com.google.cloud.firestore.FirestoreException;
 import com.google.cloud.firestore.Query;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QueryPartition;
 import com.google.cloud.firestore.QuerySnapshot;
 import com.google.cloud.firestore.Transaction;
 import com.google.cloud.storage.StorageException;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
+import jakarta.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import org.springframework.util.CollectionUtils;
 
 @Component
 public class FireStoreUtils {
@@ -44,11 +64,24 @@ public class FireStoreUtils {
   private static final int SLEEP_MAX_SECONDS = 20;
   // Firestore limits batches to 500
   public static final int MAX_FIRESTORE_BATCH_SIZE = 500;
+  // Status codes of bulk writes worth retrying
+  private static final Set<Status.Code> RETRYABLE_BULK_WRITE_CODES =
+      Set.of(
+          Status.Code.ABORTED,
+          Status.Code.DEADLINE_EXCEEDED,
+          Status.Code.INTERNAL,
+          Status.Code.RESOURCE_EXHAUSTED,
+          Status.Code.UNAVAILABLE);
 
   private final ConfigurationService configurationService;
   // The number of seconds to wait for a Firestore future to complete. Having an explicit timeout
   // avoids jobs getting deadlocked forever which has been known to happen
   private final long futureTimoutSeconds;
+  // Pages through the document id ranges of bulk deletes. Each delete has no more threads on it
+  // than it has ranges, which is at most FIRESTORE_DELETE_PARALLELISM.
+  private final ExecutorService deleteExecutor =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder().setNameFormat("firestore-delete-%d").setDaemon(true).build());
 
   @Autowired
   public FireStoreUtils(
@@ -57,6 +90,11 @@ public class FireStoreUtils {
     this.futureTimoutSeconds = configuration.getFirestoreFutureTimeoutSeconds();
   }
 
+  @PreDestroy
+  public void close() {
+    deleteExecutor.shutdownNow();
+  }
+
   public int getFirestoreRetries() {
     try {
       return configurationService.getParameterValue(ConfigEnum.FIRESTORE_RETRIES);
@@ -123,51 +161,128 @@ public class FireStoreUtils {
   }
 
   /**
-   * This code is a bit ugly, but here is why... (from
-   * https://cloud.google.com/firestore/docs/solutions/delete-collections)
+   * Delete every document of a collection through a {@link BulkWriter}. There is no operation that
+   * atomically deletes a collection (see
+   * https://cloud.google.com/firestore/docs/solutions/delete-collections), so we page through it
+   * and delete what we find.
+   *
+   * <p>The collection is split into FIRESTORE_DELETE_PARALLELISM document id ranges that are paged
+   * through concurrently. The deletes of a page are queued on a writer shared by all ranges without
+   * waiting on the deletes of earlier pages, and the number of queued deletes is bounded so that a
+   * large collection does not pile up in memory while Firestore throttles the writer.
    *
-   * <ul>
-   *   <li>There is no operation that atomically deletes a collection.
-   *   <li>Deleting a document does not delete the documents in its subcollections.
-   *   <li>If your documents have dynamic subcollections, (we don't do this!) it can be hard to know
-   *       what data to delete for a given path.
-   *   <li>Deleting a collection of more than 500 documents requires multiple batched write
-   *       operations or hundreds of single deletes.
-   * </ul>
+   * <p>Documents created while the ranges are paged through may fall outside of them, so the
+   * collection is scanned again until a pass finds nothing to delete. Deleted documents are not
+   * visited again, so a delete that fails part way through can simply be run again.
    *
-   * <p>Our objects are small, so I think we can use the maximum batch size without concern for
-   * using too much memory.
+   * <p>Note: the ranges come from a collection group query. That is fine for our collections since
+   * they are all top level and we do not nest collections with the same id under documents.
    *
-   * <p>Note: this is specifically for use with deletes since this assumes re-querying the
-   * collection until it is empty
+   * @param firestore the database holding the collection
+   * @param collectionId the collection to delete
+   * @param batchSize the number of documents to read in each page of a range
+   * @param beforeDelete run on each page of documents before they are deleted
+   * @return the number of documents deleted
+   * @throws InterruptedException If a call to Firestore is interrupted
    */
-  <V> void scanCollectionObjectsForDelete(
+  long bulkDeleteCollection(
       Firestore firestore,
       String collectionId,
       int batchSize,
-      ApiFutureGenerator<V, QueryDocumentSnapshot> generator)
+      InterruptibleConsumer<List<QueryDocumentSnapshot>> beforeDelete)
       throws InterruptedException {
-    CollectionReference datasetCollection = firestore.collection(collectionId);
-    int batchCount = 0;
-    List<QueryDocumentSnapshot> documents;
+    long deleted = 0;
+    long passDeleted;
     do {
-      documents =
-          runTransactionWithRetry(
-              firestore,
-              xn -> {
-                Query query = datasetCollection.limit(batchSize);
-                ApiFuture<QuerySnapshot> querySnapshot = xn.get(query);
-                return querySnapshot.get().getDocuments();
-              },
-              "scanCollectionObjectsForDelete",
-              " scanning " + batchSize + " items for collection id: " + collectionId);
-      batchCount++;
-      if (!documents.isEmpty()) {
-        logger.info("Visiting batch " + batchCount + " of ~" + batchSize + " documents");
-      }
-      batchOperation(documents, generator);
+      List<Query> ranges = getDocumentIdRanges(firestore, collectionId);
+      passDeleted = bulkDeleteRanges(firestore, ranges, batchSize, beforeDelete);
+      deleted += passDeleted;
+    } while (passDeleted > 0);
+    logger.info("Deleted {} documents from collection {}", deleted, collectionId);
+    return deleted;
+  }
 
-    } while (documents.size() > 0);
+  /**
+   * Delete every document matching a query through a {@link BulkWriter}. The query is paged through
+   * with a cursor, so deleting the documents of earlier pages does not cause any to be skipped.
+   *
+   * @return the number of documents deleted
+   * @throws InterruptedException If a call to Firestore is interrupted
+   */
+  long bulkDeleteQuery(Firestore firestore, Query query, int batchSize)
+      throws InterruptedException {
+    return bulkDeleteRanges(firestore, List.of(query), batchSize, documents -> {});
+  }
+
+  private List<Query> getDocumentIdRanges(Firestore firestore, String collectionId)
+      throws InterruptedException {
+    int parallelism = configurationService.getParameterValue(FIRESTORE_DELETE_PARALLELISM);
+    if (parallelism <= 1) {
+      return List.of(firestore.collection(collectionId));
+    }
+    // Firestore returns fewer partitions than we ask for when the collection is small
+    CollectionGroup collectionGroup = firestore.collectionGroup(collectionId);
+    List<QueryPartition> partitions =
+        transactionGet("getDocumentIdRanges", collectionGroup.getPartitions(parallelism));
+    return partitions.stream().map(QueryPartition::createQuery).toList();
+  }
+
+  private long bulkDeleteRanges(
+      Firestore firestore,
+      List<Query> ranges,
+      int batchSize,
+      InterruptibleConsumer<List<QueryDocumentSnapshot>> beforeDelete)
+      throws InterruptedException {
+    AtomicLong deleted = new AtomicLong();
+    // Each range may have up to two pages of deletes waiting on the writer
+    Semaphore pendingDeletes = new Semaphore(2 * batchSize * ranges.size());
+    bulkWrite(
+        firestore,
+        "bulkDelete",
+        bulkWriter -> {
+          List<Future<Void>> futures = new ArrayList<>();
+          for (Query range : ranges) {
+            futures.add(
+                deleteExecutor.submit(
+                    () -> {
+                      deleteRange(
+                          range, batchSize, bulkWriter, pendingDeletes, deleted, beforeDelete);
+                      return null;
+                    }));
+          }
+          // Cancels the other ranges if one fails
+          FutureUtils.waitFor(futures);
+        });
+    return deleted.get();
+  }
+
+  private void deleteRange(
+      Query range,
+      int batchSize,
+      BulkWriter bulkWriter,
+      Semaphore pendingDeletes,
+      AtomicLong deleted,
+      InterruptibleConsumer<List<QueryDocumentSnapshot>> beforeDelete)
+      throws InterruptedException {
+    FireStoreBatchQueryIterator queryIterator =
+        new FireStoreBatchQueryIterator(range, batchSize, this);
+    for (List<QueryDocumentSnapshot> batch = queryIterator.getBatch();
+        !CollectionUtils.isEmpty(batch);
+        batch = queryIterator.getBatch()) {
+      beforeDelete.accept(batch);
+      if (!pendingDeletes.tryAcquire(batch.size())) {
+        // Send whatever the writer is still holding back so that pending deletes can complete
+        bulkWriter.flush();
+        pendingDeletes.acquire(batch.size());
+      }
+      for (QueryDocumentSnapshot document : batch) {
+        bulkWriter
+            .delete(document.getReference())
+            .addListener(pendingDeletes::release, MoreExecutors.directExecutor());
+      }
+      long total = deleted.addAndGet(batch.size());
+      logger.info("Queued {} deletes, {} in total", batch.size(), total);
+    }
   }
 
   /**
@@ -318,6 +433,73 @@ public class FireStoreUtils {
     return outputs;
   }
 
+  /**
+   * Perform Firestore writes through a {@link BulkWriter}. Unlike {@link #batchOperation}, writes
+   * are not sent in groups that each wait for their slowest write: the writer keeps batches in
+   * flight as it goes, ramps up its write rate within Firestore's limits, and retries each write
+   * that fails with a retryable error on its own, with backoff.
+   *
+   * <p>The writer starts at FIRESTORE_BULK_WRITE_INITIAL_OPS_PER_SECOND rather than the client's
+   * default of 500 writes per second, from which it would take several minutes to ramp up. Our bulk
+   * writes go to documents with random ids, which Firestore can spread across servers from the
+   * start.
+   *
+   * @param firestore the database to write to
+   * @param op name of the operation, for logs and errors
+   * @param writes queues the writes on the bulk writer
+   * @throws InterruptedException If a call to Firestore is interrupted
+   * @throws FileSystemAbortTransactionException If a write still failed after its retries
+   */
+  void bulkWrite(Firestore firestore, String op, BulkWriterConsumer writes)
+      throws InterruptedException {
+    List<BulkWriterException> failures = Collections.synchronizedList(new ArrayList<>());
+    int maxAttempts = getFirestoreRetries() + 1;
+    int initialOpsPerSecond =
+        configurationService.getParameterValue(FIRESTORE_BULK_WRITE_INITIAL_OPS_PER_SECOND);
+    BulkWriter bulkWriter =
+        firestore.bulkWriter(
+            BulkWriterOptions.builder()
+                .setInitialOpsPerSecond(Math.max(1, initialOpsPerSecond))
+                .build());
+    bulkWriter.addWriteErrorListener(
+        error -> {
+          if (RETRYABLE_BULK_WRITE_CODES.contains(error.getStatus().getCode())
+              && error.getFailedAttempts() < maxAttempts) {
+            return true;
+          }
+          failures.add(error);
+          return false;
+        });
+    try {
+      writes.accept(bulkWriter);
+    } catch (Throwable ex) {
+      // Still wait for the writes already queued, but don't let a failure to close hide this one
+      try {
+        closeBulkWriter(bulkWriter, op);
+      } catch (InterruptedException | RuntimeException closeEx) {
+        if (closeEx instanceof InterruptedException) {
+          Thread.currentThread().interrupt();
+        }
+        ex.addSuppressed(closeEx);
+      }
+      throw ex;
+    }
+    closeBulkWriter(bulkWriter, op);
+    if (!failures.isEmpty()) {
+      logger.warn("[{}] {} bulk writes failed", op, failures.size());
+      throw handleExecutionException(failures.get(0), op);
+    }
+  }
+
+  // Closing waits for every queued write to succeed or run out of attempts
+  private void closeBulkWriter(BulkWriter bulkWriter, String op) throws InterruptedException {
+    try {
+      bulkWriter.close();
+    } catch (ExecutionException ex) {
+      throw handleExecutionException(ex, op);
+    }
+  }
+
   // For batch operations, we want to also include the AbortedException as retryable
   public static boolean shouldRetry(Throwable throwable, boolean isBatch) {
     if (throwable == null) {
@@ -0,0 +1,31 @@
+package bio.terra.service.filedata.google.gcs;
+
+import bio.terra.service.filedata.BlobRangeReader;
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.Storage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+
+/** Given a gs path and a storage object, read ranges of the blob */
+public class GcsBlobRangeReader implements BlobRangeReader {
+  private final Blob blob;
+
+  public GcsBlobRangeReader(Storage storage, String projectId, String gspath) {
+    this.blob = GcsPdao.getBlobFromGsPath(storage, gspath, projectId);
+  }
+
+  @Override
+  public long size() {
+    return blob.getSize();
+  }
+
+  @Override
+  public InputStream openStream(long offset) throws IOException {
+    ReadChannel channel = blob.reader();
+    channel.seek(offset);
+    // Closing the stream closes the channel
+    return Channels.newInputStream(channel);
+  }
+}
@@ -0,0 +1,97 @@
+package bio.terra.service.filedata.google.gcs;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import com.google.cloud.storage.StorageOptions;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.net.URL;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signs GCS URLs for DRS access with the application's credentials, reusing one storage client per
+ * Google project. Building a client loads the application default credentials and starts a new
+ * token lifecycle, which used to happen for every signed URL.
+ *
+ * <p>Clients are kept in a bounded cache and closed once they have been idle for {@link
+ * #IDLE_TIMEOUT}. When the credentials hold a service account key, the client signs locally;
+ * otherwise each signature is a call to the IAM signBlob API. The latency of each signature is
+ * recorded in {@link #SIGN_TIMER_NAME}, tagged with the project.
+ */
+@Component
+public class GcsUrlSigner {
+  private static final Logger logger = LoggerFactory.getLogger(GcsUrlSigner.class);
+
+  @VisibleForTesting static final String CACHE_NAME = "datarepo.drs.signers";
+  @VisibleForTesting static final String SIGN_TIMER_NAME = "datarepo.drs.signUrl";
+  @VisibleForTesting static final int MAX_SIZE = 500;
+  @VisibleForTesting static final Duration IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+  private final MeterRegistry meterRegistry;
+  private final LoadingCache<String, Storage> storages;
+
+  @Autowired
+  public GcsUrlSigner(MeterRegistry meterRegistry) {
+    this(meterRegistry, GcsUrlSigner::initStorage);
+  }
+
+  @VisibleForTesting
+  GcsUrlSigner(MeterRegistry meterRegistry, Function<String, Storage> storageFactory) {
+    this.meterRegistry = meterRegistry;
+    this.storages =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_SIZE)
+            .expireAfterAccess(IDLE_TIMEOUT)
+            .removalListener(GcsUrlSigner::closeStorage)
+            .recordStats()
+            .build(storageFactory::apply);
+    CaffeineCacheMetrics.monitor(meterRegistry, storages, CACHE_NAME);
+  }
+
+  /**
+   * Sign a URL to read a blob, billing requests made with it to a Google project.
+   *
+   * @param projectId the Google project whose client signs the URL
+   * @param blobInfo the blob to sign a URL for
+   * @param ttl how long the signed URL is valid for
+   * @param options signing options, such as the signature version and query parameters
+   * @return the signed URL
+   */
+  public URL signUrl(
+      String projectId, BlobInfo blobInfo, Duration ttl, Storage.SignUrlOption... options) {
+    Storage storage = storages.get(projectId);
+    return Timer.builder(SIGN_TIMER_NAME)
+        .description("Latency of signing GCS URLs")
+        .tag("project", projectId)
+        .register(meterRegistry)
+        .record(() -> storage.signUrl(blobInfo, ttl.toMinutes(), TimeUnit.MINUTES, options));
+  }
+
+  private static Storage initStorage(String projectId) {
+    Storage storage = StorageOptions.newBuilder().setProjectId(projectId).build().getService();
+    logger.info("Created URL signing client for project {}", projectId);
+    return storage;
+  }
+
+  private static void closeStorage(String projectId, Storage storage, RemovalCause cause) {
+    if (storage == null) {
+      return;
+    }
+    try {
+      storage.close();
+    } catch (Exception e) {
+      logger.warn("Failed to close URL signing client for project {}", projectId, e);
+    }
+  }
+}
@@ -20,6 +20,8 @@ import bio.terra.service.auth.iam.IamAction;
 import bio.terra.service.auth.iam.IamResourceType;
 import bio.terra.service.auth.iam.IamService;
 import bio.terra.service.common.CommonMapKeys;
+import bio.terra.service.filedata.flight.ingest.FileIngestBatchWorkerFlight;
+import bio.terra.service.filedata.flight.ingest.FileIngestWorkerCompletionHook;
 import bio.terra.service.filedata.flight.ingest.FileIngestWorkerFlight;
 import bio.terra.service.job.exception.InvalidResultStateException;
 import bio.terra.service.job.exception.JobNotFoundException;
@@ -80,6 +82,7 @@ public class JobService {
   private final ObjectMapper objectMapper;
   private final ApplicationContext applicationContext;
   private final OpenTelemetry openTelemetry;
+  private final FileIngestWorkerCompletionHook fileIngestWorkerCompletionHook;
   private Stairway stairway;
 
   @Autowired
@@ -92,7 +95,8 @@ public class JobService {
       ApplicationContext applicationContext,
       Migrate migrate,
       ObjectMapper objectMapper,
-      OpenTelemetry openTelemetry)
+      OpenTelemetry openTelemetry,
+      FileIngestWorkerCompletionHook fileIngestWorkerCompletionHook)
       throws StairwayExecutionException {
     this.samService = samService;
     this.appConfig = appConfig;
@@ -104,6 +108,7 @@ public class JobService {
     this.objectMapper = objectMapper;
     this.kubeService = kubeService;
     this.openTelemetry = openTelemetry;
+    this.fileIngestWorkerCompletionHook = fileIngestWorkerCompletionHook;
   }
 
   /**
@@ -124,6 +129,7 @@ public class JobService {
             .context(applicationContext)
             .addHook(new StairwayLoggingHook())
             .addHook(new MonitoringHook(openTelemetry))
+            .addHook(fileIngestWorkerCompletionHook)
             .exceptionSerializer(serializer));
     stairway = stairwayComponent.get();
   }
@@ -358,9 +364,10 @@ public class JobService {
   private FlightBooleanOperationExpression createFlightFilter(
       AuthenticatedUserRequest userReq, String className) {
     List<FlightFilterPredicateInterface> topLevelBooleans = new ArrayList<>();
-    // Exclude FileIngestWorkerFlight subflights since they pollute the jobs page.  We may
-    // eventually add a boolean to re-add or display the subflights as children.
-    // Note: do not add this filter if the user is explicitly requesting FileIngestWorkerFlight's
+    // Exclude FileIngestWorkerFlight and FileIngestBatchWorkerFlight subflights since they
+    // pollute the jobs page.  We may eventually add a boolean to re-add or display the subflights
+    // as children.
+    // Note: do not add these filters if the user is explicitly requesting those flights
     if (!StringUtils.isEmpty(className)) {
       topLevelBooleans.add(makePredicateFlightClass(FlightFilterOp.EQUAL, className));
     }
@@ -370,6 +377,11 @@ public class JobService {
       topLevelBooleans.add(
           makePredicateFlightClass(FlightFilterOp.NOT_EQUAL, FileIngestWorkerFlight.class));
     }
+    if (StringUtils.isEmpty(className)
+        || !className.equals(FileIngestBatchWorkerFlight.class.getName())) {
+      topLevelBooleans.add(
+          makePredicateFlightClass(FlightFilterOp.NOT_EQUAL, FileIngestBatchWorkerFlight.class));
+    }
 
     // Only return recent flights. This is a performance enhancement since it causes the query to
     // NOT do a full table scan.
@@ -0,0 +1,99 @@
+package bio.terra.service.load;
+
+import bio.terra.service.load.exception.LoadNotificationException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+/**
+ * Listens for the Postgres notifications that file ingest worker flights send when they end, so
+ * that the ingest driver can refill worker slots as soon as a worker finishes instead of polling
+ * the load_file table. Each listener holds a dedicated database connection for the lifetime of
+ * the load, so it must be closed when the driver is done.
+ */
+public class LoadCompletionListener implements AutoCloseable {
+  private static final String CHANNEL_PREFIX = "load_file_completed_";
+
+  private final Connection connection;
+  private final PGConnection pgConnection;
+  private final String channel;
+
+  LoadCompletionListener(DataSource dataSource, UUID loadId) {
+    this.channel = channelName(loadId);
+    try {
+      this.connection = dataSource.getConnection();
+    } catch (SQLException ex) {
+      throw new LoadNotificationException("Unable to connect to listen on " + channel, ex);
+    }
+    try {
+      this.pgConnection = connection.unwrap(PGConnection.class);
+      execute("LISTEN " + channel);
+    } catch (SQLException ex) {
+      closeConnection();
+      throw new LoadNotificationException("Unable to listen on " + channel, ex);
+    }
+  }
+
+  /**
+   * The channel name is derived from the load id, so it is always a valid unquoted identifier.
+   *
+   * @return the notification channel for completions of file loads in the load
+   */
+  static String channelName(UUID loadId) {
+    return CHANNEL_PREFIX + loadId.toString().replace("-", "");
+  }
+
+  /**
+   * Wait for worker flights in the load to end.
+   *
+   * @param timeout maximum time to wait if no notifications are pending
+   * @return ids of the worker flights that ended since the last call, or an empty list if none
+   *     ended before the timeout
+   */
+  public List<String> awaitCompletions(Duration timeout) {
+    try {
+      // A timeout of 0 would block forever
+      int timeoutMillis = (int) Math.max(timeout.toMillis(), 1);
+      PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+      if (notifications == null) {
+        return List.of();
+      }
+      return Arrays.stream(notifications).map(PGNotification::getParameter).toList();
+    } catch (SQLException ex) {
+      throw new LoadNotificationException("Unable to receive notifications on " + channel, ex);
+    }
+  }
+
+  @Override
+  public void close() {
+    try {
+      // The connection goes back to the pool, so it must stop listening before it is reused
+      execute("UNLISTEN " + channel);
+    } catch (SQLException ex) {
+      throw new LoadNotificationException("Unable to stop listening on " + channel, ex);
+    } finally {
+      closeConnection();
+    }
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private void closeConnection() {
+    try {
+      connection.close();
+    } catch (SQLException ex) {
+      throw new LoadNotificationException("Unable to close the listener on " + channel, ex);
+    }
+  }
+}
@@ -9,20 +9,22 @@ import bio.terra.service.filedata.FSFileInfo;
 import bio.terra.service.load.exception.LoadLockedException;
 import bio.terra.service.snapshot.exception.CorruptMetadataException;
 import com.google.common.annotations.VisibleForTesting;
-import java.sql.PreparedStatement;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
-import java.util.Spliterator;
 import java.util.UUID;
 import java.util.stream.Stream;
-import org.jetbrains.annotations.NotNull;
+import org.apache.commons.collections4.ListUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
@@ -39,6 +41,27 @@ public class LoadDao {
   private static final String LOAD_TAG = "load_tag";
   private static final String LOCKING_FLIGHT_ID = "locking_flight_id";
   private static final String DATASET_ID = "dataset_id";
+  private static final String LOAD_FILE_BY_STATE_QUERY =
+      """
+      SELECT source_path, target_path, mime_type, description, state, flight_id, file_id, error,
+      checksum_md5
+      FROM load_file WHERE load_id = :load_id AND state = :state
+      """;
+  private static final String LOAD_FILE_COPY_COLUMNS =
+      "(load_id, source_path, target_path, mime_type, description, state, checksum_md5)";
+  private static final int LOAD_FILE_COPY_CHUNK_SIZE = 1000;
+  // Each row binds 7 parameters; Postgres allows at most 32767 per statement
+  private static final int LOAD_FILE_UPDATE_BATCH_SIZE = 1000;
+  // The rows list expands to one (?, ?, ...) tuple per file
+  private static final String UPDATE_LOAD_FILES_SQL =
+      """
+      UPDATE load_file AS lf
+      SET state = u.state, flight_id = u.flight_id, file_id = u.file_id,
+      checksum_crc32c = u.checksum_crc, checksum_md5 = u.checksum_md5, error = u.error
+      FROM (VALUES :rows)
+      AS u(target_path, state, flight_id, file_id, checksum_crc, checksum_md5, error)
+      WHERE lf.load_id = :load_id AND lf.target_path = u.target_path
+      """;
 
   private final NamedParameterJdbcTemplate jdbcTemplate;
 
@@ -199,75 +222,53 @@ public class LoadDao {
 
   // -- load files methods --
 
-  // TODO: REVIEWERS: note that counter to our usual practice, I am using the interface datatype
-  // instead of
-  //  insulating the innards from the interface. That seems justified in this case, because I don't
-  // want to
-  //  use memory making another big array.
-  //  Also, I am a tiny bit concerned about insert performance. This code is implemented in the
-  // obvious
-  //  way using JdbcTemplate. JdbcTemplate documentation says that it uses JDBC batchUpdate if it is
-  // supported
-  //  by the underlying database system. However, some posts in StackOverflow claim that it is not
-  // using the
-  //  batch, but issuing an insert for each row.
-  //  I created DR-738 to track performance measurement of file load to decide if this method should
-  // get
-  //  more clever.
+  // Note that counter to our usual practice, we use the interface datatype instead of insulating
+  // the innards from the interface, so that we don't use memory making another big array.
+  // File load instructions are inserted with the COPY protocol rather than JDBC batch inserts;
+  // DR-738 found that populating load_file row by row took minutes for large control files.
 
   // Insert one batch of file load instructions into the load_file table
   @Transactional
   public void populateFiles(UUID loadId, List<BulkLoadFileModel> loadFileModelList) {
-    final String sql =
-        """
-        INSERT INTO load_file
-        (load_id, source_path, target_path, mime_type, description, state, checksum_md5)
-        VALUES(?,?,?,?,?,?,?)
-        """;
+    copyFiles(loadId, loadFileModelList.iterator(), "load_file", LOAD_FILE_COPY_CHUNK_SIZE);
+  }
 
+  /**
+   * Insert one batch of file load instructions into the load_file table, skipping the files that
+   * are already in it. This lets a populate step that was interrupted pick up where the batches
+   * it already committed left off.
+   *
+   * @return the number of files that were inserted
+   */
+  @Transactional
+  public int populateMissingFiles(UUID loadId, List<BulkLoadFileModel> loadFileModelList) {
     JdbcTemplate baseJdbcTemplate = jdbcTemplate.getJdbcTemplate();
-    baseJdbcTemplate.batchUpdate(
-        sql,
-        new BatchPreparedStatementSetter() {
-          public void setValues(@NotNull PreparedStatement ps, int i) throws SQLException {
-            ps.setObject(1, loadId);
-            ps.setString(2, loadFileModelList.get(i).getSourcePath());
-            ps.setString(3, loadFileModelList.get(i).getTargetPath());
-            ps.setString(4, loadFileModelList.get(i).getMimeType());
-            ps.setString(5, loadFileModelList.get(i).getDescription());
-            ps.setString(6, BulkLoadFileState.NOT_TRIED.toString());
-            ps.setString(7, loadFileModelList.get(i).getMd5());
-          }
-
-          public int getBatchSize() {
-            return loadFileModelList.size();
-          }
-        });
+    baseJdbcTemplate.execute(
+        "CREATE TEMPORARY TABLE load_file_staging (LIKE load_file) ON COMMIT DROP");
+    copyFiles(
+        loadId, loadFileModelList.iterator(), "load_file_staging", LOAD_FILE_COPY_CHUNK_SIZE);
+    return baseJdbcTemplate.update(
+        """
+        INSERT INTO load_file %1$s
+        SELECT load_id, source_path, target_path, mime_type, description, state, checksum_md5
+        FROM load_file_staging
+        ON CONFLICT ON CONSTRAINT pk_load_file DO NOTHING
+        """
+            .formatted(LOAD_FILE_COPY_COLUMNS));
   }
 
   /**
-   * Chunk a stream of models into groups of size batchSize and populate the database
+   * Stream file load instructions into the load_file table with a single COPY, without collecting
+   * them into a list first.
    *
    * @param loadId Load ID tying all these file ingests together
-   * @param loadFileModelStream The stream to be chunked and processed over
+   * @param loadFileModelStream The stream of file load instructions to insert
+   * @param batchSize Number of files to send to the database at a time
    */
   @Transactional
   public void populateFiles(
       UUID loadId, Stream<BulkLoadFileModel> loadFileModelStream, int batchSize) {
-    Spliterator<BulkLoadFileModel> split = loadFileModelStream.spliterator();
-
-    while (true) {
-      List<BulkLoadFileModel> batch = new ArrayList<>(batchSize);
-      for (int i = 0; i < batchSize; i++) {
-        if (!split.tryAdvance(batch::add)) {
-          break;
-        }
-      }
-      if (batch.isEmpty()) {
-        break;
-      }
-      populateFiles(loadId, batch);
-    }
+    copyFiles(loadId, loadFileModelStream.iterator(), "load_file", batchSize);
   }
 
   // Remove all file load instructions for a given loadId from the load_file table
@@ -303,26 +304,123 @@ public class LoadDao {
         .failedLoads(failedFiles);
   }
 
+  /**
+   * Claim up to one NOT_TRIED file per flight id, marking each claimed file RUNNING under its
+   * flight id in the same transaction. Rows locked by another transaction are skipped rather than
+   * waited on.
+   *
+   * @param loadId load to claim files from
+   * @param flightIds ids of the worker flights that will load the claimed files
+   * @return the claimed files, with their state and flight id set; fewer than the number of flight
+   *     ids when the load has no more files to try
+   */
+  @Transactional
+  public List<LoadFile> claimCandidates(UUID loadId, List<String> flightIds) {
+    if (flightIds.isEmpty()) {
+      return List.of();
+    }
+    String sql = LOAD_FILE_BY_STATE_QUERY + " LIMIT :limit FOR UPDATE SKIP LOCKED";
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("load_id", loadId)
+            .addValue("state", BulkLoadFileState.NOT_TRIED.toString())
+            .addValue("limit", flightIds.size());
+    List<LoadFile> claimed = jdbcTemplate.query(sql, params, loadFileMapper(loadId));
+    if (claimed.isEmpty()) {
+      return claimed;
+    }
+
+    MapSqlParameterSource[] updates = new MapSqlParameterSource[claimed.size()];
+    for (int i = 0; i < claimed.size(); i++) {
+      LoadFile loadFile =
+          claimed.get(i).state(BulkLoadFileState.RUNNING).flightId(flightIds.get(i));
+      updates[i] =
+          new MapSqlParameterSource()
+              .addValue("state", BulkLoadFileState.RUNNING.toString())
+              .addValue("flight_id", loadFile.getFlightId())
+              .addValue("load_id", loadId)
+              .addValue("target_path", loadFile.getTargetPath());
+    }
+    jdbcTemplate.batchUpdate(
+        """
+        UPDATE load_file SET state = :state, flight_id = :flight_id
+        WHERE load_id = :load_id AND target_path = :target_path
+        """,
+        updates);
+    return claimed;
+  }
+
+  /**
+   * Wake up the ingest driver of a load, if it is listening for completions.
+   *
+   * @param loadId load that the file load belongs to
+   * @param flightId id of the worker flight that ended
+   */
+  public void notifyLoadFileCompleted(UUID loadId, String flightId) {
+    MapSqlParameterSource params =
+        new MapSqlParameterSource()
+            .addValue("channel", LoadCompletionListener.channelName(loadId))
+            .addValue("flight_id", flightId);
+    jdbcTemplate.query("SELECT pg_notify(:channel, :flight_id)", params, rs -> null);
+  }
+
+  /**
+   * @param loadId load to listen for file load completions on
+   * @return a listener holding its own connection, which the caller must close
+   */
+  public LoadCompletionListener listenForCompletions(UUID loadId) {
+    return new LoadCompletionListener(jdbcTemplate.getJdbcTemplate().getDataSource(), loadId);
+  }
+
   @Transactional
   public List<LoadFile> getFailedLoads(UUID loadId, int maxResults) {
     return queryByState(loadId, BulkLoadFileState.FAILED, maxResults);
   }
 
   public void setLoadFileNotTried(UUID loadId, String targetPath) {
-    updateLoadFile(loadId, targetPath, BulkLoadFileState.NOT_TRIED, null, null, null, null);
+    updateLoadFiles(loadId, List.of(LoadFileUpdate.notTried(targetPath)));
   }
 
   public void setLoadFileRunning(UUID loadId, String targetPath, String flightId) {
-    updateLoadFile(loadId, targetPath, BulkLoadFileState.RUNNING, null, null, null, flightId);
+    updateLoadFiles(loadId, List.of(LoadFileUpdate.running(targetPath, flightId)));
   }
 
   public void setLoadFileSucceeded(
       UUID loadId, String targetPath, String fileId, FSFileInfo fileInfo) {
-    updateLoadFile(loadId, targetPath, BulkLoadFileState.SUCCEEDED, fileId, fileInfo, null, null);
+    updateLoadFiles(loadId, List.of(LoadFileUpdate.succeeded(targetPath, fileId, fileInfo)));
   }
 
   public void setLoadFileFailed(UUID loadId, String targetPath, String error) {
-    updateLoadFile(loadId, targetPath, BulkLoadFileState.FAILED, null, null, error, null);
+    updateLoadFiles(loadId, List.of(LoadFileUpdate.failed(targetPath, error)));
+  }
+
+  /**
+   * Apply state transitions to files in a load, using one multi-row UPDATE statement per batch of
+   * {@value #LOAD_FILE_UPDATE_BATCH_SIZE} files rather than one statement per file.
+   *
+   * @param loadId load that the files belong to
+   * @param updates transitions to apply; each file must appear at most once
+   */
+  public void updateLoadFiles(UUID loadId, List<LoadFileUpdate> updates) {
+    for (List<LoadFileUpdate> batch : ListUtils.partition(updates, LOAD_FILE_UPDATE_BATCH_SIZE)) {
+      List<Object[]> rows = new ArrayList<>(batch.size());
+      for (LoadFileUpdate update : batch) {
+        FSFileInfo fileInfo = update.fileInfo();
+        rows.add(
+            new Object[] {
+              update.targetPath(),
+              update.state().toString(),
+              update.flightId(),
+              update.fileId(),
+              fileInfo == null ? null : fileInfo.getChecksumCrc32c(),
+              fileInfo == null ? null : fileInfo.getChecksumMd5(),
+              update.error()
+            });
+      }
+      MapSqlParameterSource params =
+          new MapSqlParameterSource().addValue("load_id", loadId).addValue("rows", rows);
+      jdbcTemplate.update(UPDATE_LOAD_FILES_SQL, params);
+    }
   }
 
   public BulkLoadResultModel makeBulkLoadResult(UUID loadId) {
@@ -414,13 +512,69 @@ public class LoadDao {
   }
 
   // -- private methods --
+
+  /**
+   * Copy file load instructions into a table with the COPY protocol, which is much cheaper than
+   * inserting them row by row. Rows are sent as they are produced, in chunks of chunkSize rows.
+   *
+   * @return the number of rows copied
+   */
+  private long copyFiles(
+      UUID loadId, Iterator<BulkLoadFileModel> loadFileModels, String table, int chunkSize) {
+    String sql = "COPY %s %s FROM STDIN (FORMAT csv)".formatted(table, LOAD_FILE_COPY_COLUMNS);
+    ConnectionCallback<Long> copy =
+        connection -> {
+          CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql);
+          try {
+            StringBuilder rows = new StringBuilder();
+            int rowCount = 0;
+            while (loadFileModels.hasNext()) {
+              appendCopyRow(rows, loadId, loadFileModels.next());
+              if (++rowCount % chunkSize == 0) {
+                writeToCopy(copyIn, rows);
+              }
+            }
+            writeToCopy(copyIn, rows);
+            return copyIn.endCopy();
+          } finally {
+            // Leave the connection usable if the models could not all be copied
+            if (copyIn.isActive()) {
+              copyIn.cancelCopy();
+            }
+          }
+        };
+    return Objects.requireNonNullElse(jdbcTemplate.getJdbcTemplate().execute(copy), 0L);
+  }
+
+  private static void appendCopyRow(StringBuilder rows, UUID loadId, BulkLoadFileModel model) {
+    appendCopyField(rows, loadId.toString()).append(',');
+    appendCopyField(rows, model.getSourcePath()).append(',');
+    appendCopyField(rows, model.getTargetPath()).append(',');
+    appendCopyField(rows, model.getMimeType()).append(',');
+    appendCopyField(rows, model.getDescription()).append(',');
+    appendCopyField(rows, BulkLoadFileState.NOT_TRIED.toString()).append(',');
+    appendCopyField(rows, model.getMd5()).append('\n');
+  }
+
+  // In CSV format an unquoted empty field is NULL, so every value is quoted
+  private static StringBuilder appendCopyField(StringBuilder rows, String value) {
+    if (value != null) {
+      rows.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+    return rows;
+  }
+
+  private static void writeToCopy(CopyIn copyIn, StringBuilder rows) throws SQLException {
+    if (rows.isEmpty()) {
+      return;
+    }
+    byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+    copyIn.writeToCopy(bytes, 0, bytes.length);
+    rows.setLength(0);
+  }
+
   private List<LoadFile> queryByState(UUID loadId, BulkLoadFileState state, Integer limit) {
-    String sql =
-        """
-      SELECT source_path, target_path, mime_type, description, state, flight_id, file_id, error,
-      checksum_md5
-      FROM load_file WHERE load_id = :load_id AND state = :state
-      """;
+    String sql = LOAD_FILE_BY_STATE_QUERY;
     MapSqlParameterSource params =
         new MapSqlParameterSource().addValue("load_id", loadId).addValue("state", state.toString());
 
@@ -429,53 +583,21 @@ public class LoadDao {
       params.addValue("limit", limit);
     }
 
-    return jdbcTemplate.query(
-        sql,
-        params,
-        (rs, rowNum) ->
-            new LoadFile()
-                .loadId(loadId)
-                .sourcePath(rs.getString("source_path"))
-                .targetPath(rs.getString("target_path"))
-                .mimeType(rs.getString("mime_type"))
-                .description(rs.getString("description"))
-                .state(BulkLoadFileState.fromValue(rs.getString("state")))
-                .flightId(rs.getString("flight_id"))
-                .fileId(rs.getString("file_id"))
-                .error(rs.getString("error"))
-                .md5(rs.getString("checksum_md5")));
+    return jdbcTemplate.query(sql, params, loadFileMapper(loadId));
   }
 
-  private void updateLoadFile(
-      UUID loadId,
-      String targetPath,
-      BulkLoadFileState state,
-      String fileId,
-      FSFileInfo fileInfo,
-      String error,
-      String flightId) {
-    String checksumCRC = null;
-    String checksumMD5 = null;
-    if (fileInfo != null) {
-      checksumCRC = fileInfo.getChecksumCrc32c();
-      checksumMD5 = fileInfo.getChecksumMd5();
-    }
-    final String sql =
-        "UPDATE load_file"
-            + " SET state = :state, file_id = :file_id, flight_id = :flight_id,"
-            + " checksum_crc32c = :checksum_crc, checksum_md5 = :checksum_md5,"
-            + " error = :error"
-            + " WHERE load_id = :load_id AND target_path = :target_path";
-    MapSqlParameterSource params =
-        new MapSqlParameterSource()
-            .addValue("state", state.toString())
-            .addValue("flight_id", flightId)
-            .addValue("file_id", fileId)
-            .addValue("checksum_crc", checksumCRC)
-            .addValue("checksum_md5", checksumMD5)
-            .addValue("error", error)
-            .addValue("load_id", loadId)
-            .addValue("target_path", targetPath);
-    jdbcTemplate.update(sql, params);
+  private static RowMapper<LoadFile> loadFileMapper(UUID loadId) {
+    return (rs, rowNum) ->
+        new LoadFile()
+            .loadId(loadId)
+            .sourcePath(rs.getString("source_path"))
+            .targetPath(rs.getString("target_path"))
+            .mimeType(rs.getString("mime_type"))
+            .description(rs.getString("description"))
+            .state(BulkLoadFileState.fromValue(rs.getString("state")))
+            .flightId(rs.getString("flight_id"))
+            .fileId(rs.getString("file_id"))
+            .error(rs.getString("error"))
+            .md5(rs.getString("checksum_md5"));
   }
 }
@@ -0,0 +1,40 @@
+package bio.terra.service.load;
+
+import bio.terra.model.BulkLoadFileState;
+import bio.terra.service.filedata.FSFileInfo;
+
+/**
+ * A state transition of one file in a load, to be written to the load_file table.
+ *
+ * @param targetPath target path identifying the file within its load
+ * @param state state the file moves to
+ * @param flightId worker flight loading the file; only set while the file is running
+ * @param fileId id of the loaded file; only set once the file succeeded
+ * @param fileInfo checksums of the loaded file; only set once the file succeeded
+ * @param error error that failed the file load; only set once the file failed
+ */
+public record LoadFileUpdate(
+    String targetPath,
+    BulkLoadFileState state,
+    String flightId,
+    String fileId,
+    FSFileInfo fileInfo,
+    String error) {
+
+  public static LoadFileUpdate notTried(String targetPath) {
+    return new LoadFileUpdate(targetPath, BulkLoadFileState.NOT_TRIED, null, null, null, null);
+  }
+
+  public static LoadFileUpdate running(String targetPath, String flightId) {
+    return new LoadFileUpdate(targetPath, BulkLoadFileState.RUNNING, flightId, null, null, null);
+  }
+
+  public static LoadFileUpdate succeeded(String targetPath, String fileId, FSFileInfo fileInfo) {
+    return new LoadFileUpdate(
+        targetPath, BulkLoadFileState.SUCCEEDED, null, fileId, fileInfo, null);
+  }
+
+  public static LoadFileUpdate failed(String targetPath, String error) {
+    return new LoadFileUpdate(targetPath, BulkLoadFileState.FAILED, null, null, null, error);
+  }
+}
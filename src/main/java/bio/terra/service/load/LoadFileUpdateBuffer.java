@@ -0,0 +1,73 @@
+package bio.terra.service.load;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Write-behind buffer for the final states of the files in a load. The ingest driver records the
+ * outcome of each worker flight as it notices it ended; rather than updating load_file once per
+ * file, the buffer coalesces those outcomes and writes them in a single multi-row update.
+ *
+ * <p>Only final states should be buffered. A file whose final state was not flushed before a crash
+ * is still RUNNING in load_file under a flight that Stairway knows about, so the driver finds it
+ * again and records its outcome when it restarts. RUNNING transitions must be written before the
+ * worker flight is submitted, so that the driver's orphan check stays correct.
+ *
+ * <p>The buffer must be flushed before load_file is read back, and is not thread safe: it is meant
+ * to be owned by the single thread driving a load.
+ */
+public class LoadFileUpdateBuffer {
+  private final LoadService loadService;
+  private final UUID loadId;
+  private final int maxPending;
+  private final Duration flushInterval;
+  // Keyed by target path, so a later transition of a file replaces an earlier one
+  private final Map<String, LoadFileUpdate> pending = new LinkedHashMap<>();
+  private Instant lastFlush = Instant.now();
+
+  /**
+   * @param loadService service writing the updates
+   * @param loadId load whose files are updated
+   * @param maxPending number of pending updates that triggers a flush
+   * @param flushInterval maximum time an update stays pending when {@link #flushIfDue()} is called
+   */
+  public LoadFileUpdateBuffer(
+      LoadService loadService, UUID loadId, int maxPending, Duration flushInterval) {
+    this.loadService = loadService;
+    this.loadId = loadId;
+    this.maxPending = maxPending;
+    this.flushInterval = flushInterval;
+  }
+
+  public void add(LoadFileUpdate update) {
+    pending.put(update.targetPath(), update);
+    if (pending.size() >= maxPending) {
+      flush();
+    }
+  }
+
+  /** Flush the pending updates if the oldest of them may have waited for the flush interval. */
+  public void flushIfDue() {
+    if (Duration.between(lastFlush, Instant.now()).compareTo(flushInterval) >= 0) {
+      flush();
+    }
+  }
+
+  /** Write all pending updates to load_file. */
+  public void flush() {
+    lastFlush = Instant.now();
+    if (pending.isEmpty()) {
+      return;
+    }
+    loadService.updateLoadFiles(loadId, new ArrayList<>(pending.values()));
+    pending.clear();
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+}
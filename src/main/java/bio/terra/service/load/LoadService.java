@@ -6,12 +6,13 @@ import bio.terra.model.BulkLoadFileState;
 import bio.terra.model.BulkLoadHistoryModel;
 import bio.terra.model.BulkLoadResultModel;
 import bio.terra.service.dataset.flight.ingest.IngestUtils;
-import bio.terra.service.filedata.FSFileInfo;
 import bio.terra.service.job.JobMapKeys;
 import bio.terra.service.load.exception.LoadLockFailureException;
 import bio.terra.service.load.flight.LoadMapKeys;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.FlightMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -26,11 +27,15 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class LoadService {
+  static final String LOAD_FILES_COMPLETED_NAME = "datarepo.load.files.completed";
+
   private final LoadDao loadDao;
+  private final MeterRegistry meterRegistry;
 
   @Autowired
-  public LoadService(LoadDao loadDao) {
+  public LoadService(LoadDao loadDao, MeterRegistry meterRegistry) {
     this.loadDao = loadDao;
+    this.meterRegistry = meterRegistry;
   }
 
   public UUID lockLoad(LoadLockKey loadLockKey, String flightId) {
@@ -51,6 +56,14 @@ public class LoadService {
     loadDao.populateFiles(loadId, loadFileModelStream, batchSize);
   }
 
+  public int populateMissingFiles(UUID loadId, List<BulkLoadFileModel> loadFileModelList) {
+    return loadDao.populateMissingFiles(loadId, loadFileModelList);
+  }
+
+  public int countFiles(UUID loadId) {
+    return loadDao.bulkLoadFileArraySize(loadId);
+  }
+
   public void cleanFiles(UUID loadId) {
     loadDao.cleanFiles(loadId);
   }
@@ -110,21 +123,54 @@ public class LoadService {
     return loadDao.getFailedLoads(loadId, maxRecords);
   }
 
-  public void setLoadFileSucceeded(
-      UUID loadId, String targetPath, String fileId, FSFileInfo fileInfo) {
-    loadDao.setLoadFileSucceeded(loadId, targetPath, fileId, fileInfo);
+  public void updateLoadFiles(UUID loadId, List<LoadFileUpdate> updates) {
+    loadDao.updateLoadFiles(loadId, updates);
+  }
+
+  public List<LoadFile> claimCandidates(UUID loadId, List<String> flightIds) {
+    return loadDao.claimCandidates(loadId, flightIds);
+  }
+
+  public void notifyLoadFileCompleted(UUID loadId, String flightId) {
+    loadDao.notifyLoadFileCompleted(loadId, flightId);
   }
 
-  public void setLoadFileFailed(UUID loadId, String targetPath, String error) {
-    loadDao.setLoadFileFailed(loadId, targetPath, error);
+  public LoadCompletionListener listenForCompletions(UUID loadId) {
+    return loadDao.listenForCompletions(loadId);
+  }
+
+  // -- per-load throughput metrics --
+
+  /**
+   * Count a file load that reached a final state. The counter is tagged with the load id so that
+   * the throughput of each load can be followed while it runs.
+   */
+  public void recordLoadFileCompleted(UUID loadId, BulkLoadFileState state) {
+    loadFilesCompletedCounter(loadId, state).increment();
+  }
+
+  /**
+   * @return the number of file loads in the load that were counted in the given final state
+   */
+  public long countLoadFilesCompleted(UUID loadId, BulkLoadFileState state) {
+    return (long) loadFilesCompletedCounter(loadId, state).count();
   }
 
-  public void setLoadFileRunning(UUID loadId, String targetPath, String flightId) {
-    loadDao.setLoadFileRunning(loadId, targetPath, flightId);
+  /** Remove the load's counters once the load is done, so that meters do not pile up. */
+  public void removeLoadMetrics(UUID loadId) {
+    meterRegistry
+        .find(LOAD_FILES_COMPLETED_NAME)
+        .tag("loadId", loadId.toString())
+        .meters()
+        .forEach(meterRegistry::remove);
   }
 
-  public void setLoadFileNotTried(UUID loadId, String targetPath) {
-    loadDao.setLoadFileNotTried(loadId, targetPath);
+  private Counter loadFilesCompletedCounter(UUID loadId, BulkLoadFileState state) {
+    return Counter.builder(LOAD_FILES_COMPLETED_NAME)
+        .description("File loads that reached a final state")
+        .tag("loadId", loadId.toString())
+        .tag("state", state.toString())
+        .register(meterRegistry);
   }
 
   public BulkLoadResultModel makeBulkLoadResult(UUID loadId) {
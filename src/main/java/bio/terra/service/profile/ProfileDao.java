@@ -1,6 +1,7 @@
 package bio.terra.service.profile;
 
 import bio.terra.common.DaoKeyHolder;
+import bio.terra.common.MetadataReadRouter;
 import bio.terra.model.BillingProfileModel;
 import bio.terra.model.BillingProfileRequestModel;
 import bio.terra.model.BillingProfileUpdateModel;
@@ -29,6 +30,7 @@ import org.springframework.transaction.annotation.Transactional;
 @Repository
 public class ProfileDao {
   private final NamedParameterJdbcTemplate jdbcTemplate;
+  private final MetadataReadRouter readRouter;
 
   // SQL select string constants
   private static final String SQL_SELECT_LIST =
@@ -51,8 +53,9 @@ public class ProfileDao {
   private static final String SQL_LIST_ALL = "SELECT " + SQL_SELECT_LIST + " FROM billing_profile";
 
   @Autowired
-  public ProfileDao(NamedParameterJdbcTemplate jdbcTemplate) {
+  public ProfileDao(NamedParameterJdbcTemplate jdbcTemplate, MetadataReadRouter readRouter) {
     this.jdbcTemplate = jdbcTemplate;
+    this.readRouter = readRouter;
   }
 
   @Transactional(propagation = Propagation.REQUIRED, isolation = Isolation.SERIALIZABLE)
@@ -147,7 +150,6 @@ public class ProfileDao {
         .createdDate(keyHolder.getTimestamp("created_date").toInstant().toString());
   }
 
-  @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
   public EnumerateBillingProfileModel enumerateBillingProfiles(
       int offset, int limit, Collection<UUID> accessibleProfileId) {
 
@@ -157,14 +159,17 @@ public class ProfileDao {
             .addValue("limit", limit)
             .addValue("idlist", accessibleProfileId);
 
-    List<BillingProfileModel> profiles =
-        jdbcTemplate.query(SQL_LIST, params, new BillingProfileMapper());
-    Integer total = jdbcTemplate.queryForObject(SQL_TOTAL, params, Integer.class);
-    if (total == null) {
-      throw new CorruptMetadataException("Impossible null value from count");
-    }
-
-    return new EnumerateBillingProfileModel().items(profiles).total(total);
+    return readRouter.read(
+        template -> {
+          List<BillingProfileModel> profiles =
+              template.query(SQL_LIST, params, new BillingProfileMapper());
+          Integer total = template.queryForObject(SQL_TOTAL, params, Integer.class);
+          if (total == null) {
+            throw new CorruptMetadataException("Impossible null value from count");
+          }
+
+          return new EnumerateBillingProfileModel().items(profiles).total(total);
+        });
   }
 
   @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
@@ -3,6 +3,7 @@ package bio.terra.service.resourcemanagement.azure;
 import bio.terra.model.BillingProfileModel;
 import com.azure.core.credential.AzureNamedKeyCredential;
 import com.azure.core.http.policy.RetryPolicy;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 import com.azure.data.tables.TableServiceClientBuilder;
 import com.azure.resourcemanager.AzureResourceManager;
@@ -107,15 +108,7 @@ public class AzureAuthService {
    */
   public TableServiceClient getTableServiceClient(
       UUID subscriptionId, String resourceGroupName, String storageAccountResourceName) {
-    // Obtain a secret key for the associated storage account
-    String key =
-        getStorageAccountKey(subscriptionId, resourceGroupName, storageAccountResourceName);
-
-    // Create a data lake client by authenticating using the found key
-    return new TableServiceClientBuilder()
-        .credential(new AzureNamedKeyCredential(storageAccountResourceName, key))
-        .endpoint("https://" + storageAccountResourceName + ".table.core.windows.net")
-        .retryPolicy(new RetryPolicy())
+    return tableServiceClientBuilder(subscriptionId, resourceGroupName, storageAccountResourceName)
         .buildClient();
   }
 
@@ -126,6 +119,34 @@ public class AzureAuthService {
         storageAuthInfo.storageAccountResourceName());
   }
 
+  /**
+   * Return an authenticated non-blocking {@link TableServiceAsyncClient} client using key-based
+   * authentication
+   *
+   * @param storageAuthInfo The storage account the client should be built from
+   * @return an authenticated {@link TableServiceAsyncClient}
+   */
+  public TableServiceAsyncClient getTableServiceAsyncClient(AzureStorageAuthInfo storageAuthInfo) {
+    return tableServiceClientBuilder(
+            storageAuthInfo.subscriptionId(),
+            storageAuthInfo.resourceGroupName(),
+            storageAuthInfo.storageAccountResourceName())
+        .buildAsyncClient();
+  }
+
+  private TableServiceClientBuilder tableServiceClientBuilder(
+      UUID subscriptionId, String resourceGroupName, String storageAccountResourceName) {
+    // Obtain a secret key for the associated storage account
+    String key =
+        getStorageAccountKey(subscriptionId, resourceGroupName, storageAccountResourceName);
+
+    // Create a table client builder that authenticates using the found key
+    return new TableServiceClientBuilder()
+        .credential(new AzureNamedKeyCredential(storageAccountResourceName, key))
+        .endpoint("https://" + storageAccountResourceName + ".table.core.windows.net")
+        .retryPolicy(new RetryPolicy());
+  }
+
   /**
    * Return an authenticated {@link BlobServiceClient} client using key-based authentication
    *
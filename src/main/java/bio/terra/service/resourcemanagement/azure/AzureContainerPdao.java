@@ -5,6 +5,12 @@ import bio.terra.service.filedata.azure.util.BlobSasTokenOptions;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
 import com.azure.storage.common.sas.SasProtocol;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,12 +18,25 @@ import org.springframework.stereotype.Component;
 
 @Component
 public class AzureContainerPdao {
+  @VisibleForTesting static final String CACHE_NAME = "datarepo.azure.signingContainers";
+  @VisibleForTesting static final int CACHE_MAX_SIZE = 1_000;
+  // Matches the lifetime of the storage account keys cached by AzureAuthService, so that rotated
+  // keys are picked up
+  private static final Duration CACHE_TTL = Duration.ofMinutes(15);
 
   private final AzureAuthService authService;
+  private final Cache<ContainerKey, BlobContainerClient> signingContainers;
 
   @Autowired
-  public AzureContainerPdao(AzureAuthService authService) {
+  public AzureContainerPdao(AzureAuthService authService, MeterRegistry meterRegistry) {
     this.authService = authService;
+    this.signingContainers =
+        Caffeine.newBuilder()
+            .maximumSize(CACHE_MAX_SIZE)
+            .expireAfterWrite(CACHE_TTL)
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, signingContainers, CACHE_NAME);
   }
 
   /**
@@ -68,12 +87,26 @@ public class AzureContainerPdao {
    */
   public void deleteContainer(
       BillingProfileModel profileModel, AzureStorageAccountResource storageAccountResource) {
+    signingContainers.invalidate(containerKey(storageAccountResource));
     BlobContainerClient blobContainerClient =
         authService.getBlobContainerClient(
             profileModel, storageAccountResource, storageAccountResource.getTopLevelContainer());
     blobContainerClient.deleteIfExists();
   }
 
+  /**
+   * Sign a URL for the top level container of an Azure storage account, creating the container if
+   * it does not exist. The container client is cached per storage account, so that DRS access and
+   * ingest, which sign URLs for the same few containers over and over, neither rebuild the client
+   * nor check that the container exists each time. Signing itself is done locally with the account
+   * key.
+   *
+   * @param profileModel The profile that describes information needed to access the storage account
+   * @param storageAccountResource Metadata describing the storage account that contains the
+   *     container
+   * @param blobSasTokenOptions The duration, permissions and content disposition of the token
+   * @return The container URL with a SAS token
+   */
   public String getDestinationContainerSignedUrl(
       BillingProfileModel profileModel,
       AzureStorageAccountResource storageAccountResource,
@@ -95,9 +128,18 @@ public class AzureContainerPdao {
     }
 
     BlobContainerClient containerClient =
-        getOrCreateContainer(profileModel, storageAccountResource);
+        signingContainers.get(
+            containerKey(storageAccountResource),
+            key -> getOrCreateContainer(profileModel, storageAccountResource));
     return String.format(
         "%s?%s",
         containerClient.getBlobContainerUrl(), containerClient.generateSas(sasSignatureValues));
   }
+
+  private record ContainerKey(String storageAccountName, String containerName) {}
+
+  private static ContainerKey containerKey(AzureStorageAccountResource storageAccountResource) {
+    return new ContainerKey(
+        storageAccountResource.getName(), storageAccountResource.getTopLevelContainer());
+  }
 }
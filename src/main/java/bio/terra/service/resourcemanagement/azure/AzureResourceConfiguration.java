@@ -164,7 +164,20 @@ public record AzureResourceConfiguration(
       int connectRetryInterval,
       int connectRetryCount) {}
 
-  public record Threading(int numTableThreads, int maxQueueSize, boolean blockWhenSaturated) {}
+  /**
+   * @param numTableThreads threads of the {@link #azureTableThreadpool()}, which runs the storage
+   *     table work that still uses blocking clients
+   * @param maxQueueSize tasks that may wait for a table thread
+   * @param blockWhenSaturated whether submitting to a full table thread pool waits instead of
+   *     failing
+   * @param maxInFlightTableRequests requests a single batch of non-blocking storage table reads
+   *     keeps in flight at once
+   */
+  public record Threading(
+      int numTableThreads,
+      int maxQueueSize,
+      boolean blockWhenSaturated,
+      int maxInFlightTableRequests) {}
 
   /**
    * The name of a {@link AsyncTaskExecutor} Spring Bean which executes tasks related to Azure
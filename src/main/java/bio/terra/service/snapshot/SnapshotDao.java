@@ -7,6 +7,7 @@ import bio.terra.common.DaoUtils;
 import bio.terra.common.DaoUtils.UuidMapper;
 import bio.terra.common.LockOperation;
 import bio.terra.common.MetadataEnumeration;
+import bio.terra.common.MetadataReadRouter;
 import bio.terra.common.SqlSortDirection;
 import bio.terra.common.iam.AuthenticatedUserRequest;
 import bio.terra.model.CloudPlatform;
@@ -76,6 +77,7 @@ public class SnapshotDao implements TaggableResourceDao {
   private final ObjectMapper objectMapper;
   private final DuosDao duosDao;
   private final DataSource jdbcDataSource;
+  private final MetadataReadRouter readRouter;
 
   private static final String TABLE_NAME = "snapshot";
 
@@ -104,7 +106,8 @@ public class SnapshotDao implements TaggableResourceDao {
       ResourceService resourceService,
       ObjectMapper objectMapper,
       DuosDao duosDao,
-      DataRepoJdbcConfiguration jdbcConfiguration) {
+      DataRepoJdbcConfiguration jdbcConfiguration,
+      MetadataReadRouter readRouter) {
     this.jdbcTemplate = jdbcTemplate;
     this.journalService = journalService;
     this.snapshotTableDao = snapshotTableDao;
@@ -115,6 +118,7 @@ public class SnapshotDao implements TaggableResourceDao {
     this.objectMapper = objectMapper;
     this.duosDao = duosDao;
     this.jdbcDataSource = jdbcConfiguration.getDataSource();
+    this.readRouter = readRouter;
   }
 
   @Override
@@ -127,6 +131,11 @@ public class SnapshotDao implements TaggableResourceDao {
     return jdbcDataSource;
   }
 
+  @Override
+  public MetadataReadRouter getReadRouter() {
+    return readRouter;
+  }
+
   @Override
   public String getTable() {
     return TABLE_NAME;
@@ -501,10 +510,6 @@ public class SnapshotDao implements TaggableResourceDao {
    * @return snapshot UUIDs accessible under the permissions
    */
   @WithSpan
-  @Transactional(
-      propagation = Propagation.REQUIRED,
-      isolation = Isolation.SERIALIZABLE,
-      readOnly = true)
   public List<UUID> getAccessibleSnapshots(List<RasDbgapPermissions> permissions) {
     List<UUID> accessibleSnapshots = List.of();
     if (!permissions.isEmpty()) {
@@ -525,7 +530,8 @@ public class SnapshotDao implements TaggableResourceDao {
                   permissions.stream()
                       .map(c -> new String[] {c.consent_group(), c.phs_id()})
                       .toList());
-      accessibleSnapshots = jdbcTemplate.query(sql, params, new UuidMapper("id"));
+      accessibleSnapshots =
+          readRouter.read(template -> template.query(sql, params, new UuidMapper("id")));
     }
     return accessibleSnapshots;
   }
@@ -557,10 +563,6 @@ public class SnapshotDao implements TaggableResourceDao {
    * @return a list of dataset summary objects
    */
   @WithSpan
-  @Transactional(
-      propagation = Propagation.REQUIRED,
-      isolation = Isolation.SERIALIZABLE,
-      readOnly = true)
   public MetadataEnumeration<SnapshotSummary> retrieveSnapshots(
       int offset,
       int limit,
@@ -572,6 +574,34 @@ public class SnapshotDao implements TaggableResourceDao {
       Collection<UUID> accessibleSnapshotIds,
       List<String> tags,
       List<String> duosIds) {
+    return readRouter.read(
+        template ->
+            retrieveSnapshots(
+                template,
+                offset,
+                limit,
+                sort,
+                direction,
+                filter,
+                region,
+                datasetIds,
+                accessibleSnapshotIds,
+                tags,
+                duosIds));
+  }
+
+  private MetadataEnumeration<SnapshotSummary> retrieveSnapshots(
+      NamedParameterJdbcTemplate template,
+      int offset,
+      int limit,
+      EnumerateSortByParam sort,
+      SqlSortDirection direction,
+      String filter,
+      String region,
+      List<UUID> datasetIds,
+      Collection<UUID> accessibleSnapshotIds,
+      List<String> tags,
+      List<String> duosIds) {
     if (logger.isDebugEnabled()) {
       logger.debug(
           "retrieve snapshots offset: {} limit: {} sort: {} direction: {} filter: {} datasetIds: {} tags: {} duosIds: {}",
@@ -606,7 +636,7 @@ public class SnapshotDao implements TaggableResourceDao {
             + joinSql
             + " WHERE "
             + StringUtils.join(whereClauses, " AND ");
-    Integer total = jdbcTemplate.queryForObject(countSql, params, Integer.class);
+    Integer total = template.queryForObject(countSql, params, Integer.class);
     if (total == null) {
       throw new CorruptMetadataException("Impossible null value from total count");
     }
@@ -634,7 +664,7 @@ public class SnapshotDao implements TaggableResourceDao {
             + joinSql
             + " WHERE "
             + StringUtils.join(whereClauses, " AND ");
-    Integer filteredTotal = jdbcTemplate.queryForObject(filteredCountSql, params, Integer.class);
+    Integer filteredTotal = template.queryForObject(filteredCountSql, params, Integer.class);
     if (filteredTotal == null) {
       throw new CorruptMetadataException("Impossible null value from filtered count");
     }
@@ -654,7 +684,7 @@ public class SnapshotDao implements TaggableResourceDao {
             + " OFFSET :offset LIMIT :limit";
 
     params.addValue("offset", offset).addValue("limit", limit);
-    List<SnapshotSummary> summaries = jdbcTemplate.query(sql, params, new SnapshotSummaryMapper());
+    List<SnapshotSummary> summaries = template.query(sql, params, new SnapshotSummaryMapper());
 
     return new MetadataEnumeration<SnapshotSummary>()
         .items(summaries)
@@ -2,6 +2,7 @@ package bio.terra.service.snapshot;
 
 import static bio.terra.common.PdaoConstant.PDAO_ROW_ID_COLUMN;
 
+import bio.terra.app.configuration.ApplicationConfiguration;
 import bio.terra.app.controller.SnapshotsApiController;
 import bio.terra.app.controller.exception.ValidationException;
 import bio.terra.app.utils.PolicyUtils;
@@ -97,6 +98,10 @@ import bio.terra.service.snapshot.flight.unlock.SnapshotUnlockFlight;
 import bio.terra.service.snapshotbuilder.SnapshotAccessRequestModel;
 import bio.terra.service.snapshotbuilder.SnapshotBuilderSettingsDao;
 import bio.terra.service.snapshotbuilder.SnapshotRequestDao;
+import bio.terra.service.snapshotbuilder.flight.SnapshotBuilderIndexFlight;
+import bio.terra.service.tabulardata.DataPageToken;
+import bio.terra.service.tabulardata.DataResultModel;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDataResultModel;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryPdao;
 import bio.terra.service.tabulardata.google.bigquery.BigQuerySnapshotPdao;
@@ -122,6 +127,7 @@ import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -142,6 +148,9 @@ public class SnapshotService {
   private final RawlsService rawlsService;
   private final DuosClient duosClient;
   private final SnapshotBuilderSettingsDao snapshotBuilderSettingsDao;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TableDataCache tableDataCache;
+  private final ApplicationConfiguration appConfig;
 
   public SnapshotService(
       JobService jobService,
@@ -157,7 +166,10 @@ public class SnapshotService {
       AzureSynapsePdao azureSynapsePdao,
       RawlsService rawlsService,
       DuosClient duosClient,
-      SnapshotBuilderSettingsDao snapshotBuilderSettingsDao) {
+      SnapshotBuilderSettingsDao snapshotBuilderSettingsDao,
+      ApplicationEventPublisher eventPublisher,
+      TableDataCache tableDataCache,
+      ApplicationConfiguration appConfig) {
     this.jobService = jobService;
     this.datasetService = datasetService;
     this.dependencyDao = dependencyDao;
@@ -172,6 +184,9 @@ public class SnapshotService {
     this.rawlsService = rawlsService;
     this.duosClient = duosClient;
     this.snapshotBuilderSettingsDao = snapshotBuilderSettingsDao;
+    this.eventPublisher = eventPublisher;
+    this.tableDataCache = tableDataCache;
+    this.appConfig = appConfig;
   }
 
   public String getSnapshotName(SnapshotRequestModel model) {
@@ -335,6 +350,7 @@ public class SnapshotService {
     if (!patchSucceeded) {
       throw new RuntimeException("Snapshot was not updated");
     }
+    eventPublisher.publishEvent(new SnapshotUpdatedEvent(id));
     return snapshotDao.retrieveSummaryById(id).toModel();
   }
 
@@ -973,7 +989,8 @@ public class SnapshotService {
       int offset,
       String sort,
       SqlSortDirection direction,
-      String filter) {
+      String filter,
+      String pageToken) {
     Snapshot snapshot = retrieve(snapshotId);
 
     SnapshotTable table =
@@ -993,6 +1010,40 @@ public class SnapshotService {
                       "No snapshot table column exists with the name: " + sort));
     }
 
+    return tableDataCache.getSnapshotResult(
+        snapshotId,
+        Arrays.asList("preview", tableName, limit, offset, sort, direction, filter, pageToken),
+        () ->
+            queryPreview(
+                userRequest,
+                snapshot,
+                table,
+                tableName,
+                limit,
+                offset,
+                sort,
+                direction,
+                filter,
+                pageToken));
+  }
+
+  private SnapshotPreviewModel queryPreview(
+      AuthenticatedUserRequest userRequest,
+      Snapshot snapshot,
+      SnapshotTable table,
+      String tableName,
+      int limit,
+      int offset,
+      String sort,
+      SqlSortDirection direction,
+      String filter,
+      String pageToken) {
+    // Rows are paged by keyset unless the caller asks to skip rows without a page token
+    boolean pageByOffset = offset > 0 && StringUtils.isEmpty(pageToken);
+    DataPageToken token =
+        pageByOffset ? null : DataPageToken.decode(pageToken, sort, direction, filter);
+    UUID afterRowId = token == null ? null : token.afterRowId();
+
     var cloudPlatformWrapper = CloudPlatformWrapper.of(snapshot.getCloudPlatform());
 
     if (cloudPlatformWrapper.isGcp()) {
@@ -1000,13 +1051,20 @@ public class SnapshotService {
         List<String> columns =
             snapshotTableDao.retrieveColumns(table).stream().map(Column::getName).toList();
         List<BigQueryDataResultModel> values =
-            BigQueryPdao.getTable(
-                snapshot, tableName, columns, limit, offset, sort, direction, filter);
-        return new SnapshotPreviewModel()
-            .result(
-                List.copyOf(values.stream().map(BigQueryDataResultModel::getRowResult).toList()))
-            .totalRowCount(table.getRowCount().intValue())
-            .filteredRowCount(values.isEmpty() ? 0 : values.get(0).getFilteredCount());
+            pageByOffset
+                ? BigQueryPdao.getTable(
+                    snapshot, tableName, columns, limit, offset, sort, direction, filter)
+                : BigQueryPdao.getTablePage(
+                    snapshot, tableName, columns, limit, sort, direction, filter, afterRowId);
+        return toPreviewModel(
+            values.stream().map(BigQueryDataResultModel::getRowResult).toList(),
+            table,
+            token,
+            pageByOffset,
+            sort,
+            direction,
+            filter,
+            values);
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
         throw new SnapshotPreviewException(
@@ -1016,26 +1074,75 @@ public class SnapshotService {
       String datasourceName = getOrCreateExternalAzureDataSource(snapshot, userRequest, tableName);
       String parquetFilePath = IngestUtils.getSnapshotParquetFilePathForQuery(tableName);
       List<SynapseDataResultModel> values =
-          azureSynapsePdao.getTableData(
-              table,
-              tableName,
-              datasourceName,
-              parquetFilePath,
-              limit,
-              offset,
-              sort,
-              direction,
-              filter,
-              CollectionType.SNAPSHOT);
-      return new SnapshotPreviewModel()
-          .result(List.copyOf(values.stream().map(SynapseDataResultModel::getRowResult).toList()))
-          .totalRowCount(table.getRowCount().intValue())
-          .filteredRowCount(values.isEmpty() ? 0 : values.get(0).getFilteredCount());
+          pageByOffset
+              ? azureSynapsePdao.getTableData(
+                  table,
+                  tableName,
+                  datasourceName,
+                  parquetFilePath,
+                  limit,
+                  offset,
+                  sort,
+                  direction,
+                  filter,
+                  CollectionType.SNAPSHOT)
+              : azureSynapsePdao.getTableDataPage(
+                  table,
+                  tableName,
+                  datasourceName,
+                  parquetFilePath,
+                  limit,
+                  sort,
+                  direction,
+                  filter,
+                  CollectionType.SNAPSHOT,
+                  afterRowId);
+      return toPreviewModel(
+          values.stream().map(SynapseDataResultModel::getRowResult).toList(),
+          table,
+          token,
+          pageByOffset,
+          sort,
+          direction,
+          filter,
+          values);
     } else {
       throw new SnapshotPreviewException("Cloud not supported");
     }
   }
 
+  /**
+   * Build a preview page. The filtered row count comes from the first page of the query, which
+   * pages after it carry along in their token.
+   */
+  private SnapshotPreviewModel toPreviewModel(
+      List<?> rows,
+      SnapshotTable table,
+      DataPageToken token,
+      boolean pageByOffset,
+      String sort,
+      SqlSortDirection direction,
+      String filter,
+      List<? extends DataResultModel> values) {
+    int totalRowCount = table.getRowCount().intValue();
+    int filteredRowCount;
+    if (token == null) {
+      filteredRowCount = values.isEmpty() ? 0 : values.get(0).getFilteredCount();
+    } else {
+      token.checkPageRead(values);
+      filteredRowCount = token.filteredRowCount();
+    }
+    return new SnapshotPreviewModel()
+        .result(List.copyOf(rows))
+        .totalRowCount(totalRowCount)
+        .filteredRowCount(filteredRowCount)
+        .nextPageToken(
+            pageByOffset
+                ? null
+                : DataPageToken.next(
+                    token, sort, direction, filter, values, filteredRowCount, totalRowCount));
+  }
+
   public String getOrCreateExternalAzureDataSource(
       Snapshot snapshot, AuthenticatedUserRequest userRequest) {
     return getOrCreateExternalAzureDataSource(snapshot, userRequest, null);
@@ -1427,9 +1534,27 @@ public class SnapshotService {
         .submitAndWait(ResourceLocks.class);
   }
 
+  /**
+   * Update the snapshot builder settings of a snapshot. If enabled, also start a flight to index
+   * the concept hierarchy of a GCP snapshot from the new settings; until the flight completes,
+   * snapshot builder requests read the OMOP tables as they would without an index.
+   */
   public void updateSnapshotBuilderSettings(
-      UUID snapshotId, SnapshotBuilderSettings snapshotBuilderSettings) {
+      UUID snapshotId,
+      SnapshotBuilderSettings snapshotBuilderSettings,
+      AuthenticatedUserRequest userReq) {
     snapshotBuilderSettingsDao.upsertBySnapshotId(snapshotId, snapshotBuilderSettings);
+    if (appConfig.isSnapshotBuilderIndexEnabled()
+        && CloudPlatformWrapper.of(retrieve(snapshotId).getCloudPlatform()).isGcp()) {
+      jobService
+          .newJob(
+              "Index the concept hierarchy of snapshot " + snapshotId,
+              SnapshotBuilderIndexFlight.class,
+              null,
+              userReq)
+          .addParameter(JobMapKeys.SNAPSHOT_ID.getKeyName(), snapshotId)
+          .submit();
+    }
   }
 
   public SnapshotBuilderSettings getSnapshotBuilderSettings(UUID snapshotId) {
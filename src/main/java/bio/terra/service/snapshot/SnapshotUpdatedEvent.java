@@ -0,0 +1,6 @@
+package bio.terra.service.snapshot;
+
+import java.util.UUID;
+
+/** Published after a snapshot's metadata is changed, so that cached copies can be dropped. */
+public record SnapshotUpdatedEvent(UUID snapshotId) {}
@@ -22,8 +22,12 @@ public final class SnapshotWorkingMapKeys extends ProjectCreatingFlightKeys {
   public static final String SNAPSHOT_EXPORT_PARQUET_PATHS = "snapshotExportParquetPaths";
   public static final String SNAPSHOT_EXPORT_MANIFEST_PATH = "snapshotExportManifestPath";
   public static final String SNAPSHOT_EXPORT_GSPATHS_FILENAME = "snapshotExportGspathsFileName";
+  public static final String SNAPSHOT_EXPORT_GSPATHS_PART_COUNT = "snapshotExportGspathsPartCount";
+  public static final String SNAPSHOT_EXPORT_GSPATHS_LAST_DOCUMENT_ID =
+      "snapshotExportGspathsLastDocumentId";
   public static final String SNAPSHOT_FIRECLOUD_GROUP_NAME = "snapshotFirecloudGroupName";
   public static final String SNAPSHOT_FIRECLOUD_GROUP_EMAIL = "snapshotFirecloudGroupEmail";
   public static final String SNAPSHOT_DATA_ACCESS_CONTROL_GROUPS =
       "snapshotDataAccessControlGroups";
+  public static final String BIGQUERY_SNAPSHOT_DELETED = "bigQuerySnapshotDeleted";
 }
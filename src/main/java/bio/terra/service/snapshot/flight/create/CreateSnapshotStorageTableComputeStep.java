@@ -11,6 +11,7 @@ import bio.terra.service.snapshot.SnapshotService;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.Step;
 import bio.terra.stairway.StepResult;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 
 public class CreateSnapshotStorageTableComputeStep implements Step {
@@ -36,8 +37,8 @@ public class CreateSnapshotStorageTableComputeStep implements Step {
     AzureStorageAuthInfo datasetStorageAuthInfo =
         FlightUtils.getContextValue(
             context, CommonMapKeys.DATASET_STORAGE_AUTH_INFO, AzureStorageAuthInfo.class);
-    TableServiceClient datasetTableServiceClient =
-        azureAuthService.getTableServiceClient(datasetStorageAuthInfo);
+    TableServiceAsyncClient datasetTableServiceClient =
+        azureAuthService.getTableServiceAsyncClient(datasetStorageAuthInfo);
 
     AzureStorageAuthInfo snapshotStorageAuthInfo =
         FlightUtils.getContextValue(
@@ -47,7 +48,7 @@ public class CreateSnapshotStorageTableComputeStep implements Step {
 
     Snapshot snapshot = snapshotService.retrieveByName(snapshotReq.getName());
     // Compute the size and checksums
-    tableDao.snapshotCompute(snapshot, datasetTableServiceClient, snapshotTableServiceClient);
+    tableDao.snapshotCompute(snapshot, snapshotTableServiceClient, datasetTableServiceClient);
     return StepResult.getStepResultSuccess();
   }
 
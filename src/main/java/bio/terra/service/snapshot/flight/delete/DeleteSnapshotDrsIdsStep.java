@@ -24,6 +24,7 @@ public class DeleteSnapshotDrsIdsStep implements Step {
   @Override
   public StepResult doStep(FlightContext context) {
     logger.info("Deleted {} rows", drsService.deleteDrsIdToSnapshotsBySnapshot(snapshotId));
+    drsService.invalidateSnapshot(snapshotId);
     return StepResult.getStepResultSuccess();
   }
 
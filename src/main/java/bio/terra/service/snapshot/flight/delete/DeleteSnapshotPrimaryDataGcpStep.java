@@ -1,10 +1,13 @@
 package bio.terra.service.snapshot.flight.delete;
 
+import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
 import bio.terra.service.filedata.google.firestore.FireStoreDao;
 import bio.terra.service.snapshot.Snapshot;
 import bio.terra.service.snapshot.SnapshotService;
+import bio.terra.service.snapshot.flight.SnapshotWorkingMapKeys;
 import bio.terra.service.tabulardata.google.bigquery.BigQuerySnapshotPdao;
 import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.Step;
 import bio.terra.stairway.StepResult;
 import bio.terra.stairway.StepStatus;
@@ -31,11 +34,20 @@ public class DeleteSnapshotPrimaryDataGcpStep implements Step {
   @Override
   public StepResult doStep(FlightContext context) throws InterruptedException {
     Snapshot snapshot = snapshotService.retrieve(snapshotId);
-    // Delete Snapshot BigQuery Dataset
-    bigQuerySnapshotPdao.deleteSnapshot(snapshot);
+    FlightMap workingMap = context.getWorkingMap();
+    // Delete Snapshot BigQuery Dataset, unless a previous attempt of this step already did
+    if (!Boolean.TRUE.equals(
+        workingMap.get(SnapshotWorkingMapKeys.BIGQUERY_SNAPSHOT_DELETED, Boolean.class))) {
+      bigQuerySnapshotPdao.deleteSnapshot(snapshot);
+      workingMap.put(SnapshotWorkingMapKeys.BIGQUERY_SNAPSHOT_DELETED, true);
+    }
 
     // Delete Snapshot entries from Firestore
-    fileDao.deleteFilesFromSnapshot(snapshot);
+    try {
+      fileDao.deleteFilesFromSnapshot(snapshot);
+    } catch (FileSystemAbortTransactionException ex) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, ex);
+    }
 
     return StepResult.getStepResultSuccess();
   }
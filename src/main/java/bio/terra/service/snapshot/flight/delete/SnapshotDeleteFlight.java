@@ -28,6 +28,8 @@ import bio.terra.service.snapshot.flight.LockSnapshotStep;
 import bio.terra.service.snapshot.flight.UnlockSnapshotStep;
 import bio.terra.service.snapshotbuilder.SnapshotBuilderService;
 import bio.terra.service.snapshotbuilder.SnapshotRequestDao;
+import bio.terra.service.tabulardata.InvalidateTableDataCacheStep;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.google.bigquery.BigQuerySnapshotPdao;
 import bio.terra.stairway.Flight;
 import bio.terra.stairway.FlightMap;
@@ -62,6 +64,7 @@ public class SnapshotDeleteFlight extends Flight {
         appContext.getBean(AzureStorageAccountService.class);
     JournalService journalService = appContext.getBean(JournalService.class);
     DrsService drsService = appContext.getBean(DrsService.class);
+    TableDataCache tableDataCache = appContext.getBean(TableDataCache.class);
     String tdrServiceAccountEmail = appContext.getBean("tdrServiceAccountEmail", String.class);
     PolicyService policyService = appContext.getBean(PolicyService.class);
 
@@ -145,6 +148,7 @@ public class SnapshotDeleteFlight extends Flight {
 
     // Delete Metadata
     addStep(new DeleteSnapshotDrsIdsStep(drsService, snapshotId));
+    addStep(new InvalidateTableDataCacheStep(tableDataCache, snapshotId));
     addStep(
         new DeleteSnapshotMetadataStep(snapshotDao, snapshotId),
         getDefaultExponentialBackoffRetryRule());
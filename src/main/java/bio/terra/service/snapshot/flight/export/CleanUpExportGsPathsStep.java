@@ -40,7 +40,7 @@ public class CleanUpExportGsPathsStep implements Step {
         context
             .getWorkingMap()
             .get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_BUCKET, GoogleBucketResource.class);
-    gcsPdao.deleteFileByName(exportBucket, SnapshotExportUtils.getFileName(context));
+    SnapshotExportUtils.deleteDumpFiles(context, gcsPdao, exportBucket);
     return StepResult.getStepResultSuccess();
   }
 
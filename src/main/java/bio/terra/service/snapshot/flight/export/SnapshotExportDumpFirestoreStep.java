@@ -1,6 +1,7 @@
 package bio.terra.service.snapshot.flight.export;
 
 import bio.terra.common.PdaoConstant;
+import bio.terra.service.filedata.google.firestore.FireStoreBatchQueryIterator;
 import bio.terra.service.filedata.google.firestore.FireStoreDao;
 import bio.terra.service.filedata.google.firestore.FireStoreFile;
 import bio.terra.service.filedata.google.gcs.GcsChannelWriter;
@@ -10,6 +11,7 @@ import bio.terra.service.snapshot.Snapshot;
 import bio.terra.service.snapshot.SnapshotService;
 import bio.terra.service.snapshot.flight.SnapshotWorkingMapKeys;
 import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.Step;
 import bio.terra.stairway.StepResult;
 import bio.terra.stairway.StepStatus;
@@ -17,74 +19,154 @@ import bio.terra.stairway.exception.RetryException;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.firestore.QueryDocumentSnapshot;
-import com.google.cloud.firestore.QuerySnapshot;
 import com.google.cloud.storage.Storage;
-import com.google.cloud.storage.StorageOptions;
 import java.io.IOException;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.apache.commons.collections4.CollectionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Dump the file id to gs path mapping of the snapshot's files into newline delimited json files in
+ * the export bucket.
+ *
+ * <p>The -files collection is paged through in document id order, so at most two batches of
+ * documents are held in memory: the one being written and the next one, which is fetched while the
+ * current one is written. The output is split into part files of at most {@link
+ * #DOCUMENTS_PER_PART} documents. Each time a part is completed, the number of parts and the id of
+ * the last document written are recorded in the working map, so a retried step resumes with the
+ * next part rather than starting over.
+ */
 public class SnapshotExportDumpFirestoreStep implements Step {
+  private static final Logger logger =
+      LoggerFactory.getLogger(SnapshotExportDumpFirestoreStep.class);
+
+  static final int DOCUMENTS_PER_PART = 500_000;
+
   private final SnapshotService snapshotService;
   private final FireStoreDao fireStoreDao;
   private final GcsPdao gcsPdao;
   private final UUID snapshotId;
   private final ObjectMapper objectMapper;
+  private final ExecutorService executor;
+  private final int documentsPerPart;
 
   public SnapshotExportDumpFirestoreStep(
       SnapshotService snapshotService,
       FireStoreDao fireStoreDao,
       GcsPdao gcsPdao,
       UUID snapshotId,
-      ObjectMapper objectMapper) {
+      ObjectMapper objectMapper,
+      ExecutorService executor) {
+    this(
+        snapshotService,
+        fireStoreDao,
+        gcsPdao,
+        snapshotId,
+        objectMapper,
+        executor,
+        DOCUMENTS_PER_PART);
+  }
+
+  SnapshotExportDumpFirestoreStep(
+      SnapshotService snapshotService,
+      FireStoreDao fireStoreDao,
+      GcsPdao gcsPdao,
+      UUID snapshotId,
+      ObjectMapper objectMapper,
+      ExecutorService executor,
+      int documentsPerPart) {
     this.snapshotService = snapshotService;
     this.fireStoreDao = fireStoreDao;
     this.gcsPdao = gcsPdao;
     this.snapshotId = snapshotId;
     this.objectMapper = objectMapper;
+    this.executor = executor;
+    this.documentsPerPart = documentsPerPart;
   }
 
   @Override
   public StepResult doStep(FlightContext context) throws InterruptedException, RetryException {
     Snapshot snapshot = snapshotService.retrieve(snapshotId);
-    String fileName = SnapshotExportUtils.getFileName(context);
-    context.getWorkingMap().put(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_FILENAME, fileName);
+    FlightMap workingMap = context.getWorkingMap();
+    workingMap.put(
+        SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_FILENAME,
+        SnapshotExportUtils.getPartFileNamePattern(context));
 
-    try (GcsChannelWriter writer = makeWriterForDumpFile(context, fileName)) {
-      QuerySnapshot queryResult = fireStoreDao.retrieveFilesCollection(snapshot);
-      // note, creates an empty file for empty query result
-      for (QueryDocumentSnapshot d : queryResult.getDocuments()) {
-        // convert to snake_case here to match column names in BQ
-        Map<String, Object> dumpData =
-            Map.of(
-                PdaoConstant.PDAO_FIRESTORE_DUMP_FILE_ID_KEY,
-                    d.getData().get(FireStoreFile.FILE_ID_FIELD_NAME),
-                PdaoConstant.PDAO_FIRESTORE_DUMP_GSPATH_KEY,
-                    d.getData().get(FireStoreFile.GS_PATH_FIELD_NAME));
-        try {
-          writer.writeLine(objectMapper.writeValueAsString(dumpData));
-        } catch (JsonProcessingException e) {
-          return new StepResult(StepStatus.STEP_RESULT_FAILURE_FATAL, e);
+    // Pick up where a previous attempt left off
+    int partCount =
+        Objects.requireNonNullElse(
+            workingMap.get(
+                SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_PART_COUNT, Integer.class),
+            0);
+    String lastDocumentId =
+        workingMap.get(
+            SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_LAST_DOCUMENT_ID, String.class);
+    if (partCount > 0) {
+      logger.info("Resuming dump after {} parts and document {}", partCount, lastDocumentId);
+    }
+
+    GoogleBucketResource exportBucket =
+        workingMap.get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_BUCKET, GoogleBucketResource.class);
+    Storage storage = gcsPdao.storageForBucket(exportBucket);
+    FireStoreBatchQueryIterator queryIterator =
+        fireStoreDao.retrieveFilesCollectionIterator(snapshot, lastDocumentId);
+
+    Future<List<QueryDocumentSnapshot>> nextBatch = executor.submit(queryIterator::getBatch);
+    try {
+      boolean done = false;
+      // note, always creates at least one (possibly empty) part
+      while (!done) {
+        String partFileName = SnapshotExportUtils.getPartFileName(context, partCount);
+        int partSize = 0;
+        try (GcsChannelWriter writer =
+            new GcsChannelWriter(storage, exportBucket.getName(), partFileName)) {
+          while (partSize < documentsPerPart) {
+            List<QueryDocumentSnapshot> batch = nextBatch.get();
+            if (CollectionUtils.isEmpty(batch)) {
+              done = true;
+              break;
+            }
+            // Fetch the following batch while this one is being written
+            nextBatch = executor.submit(queryIterator::getBatch);
+            for (QueryDocumentSnapshot d : batch) {
+              writer.writeLine(toDumpLine(d));
+            }
+            partSize += batch.size();
+            lastDocumentId = batch.get(batch.size() - 1).getId();
+          }
         }
+        partCount++;
+        workingMap.put(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_PART_COUNT, partCount);
+        workingMap.put(
+            SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_LAST_DOCUMENT_ID, lastDocumentId);
+        logger.info("Wrote {} documents to {}", partSize, partFileName);
       }
+    } catch (JsonProcessingException e) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_FATAL, e);
     } catch (IOException | ExecutionException e) {
       return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, e);
+    } finally {
+      nextBatch.cancel(true);
     }
     return StepResult.getStepResultSuccess();
   }
 
-  private GcsChannelWriter makeWriterForDumpFile(FlightContext context, String fileName) {
-    GoogleBucketResource exportBucket =
-        context
-            .getWorkingMap()
-            .get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_BUCKET, GoogleBucketResource.class);
-    Storage storage =
-        StorageOptions.newBuilder()
-            .setProjectId(exportBucket.getProjectResource().getGoogleProjectId())
-            .build()
-            .getService();
-    return new GcsChannelWriter(storage, exportBucket.getName(), fileName);
+  private String toDumpLine(QueryDocumentSnapshot d) throws JsonProcessingException {
+    // convert to snake_case here to match column names in BQ
+    Map<String, Object> dumpData =
+        Map.of(
+            PdaoConstant.PDAO_FIRESTORE_DUMP_FILE_ID_KEY,
+                d.getData().get(FireStoreFile.FILE_ID_FIELD_NAME),
+            PdaoConstant.PDAO_FIRESTORE_DUMP_GSPATH_KEY,
+                d.getData().get(FireStoreFile.GS_PATH_FIELD_NAME));
+    return objectMapper.writeValueAsString(dumpData);
   }
 
   @Override
@@ -93,7 +175,7 @@ public class SnapshotExportDumpFirestoreStep implements Step {
         context
             .getWorkingMap()
             .get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_BUCKET, GoogleBucketResource.class);
-    gcsPdao.deleteFileByName(exportBucket, SnapshotExportUtils.getFileName(context));
+    SnapshotExportUtils.deleteDumpFiles(context, gcsPdao, exportBucket);
     return StepResult.getStepResultSuccess();
   }
 }
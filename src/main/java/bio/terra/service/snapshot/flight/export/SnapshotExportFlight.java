@@ -20,6 +20,7 @@ import bio.terra.stairway.FlightMap;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
 import org.springframework.context.ApplicationContext;
 
 public class SnapshotExportFlight extends Flight {
@@ -38,6 +39,7 @@ public class SnapshotExportFlight extends Flight {
     AzureBlobStorePdao azureBlobStorePdao = appContext.getBean(AzureBlobStorePdao.class);
     ProfileService profileService = appContext.getBean(ProfileService.class);
     JournalService journalService = appContext.getBean(JournalService.class);
+    ExecutorService executor = appContext.getBean("performanceThreadpool", ExecutorService.class);
     ObjectMapper objectMapper = appConfig.objectMapper();
 
     AuthenticatedUserRequest userReq =
@@ -72,7 +74,7 @@ public class SnapshotExportFlight extends Flight {
     if (exportGsPaths && platform.isGcp()) {
       addStep(
           new SnapshotExportDumpFirestoreStep(
-              snapshotService, fireStoreDao, gcsPdao, snapshotId, objectMapper));
+              snapshotService, fireStoreDao, gcsPdao, snapshotId, objectMapper, executor));
       addStep(
           new SnapshotExportLoadMappingTableStep(snapshotId, snapshotService, bigQueryExportPdao));
     }
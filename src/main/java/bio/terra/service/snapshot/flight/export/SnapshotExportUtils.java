@@ -1,10 +1,38 @@
 package bio.terra.service.snapshot.flight.export;
 
+import bio.terra.service.filedata.google.gcs.GcsPdao;
+import bio.terra.service.resourcemanagement.google.GoogleBucketResource;
+import bio.terra.service.snapshot.flight.SnapshotWorkingMapKeys;
 import bio.terra.stairway.FlightContext;
+import java.util.Objects;
 
 public class SnapshotExportUtils {
 
-  public static String getFileName(FlightContext context) {
-    return String.format("%s_export_gs_path_mapping/gs_path_mapping.json", context.getFlightId());
+  /** Name of one part of the gs path mapping dump */
+  public static String getPartFileName(FlightContext context, int partIndex) {
+    return String.format(
+        "%s_export_gs_path_mapping/gs_path_mapping-%05d.json", context.getFlightId(), partIndex);
+  }
+
+  /** Wildcard matching every part of the gs path mapping dump, as understood by BigQuery */
+  public static String getPartFileNamePattern(FlightContext context) {
+    return String.format("%s_export_gs_path_mapping/gs_path_mapping-*.json", context.getFlightId());
+  }
+
+  /**
+   * Delete every part of the gs path mapping dump, including a part that may have been partially
+   * written by a failed attempt of the dump step.
+   */
+  public static void deleteDumpFiles(
+      FlightContext context, GcsPdao gcsPdao, GoogleBucketResource exportBucket) {
+    int partCount =
+        Objects.requireNonNullElse(
+            context
+                .getWorkingMap()
+                .get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_PART_COUNT, Integer.class),
+            0);
+    for (int partIndex = 0; partIndex <= partCount; partIndex++) {
+      gcsPdao.deleteFileByName(exportBucket, getPartFileName(context, partIndex));
+    }
   }
 }
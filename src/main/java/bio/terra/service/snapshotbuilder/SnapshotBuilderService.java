@@ -35,22 +35,31 @@ import bio.terra.service.snapshotbuilder.query.Query;
 import bio.terra.service.snapshotbuilder.query.SqlRenderContext;
 import bio.terra.service.snapshotbuilder.query.TableNameGenerator;
 import bio.terra.service.snapshotbuilder.query.table.Concept;
+import bio.terra.service.snapshotbuilder.query.table.ConceptHierarchyIndex;
 import bio.terra.service.snapshotbuilder.utils.AggregateBQQueryResultsUtils;
 import bio.terra.service.snapshotbuilder.utils.AggregateSynapseQueryResultsUtils;
 import bio.terra.service.snapshotbuilder.utils.QueryBuilderFactory;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.google.bigquery.BigQuerySnapshotPdao;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.cloud.bigquery.FieldValueList;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +69,7 @@ import org.springframework.stereotype.Component;
 public class SnapshotBuilderService {
 
   private static final Logger logger = LoggerFactory.getLogger(SnapshotBuilderService.class);
+  private static final ObjectMapper objectMapper = new ObjectMapper();
 
   private final SnapshotRequestDao snapshotRequestDao;
   private final SnapshotBuilderSettingsDao snapshotBuilderSettingsDao;
@@ -71,6 +81,7 @@ public class SnapshotBuilderService {
   private final QueryBuilderFactory queryBuilderFactory;
   private final NotificationService notificationService;
   private final TerraConfiguration terraConfiguration;
+  private final TableDataCache tableDataCache;
 
   public SnapshotBuilderService(
       SnapshotRequestDao snapshotRequestDao,
@@ -82,7 +93,8 @@ public class SnapshotBuilderService {
       NotificationService notificationService,
       AzureSynapsePdao azureSynapsePdao,
       QueryBuilderFactory queryBuilderFactory,
-      TerraConfiguration terraConfiguration) {
+      TerraConfiguration terraConfiguration,
+      TableDataCache tableDataCache) {
     this.snapshotRequestDao = snapshotRequestDao;
     this.snapshotBuilderSettingsDao = snapshotBuilderSettingsDao;
     this.datasetService = datasetService;
@@ -93,6 +105,7 @@ public class SnapshotBuilderService {
     this.azureSynapsePdao = azureSynapsePdao;
     this.queryBuilderFactory = queryBuilderFactory;
     this.terraConfiguration = terraConfiguration;
+    this.tableDataCache = tableDataCache;
   }
 
   public SnapshotAccessRequestResponse createRequest(
@@ -141,27 +154,146 @@ public class SnapshotBuilderService {
     return result;
   }
 
+  /**
+   * Return the cached result of a snapshot builder query, or build and run the query and cache its
+   * result. OMOP snapshots never change, so a result depends only on the query's arguments and on
+   * the snapshot builder settings that the query is built from. Keying on those, rather than on
+   * the rendered SQL, means a repeated request neither builds nor renders the query; rendering
+   * looks up the snapshot's tables and, on Azure, creates an external data source. Results for
+   * settings that have since been replaced are no longer read and are evicted for space.
+   *
+   * @param snapshot the snapshot the query reads
+   * @param settings the snapshot's current snapshot builder settings
+   * @param arguments the name of the request and its arguments
+   * @param loader builds and runs the query
+   */
+  private <T> List<T> getCachedResult(
+      Snapshot snapshot,
+      SnapshotBuilderSettings settings,
+      List<Object> arguments,
+      Supplier<List<T>> loader) {
+    List<Object> key = new ArrayList<>(arguments);
+    key.add(settings);
+    return tableDataCache.getSnapshotResult(snapshot.getId(), key, loader);
+  }
+
   public SnapshotBuilderConceptsResponse getConceptChildren(
       UUID snapshotId, int conceptId, AuthenticatedUserRequest userRequest) {
     Snapshot snapshot = snapshotService.retrieve(snapshotId);
-
-    SnapshotBuilderDomainOption domainOption = getDomainOption(conceptId, snapshot, userRequest);
-
-    Query query =
-        queryBuilderFactory
-            .conceptChildrenQueryBuilder()
-            .buildConceptChildrenQuery(domainOption, conceptId);
+    SnapshotBuilderSettings settings = snapshotBuilderSettingsDao.getBySnapshotId(snapshotId);
 
     List<SnapshotBuilderConcept> concepts =
-        runSnapshotBuilderQuery(
-            query,
+        getCachedResult(
             snapshot,
-            userRequest,
-            AggregateBQQueryResultsUtils::toConcept,
-            AggregateSynapseQueryResultsUtils::toConcept);
+            settings,
+            Arrays.asList("conceptChildren", conceptId),
+            () -> {
+              if (hasConceptHierarchyIndex(snapshot, settings)) {
+                List<SnapshotBuilderConcept> indexed =
+                    runSnapshotBuilderQuery(
+                        queryBuilderFactory
+                            .conceptChildrenQueryBuilder()
+                            .buildIndexedConceptChildrenQuery(conceptId),
+                        snapshot,
+                        userRequest,
+                        AggregateBQQueryResultsUtils::toConcept,
+                        AggregateSynapseQueryResultsUtils::toConcept);
+                if (!indexed.isEmpty()) {
+                  return indexed;
+                }
+              }
+              SnapshotBuilderDomainOption domainOption =
+                  getDomainOption(conceptId, snapshot, userRequest);
+              Query query =
+                  queryBuilderFactory
+                      .conceptChildrenQueryBuilder()
+                      .buildConceptChildrenQuery(domainOption, conceptId);
+              return runSnapshotBuilderQuery(
+                  query,
+                  snapshot,
+                  userRequest,
+                  AggregateBQQueryResultsUtils::toConcept,
+                  AggregateSynapseQueryResultsUtils::toConcept);
+            });
     return new SnapshotBuilderConceptsResponse().result(concepts);
   }
 
+  /**
+   * Materialize the snapshot's {@link ConceptHierarchyIndex} from its current snapshot builder
+   * settings, replacing any earlier index. The index has the children of the concepts in every
+   * domain option, with their roll-up counts, so that expanding a concept reads a few rows rather
+   * than joining concept_ancestor with the domain's occurrence table. The index is stamped with a
+   * fingerprint of the settings it was built from, and is only read while that matches the
+   * snapshot's settings. Only BigQuery snapshots are indexed.
+   */
+  public void createConceptHierarchyIndex(UUID snapshotId, AuthenticatedUserRequest userRequest)
+      throws InterruptedException {
+    Snapshot snapshot = snapshotService.retrieve(snapshotId);
+    if (!CloudPlatformWrapper.of(snapshot.getCloudPlatform()).isGcp()) {
+      logger.info("Not indexing the concept hierarchy of non-GCP snapshot {}", snapshotId);
+      return;
+    }
+    SnapshotBuilderSettings settings = snapshotBuilderSettingsDao.getBySnapshotId(snapshotId);
+    if (settings.getDomainOptions().isEmpty()) {
+      deleteConceptHierarchyIndex(snapshotId);
+      return;
+    }
+    SqlRenderContext context = createContext(snapshot, userRequest);
+    List<String> selectSqls =
+        settings.getDomainOptions().stream()
+            .map(
+                domainOption ->
+                    queryBuilderFactory
+                        .hierarchyQueryBuilder()
+                        .generateIndexQuery(domainOption)
+                        .renderSQL(context))
+            .toList();
+    Instant start = Instant.now();
+    bigQuerySnapshotPdao.createSnapshotBuilderTable(
+        snapshot,
+        ConceptHierarchyIndex.TABLE_NAME,
+        selectSqls,
+        conceptHierarchyIndexFingerprint(settings));
+    logger.info(
+        "{} seconds to index the concept hierarchy of snapshot {}",
+        Duration.between(start, Instant.now()).toSeconds(),
+        snapshotId);
+  }
+
+  public void deleteConceptHierarchyIndex(UUID snapshotId) {
+    Snapshot snapshot = snapshotService.retrieve(snapshotId);
+    if (CloudPlatformWrapper.of(snapshot.getCloudPlatform()).isGcp()) {
+      bigQuerySnapshotPdao.deleteSnapshotBuilderTable(snapshot, ConceptHierarchyIndex.TABLE_NAME);
+    }
+  }
+
+  /**
+   * @return a fingerprint of the settings that a {@link ConceptHierarchyIndex} is built from
+   */
+  @VisibleForTesting
+  static String conceptHierarchyIndexFingerprint(SnapshotBuilderSettings settings) {
+    try {
+      return Hashing.sha256()
+          .hashString(
+              objectMapper.writeValueAsString(settings.getDomainOptions()), StandardCharsets.UTF_8)
+          .toString();
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Could not fingerprint snapshot builder settings", e);
+    }
+  }
+
+  /** True if the snapshot has a concept hierarchy index built from its current settings. */
+  private boolean hasConceptHierarchyIndex(Snapshot snapshot, SnapshotBuilderSettings settings) {
+    if (!CloudPlatformWrapper.of(snapshot.getCloudPlatform()).isGcp()) {
+      return false;
+    }
+    Optional<String> description =
+        bigQuerySnapshotPdao.getSnapshotBuilderTableDescription(
+            snapshot, ConceptHierarchyIndex.TABLE_NAME);
+    return description.isPresent()
+        && description.get().equals(conceptHierarchyIndexFingerprint(settings));
+  }
+
   @VisibleForTesting
   SqlRenderContext createContext(Snapshot snapshot, AuthenticatedUserRequest userRequest) {
     CloudPlatformWrapper platform = CloudPlatformWrapper.of(snapshot.getCloudPlatform());
@@ -250,20 +382,25 @@ public class SnapshotBuilderService {
                     new BadRequestException(
                         "Invalid domain category is given: %s".formatted(domainId)));
 
-    Query query =
-        queryBuilderFactory
-            .enumerateConceptsQueryBuilder()
-            .buildEnumerateConceptsQuery(
-                snapshotBuilderDomainOption, filterText != null && !filterText.isEmpty());
-
     List<SnapshotBuilderConcept> concepts =
-        runSnapshotBuilderQuery(
-            query,
+        getCachedResult(
             snapshot,
-            userRequest,
-            Map.of(QueryBuilderFactory.FILTER_TEXT, filterText),
-            AggregateBQQueryResultsUtils::toConcept,
-            AggregateSynapseQueryResultsUtils::toConcept);
+            snapshotBuilderSettings,
+            Arrays.asList("enumerateConcepts", domainId, filterText),
+            () -> {
+              Query query =
+                  queryBuilderFactory
+                      .enumerateConceptsQueryBuilder()
+                      .buildEnumerateConceptsQuery(
+                          snapshotBuilderDomainOption, filterText != null && !filterText.isEmpty());
+              return runSnapshotBuilderQuery(
+                  query,
+                  snapshot,
+                  userRequest,
+                  Map.of(QueryBuilderFactory.FILTER_TEXT, filterText),
+                  AggregateBQQueryResultsUtils::toConcept,
+                  AggregateSynapseQueryResultsUtils::toConcept);
+            });
     return new SnapshotBuilderConceptsResponse().result(concepts);
   }
 
@@ -273,17 +410,22 @@ public class SnapshotBuilderService {
     SnapshotBuilderSettings snapshotBuilderSettings =
         snapshotBuilderSettingsDao.getBySnapshotId(snapshotId);
 
-    Query query =
-        queryBuilderFactory
-            .criteriaQueryBuilder(snapshotBuilderSettings)
-            .generateRollupCountsQueryForCohorts(cohorts);
-
-    return runSnapshotBuilderQuery(
-            query,
+    return getCachedResult(
             snapshot,
-            userRequest,
-            AggregateBQQueryResultsUtils::toCount,
-            AggregateSynapseQueryResultsUtils::toCount)
+            snapshotBuilderSettings,
+            Arrays.asList("rollupCount", cohorts),
+            () -> {
+              Query query =
+                  queryBuilderFactory
+                      .criteriaQueryBuilder(snapshotBuilderSettings)
+                      .generateRollupCountsQueryForCohorts(cohorts);
+              return runSnapshotBuilderQuery(
+                  query,
+                  snapshot,
+                  userRequest,
+                  AggregateBQQueryResultsUtils::toCount,
+                  AggregateSynapseQueryResultsUtils::toCount);
+            })
         .get(0);
   }
 
@@ -371,24 +513,45 @@ public class SnapshotBuilderService {
   public SnapshotBuilderGetConceptHierarchyResponse getConceptHierarchy(
       UUID snapshotId, int conceptId, AuthenticatedUserRequest userRequest) {
     Snapshot snapshot = snapshotService.retrieve(snapshotId);
+    SnapshotBuilderSettings settings = snapshotBuilderSettingsDao.getBySnapshotId(snapshotId);
 
-    var domainOption = getDomainOption(conceptId, snapshot, userRequest);
-    var query = queryBuilderFactory.hierarchyQueryBuilder().generateQuery(domainOption, conceptId);
+    List<ParentQueryResult> rows =
+        getCachedResult(
+            snapshot,
+            settings,
+            Arrays.asList("conceptHierarchy", conceptId),
+            () -> {
+              if (hasConceptHierarchyIndex(snapshot, settings)) {
+                List<ParentQueryResult> indexed =
+                    runSnapshotBuilderQuery(
+                        queryBuilderFactory.hierarchyQueryBuilder().generateIndexedQuery(conceptId),
+                        snapshot,
+                        userRequest,
+                        ParentQueryResult::new,
+                        ParentQueryResult::new);
+                if (!indexed.isEmpty()) {
+                  return indexed;
+                }
+              }
+              var domainOption = getDomainOption(conceptId, snapshot, userRequest);
+              var query =
+                  queryBuilderFactory
+                      .hierarchyQueryBuilder()
+                      .generateQuery(domainOption, conceptId);
+              return runSnapshotBuilderQuery(
+                  query, snapshot, userRequest, ParentQueryResult::new, ParentQueryResult::new);
+            });
 
+    // Build the response from the cached rows each time, since the response is mutable
     Map<Integer, SnapshotBuilderParentConcept> parents = new HashMap<>();
-    runSnapshotBuilderQuery(
-            query, snapshot, userRequest, ParentQueryResult::new, ParentQueryResult::new)
-        .forEach(
-            row -> {
-              SnapshotBuilderParentConcept parent =
-                  parents.computeIfAbsent(
-                      row.parentId,
-                      k ->
-                          new SnapshotBuilderParentConcept()
-                              .parentId(k)
-                              .children(new ArrayList<>()));
-              parent.addChildrenItem(row.toConcept());
-            });
+    rows.forEach(
+        row -> {
+          SnapshotBuilderParentConcept parent =
+              parents.computeIfAbsent(
+                  row.parentId,
+                  k -> new SnapshotBuilderParentConcept().parentId(k).children(new ArrayList<>()));
+          parent.addChildrenItem(row.toConcept());
+        });
     if (parents.isEmpty()) {
       throw new BadRequestException("No parents found for concept %s".formatted(conceptId));
     }
@@ -0,0 +1,43 @@
+package bio.terra.service.snapshotbuilder.flight;
+
+import bio.terra.common.exception.PdaoException;
+import bio.terra.common.iam.AuthenticatedUserRequest;
+import bio.terra.service.snapshotbuilder.SnapshotBuilderService;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import java.util.UUID;
+
+public class CreateConceptHierarchyIndexStep implements Step {
+
+  private final SnapshotBuilderService snapshotBuilderService;
+  private final UUID snapshotId;
+  private final AuthenticatedUserRequest userReq;
+
+  public CreateConceptHierarchyIndexStep(
+      SnapshotBuilderService snapshotBuilderService,
+      UUID snapshotId,
+      AuthenticatedUserRequest userReq) {
+    this.snapshotBuilderService = snapshotBuilderService;
+    this.snapshotId = snapshotId;
+    this.userReq = userReq;
+  }
+
+  @Override
+  public StepResult doStep(FlightContext context) throws InterruptedException {
+    try {
+      snapshotBuilderService.createConceptHierarchyIndex(snapshotId, userReq);
+    } catch (PdaoException ex) {
+      return new StepResult(StepStatus.STEP_RESULT_FAILURE_RETRY, ex);
+    }
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext context) {
+    // The index is replaced in a single statement, so a failed step leaves any earlier index as it
+    // was. An earlier index is only read while it was built from the current settings.
+    return StepResult.getStepResultSuccess();
+  }
+}
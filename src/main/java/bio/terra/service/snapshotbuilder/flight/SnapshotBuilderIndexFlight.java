@@ -0,0 +1,38 @@
+package bio.terra.service.snapshotbuilder.flight;
+
+import static bio.terra.common.FlightUtils.getDefaultRandomBackoffRetryRule;
+
+import bio.terra.app.configuration.ApplicationConfiguration;
+import bio.terra.common.iam.AuthenticatedUserRequest;
+import bio.terra.service.job.JobMapKeys;
+import bio.terra.service.snapshotbuilder.SnapshotBuilderService;
+import bio.terra.stairway.Flight;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.RetryRule;
+import java.util.UUID;
+import org.springframework.context.ApplicationContext;
+
+/** Materializes the concept hierarchy index of a snapshot from its snapshot builder settings. */
+public class SnapshotBuilderIndexFlight extends Flight {
+  public SnapshotBuilderIndexFlight(FlightMap inputParameters, Object applicationContext) {
+    super(inputParameters, applicationContext);
+    ApplicationContext appContext = (ApplicationContext) applicationContext;
+    ApplicationConfiguration appConfig = appContext.getBean(ApplicationConfiguration.class);
+    SnapshotBuilderService snapshotBuilderService =
+        appContext.getBean(SnapshotBuilderService.class);
+
+    // Input parameters
+    UUID snapshotId =
+        UUID.fromString(inputParameters.get(JobMapKeys.SNAPSHOT_ID.getKeyName(), String.class));
+    AuthenticatedUserRequest userReq =
+        inputParameters.get(JobMapKeys.AUTH_USER_INFO.getKeyName(), AuthenticatedUserRequest.class);
+
+    // Configurations
+    RetryRule indexRetry = getDefaultRandomBackoffRetryRule(appConfig.getMaxStairwayThreads());
+
+    // Steps
+    addStep(
+        new CreateConceptHierarchyIndexStep(snapshotBuilderService, snapshotId, userReq),
+        indexRetry);
+  }
+}
@@ -0,0 +1,50 @@
+package bio.terra.service.snapshotbuilder.query.table;
+
+import bio.terra.service.snapshotbuilder.query.FieldVariable;
+import bio.terra.service.snapshotbuilder.query.SourceVariable;
+import bio.terra.service.snapshotbuilder.query.TablePointer;
+import bio.terra.service.snapshotbuilder.utils.QueryBuilderFactory;
+
+/**
+ * A table materialized in a snapshot from its snapshot builder settings, with a row for each
+ * standard child of each concept in a configured domain: the child's name and code, its roll-up
+ * person count and whether it has children of its own. Its columns are named like the results of
+ * the concept children and hierarchy queries, so that it can be read in their place.
+ */
+public class ConceptHierarchyIndex extends Table {
+
+  public static final String TABLE_NAME = "datarepo_concept_hierarchy";
+  private static final TablePointer tablePointer = TablePointer.fromTableName(TABLE_NAME);
+
+  private ConceptHierarchyIndex() {
+    super(SourceVariable.forPrimary(tablePointer));
+  }
+
+  public static ConceptHierarchyIndex forPrimary() {
+    return new ConceptHierarchyIndex();
+  }
+
+  public FieldVariable parentId() {
+    return getFieldVariable(QueryBuilderFactory.PARENT_ID);
+  }
+
+  public FieldVariable conceptId() {
+    return getFieldVariable(Concept.CONCEPT_ID);
+  }
+
+  public FieldVariable name() {
+    return getFieldVariable(Concept.CONCEPT_NAME);
+  }
+
+  public FieldVariable conceptCode() {
+    return getFieldVariable(Concept.CONCEPT_CODE);
+  }
+
+  public FieldVariable count() {
+    return getFieldVariable(QueryBuilderFactory.COUNT);
+  }
+
+  public FieldVariable hasChildren() {
+    return getFieldVariable(QueryBuilderFactory.HAS_CHILDREN);
+  }
+}
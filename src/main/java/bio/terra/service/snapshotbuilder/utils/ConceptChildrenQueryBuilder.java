@@ -16,6 +16,7 @@ import bio.terra.service.snapshotbuilder.query.filtervariable.BinaryFilterVariab
 import bio.terra.service.snapshotbuilder.query.filtervariable.BooleanAndOrFilterVariable;
 import bio.terra.service.snapshotbuilder.query.table.Concept;
 import bio.terra.service.snapshotbuilder.query.table.ConceptAncestor;
+import bio.terra.service.snapshotbuilder.query.table.ConceptHierarchyIndex;
 import bio.terra.service.snapshotbuilder.query.table.ConceptRelationship;
 import bio.terra.service.snapshotbuilder.query.table.DomainOccurrence;
 import bio.terra.service.snapshotbuilder.query.table.Table;
@@ -90,6 +91,26 @@ public class ConceptChildrenQueryBuilder {
         .build();
   }
 
+  /**
+   * Generate a query that retrieves the children of the given concept and their roll-up counts
+   * from the {@link ConceptHierarchyIndex}.
+   */
+  public Query buildIndexedConceptChildrenQuery(int parentConceptId) {
+    ConceptHierarchyIndex index = ConceptHierarchyIndex.forPrimary();
+    return new Query.Builder()
+        .select(
+            List.of(
+                index.name(),
+                index.conceptId(),
+                index.conceptCode(),
+                index.count(),
+                index.hasChildren()))
+        .tables(List.of(index))
+        .where(BinaryFilterVariable.equals(index.parentId(), new Literal(parentConceptId)))
+        .orderBy(List.of(new OrderByVariable(index.name(), OrderByDirection.ASCENDING)))
+        .build();
+  }
+
   /**
    * Generate a query that retrieves the descendants of the given concept. We use concept
    * relationship here because it includes only the direct descendants.
@@ -13,6 +13,7 @@ import bio.terra.service.snapshotbuilder.query.filtervariable.BinaryFilterVariab
 import bio.terra.service.snapshotbuilder.query.filtervariable.BooleanAndOrFilterVariable;
 import bio.terra.service.snapshotbuilder.query.table.Concept;
 import bio.terra.service.snapshotbuilder.query.table.ConceptAncestor;
+import bio.terra.service.snapshotbuilder.query.table.ConceptHierarchyIndex;
 import bio.terra.service.snapshotbuilder.query.table.ConceptRelationship;
 import bio.terra.service.snapshotbuilder.query.table.DomainOccurrence;
 import bio.terra.service.snapshotbuilder.query.table.Table;
@@ -86,6 +87,77 @@ public class HierarchyQueryBuilder {
         .build();
   }
 
+  /**
+   * Generate a query for the rows of the {@link ConceptHierarchyIndex} for one domain: every
+   * standard child of every concept in the domain, with the child's roll-up count in the domain's
+   * occurrence table. Like {@link #generateQuery}, but for all parents rather than the ancestors of
+   * one concept.
+   */
+  public Query generateIndexQuery(SnapshotBuilderDomainOption domainOption) {
+    ConceptRelationship conceptRelationship = ConceptRelationship.forPrimary();
+    FieldVariable relationshipId = conceptRelationship.relationshipId();
+    FieldVariable parentId = conceptRelationship.getConceptId1();
+    FieldVariable childId = conceptRelationship.getConceptId2();
+    Concept child = Concept.joinConceptId(childId);
+    Concept parent = Concept.joinConceptId(parentId);
+    FieldVariable conceptName = child.name();
+    FieldVariable conceptCode = child.conceptCode();
+
+    SourceVariable joinHasChildren = makeHasChildrenJoin(childId);
+    ConceptAncestor conceptAncestor = ConceptAncestor.joinAncestor(childId);
+    DomainOccurrence domainOccurrence =
+        DomainOccurrence.leftJoinOn(domainOption, conceptAncestor.descendantConceptId());
+
+    return new Query.Builder()
+        .select(
+            List.of(
+                new SelectAlias(parentId, QueryBuilderFactory.PARENT_ID),
+                new SelectAlias(childId, Concept.CONCEPT_ID),
+                conceptName,
+                conceptCode,
+                domainOccurrence.countPerson(),
+                ConceptAncestor.selectHasChildren(joinHasChildren)))
+        .tables(
+            List.of(
+                conceptRelationship,
+                child,
+                parent,
+                new Table(joinHasChildren),
+                conceptAncestor,
+                domainOccurrence))
+        .where(
+            BooleanAndOrFilterVariable.and(
+                BinaryFilterVariable.equals(relationshipId, new Literal("Subsumes")),
+                parent.requireStandardConcept(),
+                child.requireStandardConcept(),
+                // A concept's children are counted in the domain of the concept
+                BinaryFilterVariable.equals(
+                    parent.domainId(), new Literal(domainOption.getName()))))
+        .groupBy(List.of(conceptName, parentId, childId, conceptCode))
+        .build();
+  }
+
+  /**
+   * Generate a query to find all parent concepts of a given concept, and for each parent all its
+   * children, from the {@link ConceptHierarchyIndex}.
+   */
+  public Query generateIndexedQuery(int conceptId) {
+    ConceptHierarchyIndex index = ConceptHierarchyIndex.forPrimary();
+    SourceVariable joinFilter = joinToFilterConcepts(index.parentId(), conceptId);
+    return new Query.Builder()
+        .select(
+            List.of(
+                index.parentId(),
+                index.conceptId(),
+                index.name(),
+                index.conceptCode(),
+                index.count(),
+                index.hasChildren()))
+        .tables(List.of(index, new Table(joinFilter)))
+        .orderBy(List.of(new OrderByVariable(index.name(), OrderByDirection.ASCENDING)))
+        .build();
+  }
+
   /**
    * Filter concept to only allow standard concepts. See <a
    * href="https://www.ohdsi.org/web/wiki/doku.php?id=documentation:vocabulary:standard_classification_and_source_concepts">Standard,
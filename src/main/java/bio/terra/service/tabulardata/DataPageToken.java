@@ -0,0 +1,126 @@
+package bio.terra.service.tabulardata;
+
+import bio.terra.common.SqlSortDirection;
+import bio.terra.service.tabulardata.exception.InvalidPageTokenException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Continuation token for paging through table data by keyset rather than by offset. A page after
+ * the first is read by seeking past the last row of the previous page, ordered by the sort column
+ * and then by row id, so no page has to skip over the rows before it.
+ *
+ * <p>The row counts are computed with the first page and carried along in the token, so the pages
+ * after it do not count the whole (filtered) table again. The token is opaque to clients, and is
+ * only valid for the sort, direction and filter it was issued for.
+ *
+ * @param sort the column the rows are sorted by
+ * @param direction the direction of the sort
+ * @param filterHash hash of the user filter
+ * @param afterRowId row id of the last row of the previous page
+ * @param rowsReturned number of rows returned in the pages so far
+ * @param filteredRowCount number of rows matching the filter
+ * @param totalRowCount number of rows in the table
+ */
+public record DataPageToken(
+    String sort,
+    SqlSortDirection direction,
+    String filterHash,
+    UUID afterRowId,
+    long rowsReturned,
+    int filteredRowCount,
+    int totalRowCount) {
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
+  /**
+   * Decode a page token from a request, checking that it continues the same query.
+   *
+   * @return the decoded token, or null if no token was given
+   * @throws InvalidPageTokenException if the token is malformed or was issued for another query
+   */
+  public static DataPageToken decode(
+      String pageToken, String sort, SqlSortDirection direction, String filter) {
+    if (StringUtils.isEmpty(pageToken)) {
+      return null;
+    }
+    DataPageToken token;
+    try {
+      token =
+          objectMapper.readValue(Base64.getUrlDecoder().decode(pageToken), DataPageToken.class);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new InvalidPageTokenException("Invalid page token", e);
+    }
+    if (token.afterRowId() == null
+        || !Objects.equals(token.sort(), sort)
+        || token.direction() != direction
+        || !Objects.equals(token.filterHash(), hashFilter(filter))) {
+      throw new InvalidPageTokenException(
+          "The page token was issued for a different sort, direction or filter");
+    }
+    return token;
+  }
+
+  /**
+   * Check the page read with this token. Tokens are only issued while rows remain, so an empty page
+   * means that the anchor row of the token is no longer in the table.
+   *
+   * @throws InvalidPageTokenException if the page is empty
+   */
+  public void checkPageRead(List<? extends DataResultModel> rows) {
+    if (rows.isEmpty()) {
+      throw new InvalidPageTokenException(
+          "The table changed since the page token was issued; start again from the first page");
+    }
+  }
+
+  /**
+   * Build the token for the page after the given rows, if there are more rows to read.
+   *
+   * @param previous the token the rows were read with, or null if they are the first page
+   * @param rows the rows of the page just read; each must have its page row id
+   * @param filteredRowCount number of rows matching the filter
+   * @param totalRowCount number of rows in the table
+   * @return the encoded token, or null if the page was the last one
+   */
+  public static String next(
+      DataPageToken previous,
+      String sort,
+      SqlSortDirection direction,
+      String filter,
+      List<? extends DataResultModel> rows,
+      int filteredRowCount,
+      int totalRowCount) {
+    long rowsReturned = (previous == null ? 0 : previous.rowsReturned()) + rows.size();
+    if (rows.isEmpty() || rowsReturned >= filteredRowCount) {
+      return null;
+    }
+    DataPageToken token =
+        new DataPageToken(
+            sort,
+            direction,
+            hashFilter(filter),
+            UUID.fromString(rows.get(rows.size() - 1).getPageRowId()),
+            rowsReturned,
+            filteredRowCount,
+            totalRowCount);
+    try {
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(objectMapper.writeValueAsBytes(token));
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to encode page token", e);
+    }
+  }
+
+  private static String hashFilter(String filter) {
+    return DigestUtils.sha256Hex(
+        StringUtils.defaultString(filter).getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -3,6 +3,8 @@ package bio.terra.service.tabulardata;
 public abstract class DataResultModel {
   protected int totalCount;
   protected int filteredCount;
+  // Row id of the row, used to continue paging after it. Only set for pages read by keyset.
+  protected String pageRowId;
 
   public int getTotalCount() {
     return this.totalCount;
@@ -11,4 +13,8 @@ public abstract class DataResultModel {
   public int getFilteredCount() {
     return filteredCount;
   }
+
+  public String getPageRowId() {
+    return pageRowId;
+  }
 }
@@ -0,0 +1,33 @@
+package bio.terra.service.tabulardata;
+
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.Step;
+import bio.terra.stairway.StepResult;
+import java.util.UUID;
+
+/**
+ * Drop the cached query results of a dataset or snapshot after a flight changes its data. Undoing
+ * the step drops them again, since results cached after the change would be stale once the earlier
+ * steps are undone.
+ */
+public class InvalidateTableDataCacheStep implements Step {
+  private final TableDataCache tableDataCache;
+  private final UUID resourceId;
+
+  public InvalidateTableDataCacheStep(TableDataCache tableDataCache, UUID resourceId) {
+    this.tableDataCache = tableDataCache;
+    this.resourceId = resourceId;
+  }
+
+  @Override
+  public StepResult doStep(FlightContext context) {
+    tableDataCache.invalidate(resourceId);
+    return StepResult.getStepResultSuccess();
+  }
+
+  @Override
+  public StepResult undoStep(FlightContext context) {
+    tableDataCache.invalidate(resourceId);
+    return StepResult.getStepResultSuccess();
+  }
+}
@@ -0,0 +1,171 @@
+package bio.terra.service.tabulardata;
+
+import bio.terra.model.ColumnStatisticsTextModel;
+import bio.terra.model.DatasetDataModel;
+import bio.terra.model.SnapshotPreviewModel;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.annotations.VisibleForTesting;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of the results of table data queries - data pages, snapshot previews and column statistics
+ * - so that re-rendering the same page or histogram does not run the same BigQuery or Synapse query
+ * again.
+ *
+ * <p>Snapshot data never changes, so snapshot results are kept until they are evicted for space or
+ * the snapshot is deleted. Dataset results are dropped when a flight changes the dataset's data.
+ * Only this instance's entries are dropped, so dataset results also expire after {@link
+ * #DATASET_RESULT_TTL} to bound how stale other instances can be.
+ *
+ * <p>The cache is bounded by the number of rows it holds, across all results, rather than by the
+ * number of results, since a page of wide rows can be far larger than a histogram. Queries run on
+ * the caller's thread, outside of the cache's locks, so that invalidating a resource never waits
+ * for a slow query to finish.
+ */
+@Component
+public class TableDataCache {
+  @VisibleForTesting static final String CACHE_NAME = "datarepo.tabulardata.results";
+  @VisibleForTesting static final long MAX_ROWS = 100_000;
+  @VisibleForTesting static final Duration DATASET_RESULT_TTL = Duration.ofMinutes(5);
+
+  private final AsyncCache<Key, Object> results;
+  // Bumped on every invalidation, so that a query that starts while one is running can tell
+  private final AtomicLong invalidations = new AtomicLong();
+
+  public TableDataCache(MeterRegistry meterRegistry) {
+    results =
+        Caffeine.newBuilder()
+            .maximumWeight(MAX_ROWS)
+            .weigher((Key key, Object value) -> weigh(value))
+            .expireAfter(new ResultExpiry(DATASET_RESULT_TTL))
+            .recordStats()
+            .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, results.synchronous(), CACHE_NAME);
+  }
+
+  /**
+   * @param resourceId the dataset or snapshot the query reads
+   * @param immutable true if the resource's data never changes, as for snapshots
+   * @param query everything else that determines the result: the operation, table, paging, sort
+   *     and filter
+   */
+  private record Key(UUID resourceId, boolean immutable, List<Object> query) {}
+
+  private record ResultExpiry(Duration mutableTtl) implements Expiry<Key, Object> {
+    @Override
+    public long expireAfterCreate(Key key, Object value, long currentTime) {
+      return key.immutable() ? Long.MAX_VALUE : mutableTtl.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(Key key, Object value, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Key key, Object value, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+
+  /**
+   * Return the cached result of a dataset query, or run the query and cache its result. Concurrent
+   * callers asking for the same result wait for a single query. Failed queries are not cached.
+   *
+   * @param datasetId the dataset the query reads
+   * @param query the values that determine the result; elements may be null
+   * @param loader runs the query
+   */
+  public <T> T getDatasetResult(UUID datasetId, List<Object> query, Supplier<T> loader) {
+    return get(datasetId, false, query, loader);
+  }
+
+  /**
+   * Return the cached result of a snapshot query, or run the query and cache its result.
+   *
+   * @see #getDatasetResult(UUID, List, Supplier)
+   */
+  public <T> T getSnapshotResult(UUID snapshotId, List<Object> query, Supplier<T> loader) {
+    return get(snapshotId, true, query, loader);
+  }
+
+  /**
+   * Drop the cached results of a dataset or snapshot, after its data is changed or it is deleted.
+   *
+   * @param resourceId the dataset or snapshot id
+   */
+  public void invalidate(UUID resourceId) {
+    invalidations.incrementAndGet();
+    // Also drops the results of queries still running, which are then only returned to the
+    // callers already waiting for them
+    results.asMap().keySet().removeIf(key -> key.resourceId().equals(resourceId));
+  }
+
+  /**
+   * The weight of a result is its number of rows, or values for column statistics, plus one so
+   * that rowless results are still bounded.
+   */
+  @VisibleForTesting
+  static int weigh(Object result) {
+    List<?> rows = null;
+    if (result instanceof List<?> list) {
+      rows = list;
+    } else if (result instanceof DatasetDataModel data) {
+      rows = data.getResult();
+    } else if (result instanceof SnapshotPreviewModel preview) {
+      rows = preview.getResult();
+    } else if (result instanceof ColumnStatisticsTextModel statistics) {
+      rows = statistics.getValues();
+    }
+    return 1 + (rows == null ? 0 : rows.size());
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T get(UUID resourceId, boolean immutable, List<Object> query, Supplier<T> loader) {
+    Key key = new Key(resourceId, immutable, query);
+    long invalidationsBefore = invalidations.get();
+    CompletableFuture<Object> pending = new CompletableFuture<>();
+    CompletableFuture<Object> cached = results.asMap().putIfAbsent(key, pending);
+    if (cached != null) {
+      return (T) join(cached);
+    }
+    if (invalidations.get() != invalidationsBefore) {
+      // An invalidation may have run before the result was added, so it cannot be cached
+      results.asMap().remove(key, pending);
+    }
+    try {
+      T result = loader.get();
+      pending.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      // Failed results are dropped from the cache
+      pending.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static Object join(CompletableFuture<Object> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+}
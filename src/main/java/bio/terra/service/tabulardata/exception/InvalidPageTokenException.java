@@ -0,0 +1,14 @@
+package bio.terra.service.tabulardata.exception;
+
+import bio.terra.common.exception.BadRequestException;
+
+public class InvalidPageTokenException extends BadRequestException {
+
+  public InvalidPageTokenException(String message) {
+    super(message);
+  }
+
+  public InvalidPageTokenException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
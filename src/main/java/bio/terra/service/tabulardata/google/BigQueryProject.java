@@ -15,6 +15,8 @@ import com.google.cloud.bigquery.BigQueryOptions;
 import com.google.cloud.bigquery.Dataset;
 import com.google.cloud.bigquery.DatasetId;
 import com.google.cloud.bigquery.DatasetInfo;
+import com.google.cloud.bigquery.Job;
+import com.google.cloud.bigquery.JobInfo;
 import com.google.cloud.bigquery.QueryJobConfiguration;
 import com.google.cloud.bigquery.QueryParameterValue;
 import com.google.cloud.bigquery.Schema;
@@ -214,6 +216,32 @@ public final class BigQueryProject {
     return query(sql, Map.of());
   }
 
+  /**
+   * Run a query and return the temporary table BigQuery writes its results to, so that a large
+   * result can be read with a {@link BigQueryRowReader} rather than paged through.
+   */
+  public TableId queryToTable(String sql, Map<String, QueryParameterValue> values)
+      throws InterruptedException {
+    try {
+      QueryJobConfiguration queryConfig =
+          QueryJobConfiguration.newBuilder(sql).setNamedParameters(values).build();
+      logQuery(queryConfig);
+      Job job = bigQuery.create(JobInfo.of(queryConfig)).waitFor();
+      if (job == null) {
+        throw new PdaoException("Query job no longer exists...\n" + sql);
+      }
+      if (job.getStatus().getError() != null) {
+        throw new PdaoException(
+            "Failure executing query...\n" + sql,
+            new BigQueryException(job.getStatus().getExecutionErrors()));
+      }
+      QueryJobConfiguration completedConfig = job.getConfiguration();
+      return completedConfig.getDestinationTable();
+    } catch (BigQueryException e) {
+      throw new PdaoException("Failure executing query...\n" + sql, e);
+    }
+  }
+
   public TableResult query(String sql, Map<String, QueryParameterValue> values)
       throws InterruptedException {
     try {
@@ -0,0 +1,28 @@
+package bio.terra.service.tabulardata.google;
+
+import com.google.cloud.bigquery.TableId;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Reads every row of a BigQuery table, without paging through the rows with the tabledata.list
+ * REST API. Use {@link BigQueryProject#queryToTable} to read the result of a query.
+ */
+public interface BigQueryRowReader {
+
+  /**
+   * Pass each row of a table to a consumer until it asks to stop. Rows are read from several
+   * streams at once, so the consumer may be called concurrently and rows arrive in no particular
+   * order. Once the consumer returns false, reading stops, though rows already being decoded on
+   * other streams may still be passed to it.
+   *
+   * @param tableId the table to read
+   * @param fields the names of the fields to read
+   * @param rowConsumer receives each row as a map of field name to value: a String, Long, Double,
+   *     Boolean or ByteBuffer, a List of those for a repeated field, or null. Returns false to
+   *     stop reading.
+   */
+  void readTable(TableId tableId, List<String> fields, Predicate<Map<String, Object>> rowConsumer)
+      throws InterruptedException;
+}
@@ -0,0 +1,59 @@
+package bio.terra.service.tabulardata.google;
+
+import bio.terra.common.exception.PdaoException;
+import com.google.cloud.bigquery.storage.v1.BigQueryReadClient;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Builds {@link BigQueryRowReader}s billed to a given project. Every reader shares one Storage Read
+ * API client, which holds a gRPC channel and its threads, and one pool of threads to read streams
+ * on. The client uses the application default credentials, like the BigQuery client of {@link
+ * BigQueryProject}; it is created on first use and closed with the pool on shutdown.
+ */
+@Component
+public class BigQueryRowReaderFactory {
+  // Enough for a few tables to be read at once with their maximum number of streams
+  static final int READ_THREADS = 4 * BigQueryStorageRowReader.MAX_STREAMS;
+
+  private final ExecutorService executor;
+  private BigQueryReadClient readClient;
+
+  public BigQueryRowReaderFactory() {
+    executor =
+        Executors.newFixedThreadPool(
+            READ_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("bq-row-reader-%d").setDaemon(true).build());
+  }
+
+  /**
+   * @param billingProjectId the project that read sessions are created in and billed to
+   * @return a reader for large tables and query results
+   */
+  public BigQueryRowReader forProject(String billingProjectId) {
+    return new BigQueryStorageRowReader(billingProjectId, getReadClient(), executor);
+  }
+
+  private synchronized BigQueryReadClient getReadClient() {
+    if (readClient == null) {
+      try {
+        readClient = BigQueryReadClient.create();
+      } catch (IOException e) {
+        throw new PdaoException("Failed to create BigQuery Storage read client", e);
+      }
+    }
+    return readClient;
+  }
+
+  @PreDestroy
+  public synchronized void close() {
+    if (readClient != null) {
+      readClient.close();
+    }
+    executor.shutdownNow();
+  }
+}
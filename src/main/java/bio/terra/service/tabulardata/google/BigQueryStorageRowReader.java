@@ -0,0 +1,161 @@
+package bio.terra.service.tabulardata.google;
+
+import bio.terra.common.FutureUtils;
+import bio.terra.common.exception.PdaoException;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.ServerStream;
+import com.google.cloud.bigquery.TableId;
+import com.google.cloud.bigquery.storage.v1.BigQueryReadClient;
+import com.google.cloud.bigquery.storage.v1.CreateReadSessionRequest;
+import com.google.cloud.bigquery.storage.v1.DataFormat;
+import com.google.cloud.bigquery.storage.v1.ReadRowsRequest;
+import com.google.cloud.bigquery.storage.v1.ReadRowsResponse;
+import com.google.cloud.bigquery.storage.v1.ReadSession;
+import com.google.cloud.bigquery.storage.v1.ReadStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import org.apache.avro.Schema;
+import org.apache.avro.generic.GenericDatumReader;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.io.BinaryDecoder;
+import org.apache.avro.io.DatumReader;
+import org.apache.avro.io.DecoderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads tables with the BigQuery Storage Read API: a read session splits the table into up to
+ * {@link #MAX_STREAMS} streams of Avro-encoded rows, which are read in parallel. Unlike paging
+ * through a query result with tabledata.list, rows are decoded as they arrive and never held as a
+ * whole page.
+ */
+public class BigQueryStorageRowReader implements BigQueryRowReader {
+  private static final Logger logger = LoggerFactory.getLogger(BigQueryStorageRowReader.class);
+  static final int MAX_STREAMS = 8;
+
+  private final String billingProjectId;
+  private final BigQueryReadClient readClient;
+  private final ExecutorService executor;
+
+  /**
+   * @param billingProjectId the project that read sessions are created in and billed to
+   * @param readClient the client to read with
+   * @param executor the pool that streams are read on
+   */
+  public BigQueryStorageRowReader(
+      String billingProjectId, BigQueryReadClient readClient, ExecutorService executor) {
+    this.billingProjectId = billingProjectId;
+    this.readClient = readClient;
+    this.executor = executor;
+  }
+
+  @Override
+  public void readTable(
+      TableId tableId, List<String> fields, Predicate<Map<String, Object>> rowConsumer)
+      throws InterruptedException {
+    ReadSession session;
+    try {
+      session = createReadSession(tableId, fields);
+    } catch (ApiException e) {
+      throw new PdaoException("Failure creating read session for table " + tableId, e);
+    }
+    List<ReadStream> streams = session.getStreamsList();
+    logger.info("Reading table {} in {} streams", tableId, streams.size());
+    if (streams.isEmpty()) {
+      // The table has no rows
+      return;
+    }
+    Schema schema = new Schema.Parser().parse(session.getAvroSchema().getSchema());
+
+    AtomicBoolean stopped = new AtomicBoolean();
+    List<Future<Void>> futures = new ArrayList<>();
+    for (ReadStream stream : streams) {
+      futures.add(
+          executor.submit(
+              () -> {
+                readStream(stream, schema, fields, rowConsumer, stopped);
+                return null;
+              }));
+    }
+    try {
+      FutureUtils.waitFor(futures);
+    } finally {
+      // Don't leave streams of a failed read running on the shared pool
+      stopped.set(true);
+    }
+  }
+
+  private ReadSession createReadSession(TableId tableId, List<String> fields) {
+    String table =
+        String.format(
+            "projects/%s/datasets/%s/tables/%s",
+            tableId.getProject(), tableId.getDataset(), tableId.getTable());
+    ReadSession.TableReadOptions readOptions =
+        ReadSession.TableReadOptions.newBuilder().addAllSelectedFields(fields).build();
+    return readClient.createReadSession(
+        CreateReadSessionRequest.newBuilder()
+            .setParent("projects/" + billingProjectId)
+            .setReadSession(
+                ReadSession.newBuilder()
+                    .setTable(table)
+                    .setDataFormat(DataFormat.AVRO)
+                    .setReadOptions(readOptions))
+            .setMaxStreamCount(MAX_STREAMS)
+            .build());
+  }
+
+  private void readStream(
+      ReadStream stream,
+      Schema schema,
+      List<String> fields,
+      Predicate<Map<String, Object>> rowConsumer,
+      AtomicBoolean stopped)
+      throws IOException {
+    DatumReader<GenericRecord> datumReader = new GenericDatumReader<>(schema);
+    BinaryDecoder decoder = null;
+    GenericRecord record = null;
+    ReadRowsRequest request = ReadRowsRequest.newBuilder().setReadStream(stream.getName()).build();
+    ServerStream<ReadRowsResponse> responses = readClient.readRowsCallable().call(request);
+    for (ReadRowsResponse response : responses) {
+      if (stopped.get()) {
+        // The consumer, maybe on another stream, asked to stop; don't wait for the rest of the rows
+        responses.cancel();
+        return;
+      }
+      decoder =
+          DecoderFactory.get()
+              .binaryDecoder(
+                  response.getAvroRows().getSerializedBinaryRows().toByteArray(), decoder);
+      while (!decoder.isEnd()) {
+        // Reuse the record; its values are copied out before the next row is read
+        record = datumReader.read(record, decoder);
+        Map<String, Object> row = new HashMap<>();
+        for (String field : fields) {
+          row.put(field, toValue(record.get(field)));
+        }
+        if (!rowConsumer.test(row)) {
+          stopped.set(true);
+          responses.cancel();
+          return;
+        }
+      }
+    }
+  }
+
+  private static Object toValue(Object avroValue) {
+    if (avroValue instanceof CharSequence charSequence) {
+      return charSequence.toString();
+    }
+    if (avroValue instanceof List<?> list) {
+      return list.stream().map(BigQueryStorageRowReader::toValue).toList();
+    }
+    return avroValue;
+  }
+}
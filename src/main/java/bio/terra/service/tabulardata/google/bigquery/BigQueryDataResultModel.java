@@ -30,4 +30,9 @@ public class BigQueryDataResultModel extends DataResultModel {
     this.filteredCount = filteredCount;
     return this;
   }
+
+  public BigQueryDataResultModel pageRowId(String pageRowId) {
+    this.pageRowId = pageRowId;
+    return this;
+  }
 }
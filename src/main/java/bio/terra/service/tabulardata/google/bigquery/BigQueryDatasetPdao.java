@@ -43,6 +43,7 @@ import bio.terra.service.tabulardata.LoadHistoryUtil;
 import bio.terra.service.tabulardata.exception.BadExternalFileException;
 import bio.terra.service.tabulardata.exception.MismatchedRowIdException;
 import bio.terra.service.tabulardata.google.BigQueryProject;
+import bio.terra.service.tabulardata.google.BigQueryRowReaderFactory;
 import com.google.cloud.bigquery.BigQuery;
 import com.google.cloud.bigquery.BigQueryError;
 import com.google.cloud.bigquery.BigQueryException;
@@ -74,10 +75,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.stringtemplate.v4.ST;
@@ -88,6 +91,13 @@ public class BigQueryDatasetPdao {
 
   private static final Logger logger = LoggerFactory.getLogger(BigQueryDatasetPdao.class);
 
+  private final BigQueryRowReaderFactory rowReaderFactory;
+
+  @Autowired
+  public BigQueryDatasetPdao(BigQueryRowReaderFactory rowReaderFactory) {
+    this.rowReaderFactory = rowReaderFactory;
+  }
+
   public void createDataset(Dataset dataset) throws InterruptedException {
     BigQueryProject bigQueryProject = BigQueryProject.from(dataset);
     BigQuery bigQuery = bigQueryProject.getBigQuery();
@@ -579,32 +589,24 @@ public class BigQueryDatasetPdao {
     bigQueryProject.query(sqlTemplate.render());
   }
 
-  private static final String getRefIdsTemplate =
-      "SELECT <refCol> FROM `<project>.<dataset>.<table>`"
-          + "<if(array)> CROSS JOIN UNNEST(<refCol>) AS <refCol><endif>";
-
-  public List<String> getRefIds(Dataset dataset, String tableName, Column refColumn)
+  /**
+   * Stream every value of a fileref column with the BigQuery Storage Read API, so that a staging
+   * table with many millions of file references is neither paged through as a query result nor
+   * held in memory. Values are passed to the consumer, possibly concurrently and with repeats,
+   * until it returns false.
+   */
+  public void streamRefIds(
+      Dataset dataset, String tableName, Column refColumn, Predicate<String> refIdConsumer)
       throws InterruptedException {
     BigQueryProject bigQueryProject = BigQueryProject.from(dataset);
-
-    ST sqlTemplate =
-        new ST(getRefIdsTemplate)
-            .add("project", bigQueryProject.getProjectId())
-            .add("dataset", BigQueryPdao.prefixName(dataset.getName()))
-            .add("table", tableName)
-            .add("refCol", refColumn.getName())
-            .add("array", refColumn.isArrayOf());
-
-    TableResult result = bigQueryProject.query(sqlTemplate.render());
-    List<String> refIdArray = new ArrayList<>();
-    for (FieldValueList row : result.iterateAll()) {
-      if (!row.get(0).isNull()) {
-        String refId = row.get(0).getStringValue();
-        refIdArray.add(refId);
-      }
-    }
-
-    return refIdArray;
+    TableId tableId =
+        TableId.of(
+            bigQueryProject.getProjectId(), BigQueryPdao.prefixName(dataset.getName()), tableName);
+    BigQueryPdao.streamRefIds(
+        rowReaderFactory.forProject(bigQueryProject.getProjectId()),
+        tableId,
+        refColumn.getName(),
+        refIdConsumer);
   }
 
   private static final String insertIntoDatasetTableTemplate =
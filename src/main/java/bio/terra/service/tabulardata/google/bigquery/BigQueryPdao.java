@@ -6,6 +6,8 @@ import static bio.terra.common.PdaoConstant.PDAO_EXTERNAL_TABLE_PREFIX;
 import static bio.terra.common.PdaoConstant.PDAO_FILTERED_ROW_COUNT_COLUMN_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_MAX_VALUE_COLUMN_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_MIN_VALUE_COLUMN_NAME;
+import static bio.terra.common.PdaoConstant.PDAO_PAGE_ANCHOR_COLUMN_NAME;
+import static bio.terra.common.PdaoConstant.PDAO_PAGE_ROW_ID_COLUMN_NAME;
 import static bio.terra.common.PdaoConstant.PDAO_PREFIX;
 import static bio.terra.common.PdaoConstant.PDAO_ROW_ID_COLUMN;
 import static bio.terra.common.PdaoConstant.PDAO_TOTAL_ROW_COUNT_COLUMN_NAME;
@@ -22,17 +24,25 @@ import bio.terra.model.ColumnStatisticsTextValue;
 import bio.terra.service.common.QueryUtils;
 import bio.terra.service.filedata.FSContainerInterface;
 import bio.terra.service.tabulardata.google.BigQueryProject;
+import bio.terra.service.tabulardata.google.BigQueryRowReader;
 import com.google.cloud.bigquery.Acl;
 import com.google.cloud.bigquery.BigQueryException;
 import com.google.cloud.bigquery.FieldList;
 import com.google.cloud.bigquery.FieldValue;
 import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.QueryParameterValue;
+import com.google.cloud.bigquery.TableId;
 import com.google.cloud.bigquery.TableResult;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -83,6 +93,43 @@ public abstract class BigQueryPdao {
     return PDAO_PREFIX + name;
   }
 
+  /**
+   * Read the non-null values of a fileref column, flattening array columns, with a {@link
+   * BigQueryRowReader}.
+   */
+  static List<String> readRefIds(BigQueryRowReader rowReader, TableId tableId, String refCol)
+      throws InterruptedException {
+    Queue<String> refIds = new ConcurrentLinkedQueue<>();
+    streamRefIds(rowReader, tableId, refCol, refIds::add);
+    return new ArrayList<>(refIds);
+  }
+
+  /**
+   * Pass the non-null values of a fileref column, flattening array columns, to a consumer until it
+   * returns false. The consumer may be called concurrently, and sees repeated values each time
+   * they occur.
+   */
+  static void streamRefIds(
+      BigQueryRowReader rowReader,
+      TableId tableId,
+      String refCol,
+      Predicate<String> refIdConsumer)
+      throws InterruptedException {
+    rowReader.readTable(
+        tableId,
+        List.of(refCol),
+        row -> {
+          Object value = row.get(refCol);
+          if (value instanceof List<?> values) {
+            return values.stream()
+                .filter(Objects::nonNull)
+                .map(Object::toString)
+                .allMatch(refIdConsumer);
+          }
+          return value == null || refIdConsumer.test(value.toString());
+        });
+  }
+
   static String externalTableName(String tableName, String suffix) {
     return String.format("%s%s_%s", PDAO_EXTERNAL_TABLE_PREFIX, tableName, suffix);
   }
@@ -132,6 +179,31 @@ public abstract class BigQueryPdao {
   public static final String DATA_FILTER_TEMPLATE =
       "<whereClause> ORDER BY <sort> <direction> LIMIT <limit> OFFSET <offset>";
 
+  // Rows are ordered by the sort column and then by row id, so a page can continue after the last
+  // row of the previous page by seeking past it. The row counts are only computed for the first
+  // page.
+  public static final String DATA_PAGE_TEMPLATE =
+      """
+        WITH filtered_rows AS (
+          SELECT * FROM (
+            SELECT <pdaoRowIdColumn><columns><if(includeTotalRowCount)>, count(*) over () AS <totalRowCountColumnName><endif>
+            FROM <table>)
+          <whereClause>)
+        SELECT <columns>, <rowIdColumn> AS <pageRowIdColumnName>
+          <if(includeCounts)>
+            <if(includeTotalRowCount)>, <totalRowCountColumnName><endif>,
+            count(*) over () <filteredRowCountColumnName>
+          <endif>
+        FROM filtered_rows
+        <if(seekCondition)>
+        CROSS JOIN (
+          SELECT <sort> AS <pageAnchorColumnName> FROM filtered_rows WHERE <rowIdColumn> = @afterRowId)
+        WHERE <seekCondition>
+        <endif>
+        ORDER BY <sort> <direction>, <rowIdColumn> <direction>
+        LIMIT <limit>
+      """;
+
   public static final String TABLE_ROW_COUNT_TEMPLATE =
       """
         SELECT count(*) <totalRowCountColumnName> FROM <table>
@@ -198,21 +270,7 @@ public abstract class BigQueryPdao {
     boolean isDataset = tdrResource.getCollectionType().equals(CollectionType.DATASET);
 
     String columns = String.join(",", columnNames);
-    // Parse before querying because the where clause is user-provided
-    // TODO - This code should be shared with Azure equivalent call (DR-2937)
-    final String sql =
-        new ST(DATA_TEMPLATE)
-            .add("columns", columns)
-            .add("table", bqTableName(tdrResource, tableName))
-            .add("filterParams", QueryUtils.formatAndParseUserFilter(filter))
-            .add("includeTotalRowCount", isDataset)
-            .add("totalRowCountColumnName", PDAO_TOTAL_ROW_COUNT_COLUMN_NAME)
-            .add("filteredRowCountColumnName", PDAO_FILTERED_ROW_COUNT_COLUMN_NAME)
-            .add(
-                "pdaoRowIdColumn",
-                columnNames.contains(PDAO_ROW_ID_COLUMN) ? "" : PDAO_ROW_ID_COLUMN + ",")
-            .render();
-    Query.parse(sql);
+    validateDataQuery(tdrResource, tableName, columnNames, filter);
 
     // The bigquery sql table name must be enclosed in backticks
     final String filterParams =
@@ -240,6 +298,88 @@ public abstract class BigQueryPdao {
     return aggregateTableData(result);
   }
 
+  /**
+   * Read a page of table data by keyset: the page starts after the row with the given row id, in
+   * the order of the sort column and then the row id. Each result row carries its page row id, so
+   * the next page can start after the last of them.
+   *
+   * <p>WARNING: Ensure input parameters are validated before executing this method!
+   *
+   * @param afterRowId row id of the last row of the previous page, or null to read the first page.
+   *     The filtered and total row counts are only included in the first page.
+   */
+  public static List<BigQueryDataResultModel> getTablePage(
+      FSContainerInterface tdrResource,
+      String tableName,
+      List<String> columnNames,
+      int limit,
+      String sort,
+      SqlSortDirection direction,
+      String filter,
+      UUID afterRowId)
+      throws InterruptedException {
+    boolean isDataset = tdrResource.getCollectionType().equals(CollectionType.DATASET);
+    boolean firstPage = afterRowId == null;
+    validateDataQuery(tdrResource, tableName, columnNames, filter);
+
+    final String bigQuerySQL =
+        new ST(DATA_PAGE_TEMPLATE)
+            .add("columns", String.join(",", columnNames))
+            .add("table", bqFullyQualifiedTableName(tdrResource, tableName))
+            .add("whereClause", QueryUtils.formatAndParseUserFilter(filter))
+            .add("includeCounts", firstPage)
+            .add("includeTotalRowCount", isDataset && firstPage)
+            .add("totalRowCountColumnName", PDAO_TOTAL_ROW_COUNT_COLUMN_NAME)
+            .add("filteredRowCountColumnName", PDAO_FILTERED_ROW_COUNT_COLUMN_NAME)
+            .add(
+                "pdaoRowIdColumn",
+                columnNames.contains(PDAO_ROW_ID_COLUMN) ? "" : PDAO_ROW_ID_COLUMN + ",")
+            .add("rowIdColumn", PDAO_ROW_ID_COLUMN)
+            .add("pageRowIdColumnName", PDAO_PAGE_ROW_ID_COLUMN_NAME)
+            .add("pageAnchorColumnName", PDAO_PAGE_ANCHOR_COLUMN_NAME)
+            .add(
+                "seekCondition",
+                firstPage
+                    ? null
+                    : QueryUtils.keysetSeekCondition(
+                        sort,
+                        PDAO_PAGE_ANCHOR_COLUMN_NAME,
+                        PDAO_ROW_ID_COLUMN,
+                        "@afterRowId",
+                        direction))
+            .add("sort", sort)
+            .add("direction", direction)
+            .add("limit", limit)
+            .render();
+    final BigQueryProject bigQueryProject = BigQueryProject.from(tdrResource);
+    final TableResult result =
+        bigQueryProject.query(
+            bigQuerySQL,
+            firstPage
+                ? Map.of()
+                : Map.of("afterRowId", QueryParameterValue.string(afterRowId.toString())));
+    return aggregateTableData(result);
+  }
+
+  // Parse before querying because the where clause is user-provided
+  // TODO - This code should be shared with Azure equivalent call (DR-2937)
+  private static void validateDataQuery(
+      FSContainerInterface tdrResource, String tableName, List<String> columnNames, String filter) {
+    final String sql =
+        new ST(DATA_TEMPLATE)
+            .add("columns", String.join(",", columnNames))
+            .add("table", bqTableName(tdrResource, tableName))
+            .add("filterParams", QueryUtils.formatAndParseUserFilter(filter))
+            .add("includeTotalRowCount", tdrResource.isDataset())
+            .add("totalRowCountColumnName", PDAO_TOTAL_ROW_COUNT_COLUMN_NAME)
+            .add("filteredRowCountColumnName", PDAO_FILTERED_ROW_COUNT_COLUMN_NAME)
+            .add(
+                "pdaoRowIdColumn",
+                columnNames.contains(PDAO_ROW_ID_COLUMN) ? "" : PDAO_ROW_ID_COLUMN + ",")
+            .render();
+    Query.parse(sql);
+  }
+
   public static List<BigQueryDataResultModel> aggregateTableData(TableResult result) {
     FieldList columns = result.getSchema().getFields();
     final List<BigQueryDataResultModel> values = new ArrayList<>();
@@ -256,6 +396,8 @@ public abstract class BigQueryPdao {
                     Object value;
                     if (columnName.equals(PDAO_FILTERED_ROW_COUNT_COLUMN_NAME)) {
                       resultModel.filteredCount((int) fieldValue.getLongValue());
+                    } else if (columnName.equals(PDAO_PAGE_ROW_ID_COLUMN_NAME)) {
+                      resultModel.pageRowId(fieldValue.getStringValue());
                     } else if (columnName.equals(PDAO_TOTAL_ROW_COUNT_COLUMN_NAME)) {
                       resultModel.totalCount((int) fieldValue.getLongValue());
                     } else {
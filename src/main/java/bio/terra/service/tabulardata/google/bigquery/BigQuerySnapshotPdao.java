@@ -32,6 +32,7 @@ import bio.terra.service.snapshot.SnapshotTable;
 import bio.terra.service.snapshot.exception.MismatchedValueException;
 import bio.terra.service.tabulardata.WalkRelationship;
 import bio.terra.service.tabulardata.google.BigQueryProject;
+import bio.terra.service.tabulardata.google.BigQueryRowReaderFactory;
 import com.google.cloud.bigquery.Acl;
 import com.google.cloud.bigquery.BigQuery;
 import com.google.cloud.bigquery.BigQueryException;
@@ -76,13 +77,16 @@ public class BigQuerySnapshotPdao {
   private static final int TABLE_UNION_BATCH_SIZE = 10;
   private final String datarepoDnsName;
   private final BigQueryConfiguration bigQueryConfiguration;
+  private final BigQueryRowReaderFactory rowReaderFactory;
 
   @Autowired
   public BigQuerySnapshotPdao(
       ApplicationConfiguration applicationConfiguration,
-      BigQueryConfiguration bigQueryConfiguration) {
+      BigQueryConfiguration bigQueryConfiguration,
+      BigQueryRowReaderFactory rowReaderFactory) {
     this.datarepoDnsName = applicationConfiguration.getDnsName();
     this.bigQueryConfiguration = bigQueryConfiguration;
+    this.rowReaderFactory = rowReaderFactory;
   }
 
   private static final String loadRootRowIdsTemplate =
@@ -559,16 +563,11 @@ public class BigQuerySnapshotPdao {
             .add("refCol", refColumn.getName())
             .add("array", refColumn.isArrayOf());
 
-    TableResult result = snapshotBigQueryProject.query(sqlTemplate.render());
-    List<String> refIdArray = new ArrayList<>();
-    for (FieldValueList row : result.iterateAll()) {
-      if (!row.get(0).isNull()) {
-        String refId = row.get(0).getStringValue();
-        refIdArray.add(refId);
-      }
-    }
-
-    return refIdArray;
+    TableId resultTable = snapshotBigQueryProject.queryToTable(sqlTemplate.render(), Map.of());
+    return BigQueryPdao.readRefIds(
+        rowReaderFactory.forProject(snapshotBigQueryProject.getProjectId()),
+        resultTable,
+        refColumn.getName());
   }
 
   // insert the rowIds into the snapshot row ids table and then kick off the rest of the
@@ -812,6 +811,46 @@ public class BigQuerySnapshotPdao {
     return aggregateTableData(result);
   }
 
+  private static final String createSnapshotBuilderTableTemplate =
+      "CREATE OR REPLACE TABLE `<project>.<snapshot>.<table>` "
+          + "OPTIONS (description = '<description>') AS <selects; separator=\" UNION ALL \">";
+
+  /**
+   * Create or replace a table in the snapshot's BigQuery dataset with the union of the rows of the
+   * given queries. The snapshot builder materializes query results in such tables.
+   *
+   * @param description stored as the table's description; must not contain quotes
+   */
+  public void createSnapshotBuilderTable(
+      Snapshot snapshot, String tableName, List<String> selectSqls, String description)
+      throws InterruptedException {
+    BigQueryProject bigQueryProject = BigQueryProject.from(snapshot);
+    String sql =
+        new ST(createSnapshotBuilderTableTemplate)
+            .add("project", bigQueryProject.getProjectId())
+            .add("snapshot", snapshot.getName())
+            .add("table", tableName)
+            .add("description", description)
+            .add("selects", selectSqls)
+            .render();
+    bigQueryProject.query(sql);
+  }
+
+  /**
+   * @return the description of a table in the snapshot's BigQuery dataset, or empty if there is
+   *     no such table
+   */
+  public Optional<String> getSnapshotBuilderTableDescription(Snapshot snapshot, String tableName) {
+    BigQueryProject bigQueryProject = BigQueryProject.from(snapshot);
+    TableId tableId = TableId.of(bigQueryProject.getProjectId(), snapshot.getName(), tableName);
+    return Optional.ofNullable(bigQueryProject.getBigQuery().getTable(tableId))
+        .map(table -> Objects.requireNonNullElse(table.getDescription(), ""));
+  }
+
+  public boolean deleteSnapshotBuilderTable(Snapshot snapshot, String tableName) {
+    return BigQueryProject.from(snapshot).deleteTable(snapshot.getName(), tableName);
+  }
+
   // we select from the live view here so that the row counts take into account rows that have been
   // hard deleted
   private static final String rowCountTemplate =
@@ -1,6 +1,7 @@
 package bio.terra.service.tags;
 
 import bio.terra.common.DaoUtils;
+import bio.terra.common.MetadataReadRouter;
 import bio.terra.model.TagCount;
 import bio.terra.model.TagUpdateRequestModel;
 import java.sql.Array;
@@ -27,6 +28,8 @@ public interface TaggableResourceDao {
 
   DataSource getJdbcDataSource();
 
+  MetadataReadRouter getReadRouter();
+
   String getTable();
 
   /**
@@ -35,10 +38,6 @@ public interface TaggableResourceDao {
    * @param limit maximum number of tags to return, or all if unspecified
    * @return accessible resource tags and their occurrence counts matching specified filters
    */
-  @Transactional(
-      readOnly = true,
-      propagation = Propagation.REQUIRED,
-      isolation = Isolation.SERIALIZABLE)
   default List<TagCount> getTags(Collection<UUID> ids, String filter, Integer limit) {
     MapSqlParameterSource params = new MapSqlParameterSource();
     List<String> whereClauses = new ArrayList<>();
@@ -64,7 +63,8 @@ public interface TaggableResourceDao {
       params.addValue("limit", limit);
     }
 
-    return getJdbcTemplate().query(sql, params, new TagCountMapper());
+    String tagsSql = sql;
+    return getReadRouter().read(template -> template.query(tagsSql, params, new TagCountMapper()));
   }
 
   class TagCountMapper implements RowMapper<TagCount> {
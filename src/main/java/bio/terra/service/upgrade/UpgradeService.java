@@ -11,6 +11,7 @@ import bio.terra.service.auth.iam.IamService;
 import bio.terra.service.dataset.flight.transactions.upgrade.TransactionUpgradeFlight;
 import bio.terra.service.dataset.flight.upgrade.disableSecureMonitoring.DisableSecureMonitoringFlight;
 import bio.terra.service.dataset.flight.upgrade.enableSecureMonitoring.EnableSecureMonitoringFlight;
+import bio.terra.service.dataset.flight.upgrade.fileDependencyIds.ConvertFileDependencyIdsFlight;
 import bio.terra.service.dataset.flight.upgrade.predictableFileIds.ConvertToPredictableFileIdsFlight;
 import bio.terra.service.job.JobBuilder;
 import bio.terra.service.job.JobMapKeys;
@@ -45,6 +46,19 @@ public class UpgradeService {
 
           return Map.of(JobMapKeys.DATASET_ID.getKeyName(), datasetId.get());
         }),
+    CONVERT_SNAPSHOT_FILE_DEPENDENCY_IDS(
+        ConvertFileDependencyIdsFlight.class,
+        request -> {
+          Preconditions.checkArgument(
+              request.getCustomArgs().size() == 1,
+              "Custom argument must have a single row: a valid dataset id");
+
+          Optional<UUID> datasetId = ValidationUtils.convertToUuid(request.getCustomArgs().get(0));
+          Preconditions.checkArgument(
+              datasetId.isPresent(), "Custom argument's single value is not a valid UUID");
+
+          return Map.of(JobMapKeys.DATASET_ID.getKeyName(), datasetId.get());
+        }),
     ENABLE_SECURE_MONITORING(
         EnableSecureMonitoringFlight.class,
         request -> {
@@ -20,11 +20,14 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 public class AzureResourceConfigurationTest {
   private static final int NUM_TABLE_THREADS = 3;
   private static final int MAX_QUEUE_SIZE = 5;
+  private static final int MAX_IN_FLIGHT_TABLE_REQUESTS = 7;
 
   @ParameterizedTest
   @ValueSource(booleans = {true, false})
   void azureTableThreadPool(boolean blockWhenSaturated) {
-    Threading threading = new Threading(NUM_TABLE_THREADS, MAX_QUEUE_SIZE, blockWhenSaturated);
+    Threading threading =
+        new Threading(
+            NUM_TABLE_THREADS, MAX_QUEUE_SIZE, blockWhenSaturated, MAX_IN_FLIGHT_TABLE_REQUESTS);
     AzureResourceConfiguration config =
         new AzureResourceConfiguration(null, null, 0, 0, null, null, threading);
     AsyncTaskExecutor genericExecutor = config.azureTableThreadpool();
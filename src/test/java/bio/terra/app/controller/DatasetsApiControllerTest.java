@@ -248,7 +248,8 @@ class DatasetsApiControllerTest {
             OFFSET,
             column,
             SqlSortDirection.from(DIRECTION),
-            FILTER))
+            FILTER,
+            null))
         .thenReturn(new DatasetDataModel().addResultItem("hello").addResultItem("world"));
     mockValidators();
     mvc.perform(request).andExpect(status().isOk()).andExpect(jsonPath("$.result").isArray());
@@ -263,7 +264,8 @@ class DatasetsApiControllerTest {
             OFFSET,
             column,
             SqlSortDirection.from(DIRECTION),
-            FILTER);
+            FILTER,
+            null);
   }
 
   private static Stream<Arguments> testQueryDatasetDataById() {
@@ -346,7 +348,8 @@ class DatasetsApiControllerTest {
             OFFSET,
             column,
             SqlSortDirection.from(DIRECTION),
-            FILTER))
+            FILTER,
+            null))
         .thenThrow(DatasetDataException.class);
     mockValidators();
     mvc.perform(request).andExpect(status().is5xxServerError());
@@ -361,7 +364,8 @@ class DatasetsApiControllerTest {
             OFFSET,
             column,
             SqlSortDirection.from(DIRECTION),
-            FILTER);
+            FILTER,
+            null);
   }
 
   private static Stream<Arguments> testQueryDatasetDataRetrievalFails() {
@@ -234,7 +234,8 @@ class SnapshotsApiControllerTest {
             OFFSET,
             PDAO_ROW_ID_COLUMN,
             SqlSortDirection.from(DIRECTION),
-            FILTER))
+            FILTER,
+            null))
         .thenReturn(expectedSnapshotPreview);
 
     String actualJson = mvc.perform(request).andReturn().getResponse().getContentAsString();
@@ -252,7 +253,8 @@ class SnapshotsApiControllerTest {
             OFFSET,
             PDAO_ROW_ID_COLUMN,
             SqlSortDirection.from(DIRECTION),
-            FILTER);
+            FILTER,
+            null);
   }
 
   @Test
@@ -502,7 +504,8 @@ class SnapshotsApiControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(TestUtils.mapToJson(snapshotBuilderSettings)))
         .andExpect(status().isOk());
-    verify(snapshotService).updateSnapshotBuilderSettings(SNAPSHOT_ID, snapshotBuilderSettings);
+    verify(snapshotService)
+        .updateSnapshotBuilderSettings(SNAPSHOT_ID, snapshotBuilderSettings, TEST_USER);
     verifyAuthorizationCall(IamAction.UPDATE_SNAPSHOT);
   }
 
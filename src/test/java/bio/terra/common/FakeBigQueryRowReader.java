@@ -0,0 +1,36 @@
+package bio.terra.common;
+
+import bio.terra.common.exception.PdaoException;
+import bio.terra.service.tabulardata.google.BigQueryRowReader;
+import com.google.cloud.bigquery.TableId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/** In-memory {@link BigQueryRowReader} that returns the rows added to it, in order. */
+public class FakeBigQueryRowReader implements BigQueryRowReader {
+  private final Map<TableId, List<Map<String, Object>>> tables = new HashMap<>();
+
+  /** Set the rows of a table; each row maps field names to values as the reader returns them. */
+  public FakeBigQueryRowReader withTable(TableId tableId, List<Map<String, Object>> rows) {
+    tables.put(tableId, rows);
+    return this;
+  }
+
+  @Override
+  public void readTable(
+      TableId tableId, List<String> fields, Predicate<Map<String, Object>> rowConsumer) {
+    List<Map<String, Object>> rows = tables.get(tableId);
+    if (rows == null) {
+      throw new PdaoException("Table not found: " + tableId);
+    }
+    for (Map<String, Object> row : rows) {
+      Map<String, Object> selected = new HashMap<>();
+      fields.forEach(field -> selected.put(field, row.get(field)));
+      if (!rowConsumer.test(selected)) {
+        return;
+      }
+    }
+  }
+}
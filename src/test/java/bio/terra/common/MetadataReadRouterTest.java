@@ -0,0 +1,109 @@
+package bio.terra.common;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import bio.terra.common.category.Unit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class MetadataReadRouterTest {
+  @Mock private NamedParameterJdbcTemplate primaryTemplate;
+  @Mock private PlatformTransactionManager primaryTransactionManager;
+  @Mock private NamedParameterJdbcTemplate replicaTemplate;
+  @Mock private PlatformTransactionManager replicaTransactionManager;
+  @Captor private ArgumentCaptor<TransactionDefinition> definition;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private static final Function<NamedParameterJdbcTemplate, NamedParameterJdbcTemplate>
+      WHICH_TEMPLATE = template -> template;
+
+  @BeforeEach
+  void beforeEach() {
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void readsFromReplica() {
+    MetadataReadRouter router =
+        new MetadataReadRouter(
+            primaryTemplate,
+            primaryTransactionManager,
+            replicaTemplate,
+            replicaTransactionManager,
+            meterRegistry);
+
+    assertThat(router.read(WHICH_TEMPLATE), sameInstance(replicaTemplate));
+    verify(replicaTransactionManager).getTransaction(definition.capture());
+    assertThat(
+        "Read runs at read committed",
+        definition.getValue().getIsolationLevel(),
+        equalTo(TransactionDefinition.ISOLATION_READ_COMMITTED));
+    assertThat("Read is read-only", definition.getValue().isReadOnly(), equalTo(true));
+    verifyNoInteractions(primaryTransactionManager);
+    assertThat("Replica read is timed", readCount("replica"), equalTo(1L));
+  }
+
+  @Test
+  void readsFromPrimaryWithoutReplica() {
+    MetadataReadRouter router =
+        new MetadataReadRouter(
+            primaryTemplate, primaryTransactionManager, null, null, meterRegistry);
+
+    assertThat(router.read(WHICH_TEMPLATE), sameInstance(primaryTemplate));
+    verify(primaryTransactionManager).getTransaction(definition.capture());
+    assertThat(
+        "Read runs at read committed",
+        definition.getValue().getIsolationLevel(),
+        equalTo(TransactionDefinition.ISOLATION_READ_COMMITTED));
+    assertThat("Primary read is timed", readCount("primary"), equalTo(1L));
+  }
+
+  @Test
+  void readsInTransactionFromPrimary() {
+    MetadataReadRouter router =
+        new MetadataReadRouter(
+            primaryTemplate,
+            primaryTransactionManager,
+            replicaTemplate,
+            replicaTransactionManager,
+            meterRegistry);
+
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    try {
+      assertThat(
+          "Read in a transaction sees its writes",
+          router.read(WHICH_TEMPLATE),
+          sameInstance(primaryTemplate));
+    } finally {
+      TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+    verifyNoInteractions(replicaTransactionManager);
+  }
+
+  private long readCount(String datasource) {
+    return meterRegistry
+        .get(MetadataReadRouter.READ_TIMER_NAME)
+        .tag("datasource", datasource)
+        .timer()
+        .count();
+  }
+}
@@ -1,4 +1,6 @@
 package bio.terra.common.category;
 
 /** On demand test category. Tests in this category are not run automatically */
-public interface OnDemand {}
+public interface OnDemand {
+  String TAG = "bio.terra.common.category.OnDemand";
+}
@@ -9,6 +9,8 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,11 +25,20 @@ import bio.terra.service.auth.oauth2.GoogleCredentialsService;
 import bio.terra.service.configuration.ConfigEnum;
 import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.journal.JournalService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.awaitility.Awaitility;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -49,19 +60,26 @@ class IamServiceTest {
 
   @Mock private GoogleCredentialsService googleCredentialsService;
 
+  private MeterRegistry meterRegistry;
   private IamService iamService;
 
   @BeforeEach
   void setup() {
+    iamService = iamServiceWithCacheTimeouts(0, 0);
+  }
+
+  private IamService iamServiceWithCacheTimeouts(int ttlSeconds, int negativeTtlSeconds) {
     when(configurationService.getParameterValue(ConfigEnum.AUTH_CACHE_TIMEOUT_SECONDS))
-        .thenReturn(0);
-
-    iamService =
-        new IamService(
-            iamProvider,
-            configurationService,
-            mock(JournalService.class),
-            googleCredentialsService);
+        .thenReturn(ttlSeconds);
+    when(configurationService.getParameterValue(ConfigEnum.AUTH_CACHE_NEGATIVE_TIMEOUT_SECONDS))
+        .thenReturn(negativeTtlSeconds);
+    meterRegistry = new SimpleMeterRegistry();
+    return new IamService(
+        iamProvider,
+        configurationService,
+        mock(JournalService.class),
+        googleCredentialsService,
+        meterRegistry);
   }
 
   @Test
@@ -136,6 +154,120 @@ class IamServiceTest {
         containsString("does not have required action '%s'".formatted(action)));
   }
 
+  private boolean isSnapshotActionAuthorized(IamAction action) {
+    return iamService.isAuthorized(TEST_USER, IamResourceType.DATASNAPSHOT, ID.toString(), action);
+  }
+
+  private void mockSnapshotActionAuthorized(IamAction action, Boolean... authorized)
+      throws InterruptedException {
+    when(iamProvider.isAuthorized(TEST_USER, IamResourceType.DATASNAPSHOT, ID.toString(), action))
+        .thenReturn(authorized[0], Arrays.copyOfRange(authorized, 1, authorized.length));
+  }
+
+  private void verifySnapshotActionSamCalls(IamAction action, int times)
+      throws InterruptedException {
+    verify(iamProvider, times(times))
+        .isAuthorized(TEST_USER, IamResourceType.DATASNAPSHOT, ID.toString(), action);
+  }
+
+  @Test
+  void testAuthorizationCache() throws Exception {
+    iamService = iamServiceWithCacheTimeouts(60, 0);
+    mockSnapshotActionAuthorized(IamAction.READ_DATA, true);
+    mockSnapshotActionAuthorized(IamAction.UPDATE_SNAPSHOT, false);
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(isSnapshotActionAuthorized(IamAction.READ_DATA), equalTo(true));
+      assertThat(isSnapshotActionAuthorized(IamAction.UPDATE_SNAPSHOT), equalTo(false));
+    }
+    verifySnapshotActionSamCalls(IamAction.READ_DATA, 1);
+    // Denied checks are not cached when the negative timeout is 0
+    verifySnapshotActionSamCalls(IamAction.UPDATE_SNAPSHOT, 3);
+
+    assertThat(
+        "Cache hits are recorded",
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", IamService.AUTH_CACHE_NAME)
+            .tag("result", "hit")
+            .functionCounter()
+            .count(),
+        equalTo(2.0));
+    assertThat(
+        "Each SAM call is timed",
+        meterRegistry
+            .get(IamService.SAM_CALL_TIMER_NAME)
+            .tag("operation", "isAuthorized")
+            .timer()
+            .count(),
+        equalTo(4L));
+  }
+
+  @Test
+  void testPolicyChangeInvalidatesAuthorizationCache() throws Exception {
+    iamService = iamServiceWithCacheTimeouts(60, 60);
+    mockSnapshotActionAuthorized(IamAction.READ_DATA, false, true);
+
+    assertThat(isSnapshotActionAuthorized(IamAction.READ_DATA), equalTo(false));
+    assertThat(isSnapshotActionAuthorized(IamAction.READ_DATA), equalTo(false));
+    verifySnapshotActionSamCalls(IamAction.READ_DATA, 1);
+
+    iamService.addPolicyMember(
+        TEST_USER, IamResourceType.DATASNAPSHOT, ID, "reader", "reader@email.com");
+    assertThat(isSnapshotActionAuthorized(IamAction.READ_DATA), equalTo(true));
+    verifySnapshotActionSamCalls(IamAction.READ_DATA, 2);
+  }
+
+  @Test
+  void testConcurrentAuthorizationsAreCoalesced() throws Exception {
+    iamService = iamServiceWithCacheTimeouts(60, 60);
+    int threads = 4;
+
+    CountDownLatch samCallRelease = new CountDownLatch(1);
+    when(iamProvider.isAuthorized(
+            TEST_USER, IamResourceType.DATASNAPSHOT, ID.toString(), IamAction.READ_DATA))
+        .thenAnswer(
+            a -> {
+              samCallRelease.await();
+              return true;
+            });
+
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Boolean>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executorService.submit(() -> isSnapshotActionAuthorized(IamAction.READ_DATA)));
+      }
+      // Every check but the first one waits on the SAM call that the first one is making
+      Awaitility.await()
+          .atMost(5, TimeUnit.SECONDS)
+          .until(
+              () -> meterRegistry.counter(IamService.AUTH_COALESCED_COUNTER_NAME).count(),
+              equalTo((double) threads - 1));
+      samCallRelease.countDown();
+      for (Future<Boolean> future : futures) {
+        assertThat(future.get(5, TimeUnit.SECONDS), equalTo(true));
+      }
+    } finally {
+      executorService.shutdownNow();
+    }
+    verifySnapshotActionSamCalls(IamAction.READ_DATA, 1);
+  }
+
+  @Test
+  void testPrefetchActions() throws Exception {
+    iamService = iamServiceWithCacheTimeouts(60, 60);
+    when(iamProvider.listActions(TEST_USER, IamResourceType.DATASNAPSHOT, ID.toString()))
+        .thenReturn(List.of(IamAction.READ_DATA.toString(), "unknown_action"));
+
+    assertThat(
+        iamService.prefetchActions(TEST_USER, IamResourceType.DATASNAPSHOT, ID.toString()),
+        equalTo(EnumSet.of(IamAction.READ_DATA)));
+    assertThat(isSnapshotActionAuthorized(IamAction.READ_DATA), equalTo(true));
+    assertThat(isSnapshotActionAuthorized(IamAction.UPDATE_SNAPSHOT), equalTo(false));
+    verify(iamProvider, never()).isAuthorized(any(), any(), any(), any());
+  }
+
   @Test
   void testVerifyAuthorizationAnyAction() throws InterruptedException {
     IamResourceType resourceType = IamResourceType.DATASET;
@@ -4,6 +4,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThrows;
 
+import bio.terra.common.SqlSortDirection;
 import bio.terra.common.category.Unit;
 import bio.terra.grammar.exception.InvalidFilterException;
 import org.junit.jupiter.api.Tag;
@@ -79,4 +80,25 @@ class QueryUtilsUnitTest {
     assertThrows(
         InvalidFilterException.class, () -> QueryUtils.formatAndParseUserFilter(missingParen));
   }
+
+  @Test
+  void testKeysetSeekConditionAscending() {
+    assertThat(
+        "Rows after the anchor: nulls first, then greater values, ties broken by row id",
+        QueryUtils.keysetSeekCondition("col", "anchor", "row_id", "@id", SqlSortDirection.ASC),
+        equalTo(
+            "((anchor IS NULL AND (col IS NOT NULL OR row_id > @id))"
+                + " OR col > anchor OR (col = anchor AND row_id > @id))"));
+  }
+
+  @Test
+  void testKeysetSeekConditionDescending() {
+    assertThat(
+        "Rows after the anchor: smaller values, ties broken by row id, then nulls last",
+        QueryUtils.keysetSeekCondition("col", "anchor", "row_id", "@id", SqlSortDirection.DESC),
+        equalTo(
+            "((anchor IS NULL AND col IS NULL AND row_id < @id)"
+                + " OR (anchor IS NOT NULL AND col IS NULL)"
+                + " OR col < anchor OR (col = anchor AND row_id < @id))"));
+  }
 }
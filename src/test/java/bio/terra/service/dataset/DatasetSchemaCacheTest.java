@@ -0,0 +1,111 @@
+package bio.terra.service.dataset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import bio.terra.common.Column;
+import bio.terra.common.category.Unit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Unit.TAG)
+class DatasetSchemaCacheTest {
+  private static final UUID DATASET_ID = UUID.randomUUID();
+  private static final UUID TABLE_ID = UUID.randomUUID();
+  private static final UUID COLUMN_ID = UUID.randomUUID();
+  private static final UUID RELATIONSHIP_ID = UUID.randomUUID();
+
+  private DatasetSchemaCache cache;
+  private AtomicInteger loads;
+
+  @BeforeEach
+  void beforeEach() {
+    cache = new DatasetSchemaCache(new SimpleMeterRegistry());
+    loads = new AtomicInteger();
+  }
+
+  @Test
+  void currentSchemaIsCached() {
+    DatasetSchema loaded = cache.get(DATASET_ID, 0, () -> load(0));
+    assertThat("Schema is loaded", loads.get(), equalTo(1));
+    assertThat(
+        "Same version is answered from the cache",
+        cache.get(DATASET_ID, 0, () -> load(0)),
+        sameInstance(loaded));
+    assertThat("Schema is not loaded again", loads.get(), equalTo(1));
+  }
+
+  @Test
+  void newerVersionIsLoaded() {
+    cache.get(DATASET_ID, 0, () -> load(0));
+    assertThat(
+        "Schema changed on another instance is loaded",
+        cache.get(DATASET_ID, 1, () -> load(1)).version(),
+        equalTo(1L));
+    assertThat(
+        "Older version is answered with the newer cached schema",
+        cache.get(DATASET_ID, 0, () -> load(0)).version(),
+        equalTo(1L));
+    assertThat("Schema is loaded once per version", loads.get(), equalTo(2));
+  }
+
+  @Test
+  void invalidateDropsSchema() {
+    cache.get(DATASET_ID, 0, () -> load(0));
+    cache.invalidate(DATASET_ID);
+    cache.get(DATASET_ID, 0, () -> load(0));
+    assertThat("Invalidated schema is loaded again", loads.get(), equalTo(2));
+  }
+
+  @Test
+  void applyToBuildsNewObjects() {
+    DatasetSchema schema = load(0);
+    Dataset first = new Dataset();
+    schema.applyTo(first, true, false);
+    Dataset second = new Dataset();
+    schema.applyTo(second, true, false);
+
+    DatasetTable table = first.getTables().get(0);
+    Column column = table.getColumns().get(0);
+    assertThat("Column refers to its table", column.getTable(), sameInstance(table));
+    assertThat("Primary key is resolved to the column", table.getPrimaryKey(), contains(column));
+    assertThat(
+        "Relationship is resolved to the column",
+        first.getRelationships().get(0).getFromColumn(),
+        sameInstance(column));
+    assertThat(
+        "Each dataset gets its own tables",
+        second.getTables().get(0),
+        not(sameInstance(table)));
+  }
+
+  private DatasetSchema load(long version) {
+    loads.incrementAndGet();
+    return new DatasetSchema(
+        DATASET_ID,
+        version,
+        List.of(
+            new DatasetSchema.TableRow(
+                TABLE_ID,
+                "participant",
+                "raw_participant",
+                "sd_participant",
+                "rm_participant",
+                List.of("id"),
+                1,
+                BigQueryPartitionConfigV1.none(),
+                List.of(new DatasetSchema.ColumnRow(COLUMN_ID, "id", "string", false, true)))),
+        List.of(
+            new DatasetSchema.RelationshipRow(
+                RELATIONSHIP_ID, "self", TABLE_ID, COLUMN_ID, TABLE_ID, COLUMN_ID)),
+        null);
+  }
+}
@@ -50,12 +50,14 @@ import bio.terra.service.profile.ProfileDao;
 import bio.terra.service.profile.ProfileService;
 import bio.terra.service.resourcemanagement.MetadataDataAccessUtils;
 import bio.terra.service.resourcemanagement.ResourceService;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.azure.StorageTableService;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDataResultModel;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDatasetPdao;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryPdao;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryTransactionPdao;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -123,7 +125,8 @@ class DatasetServiceUnitTest {
             iamService,
             datasetTableDao,
             azureSynapsePdao,
-            metadataDataAccessUtils);
+            metadataDataAccessUtils,
+            new TableDataCache(new SimpleMeterRegistry()));
   }
 
   @Test
@@ -209,14 +212,15 @@ class DatasetServiceUnitTest {
           new BigQueryDataResultModel()
               .filteredCount(filteredRowCount)
               .totalCount(totalRowCount)
+              .pageRowId(UUID.randomUUID().toString())
               .rowResult(new HashMap<>()));
     }
     try (MockedStatic<BigQueryPdao> utilities = Mockito.mockStatic(BigQueryPdao.class)) {
       utilities
           .when(
               () ->
-                  BigQueryPdao.getTable(
-                      any(), any(), any(), anyInt(), anyInt(), any(), any(), any()))
+                  BigQueryPdao.getTablePage(
+                      any(), any(), any(), anyInt(), any(), any(), any(), any()))
           .thenReturn(values);
       utilities
           .when(() -> BigQueryPdao.getTableTotalRowCount(any(), any()))
@@ -233,12 +237,13 @@ class DatasetServiceUnitTest {
           new SynapseDataResultModel()
               .filteredCount(filteredRowCount)
               .totalCount(totalRowCount)
+              .pageRowId(UUID.randomUUID().toString())
               .rowResult(new HashMap<>()));
     } else {
       when(azureSynapsePdao.getTableTotalRowCount(any(), any(), any())).thenReturn(totalRowCount);
     }
-    when(azureSynapsePdao.getTableData(
-            any(), any(), any(), any(), anyInt(), anyInt(), any(), any(), any(), any()))
+    when(azureSynapsePdao.getTableDataPage(
+            any(), any(), any(), any(), anyInt(), any(), any(), any(), any(), any()))
         .thenReturn(values);
     when(metadataDataAccessUtils.accessInfoFromDataset(any(), any()))
         .thenReturn(
@@ -257,7 +262,8 @@ class DatasetServiceUnitTest {
             0,
             PDAO_ROW_ID_COLUMN,
             SqlSortDirection.ASC,
-            "");
+            "",
+            null);
     assertThat(
         "Correct total row count", datasetDataModel.getTotalRowCount(), equalTo(totalRowCount));
     assertThat(
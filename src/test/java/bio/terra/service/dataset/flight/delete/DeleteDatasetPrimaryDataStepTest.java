@@ -0,0 +1,87 @@
+package bio.terra.service.dataset.flight.delete;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import bio.terra.common.category.Unit;
+import bio.terra.service.dataset.Dataset;
+import bio.terra.service.dataset.DatasetService;
+import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
+import bio.terra.service.filedata.google.firestore.FireStoreDao;
+import bio.terra.service.filedata.google.gcs.GcsPdao;
+import bio.terra.service.job.JobMapKeys;
+import bio.terra.service.tabulardata.google.bigquery.BigQueryDatasetPdao;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class DeleteDatasetPrimaryDataStepTest {
+  private static final UUID DATASET_ID = UUID.randomUUID();
+
+  @Mock private BigQueryDatasetPdao bigQueryDatasetPdao;
+  @Mock private GcsPdao gcsPdao;
+  @Mock private FireStoreDao fileDao;
+  @Mock private DatasetService datasetService;
+  @Mock private FlightContext flightContext;
+
+  private final Dataset dataset = new Dataset().id(DATASET_ID);
+  private final FlightMap workingMap = new FlightMap();
+  private DeleteDatasetPrimaryDataStep step;
+
+  @BeforeEach
+  void beforeEach() {
+    step =
+        new DeleteDatasetPrimaryDataStep(
+            bigQueryDatasetPdao, gcsPdao, fileDao, datasetService, DATASET_ID);
+    when(datasetService.retrieve(DATASET_ID)).thenReturn(dataset);
+    when(flightContext.getWorkingMap()).thenReturn(workingMap);
+  }
+
+  @Test
+  void retryResumesWithFailedPart() throws InterruptedException {
+    doThrow(new FileSystemAbortTransactionException("aborted"))
+        .doNothing()
+        .when(fileDao)
+        .deleteDirectoryEntriesFromDataset(dataset);
+
+    StepResult firstAttempt = step.doStep(flightContext);
+    assertThat(firstAttempt.getStepStatus(), equalTo(StepStatus.STEP_RESULT_FAILURE_RETRY));
+
+    StepResult secondAttempt = step.doStep(flightContext);
+    assertThat(secondAttempt.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    assertThat(
+        workingMap.get(JobMapKeys.STATUS_CODE.getKeyName(), HttpStatus.class),
+        equalTo(HttpStatus.NO_CONTENT));
+
+    // Only the directory entries are deleted a second time
+    verify(bigQueryDatasetPdao, times(1)).deleteDataset(dataset);
+    verify(fileDao, times(1)).deleteFileMetadataFromDataset(any(), any());
+    verify(fileDao, times(2)).deleteDirectoryEntriesFromDataset(dataset);
+  }
+
+  @Test
+  void deleteEverythingInOneAttempt() throws InterruptedException {
+    StepResult result = step.doStep(flightContext);
+    assertThat(result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+
+    verify(bigQueryDatasetPdao).deleteDataset(dataset);
+    verify(fileDao).deleteFileMetadataFromDataset(any(), any());
+    verify(fileDao).deleteDirectoryEntriesFromDataset(dataset);
+  }
+}
@@ -0,0 +1,53 @@
+package bio.terra.service.dataset.flight.ingest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.common.category.Unit;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Unit.TAG)
+class RefIdDeduplicatorTest {
+
+  @Test
+  void repeatsAreDropped() {
+    RefIdDeduplicator deduplicator = new RefIdDeduplicator(100, 100);
+    String fileId = UUID.randomUUID().toString();
+    String drsId = "drs://example.org/v2_" + UUID.randomUUID();
+
+    assertThat("A new file id is added", deduplicator.add(fileId), equalTo(true));
+    assertThat("A new DRS id is added", deduplicator.add(drsId), equalTo(true));
+    assertThat("A repeated file id is dropped", deduplicator.add(fileId), equalTo(false));
+    assertThat("A repeated DRS id is dropped", deduplicator.add(drsId), equalTo(false));
+  }
+
+  @Test
+  void nonCanonicalUuidsAreDistinct() {
+    RefIdDeduplicator deduplicator = new RefIdDeduplicator(100, 100);
+    String fileId = UUID.randomUUID().toString();
+
+    deduplicator.add(fileId);
+    assertThat(
+        "An upper case form of an id is a different id",
+        deduplicator.add(fileId.toUpperCase()),
+        equalTo(true));
+    assertThat(
+        "A short form of an id is a different id", deduplicator.add("1-1-1-1-1"), equalTo(true));
+    assertThat(
+        "The canonical form of a short id is a different id",
+        deduplicator.add(UUID.fromString("1-1-1-1-1").toString()),
+        equalTo(true));
+  }
+
+  @Test
+  void newIdsAreNeverDroppedPastTheExactBound() {
+    // A tiny bloom filter with no room for exact ids: every id that may have been seen is added
+    RefIdDeduplicator deduplicator = new RefIdDeduplicator(1, 0);
+    for (int i = 0; i < 1000; i++) {
+      String id = UUID.randomUUID().toString();
+      assertThat("Each distinct id is added", deduplicator.add(id), equalTo(true));
+    }
+  }
+}
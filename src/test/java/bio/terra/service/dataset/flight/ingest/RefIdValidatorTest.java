@@ -0,0 +1,167 @@
+package bio.terra.service.dataset.flight.ingest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.common.category.Unit;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Unit.TAG)
+class RefIdValidatorTest {
+  private static final int BATCH_SIZE = 10;
+  private static final int PARALLELISM = 3;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void beforeEach() {
+    executor = Executors.newFixedThreadPool(PARALLELISM);
+  }
+
+  @AfterEach
+  void afterEach() {
+    executor.shutdownNow();
+  }
+
+  private static List<String> ids(int count) {
+    return IntStream.range(0, count).mapToObj(i -> "id" + i).toList();
+  }
+
+  @Test
+  void distinctIdsAreValidatedInBoundedBatches() throws InterruptedException {
+    Queue<List<String>> batches = new ConcurrentLinkedQueue<>();
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<String> ids = ids(95);
+
+    List<String> invalid;
+    try (RefIdValidator validator =
+        new RefIdValidator(
+            batch -> {
+              maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+              TimeUnit.MILLISECONDS.sleep(10);
+              batches.add(batch);
+              inFlight.decrementAndGet();
+              return batch.stream().filter(id -> id.endsWith("7")).toList();
+            },
+            executor,
+            BATCH_SIZE,
+            PARALLELISM,
+            1000)) {
+      // Every id is streamed twice
+      for (String id : ids) {
+        assertThat("Validation continues", validator.add(id), equalTo(true));
+      }
+      ids.forEach(validator::add);
+      invalid = validator.finish();
+      assertThat("All invalid ids were found", validator.reachedMaxErrors(), equalTo(false));
+    }
+
+    assertThat(
+        "Each distinct id is validated once",
+        batches.stream().flatMap(List::stream).toList(),
+        containsInAnyOrder(ids.toArray()));
+    assertThat("Ids are validated in full batches and a remainder", batches, hasSize(10));
+    assertThat("No more than the window is in flight", maxInFlight.get(), lessThanOrEqualTo(3));
+    assertThat(
+        "Invalid ids are returned",
+        invalid,
+        containsInAnyOrder(ids.stream().filter(id -> id.endsWith("7")).toArray()));
+  }
+
+  @Test
+  void validationStopsAtMaxErrors() throws InterruptedException {
+    AtomicInteger validated = new AtomicInteger();
+    try (RefIdValidator validator =
+        new RefIdValidator(
+            batch -> {
+              validated.addAndGet(batch.size());
+              return batch;
+            },
+            executor,
+            BATCH_SIZE,
+            1,
+            15)) {
+      int added = 0;
+      for (String id : ids(1000)) {
+        added++;
+        if (!validator.add(id)) {
+          break;
+        }
+      }
+      assertThat("Streaming stops soon after the limit", added, lessThanOrEqualTo(3 * BATCH_SIZE));
+      assertThat("No more than the limit is returned", validator.finish(), hasSize(15));
+      assertThat("The limit is reached", validator.reachedMaxErrors(), equalTo(true));
+      assertThat("Few batches are validated", validated.get(), lessThanOrEqualTo(3 * BATCH_SIZE));
+    }
+  }
+
+  @Test
+  void rejectedBatchIsValidatedOnTheCallingThread() throws InterruptedException {
+    // A pool that is shut down rejects everything, as a full one does
+    ExecutorService fullExecutor = Executors.newSingleThreadExecutor();
+    fullExecutor.shutdown();
+    Thread caller = Thread.currentThread();
+    try (RefIdValidator validator =
+        new RefIdValidator(
+            batch -> {
+              assertThat(
+                  "Validated on the calling thread", Thread.currentThread(), equalTo(caller));
+              return batch.stream().filter(id -> id.endsWith("7")).toList();
+            },
+            fullExecutor,
+            BATCH_SIZE,
+            PARALLELISM,
+            1000)) {
+      ids(25).forEach(validator::add);
+      assertThat("Invalid ids are returned", validator.finish(), containsInAnyOrder("id7", "id17"));
+    }
+  }
+
+  @Test
+  void noIdsNeedNoValidation() throws InterruptedException {
+    try (RefIdValidator validator =
+        new RefIdValidator(
+            batch -> {
+              throw new IllegalStateException("Nothing to validate");
+            },
+            executor,
+            BATCH_SIZE,
+            PARALLELISM,
+            1000)) {
+      assertThat("No ids are invalid", validator.finish(), empty());
+    }
+  }
+
+  @Test
+  void failedBatchIsThrown() {
+    try (RefIdValidator validator =
+        new RefIdValidator(
+            batch -> {
+              throw new IllegalStateException("failed");
+            },
+            executor,
+            BATCH_SIZE,
+            PARALLELISM,
+            1000)) {
+      ids(25).forEach(validator::add);
+      assertThrows(IllegalStateException.class, validator::finish);
+    }
+  }
+}
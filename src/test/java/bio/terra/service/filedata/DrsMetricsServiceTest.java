@@ -56,6 +56,24 @@ class DrsMetricsServiceTest {
         "current request count is untouched if too many open requests");
   }
 
+  @Test
+  void tryIncrementCurrentDrsRequestCountWeighted() {
+    drsMetricsService.setDrsRequestMax(10);
+    drsMetricsService.tryIncrementCurrentDrsRequestCount(8);
+    assertEquals(8, currentDrsRequestCount.get(), "current request count is incremented by weight");
+
+    assertThrows(
+        TooManyRequestsException.class,
+        () -> drsMetricsService.tryIncrementCurrentDrsRequestCount(3));
+    assertEquals(
+        8,
+        currentDrsRequestCount.get(),
+        "current request count is untouched if the weight would exceed the max");
+
+    drsMetricsService.decrementCurrentDrsRequestCount(8);
+    assertEquals(0, currentDrsRequestCount.get(), "current request count is decremented by weight");
+  }
+
   @Test
   void decrementCurrentDrsRequestCount() {
     drsMetricsService.decrementCurrentDrsRequestCount();
@@ -19,6 +19,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -35,6 +36,7 @@ import bio.terra.app.usermetrics.UserLoggingMetrics;
 import bio.terra.common.TestUtils;
 import bio.terra.common.UriUtils;
 import bio.terra.common.category.Unit;
+import bio.terra.common.exception.BadRequestException;
 import bio.terra.common.exception.UnauthorizedException;
 import bio.terra.common.iam.AuthenticatedUserRequest;
 import bio.terra.externalcreds.model.ValidatePassportResult;
@@ -45,9 +47,11 @@ import bio.terra.model.DRSAccessMethod.TypeEnum;
 import bio.terra.model.DRSAccessURL;
 import bio.terra.model.DRSAuthorizations;
 import bio.terra.model.DRSAuthorizations.SupportedTypesEnum;
+import bio.terra.model.DRSBulkObjectResponse;
 import bio.terra.model.DRSChecksum;
 import bio.terra.model.DRSObject;
 import bio.terra.model.DRSPassportRequestModel;
+import bio.terra.model.DRSUnresolved;
 import bio.terra.model.SnapshotSummaryModel;
 import bio.terra.service.auth.iam.IamAction;
 import bio.terra.service.auth.iam.IamResourceType;
@@ -64,6 +68,7 @@ import bio.terra.service.filedata.exception.InvalidDrsIdException;
 import bio.terra.service.filedata.exception.InvalidDrsObjectException;
 import bio.terra.service.filedata.google.gcs.GcsConstants;
 import bio.terra.service.filedata.google.gcs.GcsProjectFactory;
+import bio.terra.service.filedata.google.gcs.GcsUrlSigner;
 import bio.terra.service.job.JobService;
 import bio.terra.service.resourcemanagement.ResourceService;
 import bio.terra.service.resourcemanagement.azure.AzureStorageAccountResource;
@@ -79,6 +84,8 @@ import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.BlobInfo;
 import com.google.cloud.storage.Bucket;
 import com.google.cloud.storage.Storage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLEncoder;
@@ -89,7 +96,6 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.TimeUnit;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
@@ -134,6 +140,7 @@ class DrsServiceTest {
   @Mock private PerformanceLogger performanceLogger;
   @Mock private AzureBlobStorePdao azureBlobStorePdao;
   @Mock private GcsProjectFactory gcsProjectFactory;
+  @Mock private GcsUrlSigner gcsUrlSigner;
   @Mock private EcmConfiguration ecmConfiguration;
   @Mock private DrsDao drsDao;
   @Mock private ApplicationConfiguration appConfig;
@@ -142,6 +149,7 @@ class DrsServiceTest {
 
   private DrsIdService drsIdService;
   private DrsService drsService;
+  private MeterRegistry meterRegistry;
 
   private String googleDrsObjectId;
 
@@ -162,6 +170,7 @@ class DrsServiceTest {
   @BeforeEach
   void before() throws Exception {
     drsIdService = new DrsIdService(appConfig);
+    meterRegistry = new SimpleMeterRegistry();
     drsService =
         spy(
             new DrsService(
@@ -175,11 +184,13 @@ class DrsServiceTest {
                 performanceLogger,
                 azureBlobStorePdao,
                 gcsProjectFactory,
+                gcsUrlSigner,
                 ecmConfiguration,
                 drsDao,
                 drsMetricsService,
                 new SimpleAsyncTaskExecutor(),
-                loggingMetrics));
+                loggingMetrics,
+                meterRegistry));
     when(jobService.getActivePodCount()).thenReturn(1);
     when(drsConfiguration.maxDrsLookups()).thenReturn(1);
 
@@ -246,8 +257,8 @@ class DrsServiceTest {
 
   private void verifyRequestCountMetricsCollection(int numOccurrences) {
     verify(drsMetricsService, times(numOccurrences)).setDrsRequestMax(1);
-    verify(drsMetricsService, times(numOccurrences)).tryIncrementCurrentDrsRequestCount();
-    verify(drsMetricsService, times(numOccurrences)).decrementCurrentDrsRequestCount();
+    verify(drsMetricsService, times(numOccurrences)).tryIncrementCurrentDrsRequestCount(1);
+    verify(drsMetricsService, times(numOccurrences)).decrementCurrentDrsRequestCount(1);
   }
 
   @Test
@@ -282,6 +293,135 @@ class DrsServiceTest {
     verifyRequestCountMetricsCollection(2);
   }
 
+  @Test
+  void testBulkLookup() throws InterruptedException {
+    String missingFileId = UUID.randomUUID().toString();
+    String missingDrsObjectId =
+        new DrsId("", "v1", snapshotId.toString(), missingFileId, false).toDrsObjectId();
+    String invalidDrsObjectId = "not-a-drs-id";
+    when(fileService.batchLookupSnapshotFSItems(any(), any(), eq(1)))
+        .thenReturn(Map.of(googleFileId.toString(), googleFsFile));
+
+    DRSBulkObjectResponse response =
+        drsService.lookupObjectsByDrsIds(
+            TEST_USER,
+            List.of(googleDrsObjectId, missingDrsObjectId, invalidDrsObjectId, googleDrsObjectId),
+            false);
+
+    assertThat("Duplicate ids are only counted once", response.getSummary().getRequested(), is(3));
+    assertThat(response.getSummary().getResolved(), is(1));
+    assertThat(response.getSummary().getUnresolved(), is(2));
+    assertThat(response.getResolvedDrsObject(), hasSize(1));
+    assertThat(response.getResolvedDrsObject().get(0).getId(), is(googleDrsObjectId));
+    assertThat(
+        response.getUnresolvedDrsObjects(),
+        contains(
+            new DRSUnresolved().errorCode(400).objectIds(List.of(invalidDrsObjectId)),
+            new DRSUnresolved().errorCode(404).objectIds(List.of(missingDrsObjectId))));
+
+    verify(samService)
+        .verifyAuthorization(
+            TEST_USER, IamResourceType.DATASNAPSHOT, snapshotId.toString(), IamAction.READ_DATA);
+    verify(fileService)
+        .batchLookupSnapshotFSItems(
+            any(), eq(List.of(googleFileId.toString(), missingFileId)), eq(1));
+    verify(drsMetricsService).tryIncrementCurrentDrsRequestCount(1);
+    verify(drsMetricsService).decrementCurrentDrsRequestCount(1);
+  }
+
+  @Test
+  void testBulkLookupForbidden() throws InterruptedException {
+    doThrow(new IamForbiddenException("Not allowed"))
+        .when(samService)
+        .verifyAuthorization(
+            TEST_USER, IamResourceType.DATASNAPSHOT, snapshotId.toString(), IamAction.READ_DATA);
+
+    DRSBulkObjectResponse response =
+        drsService.lookupObjectsByDrsIds(
+            TEST_USER, List.of(googleDrsObjectId, azureDrsObjectId), false);
+
+    assertThat(response.getSummary().getResolved(), is(0));
+    assertThat(
+        response.getUnresolvedDrsObjects(),
+        contains(
+            new DRSUnresolved()
+                .errorCode(403)
+                .objectIds(List.of(googleDrsObjectId, azureDrsObjectId))));
+    verify(fileService, times(0)).batchLookupSnapshotFSItems(any(), any(), anyInt());
+  }
+
+  @Test
+  void testBulkLookupReadsReferencedSnapshotsInOneQuery() {
+    DrsId referencedDrsId = new DrsId("", "v2", null, googleFileId.toString(), false);
+    DrsId unreferencedDrsId = new DrsId("", "v2", null, UUID.randomUUID().toString(), false);
+    when(drsDao.batchRetrieveReferencedSnapshotIds(any()))
+        .thenReturn(Map.of(referencedDrsId.toDrsObjectId(), List.of(snapshotId)));
+    when(fileService.batchLookupSnapshotFSItems(any(), any(), eq(1)))
+        .thenReturn(Map.of(googleFileId.toString(), googleFsFile));
+
+    DRSBulkObjectResponse response =
+        drsService.lookupObjectsByDrsIds(
+            TEST_USER,
+            List.of(referencedDrsId.toDrsObjectId(), unreferencedDrsId.toDrsObjectId()),
+            false);
+
+    assertThat(response.getSummary().getResolved(), is(1));
+    assertThat(
+        response.getUnresolvedDrsObjects(),
+        contains(
+            new DRSUnresolved()
+                .errorCode(404)
+                .objectIds(List.of(unreferencedDrsId.toDrsObjectId()))));
+    verify(drsDao).batchRetrieveReferencedSnapshotIds(any());
+    verify(drsDao, never()).retrieveReferencedSnapshotIds(any());
+  }
+
+  @Test
+  void testBulkLookupUnexpectedErrorOnlyFailsThatId() {
+    String brokenAlias = "broken-alias";
+    when(drsDao.retrieveDrsAliasByAlias(brokenAlias))
+        .thenThrow(new IllegalStateException("database unavailable"));
+    when(fileService.batchLookupSnapshotFSItems(any(), any(), eq(1)))
+        .thenReturn(Map.of(googleFileId.toString(), googleFsFile));
+
+    DRSBulkObjectResponse response =
+        drsService.lookupObjectsByDrsIds(TEST_USER, List.of(googleDrsObjectId, brokenAlias), false);
+
+    assertThat(response.getSummary().getResolved(), is(1));
+    assertThat(
+        response.getUnresolvedDrsObjects(),
+        contains(new DRSUnresolved().errorCode(500).objectIds(List.of(brokenAlias))));
+  }
+
+  @Test
+  void testBulkLookupWeight() {
+    List<String> drsObjectIds =
+        IntStream.range(0, DrsService.BULK_OBJECT_IDS_PER_REQUEST + 1)
+            .mapToObj(
+                i ->
+                    new DrsId("", "v1", snapshotId.toString(), UUID.randomUUID().toString(), false)
+                        .toDrsObjectId())
+            .toList();
+
+    drsService.lookupObjectsByDrsIds(TEST_USER, drsObjectIds, false);
+
+    verify(drsMetricsService).tryIncrementCurrentDrsRequestCount(2);
+    verify(drsMetricsService).decrementCurrentDrsRequestCount(2);
+  }
+
+  @Test
+  void testBulkLookupTooManyIds() {
+    List<String> drsObjectIds =
+        IntStream.rangeClosed(0, DrsService.MAX_BULK_OBJECT_IDS)
+            .mapToObj(String::valueOf)
+            .toList();
+
+    assertThrows(
+        BadRequestException.class,
+        () -> drsService.lookupObjectsByDrsIds(TEST_USER, drsObjectIds, false));
+    verify(drsMetricsService, times(0)).tryIncrementCurrentDrsRequestCount(anyInt());
+  }
+
   @Test
   void testLookupWithSeveralBillingSnapshots() throws InterruptedException {
     UUID billingIdA = UUID.randomUUID();
@@ -689,14 +829,13 @@ class DrsServiceTest {
         .thenReturn(storage);
     String sourcePath = googleFsFile.getCloudPath();
     String expectedUrl = "https://storage.googleapis.com/path/to/file.txt";
-    when(storage.signUrl(
+    when(gcsUrlSigner.signUrl(
+            eq(snapshotProject),
             eq(BlobInfo.newBuilder(GcsUriUtils.parseBlobUri(sourcePath)).build()),
-            eq(15L),
-            eq(TimeUnit.MINUTES),
+            eq(URL_TTL),
             any(),
             any()))
         .thenReturn(new URL(expectedUrl));
-    when(drsService.initStorage(snapshotProject)).thenReturn(storage);
     DRSAccessURL url =
         drsService.postAccessUrlForObjectId(
             googleDrsObjectId,
@@ -802,10 +941,10 @@ class DrsServiceTest {
       String snapshotProject = snapshot.getProjectResource().getGoogleProjectId();
       // Note: we have to do some shenanigans with private methods in order for this to work since
       // Google doesn't implement equals/hashcode on their {@link SignUrlOption} class
-      when(storage.signUrl(
+      when(gcsUrlSigner.signUrl(
+              eq(snapshotProject),
               eq(BlobInfo.newBuilder(GcsUriUtils.parseBlobUri(sourcePath)).build()),
-              eq(15L),
-              eq(TimeUnit.MINUTES),
+              eq(URL_TTL),
               any(),
               any()))
           .thenAnswer(
@@ -822,7 +961,6 @@ class DrsServiceTest {
                                 USER_PROJECT_QUERY_PARAM,
                                 queryParams.get(USER_PROJECT_QUERY_PARAM)));
               });
-      when(drsService.initStorage(snapshotProject)).thenReturn(storage);
     }
     when(snapshotService.retrieve(snapshotId)).thenReturn(snapshot);
     when(snapshotService.retrieveSnapshotSummary(snapshotId)).thenReturn(snapshotSummary);
@@ -922,6 +1060,45 @@ class DrsServiceTest {
     verify(snapshotService).retrieveSnapshotProject(any());
   }
 
+  @Test
+  void testSnapshotCacheInvalidation() throws Exception {
+    when(fileService.lookupSnapshotFSItem(any(), any(), eq(1))).thenReturn(googleFsFile);
+    drsService.lookupObjectByDrsId(TEST_USER, googleDrsObjectId, false);
+    drsService.lookupObjectByDrsId(TEST_USER, googleDrsObjectId, false);
+    verify(snapshotService).retrieve(snapshotId);
+
+    drsService.invalidateSnapshot(snapshotId);
+    drsService.lookupObjectByDrsId(TEST_USER, googleDrsObjectId, false);
+    verify(snapshotService, times(2)).retrieve(snapshotId);
+    verify(snapshotService, times(2)).retrieveSnapshotProject(snapshotId);
+  }
+
+  @Test
+  void testSnapshotCacheMetrics() throws Exception {
+    when(fileService.lookupSnapshotFSItem(any(), any(), eq(1))).thenReturn(googleFsFile);
+    drsService.lookupObjectByDrsId(TEST_USER, googleDrsObjectId, false);
+    drsService.lookupObjectByDrsId(TEST_USER, googleDrsObjectId, false);
+
+    assertThat(
+        "First lookup is a miss",
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "datarepo.drs.snapshots")
+            .tag("result", "miss")
+            .functionCounter()
+            .count(),
+        equalTo(1.0));
+    assertThat(
+        "Second lookup is a hit",
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "datarepo.drs.snapshots")
+            .tag("result", "hit")
+            .functionCounter()
+            .count(),
+        equalTo(1.0));
+  }
+
   @Test
   void testMergeDrsObjects() {
     DRSObject drsObject1 =
@@ -0,0 +1,172 @@
+package bio.terra.service.filedata;
+
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import bio.terra.service.filedata.google.firestore.FireStoreFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory {@link SnapshotComputeHelper} over a synthetic directory tree. Every directory has the
+ * same number of subdirectories and files, down to a fixed depth. An optional latency is added to
+ * every enumerate and metadata call to stand in for the round trip to Firestore or Azure Tables.
+ */
+public class FakeSnapshotComputeHelper implements SnapshotComputeHelper {
+
+  private final Map<String, List<FireStoreDirectoryEntry>> directories = new HashMap<>();
+  private final Map<String, FireStoreFile> files = new HashMap<>();
+  private final Map<String, FireStoreDirectoryEntry> updatedEntries = new ConcurrentHashMap<>();
+  private final AtomicInteger enumerateCalls = new AtomicInteger();
+  private final AtomicInteger metadataCalls = new AtomicInteger();
+  private final long latencyMillis;
+  private final FireStoreDirectoryEntry topDir;
+
+  /**
+   * @param depth number of directory levels below the root
+   * @param subdirectoriesPerDirectory number of subdirectories in every non-leaf directory
+   * @param filesPerDirectory number of file references in every directory
+   * @param datasetCount number of source datasets the files are spread over
+   * @param latencyMillis simulated latency of each call made through the helper
+   */
+  public FakeSnapshotComputeHelper(
+      int depth,
+      int subdirectoriesPerDirectory,
+      int filesPerDirectory,
+      int datasetCount,
+      long latencyMillis) {
+    this.latencyMillis = latencyMillis;
+    List<String> datasetIds = new ArrayList<>();
+    for (int i = 0; i < datasetCount; i++) {
+      datasetIds.add(UUID.randomUUID().toString());
+    }
+    topDir = directoryEntry("", "", datasetIds.get(0));
+    populate("/", depth, subdirectoriesPerDirectory, filesPerDirectory, datasetIds);
+  }
+
+  private void populate(
+      String fullPath,
+      int depth,
+      int subdirectoriesPerDirectory,
+      int filesPerDirectory,
+      List<String> datasetIds) {
+    List<FireStoreDirectoryEntry> contents = new ArrayList<>();
+    for (int i = 0; i < filesPerDirectory; i++) {
+      String fileId = UUID.randomUUID().toString();
+      String datasetId = datasetIds.get(files.size() % datasetIds.size());
+      long size = files.size() + 1L;
+      files.put(
+          fileId,
+          new FireStoreFile()
+              .fileId(fileId)
+              .size(size)
+              .checksumMd5(SnapshotCompute.computeMd5(fileId))
+              .checksumCrc32c(SnapshotCompute.computeCrc32c(fileId)));
+      contents.add(
+          new FireStoreDirectoryEntry()
+              .fileId(fileId)
+              .isFileRef(true)
+              .path(fullPath)
+              .name("file-" + i)
+              .datasetId(datasetId));
+    }
+    if (depth > 0) {
+      for (int i = 0; i < subdirectoriesPerDirectory; i++) {
+        FireStoreDirectoryEntry subdir = directoryEntry(fullPath, "dir-" + i, datasetIds.get(0));
+        contents.add(subdir);
+        populate(
+            SnapshotCompute.getFullPath(fullPath, subdir.getName()),
+            depth - 1,
+            subdirectoriesPerDirectory,
+            filesPerDirectory,
+            datasetIds);
+      }
+    }
+    directories.put(fullPath, contents);
+  }
+
+  private static FireStoreDirectoryEntry directoryEntry(
+      String path, String name, String datasetId) {
+    return new FireStoreDirectoryEntry()
+        .fileId(UUID.randomUUID().toString())
+        .isFileRef(false)
+        .path(path)
+        .name(name)
+        .datasetId(datasetId);
+  }
+
+  private static FireStoreDirectoryEntry copy(FireStoreDirectoryEntry entry) {
+    return new FireStoreDirectoryEntry()
+        .fileId(entry.getFileId())
+        .isFileRef(entry.getIsFileRef())
+        .path(entry.getPath())
+        .name(entry.getName())
+        .datasetId(entry.getDatasetId());
+  }
+
+  /** A fresh copy of the root directory entry, as a call to retrieveByPath("/") would return */
+  public FireStoreDirectoryEntry getTopDir() {
+    return copy(topDir);
+  }
+
+  public Map<String, FireStoreDirectoryEntry> getUpdatedEntries() {
+    return updatedEntries;
+  }
+
+  public int getDirectoryCount() {
+    return directories.size();
+  }
+
+  public int getFileCount() {
+    return files.size();
+  }
+
+  public int getEnumerateCalls() {
+    return enumerateCalls.get();
+  }
+
+  public int getMetadataCalls() {
+    return metadataCalls.get();
+  }
+
+  public void reset() {
+    updatedEntries.clear();
+    enumerateCalls.set(0);
+    metadataCalls.set(0);
+  }
+
+  @Override
+  public List<FireStoreFile> batchRetrieveFileMetadata(
+      Map.Entry<String, List<FireStoreDirectoryEntry>> entry) throws InterruptedException {
+    metadataCalls.incrementAndGet();
+    simulateLatency();
+    return entry.getValue().stream().map(e -> files.get(e.getFileId())).toList();
+  }
+
+  @Override
+  public List<FireStoreDirectoryEntry> enumerateDirectory(String dirPath)
+      throws InterruptedException {
+    enumerateCalls.incrementAndGet();
+    simulateLatency();
+    // Return copies, like a real lookup would, so that computed values do not leak between runs
+    return directories.getOrDefault(dirPath, List.of()).stream()
+        .map(FakeSnapshotComputeHelper::copy)
+        .toList();
+  }
+
+  @Override
+  public void updateEntry(
+      FireStoreDirectoryEntry entry, List<FireStoreDirectoryEntry> updateBatch) {
+    updatedEntries.put(SnapshotCompute.getFullPath(entry.getPath(), entry.getName()), entry);
+  }
+
+  private void simulateLatency() throws InterruptedException {
+    if (latencyMillis > 0) {
+      TimeUnit.MILLISECONDS.sleep(latencyMillis);
+    }
+  }
+}
@@ -0,0 +1,187 @@
+package bio.terra.service.filedata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.common.ErrorCollector;
+import bio.terra.common.category.OnDemand;
+import bio.terra.model.BulkLoadFileModel;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares reading and parsing a control file line by line on one thread, as it was done before,
+ * with {@link ParallelLineReader}. Local files stand in for cloud blobs; each range opened, or each
+ * buffer's worth of the file read, sleeps to simulate the latency of a request to the blob store.
+ */
+@Tag(OnDemand.TAG)
+class ParallelLineReaderBenchmarkTest {
+  private static final Logger logger =
+      LoggerFactory.getLogger(ParallelLineReaderBenchmarkTest.class);
+
+  private static final long READ_LATENCY_MILLIS = 20;
+  private static final int SEQUENTIAL_READ_SIZE = 2 * 1024 * 1024;
+  private static final int RANGE_SIZE = 4 * 1024 * 1024;
+  private static final int RANGES_IN_FLIGHT = 8;
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private ExecutorService executor;
+
+  @TempDir Path tempDir;
+
+  @BeforeEach
+  void beforeEach() {
+    executor = Executors.newFixedThreadPool(RANGES_IN_FLIGHT);
+  }
+
+  @AfterEach
+  void afterEach() {
+    executor.shutdownNow();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {100_000, 1_000_000})
+  void benchmark(int lineCount) throws IOException {
+    Path controlFile = writeControlFile(lineCount);
+
+    long start = System.nanoTime();
+    long sequentialCount;
+    try (BufferedReader reader =
+        new BufferedReader(
+            new InputStreamReader(
+                new SlowInputStream(Files.newInputStream(controlFile)), StandardCharsets.UTF_8),
+            SEQUENTIAL_READ_SIZE)) {
+      sequentialCount = reader.lines().map(this::parse).count();
+    }
+    long sequentialMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    start = System.nanoTime();
+    long parallelCount;
+    try (Stream<BulkLoadFileModel> files =
+        new ParallelLineReader(executor, RANGE_SIZE, RANGES_IN_FLIGHT)
+            .parseLines(
+                new FileRangeReader(controlFile),
+                (line, errors) -> parse(line),
+                new ErrorCollector(10, "Invalid lines"))) {
+      parallelCount = files.count();
+    }
+    long parallelMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat("Sequential read parses every line", sequentialCount, equalTo((long) lineCount));
+    assertThat("Parallel read parses every line", parallelCount, equalTo((long) lineCount));
+    logger.info(
+        "Parsed {} lines ({} bytes): sequential {} ms, parallel {} ms",
+        lineCount,
+        Files.size(controlFile),
+        sequentialMillis,
+        parallelMillis);
+  }
+
+  private BulkLoadFileModel parse(String line) {
+    try {
+      return objectMapper.readValue(line, BulkLoadFileModel.class);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Path writeControlFile(int lineCount) throws IOException {
+    Path controlFile = tempDir.resolve("control" + lineCount + ".json");
+    try (BufferedWriter writer = Files.newBufferedWriter(controlFile, StandardCharsets.UTF_8)) {
+      for (int i = 0; i < lineCount; i++) {
+        writer.write(
+            objectMapper.writeValueAsString(
+                new BulkLoadFileModel()
+                    .sourcePath("gs://benchmark-bucket/source/file" + i)
+                    .targetPath("/benchmark/target/file" + i)
+                    .mimeType("application/octet-stream")
+                    .description("benchmark file " + i)));
+        writer.newLine();
+      }
+    }
+    return controlFile;
+  }
+
+  private static void simulateLatency() {
+    try {
+      Thread.sleep(READ_LATENCY_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** Reads a local file from offsets, as the cloud range readers read a blob. */
+  private static class FileRangeReader implements BlobRangeReader {
+    private final Path path;
+
+    FileRangeReader(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    public long size() {
+      try {
+        return Files.size(path);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    @Override
+    public InputStream openStream(long offset) throws IOException {
+      // Opening the stream stands in for the request; the range is then streamed back
+      simulateLatency();
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ).position(offset);
+      return Channels.newInputStream(channel);
+    }
+  }
+
+  /** Sleeps on each read that fills the reader's buffer, as a streaming blob read would. */
+  private static class SlowInputStream extends InputStream {
+    private final InputStream delegate;
+
+    SlowInputStream(InputStream delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return delegate.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      simulateLatency();
+      int bytesRead = delegate.readNBytes(b, off, len);
+      return bytesRead == 0 && len > 0 ? -1 : bytesRead;
+    }
+
+    @Override
+    public void close() throws IOException {
+      delegate.close();
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package bio.terra.service.filedata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.common.ErrorCollector;
+import bio.terra.common.category.Unit;
+import bio.terra.common.exception.BadRequestException;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@Tag(Unit.TAG)
+class ParallelLineReaderTest {
+  private static final String CONTENT =
+      "first line\n"
+          + "\n"
+          + "crlf line\r\n"
+          + "multibyte ü€😀 line\n"
+          + "a somewhat longer line that spans several of the smaller ranges\n"
+          + "x\n"
+          + "last line without a newline";
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void beforeEach() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void afterEach() {
+    executor.shutdownNow();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 2, 3, 7, 16, 64, 1024})
+  void matchesBufferedReader(int rangeSize) throws IOException {
+    List<String> expected = new BufferedReader(new StringReader(CONTENT)).lines().toList();
+
+    assertThat(
+        "Lines match a sequential read", readLines(CONTENT, rangeSize, 3), equalTo(expected));
+  }
+
+  @Test
+  void eachRangeIsReadOverOneStream() {
+    AtomicInteger streamsOpened = new AtomicInteger();
+    BlobRangeReader countingReader =
+        new ByteArrayRangeReader(CONTENT) {
+          @Override
+          public InputStream openStream(long offset) {
+            streamsOpened.incrementAndGet();
+            return super.openStream(offset);
+          }
+        };
+    int rangeSize = 7;
+    try (Stream<String> lines =
+        new ParallelLineReader(executor, rangeSize, 3)
+            .parseLines(countingReader, (line, errors) -> line, new ErrorCollector(1, "bad"))) {
+      lines.toList();
+    }
+
+    long rangeCount = (countingReader.size() + rangeSize - 1) / rangeSize;
+    assertThat(
+        "Lines that run past their range are finished over the range's stream",
+        (long) streamsOpened.get(),
+        equalTo(rangeCount));
+  }
+
+  @Test
+  void trailingNewlineDoesNotAddALine() {
+    assertThat(
+        "No empty line after the last newline",
+        readLines("a\nb\n", 1, 2),
+        contains("a", "b"));
+  }
+
+  @Test
+  void emptyBlob() {
+    assertThat("An empty blob has no lines", readLines("", 4, 2), empty());
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 5, 1024})
+  void errorsReportLineNumbersInOrder(int rangeSize) {
+    ErrorCollector errorCollector = new ErrorCollector(10, "bad lines");
+    List<String> values;
+    try (Stream<String> lines =
+        new ParallelLineReader(executor, rangeSize, 2)
+            .parseLines(
+                new ByteArrayRangeReader("ok\nbad\nok\nok\nbad\n"),
+                (line, errors) -> {
+                  if (line.equals("bad")) {
+                    errors.accept("bad value");
+                    return null;
+                  }
+                  return line;
+                },
+                errorCollector)) {
+      values = lines.toList();
+    }
+
+    assertThat("Invalid lines are dropped", values, contains("ok", "ok", "ok"));
+    assertThat(
+        "Errors are reported with their line numbers",
+        errorCollector.getFormattedException().getCauses(),
+        contains("Error at line 2: bad value", "Error at line 5: bad value"));
+  }
+
+  @Test
+  void tooManyErrorsStopsTheRead() {
+    ErrorCollector errorCollector = new ErrorCollector(2, "bad lines");
+    try (Stream<String> lines =
+        new ParallelLineReader(executor, 2, 2)
+            .parseLines(
+                new ByteArrayRangeReader("a\nb\nc\nd\ne\n"),
+                (line, errors) -> {
+                  errors.accept("bad value");
+                  return null;
+                },
+                errorCollector)) {
+      assertThrows(BadRequestException.class, lines::toList);
+    }
+  }
+
+  @Test
+  void readFailureIsThrown() {
+    BlobRangeReader failingReader =
+        new ByteArrayRangeReader("a\nb\n") {
+          @Override
+          public InputStream openStream(long offset) throws IOException {
+            throw new IOException("read failed");
+          }
+        };
+    try (Stream<String> lines =
+        new ParallelLineReader(executor, 2, 2)
+            .parseLines(failingReader, (line, errors) -> line, new ErrorCollector(1, "bad"))) {
+      assertThrows(UncheckedIOException.class, lines::toList);
+    }
+  }
+
+  private List<String> readLines(String content, int rangeSize, int rangesInFlight) {
+    try (Stream<String> lines =
+        new ParallelLineReader(executor, rangeSize, rangesInFlight)
+            .parseLines(
+                new ByteArrayRangeReader(content),
+                (line, errors) -> line,
+                new ErrorCollector(1, "bad"))) {
+      return lines.toList();
+    }
+  }
+
+  private static class ByteArrayRangeReader implements BlobRangeReader {
+    private final byte[] bytes;
+
+    ByteArrayRangeReader(String content) {
+      this.bytes = content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long size() {
+      return bytes.length;
+    }
+
+    @Override
+    public InputStream openStream(long offset) {
+      return new ByteArrayInputStream(bytes, (int) offset, bytes.length - (int) offset);
+    }
+  }
+}
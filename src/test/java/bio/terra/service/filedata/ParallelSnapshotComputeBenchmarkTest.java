@@ -0,0 +1,93 @@
+package bio.terra.service.filedata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.common.category.OnDemand;
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the sequential and the level-by-level snapshot directory compute over synthetic trees,
+ * with a fixed latency on each helper call standing in for Firestore or Azure Tables.
+ */
+@Tag(OnDemand.TAG)
+class ParallelSnapshotComputeBenchmarkTest {
+  private static final Logger logger =
+      LoggerFactory.getLogger(ParallelSnapshotComputeBenchmarkTest.class);
+
+  private static final long LATENCY_MILLIS = 5;
+  private static final int PARALLELISM = 16;
+  private static final int METADATA_BATCH_SIZE = 500;
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void beforeEach() {
+    executor = Executors.newFixedThreadPool(PARALLELISM);
+  }
+
+  @AfterEach
+  void afterEach() {
+    executor.shutdownNow();
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+    // depth, subdirectories per directory, files per directory
+    "12, 2, 3", // deep
+    "3, 20, 10", // wide
+    "5, 5, 20" // bushy
+  })
+  void benchmark(int depth, int subdirectories, int files) throws InterruptedException {
+    FakeSnapshotComputeHelper helper =
+        new FakeSnapshotComputeHelper(depth, subdirectories, files, 2, LATENCY_MILLIS);
+
+    FireStoreDirectoryEntry sequentialTop = helper.getTopDir();
+    long start = System.nanoTime();
+    SnapshotCompute.computeDirectory(helper, sequentialTop, new ArrayList<>());
+    long sequentialMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    int sequentialCalls = helper.getEnumerateCalls() + helper.getMetadataCalls();
+
+    helper.reset();
+    FireStoreDirectoryEntry parallelTop = helper.getTopDir();
+    start = System.nanoTime();
+    new ParallelSnapshotCompute(helper, executor, PARALLELISM, METADATA_BATCH_SIZE)
+        .computeDirectory(parallelTop, new ArrayList<>());
+    long parallelMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    int parallelCalls = helper.getEnumerateCalls() + helper.getMetadataCalls();
+
+    logger.info(
+        "Tree depth {} x {} subdirectories x {} files ({} directories, {} files): "
+            + "sequential {} ms / {} calls, parallel {} ms / {} calls",
+        depth,
+        subdirectories,
+        files,
+        helper.getDirectoryCount(),
+        helper.getFileCount(),
+        sequentialMillis,
+        sequentialCalls,
+        parallelMillis,
+        parallelCalls);
+
+    assertThat("Sizes match", parallelTop.getSize(), equalTo(sequentialTop.getSize()));
+    assertThat(
+        "md5 checksums match",
+        parallelTop.getChecksumMd5(),
+        equalTo(sequentialTop.getChecksumMd5()));
+    assertThat(
+        "crc32c checksums match",
+        parallelTop.getChecksumCrc32c(),
+        equalTo(sequentialTop.getChecksumCrc32c()));
+  }
+}
@@ -0,0 +1,123 @@
+package bio.terra.service.filedata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.common.category.Unit;
+import bio.terra.common.exception.ErrorReportException;
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import bio.terra.service.filedata.google.firestore.FireStoreFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Unit.TAG)
+class ParallelSnapshotComputeTest {
+  private ExecutorService executor;
+
+  @BeforeEach
+  void beforeEach() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void afterEach() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void matchesSequentialCompute() throws InterruptedException {
+    FakeSnapshotComputeHelper helper = new FakeSnapshotComputeHelper(4, 3, 5, 2, 0);
+
+    FireStoreDirectoryEntry sequentialTop = helper.getTopDir();
+    SnapshotCompute.computeDirectory(helper, sequentialTop, new ArrayList<>());
+    Map<String, FireStoreDirectoryEntry> expected = new HashMap<>(helper.getUpdatedEntries());
+    int sequentialMetadataCalls = helper.getMetadataCalls();
+
+    helper.reset();
+    FireStoreDirectoryEntry parallelTop = helper.getTopDir();
+    new ParallelSnapshotCompute(helper, executor, 8, 7)
+        .computeDirectory(parallelTop, new ArrayList<>());
+    Map<String, FireStoreDirectoryEntry> actual = helper.getUpdatedEntries();
+
+    assertThat("Every directory is updated", actual.size(), equalTo(helper.getDirectoryCount()));
+    assertThat("Same directories are updated", actual.keySet(), equalTo(expected.keySet()));
+    expected.forEach(
+        (path, entry) -> {
+          FireStoreDirectoryEntry computed = actual.get(path);
+          assertThat("Size matches for " + path, computed.getSize(), equalTo(entry.getSize()));
+          assertThat(
+              "md5 matches for " + path,
+              computed.getChecksumMd5(),
+              equalTo(entry.getChecksumMd5()));
+          assertThat(
+              "crc32c matches for " + path,
+              computed.getChecksumCrc32c(),
+              equalTo(entry.getChecksumCrc32c()));
+        });
+    assertThat(
+        "Top directory is updated in place",
+        parallelTop.getChecksumMd5(),
+        equalTo(sequentialTop.getChecksumMd5()));
+    assertThat(
+        "Each directory is enumerated once",
+        helper.getEnumerateCalls(),
+        equalTo(helper.getDirectoryCount()));
+    assertThat(
+        "Metadata reads are batched across sibling directories",
+        helper.getMetadataCalls(),
+        lessThan(sequentialMetadataCalls));
+  }
+
+  @Test
+  void emptyTopDirectory() throws InterruptedException {
+    FakeSnapshotComputeHelper helper = new FakeSnapshotComputeHelper(0, 0, 0, 1, 0);
+    FireStoreDirectoryEntry topDir = helper.getTopDir();
+    new ParallelSnapshotCompute(helper, executor, 4, 10)
+        .computeDirectory(topDir, new ArrayList<>());
+
+    assertThat("Empty directory has no size", topDir.getSize(), equalTo(0L));
+    assertThat(
+        "Empty directory has the checksum of nothing",
+        topDir.getChecksumMd5(),
+        equalTo(SnapshotCompute.computeMd5("")));
+  }
+
+  @Test
+  void missingFileMetadataFails() {
+    FakeSnapshotComputeHelper helper = new FakeSnapshotComputeHelper(2, 2, 2, 1, 0);
+    SnapshotComputeHelper missingMetadataHelper =
+        new SnapshotComputeHelper() {
+          @Override
+          public List<FireStoreFile> batchRetrieveFileMetadata(
+              Map.Entry<String, List<FireStoreDirectoryEntry>> entry) {
+            return List.of();
+          }
+
+          @Override
+          public List<FireStoreDirectoryEntry> enumerateDirectory(String dirPath)
+              throws InterruptedException {
+            return helper.enumerateDirectory(dirPath);
+          }
+
+          @Override
+          public void updateEntry(
+              FireStoreDirectoryEntry entry, List<FireStoreDirectoryEntry> updateBatch) {}
+        };
+
+    assertThrows(
+        ErrorReportException.class,
+        () ->
+            new ParallelSnapshotCompute(missingMetadataHelper, executor, 4, 10)
+                .computeDirectory(helper.getTopDir(), new ArrayList<>()));
+  }
+}
@@ -0,0 +1,112 @@
+package bio.terra.service.filedata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.common.category.Unit;
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.commons.collections4.ListUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Unit.TAG)
+class SnapshotDirectoryPathIndexTest {
+
+  @Test
+  void addDirectoriesOf() {
+    SnapshotDirectoryPathIndex pathIndex = new SnapshotDirectoryPathIndex();
+    List<FireStoreDirectoryEntry> testEntries = initTestEntries(2);
+
+    Set<String> newPaths = pathIndex.addDirectoriesOf(testEntries);
+    assertThat(
+        "Should contain 3 unique directory paths",
+        newPaths,
+        containsInAnyOrder("/_dr_/test/path-0", "/_dr_/test", "/_dr_/test/path-1"));
+
+    // Make same call - should return zero new paths
+    assertThat(
+        "There should not be any new paths after making the same call",
+        pathIndex.addDirectoriesOf(testEntries),
+        empty());
+  }
+
+  @Test
+  void eachDirectoryIsReturnedOnceAcrossBatches() {
+    SnapshotDirectoryPathIndex pathIndex = new SnapshotDirectoryPathIndex();
+    List<FireStoreDirectoryEntry> testEntries = initTestEntries(500);
+    // Files with the same base path are not necessarily next to each other
+    Collections.shuffle(testEntries);
+
+    List<String> allNewPaths = new ArrayList<>();
+    for (List<FireStoreDirectoryEntry> batch : ListUtils.partition(testEntries, 7)) {
+      allNewPaths.addAll(pathIndex.addDirectoriesOf(batch));
+    }
+    testEntries.add(new FireStoreDirectoryEntry().path("/test/diffPath").name("file-0.json"));
+    allNewPaths.addAll(pathIndex.addDirectoriesOf(testEntries));
+
+    assertThat("Each directory is returned once", allNewPaths.size(), equalTo(502));
+    assertThat("Directories are counted", pathIndex.getDirectoryCount(), equalTo(502));
+    assertThat(
+        "Every directory above every file is counted as a reference",
+        pathIndex.getDirectoryReferenceCount(),
+        equalTo(2L * 2000 * 2 + 2));
+  }
+
+  @Test
+  void eachDirectoryIsReturnedOnceAcrossThreads() throws Exception {
+    SnapshotDirectoryPathIndex pathIndex = new SnapshotDirectoryPathIndex();
+    List<FireStoreDirectoryEntry> testEntries = initTestEntries(500);
+    Collections.shuffle(testEntries);
+
+    Set<String> allNewPaths = ConcurrentHashMap.newKeySet();
+    List<Integer> batchCounts = Collections.synchronizedList(new ArrayList<>());
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (List<FireStoreDirectoryEntry> batch : ListUtils.partition(testEntries, 15)) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  Set<String> newPaths = pathIndex.addDirectoriesOf(batch);
+                  batchCounts.add(newPaths.size());
+                  allNewPaths.addAll(newPaths);
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat("Every directory is returned", allNewPaths.size(), equalTo(501));
+    assertThat(
+        "No directory is returned twice",
+        batchCounts.stream().mapToInt(Integer::intValue).sum(),
+        equalTo(501));
+  }
+
+  private List<FireStoreDirectoryEntry> initTestEntries(int numDirectories) {
+    List<FireStoreDirectoryEntry> testEntries = new ArrayList<>();
+    // Add 4 files per different directory path
+    for (int i = 0; i < numDirectories; i++) {
+      String path = String.format("/test/path-%s", i);
+      testEntries.add(new FireStoreDirectoryEntry().path(path).name("file-0.json"));
+      testEntries.add(new FireStoreDirectoryEntry().path(path).name("file-1.json"));
+      testEntries.add(new FireStoreDirectoryEntry().path(path).name("file-2.json"));
+      testEntries.add(new FireStoreDirectoryEntry().path(path).name("file-3.json"));
+    }
+
+    return testEntries;
+  }
+}
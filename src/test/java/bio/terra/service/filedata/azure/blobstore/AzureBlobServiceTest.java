@@ -8,12 +8,14 @@ import static org.mockito.Mockito.when;
 import bio.terra.common.category.Unit;
 import bio.terra.service.filedata.azure.util.BlobContainerClientFactory;
 import bio.terra.service.filedata.azure.util.BlobCrl;
+import bio.terra.service.filedata.azure.util.UserDelegationKeyCache;
 import bio.terra.service.resourcemanagement.azure.AzureResourceConfiguration;
 import com.azure.core.credential.TokenCredential;
 import com.azure.identity.ClientSecretCredentialBuilder;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.common.policy.RequestRetryOptions;
 import java.time.Duration;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -42,7 +44,7 @@ class AzureBlobServiceTest {
 
   @BeforeEach
   void setup() {
-    azureBlobService = new AzureBlobService(resourceConfiguration);
+    azureBlobService = new AzureBlobService(resourceConfiguration, new UserDelegationKeyCache());
     when(resourceConfiguration.maxRetries()).thenReturn(MAX_RETRIES);
     when(resourceConfiguration.retryTimeoutSeconds()).thenReturn(RETRY_TIMEOUT_SECONDS);
   }
@@ -88,7 +90,8 @@ class AzureBlobServiceTest {
             .build();
 
     BlobContainerClientFactory blobContainerClientFactory =
-        azureBlobService.getSourceClientFactory(ACCOUNT_NAME, azureCredential, CONTAINER_NAME);
+        azureBlobService.getSourceClientFactory(
+            ACCOUNT_NAME, azureCredential, UUID.randomUUID(), CONTAINER_NAME);
     BlobContainerClient blobContainerClient = blobContainerClientFactory.getBlobContainerClient();
 
     assertThat(blobContainerClient.getAccountName(), equalTo(ACCOUNT_NAME));
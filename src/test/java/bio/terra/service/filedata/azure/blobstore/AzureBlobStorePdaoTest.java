@@ -160,7 +160,7 @@ public class AzureBlobStorePdaoTest {
     sourceBlobContainerFactory = mock(BlobContainerClientFactory.class);
     blobCrl = mock(BlobCrl.class);
     doReturn(targetBlobContainerFactory).when(dao).getTargetDataClientFactory(any(), any(), any());
-    when(azureBlobService.getSourceClientFactory(anyString(), any(), anyString()))
+    when(azureBlobService.getSourceClientFactory(anyString(), any(), any(), anyString()))
         .thenReturn(sourceBlobContainerFactory);
     when(azureBlobService.getSourceClientFactory(any())).thenReturn(sourceBlobContainerFactory);
     when(azureBlobService.getBlobCrl(any())).thenReturn(blobCrl);
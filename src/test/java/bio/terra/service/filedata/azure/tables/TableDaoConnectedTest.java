@@ -22,6 +22,7 @@ import bio.terra.service.filedata.google.firestore.FireStoreFile;
 import bio.terra.service.snapshot.Snapshot;
 import bio.terra.service.snapshot.SnapshotSource;
 import com.azure.core.credential.AzureNamedKeyCredential;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 import com.azure.data.tables.TableServiceClientBuilder;
 import java.time.Instant;
@@ -59,6 +60,7 @@ public class TableDaoConnectedTest {
   @Autowired TableFileDao tableFileDao;
   @Autowired TableDirectoryDao tableDirectoryDao;
   private TableServiceClient tableServiceClient;
+  private TableServiceAsyncClient tableServiceAsyncClient;
   private UUID datasetId;
   private Dataset dataset;
   private UUID snapshotId;
@@ -77,14 +79,15 @@ public class TableDaoConnectedTest {
             + connectedTestConfiguration.getSourceStorageAccountName()
             + ".table.core.windows.net";
     uniqueTestDirectory = UUID.randomUUID().toString().replace("-", "");
-    tableServiceClient =
+    TableServiceClientBuilder tableServiceClientBuilder =
         new TableServiceClientBuilder()
             .credential(
                 new AzureNamedKeyCredential(
                     connectedTestConfiguration.getSourceStorageAccountName(),
                     azureUtils.getSourceStorageAccountPrimarySharedKey()))
-            .endpoint(endpoint)
-            .buildClient();
+            .endpoint(endpoint);
+    tableServiceClient = tableServiceClientBuilder.buildClient();
+    tableServiceAsyncClient = tableServiceClientBuilder.buildAsyncClient();
     datasetId = UUID.randomUUID();
     dataset = new Dataset().id(datasetId).name(Names.randomizeName("dataset"));
     refIds = new HashSet<>();
@@ -275,7 +278,7 @@ public class TableDaoConnectedTest {
     }
 
     // Compute the size and checksums
-    tableDao.snapshotCompute(snapshot, tableServiceClient, tableServiceClient);
+    tableDao.snapshotCompute(snapshot, tableServiceClient, tableServiceAsyncClient);
 
     // Check the accumulated size on the root dir
     FireStoreDirectoryEntry snapObject =
@@ -15,14 +15,19 @@ import bio.terra.service.common.azure.StorageTableName;
 import bio.terra.service.filedata.FileMetadataUtils;
 import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
 import bio.terra.service.resourcemanagement.azure.AzureAuthService;
+import com.azure.core.http.rest.PagedFlux;
 import com.azure.core.http.rest.PagedIterable;
+import com.azure.core.http.rest.PagedResponseBase;
+import com.azure.data.tables.TableAsyncClient;
 import com.azure.data.tables.TableClient;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 import com.azure.data.tables.models.TableEntity;
 import com.azure.data.tables.models.TableItem;
 import com.azure.data.tables.models.TableServiceException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Stream;
 import org.junit.Before;
@@ -37,6 +42,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit4.SpringRunner;
+import reactor.core.publisher.Mono;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest
@@ -58,6 +64,8 @@ public class TableDirectoryDaoTest {
   @MockBean private AzureAuthService authService;
   @MockBean private TableServiceClient tableServiceClient;
   @MockBean private TableClient tableClient;
+  @MockBean private TableServiceAsyncClient tableServiceAsyncClient;
+  @MockBean private TableAsyncClient tableAsyncClient;
   @Autowired private TableDirectoryDao dao;
 
   @Before
@@ -151,16 +159,43 @@ public class TableDirectoryDaoTest {
 
   @Test
   public void validateRefIdsFindsMissingRecords() {
-    PagedIterable<TableEntity> mockPagedIterable = mock(PagedIterable.class);
-    Iterator<TableEntity> mockIterator = mock(Iterator.class);
-    when(mockIterator.hasNext()).thenReturn(false);
-    when(mockPagedIterable.iterator()).thenReturn(mockIterator);
-    when(tableClient.listEntities(any(), any(), any())).thenReturn(mockPagedIterable);
+    when(tableServiceAsyncClient.getTableClient(any())).thenReturn(tableAsyncClient);
+    String validId = UUID.randomUUID().toString();
+    TableEntity validEntity =
+        new TableEntity(PARTITION_KEY, validId)
+            .addProperty(FireStoreDirectoryEntry.FILE_ID_FIELD_NAME, validId);
+    when(tableAsyncClient.listEntities(any()))
+        .thenReturn(
+            new PagedFlux<>(
+                () ->
+                    Mono.just(
+                        new PagedResponseBase<Void, TableEntity>(
+                            null, 200, null, List.of(validEntity), null, null))));
+
+    String missingId = UUID.randomUUID().toString();
+    List<String> refIds = List.of(validId, missingId);
+    List<String> response = dao.validateRefIds(tableServiceAsyncClient, DATASET_ID, refIds);
+    assertThat("Only the missing id is returned", response, equalTo(List.of(missingId)));
+  }
+
+  @Test
+  public void batchRetrieveByIdLeavesOutMissingRecords() {
+    when(tableServiceAsyncClient.getTableClient(any())).thenReturn(tableAsyncClient);
+    when(tableAsyncClient.listEntities(any()))
+        .thenReturn(
+            new PagedFlux<>(
+                () ->
+                    Mono.just(
+                        new PagedResponseBase<Void, TableEntity>(
+                            null, 200, null, List.of(entity), null, null))));
 
     String missingId = UUID.randomUUID().toString();
-    List<String> refIds = List.of(missingId);
-    List<String> response = dao.validateRefIds(tableServiceClient, DATASET_ID, refIds);
-    assertEquals(response.get(0), missingId);
+    Map<String, FireStoreDirectoryEntry> response =
+        dao.batchRetrieveById(
+            tableServiceAsyncClient,
+            StorageTableName.SNAPSHOT.toTableName(DATASET_ID),
+            List.of(FILE_ID, missingId));
+    assertThat("Only the found id is returned", response, equalTo(Map.of(FILE_ID, directoryEntry)));
   }
 
   @Test
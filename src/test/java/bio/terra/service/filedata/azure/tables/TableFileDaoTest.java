@@ -11,18 +11,21 @@ import static org.mockito.Mockito.when;
 import bio.terra.common.category.Unit;
 import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
 import bio.terra.service.filedata.google.firestore.FireStoreFile;
+import com.azure.data.tables.TableAsyncClient;
 import com.azure.data.tables.TableClient;
+import com.azure.data.tables.TableServiceAsyncClient;
 import com.azure.data.tables.TableServiceClient;
 import com.azure.data.tables.models.TableEntity;
 import com.azure.data.tables.models.TableServiceException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 import java.util.UUID;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
 
 @ExtendWith(MockitoExtension.class)
 @Tag(Unit.TAG)
@@ -33,7 +36,10 @@ public class TableFileDaoTest {
 
   @Mock private TableServiceClient tableServiceClient;
   @Mock private TableClient tableClient;
-  private final TableFileDao dao = new TableFileDao(Runnable::run);
+  @Mock private TableServiceAsyncClient tableServiceAsyncClient;
+  @Mock private TableAsyncClient tableAsyncClient;
+  private final TableFileDao dao =
+      new TableFileDao(Runnable::run, new TableRequestWindow(10, new SimpleMeterRegistry()));
   private final TableEntity entity =
       new TableEntity(PARTITION_KEY, FILE_ID)
           .addProperty(FireStoreFile.FILE_ID_FIELD_NAME, FILE_ID)
@@ -47,14 +53,14 @@ public class TableFileDaoTest {
           .addProperty(FireStoreFile.CHECKSUM_MD5_FIELD_NAME, "checksumMd5")
           .addProperty(FireStoreFile.SIZE_FIELD_NAME, 1L);
 
-  @BeforeEach
-  void setUp() {
+  private void mockTableClient() {
     when(tableServiceClient.getTableClient(any())).thenReturn(tableClient);
     when(tableClient.getEntity(PARTITION_KEY, FILE_ID)).thenReturn(entity);
   }
 
   @Test
   void testRetrieveFileMetadata() {
+    mockTableClient();
     FireStoreFile fileMetadata = dao.retrieveFileMetadata(tableServiceClient, DATASET_ID, FILE_ID);
     FireStoreFile expected = FireStoreFile.fromTableEntity(entity);
     assertEquals(fileMetadata, expected, "The same object is returned");
@@ -62,6 +68,7 @@ public class TableFileDaoTest {
 
   @Test
   void testDeleteFileMetadata() {
+    mockTableClient();
     boolean exists = dao.deleteFileMetadata(tableServiceClient, DATASET_ID, FILE_ID);
     assertTrue(exists, "Existing row is deleted");
 
@@ -73,6 +80,8 @@ public class TableFileDaoTest {
 
   @Test
   void testBatchRetrieveFileMetadata() {
+    when(tableServiceAsyncClient.getTableClient(any())).thenReturn(tableAsyncClient);
+    when(tableAsyncClient.getEntity(PARTITION_KEY, FILE_ID)).thenReturn(Mono.just(entity));
     FireStoreDirectoryEntry fsDirectoryEntry = new FireStoreDirectoryEntry().fileId(FILE_ID);
 
     // test that invalid fileId is ignored and excluded from the results of
@@ -80,14 +89,14 @@ public class TableFileDaoTest {
     var invalidFileId = UUID.randomUUID().toString();
     FireStoreDirectoryEntry fsDirectoryEntry_notValid =
         new FireStoreDirectoryEntry().fileId(invalidFileId);
-    when(tableClient.getEntity(PARTITION_KEY, invalidFileId))
-        .thenThrow(TableServiceException.class);
+    when(tableAsyncClient.getEntity(PARTITION_KEY, invalidFileId))
+        .thenReturn(Mono.error(new TableServiceException("Not found", null)));
 
     List<FireStoreDirectoryEntry> directoryEntries =
         List.of(fsDirectoryEntry, fsDirectoryEntry_notValid);
     List<FireStoreFile> expectedFiles = List.of(FireStoreFile.fromTableEntity(entity));
     List<FireStoreFile> files =
-        dao.batchRetrieveFileMetadata(tableServiceClient, DATASET_ID, directoryEntries);
+        dao.batchRetrieveFileMetadata(tableServiceAsyncClient, DATASET_ID, directoryEntries);
     assertThat(files, equalTo(expectedFiles));
   }
 }
@@ -0,0 +1,127 @@
+package bio.terra.service.filedata.azure.tables;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.common.category.Unit;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+@Tag(Unit.TAG)
+class TableRequestWindowTest {
+  private static final int MAX_IN_FLIGHT = 3;
+  private static final long REQUEST_MILLIS = 200;
+
+  private SimpleMeterRegistry meterRegistry;
+  private TableRequestWindow window;
+
+  @BeforeEach
+  void beforeEach() {
+    meterRegistry = new SimpleMeterRegistry();
+    window = new TableRequestWindow(MAX_IN_FLIGHT, meterRegistry);
+  }
+
+  @Test
+  void requestsAreBoundedAndAnsweredInOrder() {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<Integer> inputs = IntStream.range(0, 20).boxed().toList();
+
+    List<Integer> responses =
+        window.requestAll(
+            inputs,
+            i ->
+                Mono.fromRunnable(
+                        () -> maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                    // Later inputs answer sooner, so that responses arrive out of order
+                    .then(Mono.delay(Duration.ofMillis(20 - i)))
+                    .then(Mono.fromCallable(() -> i * 2))
+                    .doFinally(signal -> inFlight.decrementAndGet()));
+
+    assertThat(
+        "Responses are in the order of the inputs",
+        responses,
+        equalTo(inputs.stream().map(i -> i * 2).toList()));
+    assertThat(
+        "No more than the window is in flight",
+        maxInFlight.get(),
+        lessThanOrEqualTo(MAX_IN_FLIGHT));
+    assertThat(
+        "No request is left in flight",
+        meterRegistry.get(TableRequestWindow.IN_FLIGHT_GAUGE_NAME).gauge().value(),
+        equalTo(0.0));
+    assertThat(
+        "Each request's queue wait is recorded",
+        meterRegistry.get(TableRequestWindow.QUEUE_WAIT_TIMER_NAME).timer().count(),
+        equalTo((long) inputs.size()));
+  }
+
+  @Test
+  void concurrentBatchesShareTheWindow() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<Integer> inputs = IntStream.range(0, MAX_IN_FLIGHT).boxed().toList();
+    Callable<List<Integer>> batch =
+        () ->
+            window.requestAll(
+                inputs,
+                i ->
+                    Mono.fromRunnable(
+                            () ->
+                                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max))
+                        .then(Mono.delay(Duration.ofMillis(REQUEST_MILLIS)))
+                        .then(Mono.fromCallable(() -> i))
+                        .doFinally(signal -> inFlight.decrementAndGet()));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List<Future<List<Integer>>> batches = executor.invokeAll(List.of(batch, batch));
+      for (Future<List<Integer>> responses : batches) {
+        assertThat("Every request is answered", responses.get(), equalTo(inputs));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(
+        "No more than the window is in flight across the batches",
+        maxInFlight.get(),
+        lessThanOrEqualTo(MAX_IN_FLIGHT));
+    assertThat(
+        "The requests of one batch waited for the other's to free their slots",
+        meterRegistry
+            .get(TableRequestWindow.QUEUE_WAIT_TIMER_NAME)
+            .timer()
+            .max(TimeUnit.MILLISECONDS),
+        greaterThanOrEqualTo(REQUEST_MILLIS / 2.0));
+  }
+
+  @Test
+  void failedRequestIsThrown() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            window.requestAll(
+                List.of(1, 2),
+                i -> i == 2 ? Mono.error(new IllegalStateException("failed")) : Mono.just(i)));
+    assertThat(
+        "No request is left in flight",
+        meterRegistry.get(TableRequestWindow.IN_FLIGHT_GAUGE_NAME).gauge().value(),
+        equalTo(0.0));
+  }
+}
@@ -0,0 +1,113 @@
+package bio.terra.service.filedata.azure.tables;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.common.FutureUtils;
+import bio.terra.common.category.OnDemand;
+import com.azure.data.tables.TableClient;
+import com.azure.data.tables.TableServiceClient;
+import com.azure.data.tables.TableServiceClientBuilder;
+import com.azure.data.tables.models.TableEntity;
+import com.azure.data.tables.models.TableTransactionActionType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Compares writing directory-like entities to a storage table one upsert per entity, as the
+ * snapshot file system was written before, with {@link TableTransactionBatcher}. Runs against a
+ * local Azurite emulator, started for example with {@code docker run -p 10002:10002
+ * mcr.microsoft.com/azure-storage/azurite azurite-table --tableHost 0.0.0.0}.
+ */
+@Tag(OnDemand.TAG)
+class TableTransactionBatcherBenchmarkTest {
+  private static final Logger logger =
+      LoggerFactory.getLogger(TableTransactionBatcherBenchmarkTest.class);
+
+  private static final String AZURITE_CONNECTION_STRING = "UseDevelopmentStorage=true";
+  private static final int FILES_PER_DIRECTORY = 250;
+  private static final int THREADS = 50;
+
+  private TableServiceClient tableServiceClient;
+  private ThreadPoolTaskExecutor executor;
+
+  @BeforeEach
+  void beforeEach() {
+    tableServiceClient =
+        new TableServiceClientBuilder().connectionString(AZURITE_CONNECTION_STRING).buildClient();
+    executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(THREADS);
+    executor.initialize();
+  }
+
+  @AfterEach
+  void afterEach() {
+    executor.shutdown();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10_000, 100_000})
+  void benchmark(int entityCount) {
+    TableClient individualTable = createTable("individual" + entityCount);
+    TableClient batchedTable = createTable("batched" + entityCount);
+    List<TableEntity> entities = entities(entityCount);
+
+    long start = System.nanoTime();
+    FutureUtils.waitFor(
+        entities.stream()
+            .map(
+                entity ->
+                    executor.submit(
+                        () -> {
+                          individualTable.upsertEntity(entity);
+                          return null;
+                        }))
+            .toList());
+    long individualMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    start = System.nanoTime();
+    TableTransactionBatcher batcher =
+        new TableTransactionBatcher(
+            batchedTable, TableTransactionActionType.UPSERT_MERGE, executor);
+    batcher.add(entities);
+    batcher.flush();
+    long batchedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat("Every entity is written", batcher.getEntityCount(), equalTo((long) entityCount));
+    logger.info(
+        "Wrote {} entities: individual upserts {} ms, {} transactions {} ms",
+        entityCount,
+        individualMillis,
+        batcher.getTransactionCount(),
+        batchedMillis);
+
+    tableServiceClient.deleteTable(individualTable.getTableName());
+    tableServiceClient.deleteTable(batchedTable.getTableName());
+  }
+
+  private TableClient createTable(String name) {
+    String tableName = "benchmark" + name;
+    tableServiceClient.deleteTable(tableName);
+    return tableServiceClient.createTable(tableName);
+  }
+
+  private static List<TableEntity> entities(int count) {
+    return IntStream.range(0, count)
+        .mapToObj(
+            i ->
+                new TableEntity("dir" + i / FILES_PER_DIRECTORY, "file" + i)
+                    .addProperty("path", "/dir" + i / FILES_PER_DIRECTORY)
+                    .addProperty("name", "file" + i)
+                    .addProperty("isFileRef", true))
+        .toList();
+  }
+}
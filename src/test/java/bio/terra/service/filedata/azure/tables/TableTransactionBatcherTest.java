@@ -0,0 +1,140 @@
+package bio.terra.service.filedata.azure.tables;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import bio.terra.common.category.Unit;
+import bio.terra.service.filedata.exception.FileSystemExecutionException;
+import com.azure.core.http.HttpResponse;
+import com.azure.data.tables.TableClient;
+import com.azure.data.tables.models.TableEntity;
+import com.azure.data.tables.models.TableTransactionAction;
+import com.azure.data.tables.models.TableTransactionActionType;
+import com.azure.data.tables.models.TableTransactionFailedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class TableTransactionBatcherTest {
+  @Mock private TableClient tableClient;
+
+  // Row keys of each transaction, as submitted
+  private final List<List<String>> submitted = new ArrayList<>();
+
+  @Test
+  void entitiesAreGroupedByPartitionIntoFullTransactions() {
+    doAnswer(this::recordTransaction).when(tableClient).submitTransaction(any());
+    TableTransactionBatcher batcher = newBatcher(TableTransactionActionType.UPSERT_MERGE);
+
+    batcher.add(entities("a", 250));
+    batcher.add(entities("b", 3));
+    assertThat(
+        "Full transactions are submitted as soon as they fill",
+        submitted.stream().map(List::size).toList(),
+        contains(100, 100));
+
+    batcher.flush();
+    assertThat(
+        "Flush submits the rest, one transaction per partition",
+        submitted.stream().map(List::size).toList(),
+        containsInAnyOrder(100, 100, 50, 3));
+    assertThat("All entities are written", batcher.getEntityCount(), equalTo(253L));
+    assertThat("Transactions are counted", batcher.getTransactionCount(), equalTo(4L));
+  }
+
+  @Test
+  void duplicateEntitiesAreWrittenOnce() {
+    doAnswer(this::recordTransaction).when(tableClient).submitTransaction(any());
+    TableTransactionBatcher batcher = newBatcher(TableTransactionActionType.UPSERT_MERGE);
+
+    batcher.add(entities("a", 2));
+    batcher.add(entities("a", 2));
+    batcher.flush();
+
+    assertThat("One write per row", submitted, contains(List.of("a0", "a1")));
+  }
+
+  @Test
+  void transientFailureIsRetried() {
+    TableTransactionFailedException failure = failure(503, null);
+    doThrow(failure)
+        .doAnswer(this::recordTransaction)
+        .when(tableClient)
+        .submitTransaction(any());
+    TableTransactionBatcher batcher = newBatcher(TableTransactionActionType.UPSERT_MERGE);
+
+    batcher.add(entities("a", 2));
+    batcher.flush();
+
+    assertThat("Transaction is written on retry", submitted, contains(List.of("a0", "a1")));
+  }
+
+  @Test
+  void deleteOfMissingEntityIsDropped() {
+    TableTransactionFailedException failure = failure(404, 1);
+    doThrow(failure)
+        .doAnswer(this::recordTransaction)
+        .when(tableClient)
+        .submitTransaction(any());
+    TableTransactionBatcher batcher = newBatcher(TableTransactionActionType.DELETE);
+
+    batcher.add(entities("a", 3));
+    batcher.flush();
+
+    assertThat(
+        "Transaction is resubmitted without the missing entity",
+        submitted,
+        contains(List.of("a0", "a2")));
+  }
+
+  @Test
+  void permanentFailureIsThrown() {
+    TableTransactionFailedException failure = failure(400, 0);
+    doThrow(failure).when(tableClient).submitTransaction(any());
+    TableTransactionBatcher batcher = newBatcher(TableTransactionActionType.UPSERT_MERGE);
+
+    batcher.add(entities("a", 1));
+    assertThrows(FileSystemExecutionException.class, batcher::flush);
+  }
+
+  private Object recordTransaction(InvocationOnMock invocation) {
+    List<TableTransactionAction> actions = invocation.getArgument(0);
+    submitted.add(actions.stream().map(a -> a.getEntity().getRowKey()).toList());
+    return null;
+  }
+
+  private TableTransactionBatcher newBatcher(TableTransactionActionType actionType) {
+    return new TableTransactionBatcher(tableClient, actionType, Runnable::run);
+  }
+
+  private static List<TableEntity> entities(String partitionKey, int count) {
+    return IntStream.range(0, count)
+        .mapToObj(i -> new TableEntity(partitionKey, partitionKey + i))
+        .toList();
+  }
+
+  private static TableTransactionFailedException failure(int statusCode, Integer failedIndex) {
+    HttpResponse response = mock(HttpResponse.class);
+    when(response.getStatusCode()).thenReturn(statusCode);
+    TableTransactionFailedException failure = mock(TableTransactionFailedException.class);
+    when(failure.getResponse()).thenReturn(response);
+    when(failure.getFailedTransactionActionIndex()).thenReturn(failedIndex);
+    return failure;
+  }
+}
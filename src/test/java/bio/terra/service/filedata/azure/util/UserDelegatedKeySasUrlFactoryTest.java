@@ -0,0 +1,80 @@
+package bio.terra.service.filedata.azure.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import bio.terra.common.category.Unit;
+import com.azure.storage.blob.BlobClient;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.UserDelegationKey;
+import com.azure.storage.blob.sas.BlobSasPermission;
+import com.azure.storage.blob.sas.BlobServiceSasSignatureValues;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class UserDelegatedKeySasUrlFactoryTest {
+  private static final String CONTAINER_NAME = "container";
+  private static final String TENANT = "tenant";
+  private static final Duration KEY_DURATION = Duration.ofHours(24);
+
+  @Mock private BlobServiceClient blobServiceClient;
+  @Mock private UserDelegationKeyCache delegationKeyCache;
+  @Mock private BlobClient blobClient;
+
+  private UserDelegatedKeySasUrlFactory factory;
+
+  @BeforeEach
+  void beforeEach() {
+    factory =
+        new UserDelegatedKeySasUrlFactory(
+            blobServiceClient, CONTAINER_NAME, TENANT, KEY_DURATION, delegationKeyCache);
+  }
+
+  @Test
+  void sasExpiryIsClampedToKeyExpiry() {
+    OffsetDateTime keyExpiry = OffsetDateTime.now(ZoneOffset.UTC).plusMinutes(30);
+    UserDelegationKey key = new UserDelegationKey().setSignedExpiry(keyExpiry);
+    when(delegationKeyCache.get(blobServiceClient, TENANT, KEY_DURATION)).thenReturn(key);
+
+    BlobServiceSasSignatureValues values =
+        new BlobServiceSasSignatureValues(
+            OffsetDateTime.now(ZoneOffset.UTC).plusHours(2),
+            new BlobSasPermission().setReadPermission(true));
+    factory.generateSasToken(values, blobClient);
+
+    ArgumentCaptor<BlobServiceSasSignatureValues> captor =
+        ArgumentCaptor.forClass(BlobServiceSasSignatureValues.class);
+    verify(blobClient).generateUserDelegationSas(captor.capture(), eq(key));
+    assertThat(captor.getValue().getExpiryTime(), equalTo(keyExpiry));
+  }
+
+  @Test
+  void sasExpiryWithinKeyExpiryIsKept() {
+    UserDelegationKey key =
+        new UserDelegationKey().setSignedExpiry(OffsetDateTime.now(ZoneOffset.UTC).plusHours(20));
+    when(delegationKeyCache.get(blobServiceClient, TENANT, KEY_DURATION)).thenReturn(key);
+
+    OffsetDateTime sasExpiry = OffsetDateTime.now(ZoneOffset.UTC).plusHours(1);
+    BlobServiceSasSignatureValues values =
+        new BlobServiceSasSignatureValues(
+            sasExpiry, new BlobSasPermission().setReadPermission(true));
+    factory.generateSasToken(values, blobClient);
+
+    verify(blobClient).generateUserDelegationSas(any(), eq(key));
+    assertThat(values.getExpiryTime(), equalTo(sasExpiry));
+  }
+}
@@ -0,0 +1,84 @@
+package bio.terra.service.filedata.azure.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import bio.terra.common.category.Unit;
+import com.azure.storage.blob.BlobServiceClient;
+import com.azure.storage.blob.models.UserDelegationKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class UserDelegationKeyCacheTest {
+  private static final Duration KEY_DURATION = Duration.ofHours(24);
+  private static final String TENANT = "tenant";
+
+  @Mock private BlobServiceClient blobServiceClient;
+
+  private UserDelegationKeyCache cache;
+
+  @BeforeEach
+  void beforeEach() {
+    cache = new UserDelegationKeyCache(new SimpleMeterRegistry());
+    when(blobServiceClient.getAccountName()).thenReturn("mystorageaccount");
+  }
+
+  @Test
+  void keyIsSharedUntilNearExpiry() {
+    UserDelegationKey key = keyExpiringIn(KEY_DURATION);
+    when(blobServiceClient.getUserDelegationKey(isNull(), any())).thenReturn(key);
+
+    assertThat(cache.get(blobServiceClient, TENANT, KEY_DURATION), sameInstance(key));
+    assertThat(cache.get(blobServiceClient, TENANT, KEY_DURATION), sameInstance(key));
+
+    verify(blobServiceClient, times(1)).getUserDelegationKey(isNull(), any());
+  }
+
+  @Test
+  void keyNearExpiryIsFetchedAgain() {
+    UserDelegationKey expiring =
+        keyExpiringIn(UserDelegationKeyCache.EXPIRY_MARGIN.minusMinutes(1));
+    UserDelegationKey fresh = keyExpiringIn(KEY_DURATION);
+    when(blobServiceClient.getUserDelegationKey(isNull(), any()))
+        .thenReturn(expiring)
+        .thenReturn(fresh);
+
+    cache.get(blobServiceClient, TENANT, KEY_DURATION);
+    assertThat(cache.get(blobServiceClient, TENANT, KEY_DURATION), sameInstance(fresh));
+  }
+
+  @Test
+  void keyIsNotSharedAcrossCredentials() {
+    UserDelegationKey key = keyExpiringIn(KEY_DURATION);
+    UserDelegationKey otherTenantKey = keyExpiringIn(KEY_DURATION);
+    when(blobServiceClient.getUserDelegationKey(isNull(), any()))
+        .thenReturn(key)
+        .thenReturn(otherTenantKey);
+
+    assertThat(cache.get(blobServiceClient, TENANT, KEY_DURATION), sameInstance(key));
+    assertThat(
+        cache.get(blobServiceClient, "otherTenant", KEY_DURATION), sameInstance(otherTenantKey));
+
+    verify(blobServiceClient, times(2)).getUserDelegationKey(isNull(), any());
+  }
+
+  private static UserDelegationKey keyExpiringIn(Duration duration) {
+    return new UserDelegationKey()
+        .setSignedExpiry(OffsetDateTime.now(ZoneOffset.UTC).plus(duration));
+  }
+}
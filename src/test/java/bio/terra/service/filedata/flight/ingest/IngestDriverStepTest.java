@@ -3,6 +3,7 @@ package bio.terra.service.filedata.flight.ingest;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doAnswer;
@@ -12,23 +13,33 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import bio.terra.common.category.Unit;
+import bio.terra.model.BulkLoadFileState;
 import bio.terra.model.CloudPlatform;
+import bio.terra.model.FileLoadModel;
 import bio.terra.service.auth.iam.IamAction;
 import bio.terra.service.auth.iam.IamResourceType;
 import bio.terra.service.configuration.ConfigEnum;
 import bio.terra.service.configuration.ConfigurationService;
+import bio.terra.service.filedata.flight.FileMapKeys;
 import bio.terra.service.job.JobMapKeys;
 import bio.terra.service.job.JobService;
 import bio.terra.service.load.LoadCandidates;
+import bio.terra.service.load.LoadCompletionListener;
 import bio.terra.service.load.LoadFile;
+import bio.terra.service.load.LoadFileUpdate;
 import bio.terra.service.load.LoadService;
 import bio.terra.service.load.flight.LoadMapKeys;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.FlightState;
+import bio.terra.stairway.FlightStatus;
 import bio.terra.stairway.Stairway;
 import bio.terra.stairway.StepResult;
 import bio.terra.stairway.StepStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -65,6 +76,9 @@ class IngestDriverStepTest {
   private StepResult runTest(int maxFailedFileLoads) throws Exception {
     given(jobService.getActivePodCount()).willReturn(1);
     given(configurationService.getParameterValue(ConfigEnum.LOAD_CONCURRENT_FILES)).willReturn(1);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_DRIVER_EVENT_DRIVEN))
+        .willReturn(false);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_BATCH_FILES)).willReturn(1);
 
     // Start the task with three failed loads and one pending (candidate) file.
     LoadCandidates candidates =
@@ -104,11 +118,11 @@ class IngestDriverStepTest {
 
       when(stairway.createFlightId()).thenReturn(CHILD_FLIGHT_ID);
 
-      // When loadService.setLoadFileRunning() is called with our UUID, update the candidate state
-      // so no files are left. Otherwise the step would loop forever.
+      // When loadService.updateLoadFiles() marks the file running with our UUID, update the
+      // candidate state so no files are left. Otherwise the step would loop forever.
       doAnswer(invocation -> candidates.candidateFiles(Collections.emptyList()))
           .when(loadService)
-          .setLoadFileRunning(loadUuid, null, CHILD_FLIGHT_ID);
+          .updateLoadFiles(loadUuid, List.of(LoadFileUpdate.running(null, CHILD_FLIGHT_ID)));
     }
 
     return step.doStep(flightContext);
@@ -122,7 +136,8 @@ class IngestDriverStepTest {
     assertEquals(StepStatus.STEP_RESULT_SUCCESS, stepResult.getStepStatus());
 
     // Verify that the step started the candidate file.
-    verify(loadService).setLoadFileRunning(loadUuid, null, CHILD_FLIGHT_ID);
+    verify(loadService)
+        .updateLoadFiles(loadUuid, List.of(LoadFileUpdate.running(null, CHILD_FLIGHT_ID)));
 
     // Verify that the step launched a downstream child job.
     verify(stairway)
@@ -147,6 +162,163 @@ class IngestDriverStepTest {
         "Parent IamAction was passed as an input parameter to child flight",
         childInputParameters.get(JobMapKeys.IAM_ACTION.getKeyName(), IamAction.class),
         equalTo(PARENT_RESOURCE_ACTION));
+    assertThat(
+        "Load ID was passed as an input parameter to child flight",
+        childInputParameters.get(LoadMapKeys.LOAD_ID, String.class),
+        equalTo(loadUuid.toString()));
+  }
+
+  @Test
+  void testDoStepEventDriven() throws Exception {
+    given(jobService.getActivePodCount()).willReturn(1);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_CONCURRENT_FILES)).willReturn(1);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_DRIVER_EVENT_DRIVEN))
+        .willReturn(true);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_BATCH_FILES)).willReturn(1);
+
+    LoadCompletionListener listener = mock(LoadCompletionListener.class);
+    given(loadService.listenForCompletions(loadUuid)).willReturn(listener);
+    given(loadService.findCandidates(loadUuid, 0))
+        .willReturn(
+            new LoadCandidates()
+                .candidateFiles(Collections.emptyList())
+                .runningLoads(Collections.emptyList())
+                .failedLoads(0));
+
+    // One file is claimed for the free worker slot, then there are no more files to claim
+    String targetPath = "/target/path";
+    LoadFile claimed =
+        new LoadFile()
+            .loadId(loadUuid)
+            .targetPath(targetPath)
+            .state(BulkLoadFileState.RUNNING)
+            .flightId(CHILD_FLIGHT_ID);
+    given(loadService.claimCandidates(loadUuid, List.of(CHILD_FLIGHT_ID)))
+        .willReturn(List.of(claimed), List.of());
+
+    // The worker flight notifies the driver that it ended successfully
+    given(listener.awaitCompletions(any())).willReturn(List.of(CHILD_FLIGHT_ID));
+    String fileId = UUID.randomUUID().toString();
+    FlightMap resultMap = new FlightMap();
+    resultMap.put(FileMapKeys.FILE_ID, fileId);
+    FlightState flightState = mock(FlightState.class);
+    given(flightState.getFlightStatus()).willReturn(FlightStatus.SUCCESS);
+    given(flightState.getResultMap()).willReturn(Optional.of(resultMap));
+    given(stairway.getFlightState(CHILD_FLIGHT_ID)).willReturn(flightState);
+    given(stairway.createFlightId()).willReturn(CHILD_FLIGHT_ID);
+
+    FlightContext flightContext = mock(FlightContext.class);
+    FlightMap workingMap = new FlightMap();
+    workingMap.put(LoadMapKeys.LOAD_ID, loadUuid.toString());
+    when(flightContext.getWorkingMap()).thenReturn(workingMap);
+    when(flightContext.getFlightId()).thenReturn(PARENT_FLIGHT_ID);
+    when(flightContext.getInputParameters()).thenReturn(new FlightMap());
+    when(flightContext.getStairway()).thenReturn(stairway);
+
+    IngestDriverStep step =
+        new IngestDriverStep(
+            loadService,
+            configurationService,
+            jobService,
+            null,
+            null,
+            -1,
+            0,
+            null,
+            CloudPlatform.GCP,
+            null);
+    StepResult stepResult = step.doStep(flightContext);
+
+    assertEquals(StepStatus.STEP_RESULT_SUCCESS, stepResult.getStepStatus());
+    verify(stairway).submitToQueue(eq(CHILD_FLIGHT_ID), eq(FileIngestWorkerFlight.class), any());
+    // Only the ended flight was checked on, and its outcome recorded
+    verify(loadService).findCandidates(loadUuid, 0);
+    // The claimed file was launched without being marked running separately, so the only write
+    // to load_file is the outcome, flushed once the load was done
+    verify(loadService).updateLoadFiles(any(), any());
+    verify(loadService)
+        .updateLoadFiles(loadUuid, List.of(LoadFileUpdate.succeeded(targetPath, fileId, null)));
+    verify(loadService).recordLoadFileCompleted(loadUuid, BulkLoadFileState.SUCCEEDED);
+    verify(listener).close();
+  }
+
+  @Test
+  void testDoStepEventDrivenBatch() throws Exception {
+    given(jobService.getActivePodCount()).willReturn(1);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_CONCURRENT_FILES)).willReturn(2);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_DRIVER_EVENT_DRIVEN))
+        .willReturn(true);
+    given(configurationService.getParameterValue(ConfigEnum.LOAD_BATCH_FILES)).willReturn(2);
+
+    LoadCompletionListener listener = mock(LoadCompletionListener.class);
+    given(loadService.listenForCompletions(loadUuid)).willReturn(listener);
+    given(loadService.findCandidates(loadUuid, 0))
+        .willReturn(
+            new LoadCandidates()
+                .candidateFiles(Collections.emptyList())
+                .runningLoads(Collections.emptyList())
+                .failedLoads(0));
+
+    // Both free worker slots are claimed for the same flight, then there are no more files
+    List<LoadFile> claimed =
+        List.of(
+            new LoadFile().loadId(loadUuid).targetPath("/target/a").flightId(CHILD_FLIGHT_ID),
+            new LoadFile().loadId(loadUuid).targetPath("/target/b").flightId(CHILD_FLIGHT_ID));
+    given(loadService.claimCandidates(loadUuid, List.of(CHILD_FLIGHT_ID, CHILD_FLIGHT_ID)))
+        .willReturn(claimed, List.of());
+
+    // The batch flight succeeds, loading one file and failing the other
+    given(listener.awaitCompletions(any())).willReturn(List.of(CHILD_FLIGHT_ID));
+    LoadFileUpdate succeeded = LoadFileUpdate.succeeded("/target/a", "fileId", null);
+    LoadFileUpdate failed = LoadFileUpdate.failed("/target/b", "copy failed");
+    FlightMap resultMap = new FlightMap();
+    resultMap.put(FileMapKeys.BATCH_RESULTS, List.of(succeeded, failed));
+    FlightState flightState = mock(FlightState.class);
+    given(flightState.getFlightStatus()).willReturn(FlightStatus.SUCCESS);
+    given(flightState.getResultMap()).willReturn(Optional.of(resultMap));
+    given(stairway.getFlightState(CHILD_FLIGHT_ID)).willReturn(flightState);
+    given(stairway.createFlightId()).willReturn(CHILD_FLIGHT_ID);
+
+    FlightContext flightContext = mock(FlightContext.class);
+    FlightMap workingMap = new FlightMap();
+    workingMap.put(LoadMapKeys.LOAD_ID, loadUuid.toString());
+    when(flightContext.getWorkingMap()).thenReturn(workingMap);
+    when(flightContext.getFlightId()).thenReturn(PARENT_FLIGHT_ID);
+    when(flightContext.getInputParameters()).thenReturn(new FlightMap());
+    when(flightContext.getStairway()).thenReturn(stairway);
+
+    IngestDriverStep step =
+        new IngestDriverStep(
+            loadService,
+            configurationService,
+            jobService,
+            null,
+            null,
+            -1,
+            0,
+            null,
+            CloudPlatform.GCP,
+            null);
+    StepResult stepResult = step.doStep(flightContext);
+
+    assertEquals(StepStatus.STEP_RESULT_SUCCESS, stepResult.getStepStatus());
+    verify(stairway)
+        .submitToQueue(
+            eq(CHILD_FLIGHT_ID),
+            eq(FileIngestBatchWorkerFlight.class),
+            inputParamsCaptor.capture());
+    assertThat(
+        "Both files were passed to the batch flight",
+        inputParamsCaptor
+            .getValue()
+            .get(FileMapKeys.BATCH_REQUESTS, new TypeReference<List<FileLoadModel>>() {})
+            .size(),
+        equalTo(2));
+    // The flight was checked on once, and the outcome of each of its files recorded
+    verify(stairway).getFlightState(CHILD_FLIGHT_ID);
+    verify(loadService).updateLoadFiles(loadUuid, List.of(succeeded, failed));
+    verify(loadService).recordLoadFileCompleted(loadUuid, BulkLoadFileState.SUCCEEDED);
+    verify(loadService).recordLoadFileCompleted(loadUuid, BulkLoadFileState.FAILED);
   }
 
   @Test
@@ -157,7 +329,7 @@ class IngestDriverStepTest {
     assertEquals(StepStatus.STEP_RESULT_SUCCESS, stepResult.getStepStatus());
 
     // Verify that the step never started the candidate file.
-    verify(loadService, never()).setLoadFileRunning(loadUuid, null, CHILD_FLIGHT_ID);
+    verify(loadService, never()).updateLoadFiles(any(), any());
 
     // Verify that the step never launched a downstream child job.
     verify(stairway, never())
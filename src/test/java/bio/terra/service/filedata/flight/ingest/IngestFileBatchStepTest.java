@@ -0,0 +1,325 @@
+package bio.terra.service.filedata.flight.ingest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import bio.terra.common.category.Unit;
+import bio.terra.common.exception.PdaoFileCopyException;
+import bio.terra.model.BulkLoadFileState;
+import bio.terra.model.FileLoadModel;
+import bio.terra.service.configuration.ConfigurationService;
+import bio.terra.service.dataset.Dataset;
+import bio.terra.service.filedata.FSFileInfo;
+import bio.terra.service.filedata.FileMetadataUtils;
+import bio.terra.service.filedata.exception.FileSystemAbortTransactionException;
+import bio.terra.service.filedata.exception.GoogleInternalServerErrorException;
+import bio.terra.service.filedata.flight.FileMapKeys;
+import bio.terra.service.filedata.google.firestore.FireStoreDao;
+import bio.terra.service.filedata.google.firestore.FireStoreDirectoryEntry;
+import bio.terra.service.filedata.google.firestore.FireStoreFile;
+import bio.terra.service.filedata.google.gcs.GcsPdao;
+import bio.terra.service.load.LoadFileUpdate;
+import bio.terra.service.resourcemanagement.google.GoogleBucketResource;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class IngestFileBatchStepTest {
+
+  private static final String LOAD_TAG = "lt";
+  private static final GoogleBucketResource BUCKET =
+      new GoogleBucketResource().resourceId(UUID.randomUUID());
+
+  @Mock private FireStoreDao fileDao;
+
+  @Mock private GcsPdao gcsPdao;
+
+  @Mock private ConfigurationService configService;
+
+  @Captor private ArgumentCaptor<List<FireStoreFile>> newFilesCaptor;
+
+  private Dataset dataset;
+
+  private FlightContext flightContext;
+
+  private FlightMap workingMap;
+
+  // File ids that each target path was copied under
+  private Map<String, String> copiedFileIds;
+
+  @BeforeEach
+  void setup() {
+    dataset = new Dataset().id(UUID.randomUUID()).predictableFileIds(false);
+    flightContext = mock(FlightContext.class);
+    workingMap = new FlightMap();
+    when(flightContext.getWorkingMap()).thenReturn(workingMap);
+    copiedFileIds = new ConcurrentHashMap<>();
+  }
+
+  @Test
+  void testDoStepFailedFilesDoNotFailTheBatch() throws Exception {
+    givenRequests(loadModel("/dir/good.txt"), loadModel("/dir/bad.txt"), loadModel("relative"));
+    givenNoExistingEntries();
+    givenNoIdConflicts();
+    givenCopiesFailFor("/dir/bad.txt");
+
+    StepResult result = newStep(MoreExecutors.newDirectExecutorService()).doStep(flightContext);
+
+    assertThat("Step succeeds", result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    List<LoadFileUpdate> results = getResults();
+    assertThat(
+        "Outcomes are in the order of the requests",
+        results.stream().map(LoadFileUpdate::targetPath).toList(),
+        contains("/dir/good.txt", "/dir/bad.txt", "relative"));
+    String goodFileId = copiedFileIds.get("/dir/good.txt");
+    assertThat(
+        "The good file succeeds under the id it was copied with",
+        results.get(0).fileId(),
+        equalTo(goodFileId));
+    assertThat(
+        "The failed copy fails its file",
+        results.get(1).state(),
+        equalTo(BulkLoadFileState.FAILED));
+    assertThat(
+        "The relative path fails its file",
+        results.get(2).state(),
+        equalTo(BulkLoadFileState.FAILED));
+
+    // The failed file's directory entry is removed, and undo no longer needs to remove it
+    verify(fileDao).deleteDirectoryEntry(dataset, copiedFileIds.get("/dir/bad.txt"));
+    assertThat(
+        "Only the good file is left for undo to remove",
+        getCreatedFiles().keySet(),
+        contains(goodFileId));
+    verify(fileDao).upsertFileMetadata(eq(dataset), newFilesCaptor.capture());
+    assertThat(
+        "Only the good file's metadata is written",
+        newFilesCaptor.getValue().stream().map(FireStoreFile::getFileId).toList(),
+        contains(goodFileId));
+  }
+
+  @Test
+  void testDoStepTransientCopyFailureIsRetried() throws Exception {
+    givenRequests(loadModel("/dir/file.txt"));
+    givenNoExistingEntries();
+    givenNoIdConflicts();
+    when(gcsPdao.copyFile(eq(dataset), any(), anyString(), any()))
+        .thenThrow(new GoogleInternalServerErrorException("retryable"))
+        .thenAnswer(a -> FSFileInfo.getTestInstance(a.getArgument(2), "bucketResourceId"));
+
+    StepResult result = newStep(MoreExecutors.newDirectExecutorService()).doStep(flightContext);
+
+    assertThat("Step succeeds", result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    verify(gcsPdao, times(2)).copyFile(eq(dataset), any(), anyString(), any());
+    assertThat(
+        "The retried copy succeeds",
+        getResults().get(0).state(),
+        equalTo(BulkLoadFileState.SUCCEEDED));
+    verify(fileDao, never()).deleteDirectoryEntry(any(), any());
+  }
+
+  @Test
+  void testDoStepExistingEntries() throws Exception {
+    String loadedId = UUID.randomUUID().toString();
+    String interruptedId = UUID.randomUUID().toString();
+    givenRequests(
+        loadModel("/dir/loaded.txt"),
+        loadModel("/dir/taken.txt"),
+        loadModel("/dir/interrupted.txt"));
+    when(fileDao.lookupDirectoryEntriesByPath(eq(dataset), anyList()))
+        .thenReturn(
+            List.of(
+                directoryEntry("/dir/loaded.txt", loadedId, LOAD_TAG),
+                directoryEntry("/dir/taken.txt", UUID.randomUUID().toString(), "otherLoadTag"),
+                directoryEntry("/dir/interrupted.txt", interruptedId, LOAD_TAG)));
+    when(fileDao.lookupFile(dataset, loadedId)).thenReturn(new FireStoreFile().fileId(loadedId));
+    when(fileDao.lookupFile(dataset, interruptedId)).thenReturn(null);
+    givenNoIdConflicts();
+    givenCopiesFailFor();
+
+    StepResult result = newStep(MoreExecutors.newDirectExecutorService()).doStep(flightContext);
+
+    assertThat("Step succeeds", result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    List<LoadFileUpdate> results = getResults();
+    assertThat(
+        "A file loaded by an earlier run succeeds without being copied again",
+        results.get(0),
+        equalTo(LoadFileUpdate.succeeded("/dir/loaded.txt", loadedId, null)));
+    assertThat(
+        "A path taken by another load fails",
+        results.get(1).state(),
+        equalTo(BulkLoadFileState.FAILED));
+    assertThat(
+        "An interrupted file is finished under its existing id",
+        results.get(2).fileId(),
+        equalTo(interruptedId));
+    assertThat(
+        "Only the interrupted file is copied",
+        copiedFileIds,
+        equalTo(Map.of("/dir/interrupted.txt", interruptedId)));
+  }
+
+  @Test
+  void testDoStepIdConflictUsesExistingId() throws Exception {
+    UUID existingId = UUID.randomUUID();
+    givenRequests(loadModel("/dir/file.txt"));
+    givenNoExistingEntries();
+    // The entry was created by a concurrent run of the load, under another id
+    when(fileDao.upsertDirectoryEntries(eq(dataset), anyList()))
+        .thenAnswer(
+            a -> {
+              List<FireStoreDirectoryEntry> entries = a.getArgument(1);
+              return Map.of(UUID.fromString(entries.get(0).getFileId()), existingId);
+            });
+    givenCopiesFailFor();
+
+    StepResult result = newStep(MoreExecutors.newDirectExecutorService()).doStep(flightContext);
+
+    assertThat("Step succeeds", result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    assertThat(
+        "The file is copied under the existing id",
+        copiedFileIds.get("/dir/file.txt"),
+        equalTo(existingId.toString()));
+    assertThat(
+        "The file succeeds under the existing id",
+        getResults().get(0).fileId(),
+        equalTo(existingId.toString()));
+    assertThat("Undo does not remove the other run's file", getCreatedFiles().keySet(), hasSize(0));
+  }
+
+  @Test
+  void testDoStepRejectedCopyRunsOnStepThread() throws Exception {
+    givenRequests(loadModel("/dir/file.txt"));
+    givenNoExistingEntries();
+    givenNoIdConflicts();
+    givenCopiesFailFor();
+    ExecutorService executor = mock(ExecutorService.class);
+    when(executor.submit(any(Callable.class))).thenThrow(new RejectedExecutionException("full"));
+
+    StepResult result = newStep(executor).doStep(flightContext);
+
+    assertThat("Step succeeds", result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    assertThat(
+        "The rejected copy is made all the same",
+        getResults().get(0).state(),
+        equalTo(BulkLoadFileState.SUCCEEDED));
+  }
+
+  @Test
+  void testDoStepFirestoreFailureIsRetried() throws Exception {
+    givenRequests(loadModel("/dir/file.txt"));
+    when(fileDao.lookupDirectoryEntriesByPath(eq(dataset), anyList()))
+        .thenThrow(new FileSystemAbortTransactionException("aborted"));
+
+    StepResult result = newStep(MoreExecutors.newDirectExecutorService()).doStep(flightContext);
+
+    assertThat(
+        "Step is retried", result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_FAILURE_RETRY));
+  }
+
+  @Test
+  void testUndoStepRemovesCreatedFiles() throws Exception {
+    String fileId = UUID.randomUUID().toString();
+    FlightMap inputParameters = new FlightMap();
+    inputParameters.put(FileMapKeys.BUCKET_INFO, BUCKET);
+    when(flightContext.getInputParameters()).thenReturn(inputParameters);
+    workingMap.put(FileMapKeys.BATCH_CREATED_FILES, Map.of(fileId, "gs://bucket/path/file.txt"));
+
+    StepResult result = newStep(MoreExecutors.newDirectExecutorService()).undoStep(flightContext);
+
+    assertThat("Undo succeeds", result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    verify(fileDao).deleteFileMetadata(dataset, fileId);
+    verify(fileDao).deleteDirectoryEntry(dataset, fileId);
+    verify(gcsPdao).deleteFileById(eq(dataset), eq(fileId), eq("file.txt"), any());
+  }
+
+  private IngestFileBatchStep newStep(ExecutorService executor) {
+    return new IngestFileBatchStep(fileDao, gcsPdao, configService, dataset, executor, 2);
+  }
+
+  private void givenRequests(FileLoadModel... requests) {
+    FlightMap inputParameters = new FlightMap();
+    inputParameters.put(FileMapKeys.BATCH_REQUESTS, List.of(requests));
+    inputParameters.put(FileMapKeys.BUCKET_INFO, BUCKET);
+    when(flightContext.getInputParameters()).thenReturn(inputParameters);
+  }
+
+  private void givenNoExistingEntries() throws InterruptedException {
+    when(fileDao.lookupDirectoryEntriesByPath(eq(dataset), anyList())).thenReturn(List.of());
+  }
+
+  private void givenNoIdConflicts() throws InterruptedException {
+    when(fileDao.upsertDirectoryEntries(eq(dataset), anyList())).thenReturn(Map.of());
+  }
+
+  /** Copies record the id they were made under, and fail for the given target paths. */
+  private void givenCopiesFailFor(String... failedPaths) {
+    when(gcsPdao.copyFile(eq(dataset), any(), anyString(), any()))
+        .thenAnswer(
+            a -> {
+              FileLoadModel loadModel = a.getArgument(1);
+              String fileId = a.getArgument(2);
+              copiedFileIds.put(loadModel.getTargetPath(), fileId);
+              if (List.of(failedPaths).contains(loadModel.getTargetPath())) {
+                throw new PdaoFileCopyException("copy failed");
+              }
+              return FSFileInfo.getTestInstance(fileId, "bucketResourceId");
+            });
+  }
+
+  private List<LoadFileUpdate> getResults() {
+    return workingMap.get(FileMapKeys.BATCH_RESULTS, new TypeReference<>() {});
+  }
+
+  private Map<String, String> getCreatedFiles() {
+    return workingMap.get(FileMapKeys.BATCH_CREATED_FILES, new TypeReference<>() {});
+  }
+
+  private static FileLoadModel loadModel(String targetPath) {
+    return new FileLoadModel()
+        .loadTag(LOAD_TAG)
+        .sourcePath("gs://bucket/path" + targetPath)
+        .targetPath(targetPath);
+  }
+
+  private static FireStoreDirectoryEntry directoryEntry(
+      String targetPath, String fileId, String loadTag) {
+    return new FireStoreDirectoryEntry()
+        .fileId(fileId)
+        .isFileRef(true)
+        .path(FileMetadataUtils.getDirectoryPath(targetPath))
+        .name(FileMetadataUtils.getName(targetPath))
+        .loadTag(loadTag);
+  }
+}
@@ -4,7 +4,13 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -16,6 +22,8 @@ import bio.terra.common.category.Unit;
 import bio.terra.model.IngestRequestModel;
 import bio.terra.model.TableDataType;
 import bio.terra.service.common.CommonMapKeys;
+import bio.terra.service.configuration.ConfigEnum;
+import bio.terra.service.configuration.ConfigurationService;
 import bio.terra.service.dataset.Dataset;
 import bio.terra.service.dataset.DatasetService;
 import bio.terra.service.dataset.DatasetTable;
@@ -31,10 +39,12 @@ import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.StepResult;
 import bio.terra.stairway.StepStatus;
-import com.azure.data.tables.TableServiceClient;
+import com.azure.data.tables.TableServiceAsyncClient;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
@@ -48,11 +58,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 @ExtendWith(MockitoExtension.class)
 @Tag(Unit.TAG)
 class IngestValidateScratchTableFilerefsStepTest {
+  @Mock private ConfigurationService configurationService;
   @Mock private AzureAuthService azureAuthService;
   @Mock private DatasetService datasetService;
   @Mock private AzureSynapsePdao azureSynapsePdao;
   @Mock private TableDirectoryDao tableDirectoryDao;
-  @Mock private TableServiceClient tableServiceClient;
+  @Mock private TableServiceAsyncClient tableServiceClient;
   @Mock private FlightContext flightContext;
   private static final String FLIGHT_ID = "a_flight_id";
   private static final String SCRATCH_TABLE_NAME =
@@ -65,6 +76,7 @@ class IngestValidateScratchTableFilerefsStepTest {
       new Column().name("a_fileref_column").type(TableDataType.FILEREF);
   private static final String INVALID_REFID = "invalid_refid";
   private static final String VALID_REFID = "valid_refid";
+  private static final int MAX_ERRORS = 1000;
 
   @BeforeEach
   void setup() {
@@ -83,7 +95,7 @@ class IngestValidateScratchTableFilerefsStepTest {
     workingMap.put(CommonMapKeys.DATASET_STORAGE_AUTH_INFO, datasetStorageAuthInfo);
     when(flightContext.getWorkingMap()).thenReturn(workingMap);
 
-    when(azureAuthService.getTableServiceClient(datasetStorageAuthInfo))
+    when(azureAuthService.getTableServiceAsyncClient(datasetStorageAuthInfo))
         .thenReturn(tableServiceClient);
   }
 
@@ -94,14 +106,47 @@ class IngestValidateScratchTableFilerefsStepTest {
     when(datasetService.retrieveForIngest(DATASET_ID)).thenReturn(dataset);
   }
 
+  /** Mock the configuration that sizes the validation of fileref IDs. */
+  private void mockValidationConfiguration(int batchSize, int maxErrors) {
+    when(configurationService.getParameterValue(ConfigEnum.FIRESTORE_VALIDATE_BATCH_SIZE))
+        .thenReturn(batchSize);
+    when(configurationService.getParameterValue(ConfigEnum.REF_ID_VALIDATION_PARALLELISM))
+        .thenReturn(1);
+    when(configurationService.getParameterValue(ConfigEnum.REF_ID_VALIDATION_MAX_ERRORS))
+        .thenReturn(maxErrors);
+  }
+
+  /** Mock our scratch table's fileref column to stream the specified fileref IDs. */
+  private void mockFilerefIds(List<String> filerefs) {
+    doAnswer(
+            invocation -> {
+              Predicate<String> refIdConsumer = invocation.getArgument(3);
+              for (String fileref : filerefs) {
+                if (!refIdConsumer.test(fileref)) {
+                  break;
+                }
+              }
+              return null;
+            })
+        .when(azureSynapsePdao)
+        .streamRefIds(
+            eq(SCRATCH_TABLE_NAME),
+            eq(Column.toSynapseColumn(FILEREF_COLUMN)),
+            eq(CollectionType.DATASET),
+            any());
+  }
+
   /**
    * Verify that we obtained fileref IDs from our fileref column in our scratch table, and only our
    * fileref column.
    */
   private void verifyFilerefIdFetch() {
     verify(azureSynapsePdao)
-        .getRefIds(
-            SCRATCH_TABLE_NAME, Column.toSynapseColumn(FILEREF_COLUMN), CollectionType.DATASET);
+        .streamRefIds(
+            eq(SCRATCH_TABLE_NAME),
+            eq(Column.toSynapseColumn(FILEREF_COLUMN)),
+            eq(CollectionType.DATASET),
+            any());
     verifyNoMoreInteractions(azureSynapsePdao);
   }
 
@@ -111,7 +156,12 @@ class IngestValidateScratchTableFilerefsStepTest {
 
     IngestValidateScratchTableFilerefsStep step =
         new IngestValidateScratchTableFilerefsStep(
-            azureAuthService, datasetService, azureSynapsePdao, tableDirectoryDao);
+            configurationService,
+            azureAuthService,
+            datasetService,
+            azureSynapsePdao,
+            tableDirectoryDao,
+            MoreExecutors.newDirectExecutorService());
 
     StepResult stepResult = step.doStep(flightContext);
     assertThat(
@@ -127,16 +177,20 @@ class IngestValidateScratchTableFilerefsStepTest {
   void doStep_validFileref_success() throws InterruptedException {
     mockDatasetWithColumns(STRING_COLUMN, FILEREF_COLUMN);
 
+    mockValidationConfiguration(500, MAX_ERRORS);
     List<String> filerefs = List.of(VALID_REFID);
-    when(azureSynapsePdao.getRefIds(
-            SCRATCH_TABLE_NAME, Column.toSynapseColumn(FILEREF_COLUMN), CollectionType.DATASET))
-        .thenReturn(filerefs);
+    mockFilerefIds(filerefs);
     when(tableDirectoryDao.validateRefIds(tableServiceClient, DATASET_ID, filerefs))
         .thenReturn(List.of());
 
     IngestValidateScratchTableFilerefsStep step =
         new IngestValidateScratchTableFilerefsStep(
-            azureAuthService, datasetService, azureSynapsePdao, tableDirectoryDao);
+            configurationService,
+            azureAuthService,
+            datasetService,
+            azureSynapsePdao,
+            tableDirectoryDao,
+            MoreExecutors.newDirectExecutorService());
 
     StepResult stepResult = step.doStep(flightContext);
     assertThat(
@@ -159,15 +213,19 @@ class IngestValidateScratchTableFilerefsStepTest {
   void doStep_invalidFileref_throwsInvalidFileRefException(List<String> filerefs) {
     mockDatasetWithColumns(STRING_COLUMN, FILEREF_COLUMN);
 
-    when(azureSynapsePdao.getRefIds(
-            SCRATCH_TABLE_NAME, Column.toSynapseColumn(FILEREF_COLUMN), CollectionType.DATASET))
-        .thenReturn(filerefs);
+    mockValidationConfiguration(500, MAX_ERRORS);
+    mockFilerefIds(filerefs);
     when(tableDirectoryDao.validateRefIds(tableServiceClient, DATASET_ID, filerefs))
         .thenReturn(List.of(INVALID_REFID));
 
     IngestValidateScratchTableFilerefsStep step =
         new IngestValidateScratchTableFilerefsStep(
-            azureAuthService, datasetService, azureSynapsePdao, tableDirectoryDao);
+            configurationService,
+            azureAuthService,
+            datasetService,
+            azureSynapsePdao,
+            tableDirectoryDao,
+            MoreExecutors.newDirectExecutorService());
 
     InvalidFileRefException exception =
         assertThrows(
@@ -183,4 +241,62 @@ class IngestValidateScratchTableFilerefsStepTest {
 
     verifyFilerefIdFetch();
   }
+
+  @Test
+  void doStep_repeatedFilerefs_validatedOnce() throws InterruptedException {
+    mockDatasetWithColumns(STRING_COLUMN, FILEREF_COLUMN);
+
+    mockValidationConfiguration(500, MAX_ERRORS);
+    mockFilerefIds(List.of(VALID_REFID, VALID_REFID, INVALID_REFID, VALID_REFID));
+    when(tableDirectoryDao.validateRefIds(
+            tableServiceClient, DATASET_ID, List.of(VALID_REFID, INVALID_REFID)))
+        .thenReturn(List.of(INVALID_REFID));
+
+    IngestValidateScratchTableFilerefsStep step =
+        new IngestValidateScratchTableFilerefsStep(
+            configurationService,
+            azureAuthService,
+            datasetService,
+            azureSynapsePdao,
+            tableDirectoryDao,
+            MoreExecutors.newDirectExecutorService());
+
+    InvalidFileRefException exception =
+        assertThrows(InvalidFileRefException.class, () -> step.doStep(flightContext));
+    assertThat("The invalid fileref is reported once", exception.getCauses(), hasSize(1));
+    assertThat(
+        "All invalid filerefs were found",
+        exception.getMessage(),
+        not(containsString("at least")));
+  }
+
+  @Test
+  void doStep_maxErrorsReached_stopsValidating() {
+    mockDatasetWithColumns(STRING_COLUMN, FILEREF_COLUMN);
+
+    // Validate one fileref at a time, and stop at the first invalid one
+    mockValidationConfiguration(1, 1);
+    mockFilerefIds(List.of(INVALID_REFID, "invalid_refid_2", "invalid_refid_3"));
+    when(tableDirectoryDao.validateRefIds(eq(tableServiceClient), eq(DATASET_ID), anyList()))
+        .thenAnswer(invocation -> invocation.getArgument(2));
+
+    IngestValidateScratchTableFilerefsStep step =
+        new IngestValidateScratchTableFilerefsStep(
+            configurationService,
+            azureAuthService,
+            datasetService,
+            azureSynapsePdao,
+            tableDirectoryDao,
+            MoreExecutors.newDirectExecutorService());
+
+    InvalidFileRefException exception =
+        assertThrows(InvalidFileRefException.class, () -> step.doStep(flightContext));
+    assertThat("Only the first invalid fileref is reported", exception.getCauses(), hasSize(1));
+    assertThat(
+        "The error notes that there may be more invalid filerefs",
+        exception.getMessage(),
+        containsString("at least 1"));
+    verify(tableDirectoryDao, never())
+        .validateRefIds(tableServiceClient, DATASET_ID, List.of("invalid_refid_3"));
+  }
 }
@@ -153,6 +153,13 @@ class FireStoreDaoTest {
     // Create dependency file system
     fireStoreDependencyDao.storeSnapshotFileDependencies(dataset, snapshotId, snapfileIdList);
 
+    // Storing the dependencies again (e.g. on a step retry) should not duplicate them
+    fireStoreDependencyDao.storeSnapshotFileDependencies(dataset, snapshotId, snapfileIdList);
+    assertThat(
+        "Dependencies are stored once per file",
+        fireStoreDependencyDao.getDatasetSnapshotFileIds(dataset, snapshotId),
+        hasSize(snapfileIdList.size()));
+
     // Snapshot and File Dependency should now exist for dataset
     boolean hasReference = fireStoreDependencyDao.datasetHasSnapshotReference(dataset);
     assertThat("Dataset should have dependencies", hasReference);
@@ -0,0 +1,161 @@
+package bio.terra.service.filedata.google.firestore;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import bio.terra.app.configuration.ApplicationConfiguration;
+import bio.terra.app.configuration.SamConfiguration;
+import bio.terra.common.category.OnDemand;
+import bio.terra.service.configuration.ConfigurationService;
+import bio.terra.service.dataset.Dataset;
+import bio.terra.service.resourcemanagement.ResourceService;
+import bio.terra.service.resourcemanagement.google.GoogleProjectResource;
+import bio.terra.service.resourcemanagement.google.GoogleResourceConfiguration;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.QuerySnapshot;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.apache.commons.collections4.ListUtils;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares storing snapshot file dependencies as they were stored before, with a lookup and then a
+ * create for each batch of files, with storing them through a BulkWriter under deterministic ids,
+ * both at the BulkWriter's default initial rate and at the configured one. The BulkWriter's rate
+ * limit is applied by the client, so it shapes the writes to the emulator as it would to Firestore.
+ *
+ * <p>Runs against the Firestore emulator at FIRESTORE_EMULATOR_HOST, e.g. started with {@code
+ * gcloud emulators firestore start --host-port=localhost:8086}.
+ */
+@Tag(OnDemand.TAG)
+class FireStoreDependencyDaoBenchmarkTest {
+  private static final Logger logger =
+      LoggerFactory.getLogger(FireStoreDependencyDaoBenchmarkTest.class);
+
+  private static final String PROJECT_ID = "benchmark-project";
+  private static final int BATCH_SIZE = 500;
+  private static final int DEFAULT_INITIAL_OPS_PER_SECOND = 500;
+  private static final int CONFIGURED_INITIAL_OPS_PER_SECOND = 2000;
+
+  @ParameterizedTest
+  @ValueSource(ints = {10_000, 50_000})
+  void benchmark(int fileCount) throws InterruptedException {
+    List<String> fileIds =
+        IntStream.range(0, fileCount).mapToObj(i -> UUID.randomUUID().toString()).toList();
+    String snapshotId = UUID.randomUUID().toString();
+
+    ApplicationConfiguration appConfiguration = appConfiguration(CONFIGURED_INITIAL_OPS_PER_SECOND);
+    FireStoreUtils fireStoreUtils =
+        new FireStoreUtils(configurationService(appConfiguration), appConfiguration);
+    CollectionReference legacyCollection =
+        FireStoreProject.get(PROJECT_ID)
+            .getFirestore()
+            .collection(UUID.randomUUID() + "-dependencies");
+    long start = System.nanoTime();
+    storeLookupThenCreate(fireStoreUtils, legacyCollection, snapshotId, fileIds);
+    long lookupThenCreateMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    long defaultRateMillis = timeBulkStore(DEFAULT_INITIAL_OPS_PER_SECOND, snapshotId, fileIds);
+    long configuredRateMillis =
+        timeBulkStore(CONFIGURED_INITIAL_OPS_PER_SECOND, snapshotId, fileIds);
+
+    logger.info(
+        "Stored {} dependencies: lookup then create {} ms ({} docs/s), "
+            + "BulkWriter from {} ops/s {} ms ({} docs/s), from {} ops/s {} ms ({} docs/s)",
+        fileCount,
+        lookupThenCreateMillis,
+        docsPerSecond(fileCount, lookupThenCreateMillis),
+        DEFAULT_INITIAL_OPS_PER_SECOND,
+        defaultRateMillis,
+        docsPerSecond(fileCount, defaultRateMillis),
+        CONFIGURED_INITIAL_OPS_PER_SECOND,
+        configuredRateMillis,
+        docsPerSecond(fileCount, configuredRateMillis));
+  }
+
+  /** Store the dependencies in a new dataset's collection, and time it. */
+  private static long timeBulkStore(
+      int initialOpsPerSecond, String snapshotId, List<String> fileIds)
+      throws InterruptedException {
+    ApplicationConfiguration appConfiguration = appConfiguration(initialOpsPerSecond);
+    ConfigurationService configurationService = configurationService(appConfiguration);
+    FireStoreDependencyDao dependencyDao =
+        new FireStoreDependencyDao(
+            new FireStoreUtils(configurationService, appConfiguration),
+            mock(ResourceService.class),
+            configurationService);
+    Dataset dataset =
+        new Dataset()
+            .id(UUID.randomUUID())
+            .projectResource(new GoogleProjectResource().googleProjectId(PROJECT_ID));
+
+    long start = System.nanoTime();
+    dependencyDao.storeSnapshotFileDependencies(dataset, snapshotId, fileIds);
+    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(
+        "Every dependency is stored",
+        dependencyDao.getDatasetSnapshotFileIds(dataset, snapshotId),
+        hasSize(fileIds.size()));
+    return millis;
+  }
+
+  /** Store the dependencies the way they were stored before they had deterministic ids. */
+  private static void storeLookupThenCreate(
+      FireStoreUtils fireStoreUtils,
+      CollectionReference depColl,
+      String snapshotId,
+      List<String> fileIds)
+      throws InterruptedException {
+    for (List<String> batch : ListUtils.partition(fileIds, BATCH_SIZE)) {
+      List<QuerySnapshot> lookups =
+          fireStoreUtils.batchOperation(
+              batch,
+              fileId ->
+                  depColl
+                      .whereEqualTo("fileId", fileId)
+                      .whereEqualTo("snapshotId", snapshotId)
+                      .get());
+      // The collection is new, so every lookup comes back empty and each dependency is created
+      fireStoreUtils.batchOperation(
+          IntStream.range(0, lookups.size()).boxed().toList(),
+          i ->
+              depColl
+                  .document()
+                  .set(
+                      new FireStoreDependency()
+                          .snapshotId(snapshotId)
+                          .fileId(batch.get(i))
+                          .refCount(1L)));
+    }
+  }
+
+  private static ApplicationConfiguration appConfiguration(int initialOpsPerSecond) {
+    ApplicationConfiguration appConfiguration = mock(ApplicationConfiguration.class);
+    when(appConfiguration.getFirestoreQueryBatchSize()).thenReturn(BATCH_SIZE);
+    when(appConfiguration.getFirestoreFutureTimeoutSeconds()).thenReturn(120);
+    when(appConfiguration.getFirestoreBulkWriteInitialOpsPerSecond())
+        .thenReturn(initialOpsPerSecond);
+    return appConfiguration;
+  }
+
+  private static ConfigurationService configurationService(
+      ApplicationConfiguration appConfiguration) {
+    GoogleResourceConfiguration resourceConfiguration =
+        new GoogleResourceConfiguration("jade-data-repo", 600, 4, false, "123456", "78910");
+    return new ConfigurationService(
+        mock(SamConfiguration.class), resourceConfiguration, appConfiguration);
+  }
+
+  private static long docsPerSecond(int docs, long millis) {
+    return millis == 0 ? docs : docs * 1000L / millis;
+  }
+}
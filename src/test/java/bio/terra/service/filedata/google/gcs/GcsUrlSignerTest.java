@@ -0,0 +1,72 @@
+package bio.terra.service.filedata.google.gcs;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import bio.terra.common.category.Unit;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class GcsUrlSignerTest {
+  private static final String PROJECT_ID = "google-project";
+  private static final BlobInfo BLOB_INFO =
+      BlobInfo.newBuilder(BlobId.of("bucket", "path/to/file.txt")).build();
+  private static final Duration TTL = Duration.ofMinutes(15);
+
+  @Mock private Storage storage;
+
+  private SimpleMeterRegistry meterRegistry;
+  private AtomicInteger storagesCreated;
+  private GcsUrlSigner signer;
+
+  @BeforeEach
+  void beforeEach() {
+    meterRegistry = new SimpleMeterRegistry();
+    storagesCreated = new AtomicInteger();
+    signer =
+        new GcsUrlSigner(
+            meterRegistry,
+            projectId -> {
+              storagesCreated.incrementAndGet();
+              return storage;
+            });
+  }
+
+  @Test
+  void reusesStoragePerProject() throws Exception {
+    URL url = new URL("https://storage.googleapis.com/bucket/path/to/file.txt");
+    Storage.SignUrlOption option = Storage.SignUrlOption.withQueryParams(Map.of());
+    when(storage.signUrl(eq(BLOB_INFO), eq(15L), eq(TimeUnit.MINUTES), any())).thenReturn(url);
+
+    assertThat(signer.signUrl(PROJECT_ID, BLOB_INFO, TTL, option), equalTo(url));
+    assertThat(signer.signUrl(PROJECT_ID, BLOB_INFO, TTL, option), equalTo(url));
+
+    assertThat("Storage is created once for the project", storagesCreated.get(), equalTo(1));
+    assertThat(
+        "Each signature is timed",
+        meterRegistry
+            .get(GcsUrlSigner.SIGN_TIMER_NAME)
+            .tag("project", PROJECT_ID)
+            .timer()
+            .count(),
+        equalTo(2L));
+  }
+}
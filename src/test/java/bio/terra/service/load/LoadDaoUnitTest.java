@@ -1,19 +1,25 @@
 package bio.terra.service.load;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import bio.terra.common.EmbeddedDatabaseTest;
 import bio.terra.common.category.Unit;
 import bio.terra.common.fixtures.DaoOperations;
 import bio.terra.model.BulkLoadFileModel;
+import bio.terra.model.BulkLoadFileState;
+import bio.terra.model.BulkLoadHistoryModel;
 import bio.terra.service.dataset.Dataset;
 import bio.terra.service.filedata.FSFileInfo;
 import bio.terra.service.load.exception.LoadLockedException;
 import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -111,6 +117,159 @@ class LoadDaoUnitTest {
     testLoadCandidates(candidates, 0, 0, 0);
   }
 
+  @Test
+  void populateFilesCopiesValuesVerbatimTest() {
+    UUID loadId = loadDao.lockLoad(new LoadLockKey("copyTag", dataset.getId()), "flightId").id();
+    String description = "a \"quoted\", multi-line\ndescription";
+    loadDao.populateFiles(
+        loadId,
+        List.of(
+            new BulkLoadFileModel()
+                .sourcePath("gs://path0")
+                .targetPath("/target/path0")
+                .mimeType("text/csv")
+                .description(description)
+                .md5("md5"),
+            new BulkLoadFileModel().sourcePath("gs://path1").targetPath("/target/path1")));
+
+    List<LoadFile> files = loadDao.findCandidates(loadId, 2).getCandidateFiles();
+    LoadFile described =
+        files.stream()
+            .filter(f -> description.equals(f.getDescription()))
+            .findFirst()
+            .orElseThrow();
+    assertThat("mime type is copied", described.getMimeType(), equalTo("text/csv"));
+    assertThat("md5 is copied", described.getMd5(), equalTo("md5"));
+    assertThat("files are not tried", described.getState(), equalTo(BulkLoadFileState.NOT_TRIED));
+    LoadFile bare =
+        files.stream().filter(f -> f.getDescription() == null).findFirst().orElseThrow();
+    assertThat("missing values stay null", bare.getMimeType(), nullValue());
+
+    loadDao.cleanFiles(loadId);
+    loadDao.unlockLoad(new LoadLockKey("copyTag", dataset.getId()), "flightId");
+  }
+
+  @Test
+  void populateMissingFilesTest() {
+    UUID loadId = loadDao.lockLoad(new LoadLockKey("resumeTag", dataset.getId()), "flightId").id();
+    List<BulkLoadFileModel> loadList = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      loadList.add(
+          new BulkLoadFileModel().sourcePath("gs://path" + i).targetPath("/target/path" + i));
+    }
+    // An interrupted populate step committed the first batch
+    loadDao.populateFiles(loadId, loadList.subList(0, 3));
+
+    assertThat(
+        "only the files not yet populated are inserted",
+        loadDao.populateMissingFiles(loadId, loadList),
+        equalTo(2));
+    assertThat("every file is populated once", loadDao.bulkLoadFileArraySize(loadId), equalTo(5));
+    assertThat(
+        "populating again inserts nothing",
+        loadDao.populateMissingFiles(loadId, loadList),
+        equalTo(0));
+
+    loadDao.cleanFiles(loadId);
+    loadDao.unlockLoad(new LoadLockKey("resumeTag", dataset.getId()), "flightId");
+  }
+
+  @Test
+  void updateLoadFilesTest() {
+    UUID loadId = loadDao.lockLoad(new LoadLockKey("updateTag", dataset.getId()), "flightId").id();
+    List<BulkLoadFileModel> loadList = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      loadList.add(
+          new BulkLoadFileModel().sourcePath("gs://path" + i).targetPath("/target/path" + i));
+    }
+    loadDao.populateFiles(loadId, loadList);
+    loadDao.setLoadFileRunning(loadId, "/target/path3", "flightD");
+
+    FSFileInfo fsFileInfo = new FSFileInfo().checksumCrc32c("crcChecksum").checksumMd5("md5");
+    loadDao.updateLoadFiles(
+        loadId,
+        List.of(
+            LoadFileUpdate.succeeded("/target/path0", "fileA", fsFileInfo),
+            LoadFileUpdate.failed("/target/path1", "errorB"),
+            LoadFileUpdate.running("/target/path2", "flightC"),
+            LoadFileUpdate.notTried("/target/path3")));
+
+    testLoadCandidates(loadDao.findCandidates(loadId, 4), 1, 1, 1);
+    List<BulkLoadHistoryModel> history = loadDao.makeLoadHistoryArray(loadId, 4, 0);
+    BulkLoadHistoryModel succeeded =
+        history.stream().filter(h -> "fileA".equals(h.getFileId())).findFirst().orElseThrow();
+    assertThat("succeeded file is updated", succeeded.getTargetPath(), equalTo("/target/path0"));
+    assertThat("checksums are recorded", succeeded.getChecksumCRC(), equalTo("crcChecksum"));
+    assertThat("checksums are recorded", succeeded.getChecksumMD5(), equalTo("md5"));
+    assertThat(
+        "failed file records its error",
+        loadDao.getFailedLoads(loadId, 4).stream().map(LoadFile::getError).toList(),
+        contains("errorB"));
+    assertThat(
+        "running file records its flight",
+        loadDao.findLoadsByState(loadId, BulkLoadFileState.RUNNING, null).stream()
+            .map(LoadFile::getFlightId)
+            .toList(),
+        contains("flightC"));
+
+    loadDao.cleanFiles(loadId);
+    loadDao.unlockLoad(new LoadLockKey("updateTag", dataset.getId()), "flightId");
+  }
+
+  @Test
+  void claimCandidatesTest() {
+    UUID loadId = loadDao.lockLoad(new LoadLockKey("claimTag", dataset.getId()), "flightId").id();
+    List<BulkLoadFileModel> loadList = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      loadList.add(
+          new BulkLoadFileModel().sourcePath("gs://path" + i).targetPath("/target/path" + i));
+    }
+    loadDao.populateFiles(loadId, loadList);
+
+    List<LoadFile> claimed = loadDao.claimCandidates(loadId, List.of("flightA", "flightB"));
+    assertThat("two files are claimed", claimed, hasSize(2));
+    assertThat(
+        "claimed files are assigned the flight ids in order",
+        claimed.stream().map(LoadFile::getFlightId).toList(),
+        contains("flightA", "flightB"));
+    testLoadCandidates(loadDao.findCandidates(loadId, 3), 0, 2, 1);
+    assertThat(
+        "claimed files are recorded as running under their flight ids",
+        loadDao.findLoadsByState(loadId, BulkLoadFileState.RUNNING, null).stream()
+            .map(LoadFile::getFlightId)
+            .toList(),
+        containsInAnyOrder("flightA", "flightB"));
+
+    List<LoadFile> remaining = loadDao.claimCandidates(loadId, List.of("flightC", "flightD"));
+    assertThat("only the remaining file is claimed", remaining, hasSize(1));
+    assertThat(
+        "nothing is left to claim",
+        loadDao.claimCandidates(loadId, List.of("flightE")),
+        empty());
+
+    loadDao.cleanFiles(loadId);
+    loadDao.unlockLoad(new LoadLockKey("claimTag", dataset.getId()), "flightId");
+  }
+
+  @Test
+  void loadCompletionNotificationTest() {
+    UUID loadId = UUID.randomUUID();
+    try (LoadCompletionListener listener = loadDao.listenForCompletions(loadId)) {
+      assertThat(
+          "no completions before any are notified",
+          listener.awaitCompletions(Duration.ofMillis(10)),
+          empty());
+
+      loadDao.notifyLoadFileCompleted(loadId, "flightA");
+      loadDao.notifyLoadFileCompleted(UUID.randomUUID(), "otherLoadFlight");
+      loadDao.notifyLoadFileCompleted(loadId, "flightB");
+      assertThat(
+          "only completions of the listened load are received",
+          listener.awaitCompletions(Duration.ofSeconds(5)),
+          contains("flightA", "flightB"));
+    }
+  }
+
   @Test
   void serialLockTest() throws IOException {
     final String loadTag = "serialLoadTag";
@@ -0,0 +1,153 @@
+package bio.terra.service.load;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.common.EmbeddedDatabaseTest;
+import bio.terra.common.category.OnDemand;
+import bio.terra.common.fixtures.DaoOperations;
+import bio.terra.model.BulkLoadFileModel;
+import bio.terra.model.BulkLoadFileState;
+import bio.terra.service.dataset.Dataset;
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.apache.commons.collections4.ListUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+/**
+ * Compares populating load_file with JDBC batch inserts of 50 rows, as it was done before COPY
+ * was used, with the COPY based {@link LoadDao#populateFiles} paths.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"google", "unittest"})
+@Tag(OnDemand.TAG)
+@EmbeddedDatabaseTest
+class LoadFilePopulateBenchmarkTest {
+  private static final Logger logger = LoggerFactory.getLogger(LoadFilePopulateBenchmarkTest.class);
+
+  private static final int BATCH_INSERT_SIZE = 50;
+  private static final int COPY_BATCH_SIZE = 1000;
+
+  @Autowired private DaoOperations daoOperations;
+  @Autowired private LoadDao loadDao;
+  @Autowired private NamedParameterJdbcTemplate jdbcTemplate;
+
+  private Dataset dataset;
+
+  @BeforeEach
+  void beforeEach() throws IOException {
+    dataset = daoOperations.createDataset();
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {10_000, 100_000})
+  void benchmark(int fileCount) {
+    long batchInsertMillis = timePopulate("batchInsert", fileCount, this::batchInsertFiles);
+    long copyListMillis =
+        timePopulate(
+            "copyList",
+            fileCount,
+            (loadId, files) -> {
+              for (List<BulkLoadFileModel> batch : ListUtils.partition(files, COPY_BATCH_SIZE)) {
+                loadDao.populateFiles(loadId, batch);
+              }
+            });
+    long copyStreamMillis =
+        timePopulate(
+            "copyStream",
+            fileCount,
+            (loadId, files) -> loadDao.populateFiles(loadId, files.stream(), COPY_BATCH_SIZE));
+
+    logger.info(
+        "Populated {} files: batch insert {} ms, COPY in batches of {} {} ms, COPY stream {} ms",
+        fileCount,
+        batchInsertMillis,
+        COPY_BATCH_SIZE,
+        copyListMillis,
+        copyStreamMillis);
+  }
+
+  private interface Populator {
+    void populate(UUID loadId, List<BulkLoadFileModel> files);
+  }
+
+  private long timePopulate(String loadTag, int fileCount, Populator populator) {
+    LoadLockKey loadLockKey = new LoadLockKey(loadTag, dataset.getId());
+    UUID loadId = loadDao.lockLoad(loadLockKey, "benchmarkFlight").id();
+    List<BulkLoadFileModel> files = makeFiles(fileCount).toList();
+
+    long start = System.nanoTime();
+    populator.populate(loadId, files);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertThat(
+        "Every file is populated", loadDao.bulkLoadFileArraySize(loadId), equalTo(fileCount));
+    loadDao.cleanFiles(loadId);
+    loadDao.unlockLoad(loadLockKey, "benchmarkFlight");
+    return elapsedMillis;
+  }
+
+  private static Stream<BulkLoadFileModel> makeFiles(int fileCount) {
+    return IntStream.range(0, fileCount)
+        .mapToObj(
+            i ->
+                new BulkLoadFileModel()
+                    .sourcePath("gs://benchmark-bucket/source/file" + i)
+                    .targetPath("/benchmark/target/file" + i)
+                    .mimeType("application/octet-stream")
+                    .description("benchmark file " + i)
+                    .md5("md5-" + i));
+  }
+
+  // The populate path that was used before COPY, kept here to compare against
+  private void batchInsertFiles(UUID loadId, List<BulkLoadFileModel> files) {
+    String sql =
+        """
+        INSERT INTO load_file
+        (load_id, source_path, target_path, mime_type, description, state, checksum_md5)
+        VALUES(?,?,?,?,?,?,?)
+        """;
+    for (List<BulkLoadFileModel> batch : ListUtils.partition(files, BATCH_INSERT_SIZE)) {
+      jdbcTemplate
+          .getJdbcTemplate()
+          .batchUpdate(
+              sql,
+              new BatchPreparedStatementSetter() {
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                  ps.setObject(1, loadId);
+                  ps.setString(2, batch.get(i).getSourcePath());
+                  ps.setString(3, batch.get(i).getTargetPath());
+                  ps.setString(4, batch.get(i).getMimeType());
+                  ps.setString(5, batch.get(i).getDescription());
+                  ps.setString(6, BulkLoadFileState.NOT_TRIED.toString());
+                  ps.setString(7, batch.get(i).getMd5());
+                }
+
+                public int getBatchSize() {
+                  return batch.size();
+                }
+              });
+    }
+  }
+}
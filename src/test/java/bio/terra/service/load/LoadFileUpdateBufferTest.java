@@ -0,0 +1,81 @@
+package bio.terra.service.load;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import bio.terra.common.category.Unit;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class LoadFileUpdateBufferTest {
+  @Mock private LoadService loadService;
+  private static final UUID LOAD_ID = UUID.randomUUID();
+
+  @Test
+  void flushWritesPendingUpdatesTogether() {
+    LoadFileUpdateBuffer buffer =
+        new LoadFileUpdateBuffer(loadService, LOAD_ID, 10, Duration.ofMinutes(1));
+    LoadFileUpdate succeeded = LoadFileUpdate.succeeded("/a", "fileA", null);
+    LoadFileUpdate failed = LoadFileUpdate.failed("/b", "error");
+    buffer.add(succeeded);
+    buffer.add(failed);
+    verify(loadService, never()).updateLoadFiles(any(), any());
+
+    buffer.flush();
+    verify(loadService).updateLoadFiles(LOAD_ID, List.of(succeeded, failed));
+    assertThat("nothing is pending after a flush", buffer.getPendingCount(), equalTo(0));
+
+    buffer.flush();
+    verify(loadService).updateLoadFiles(any(), any());
+  }
+
+  @Test
+  void laterUpdateOfAFileReplacesEarlierOne() {
+    LoadFileUpdateBuffer buffer =
+        new LoadFileUpdateBuffer(loadService, LOAD_ID, 10, Duration.ofMinutes(1));
+    buffer.add(LoadFileUpdate.failed("/a", "error"));
+    LoadFileUpdate succeeded = LoadFileUpdate.succeeded("/a", "fileA", null);
+    buffer.add(succeeded);
+    assertThat("updates are coalesced by file", buffer.getPendingCount(), equalTo(1));
+
+    buffer.flush();
+    verify(loadService).updateLoadFiles(LOAD_ID, List.of(succeeded));
+  }
+
+  @Test
+  void flushesWhenFull() {
+    LoadFileUpdateBuffer buffer =
+        new LoadFileUpdateBuffer(loadService, LOAD_ID, 2, Duration.ofMinutes(1));
+    LoadFileUpdate first = LoadFileUpdate.succeeded("/a", "fileA", null);
+    LoadFileUpdate second = LoadFileUpdate.succeeded("/b", "fileB", null);
+    buffer.add(first);
+    buffer.add(second);
+    verify(loadService).updateLoadFiles(LOAD_ID, List.of(first, second));
+  }
+
+  @Test
+  void flushIfDue() {
+    LoadFileUpdateBuffer notDue =
+        new LoadFileUpdateBuffer(loadService, LOAD_ID, 10, Duration.ofMinutes(1));
+    notDue.add(LoadFileUpdate.failed("/a", "error"));
+    notDue.flushIfDue();
+    verify(loadService, never()).updateLoadFiles(any(), any());
+
+    LoadFileUpdateBuffer due = new LoadFileUpdateBuffer(loadService, LOAD_ID, 10, Duration.ZERO);
+    LoadFileUpdate failed = LoadFileUpdate.failed("/b", "error");
+    due.add(failed);
+    due.flushIfDue();
+    verify(loadService).updateLoadFiles(LOAD_ID, List.of(failed));
+  }
+}
@@ -18,6 +18,7 @@ import bio.terra.service.load.exception.LoadLockedException;
 import bio.terra.service.load.flight.LoadMapKeys;
 import bio.terra.stairway.FlightContext;
 import bio.terra.stairway.FlightMap;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
@@ -42,7 +43,7 @@ class LoadServiceTest {
 
   @BeforeEach
   void setup() {
-    loadService = new LoadService(loadDao);
+    loadService = new LoadService(loadDao, new SimpleMeterRegistry());
   }
 
   @Test
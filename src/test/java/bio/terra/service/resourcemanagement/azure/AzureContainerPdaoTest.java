@@ -11,8 +11,12 @@ import static org.mockito.Mockito.when;
 
 import bio.terra.common.category.Unit;
 import bio.terra.model.BillingProfileModel;
+import bio.terra.service.filedata.azure.util.BlobSasTokenOptions;
 import com.azure.storage.blob.BlobContainerClient;
 import com.azure.storage.blob.models.BlobContainerProperties;
+import com.azure.storage.blob.sas.BlobSasPermission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -42,7 +46,7 @@ class AzureContainerPdaoTest {
             .topLevelContainer("tld");
     when(authService.getBlobContainerClient(any(), any(), eq("tld")))
         .thenReturn(blobContainerClient);
-    dao = new AzureContainerPdao(authService);
+    dao = new AzureContainerPdao(authService, new SimpleMeterRegistry());
   }
 
   @Test
@@ -80,4 +84,26 @@ class AzureContainerPdaoTest {
     dao.deleteContainer(billingProfile, storageAccountResource);
     verify(blobContainerClient).deleteIfExists();
   }
+
+  @Test
+  void testSignedUrlReusesContainer() {
+    when(blobContainerClient.exists()).thenReturn(true);
+    when(blobContainerClient.getBlobContainerUrl())
+        .thenReturn("https://mystorageaccount.blob.core.windows.net/tld");
+    when(blobContainerClient.generateSas(any())).thenReturn("sig=SIGNATURE");
+    BlobSasTokenOptions options =
+        new BlobSasTokenOptions(
+            Duration.ofMinutes(15), new BlobSasPermission().setReadPermission(true), null);
+
+    for (int i = 0; i < 2; i++) {
+      assertThat(
+          "container URL is signed",
+          dao.getDestinationContainerSignedUrl(billingProfile, storageAccountResource, options),
+          equalTo("https://mystorageaccount.blob.core.windows.net/tld?sig=SIGNATURE"));
+    }
+
+    verify(authService, times(1)).getBlobContainerClient(any(), any(), eq("tld"));
+    verify(blobContainerClient, times(1)).exists();
+    verify(blobContainerClient, times(2)).generateSas(any());
+  }
 }
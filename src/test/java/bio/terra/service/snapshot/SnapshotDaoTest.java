@@ -978,6 +978,22 @@ public class SnapshotDaoTest {
         drsDao.retrieveReferencedSnapshotIds(drsIds.get(500)),
         containsInAnyOrder(snapshot1.getId()));
 
+    Map<String, List<UUID>> batchSnapshotIds =
+        drsDao.batchRetrieveReferencedSnapshotIds(
+            List.of(drsIds.get(0), drsIds.get(500), DrsIdService.fromUri("drs://home/v2_unknown")));
+    assertThat(
+        "batched lookup finds the snapshots of each drs id",
+        batchSnapshotIds.get(drsIds.get(0).toDrsObjectId()),
+        containsInAnyOrder(snapshot1.getId(), snapshot2.getId()));
+    assertThat(
+        "batched lookup finds the snapshots of each drs id",
+        batchSnapshotIds.get(drsIds.get(500).toDrsObjectId()),
+        containsInAnyOrder(snapshot1.getId()));
+    assertThat(
+        "drs ids without snapshots are left out of a batched lookup",
+        batchSnapshotIds.size(),
+        equalTo(2));
+
     // Deleting snapshot 1 removes entries
     assertThat(
         "all 1000 entries removed when deleting the first snapshot",
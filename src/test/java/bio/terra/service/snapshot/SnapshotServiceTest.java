@@ -25,6 +25,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import bio.terra.app.configuration.ApplicationConfiguration;
 import bio.terra.app.controller.exception.ValidationException;
 import bio.terra.app.model.GoogleCloudResource;
 import bio.terra.app.model.GoogleRegion;
@@ -51,6 +52,7 @@ import bio.terra.model.SamPolicyModel;
 import bio.terra.model.SnapshotAccessRequestStatus;
 import bio.terra.model.SnapshotBuilderOutputTable;
 import bio.terra.model.SnapshotBuilderRequest;
+import bio.terra.model.SnapshotBuilderSettings;
 import bio.terra.model.SnapshotIdsAndRolesModel;
 import bio.terra.model.SnapshotLinkDuosDatasetResponse;
 import bio.terra.model.SnapshotModel;
@@ -98,11 +100,14 @@ import bio.terra.service.snapshotbuilder.SnapshotAccessRequestModel;
 import bio.terra.service.snapshotbuilder.SnapshotBuilderSettingsDao;
 import bio.terra.service.snapshotbuilder.SnapshotBuilderTestData;
 import bio.terra.service.snapshotbuilder.SnapshotRequestDao;
+import bio.terra.service.snapshotbuilder.flight.SnapshotBuilderIndexFlight;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryDataResultModel;
 import bio.terra.service.tabulardata.google.bigquery.BigQueryPdao;
 import bio.terra.service.tabulardata.google.bigquery.BigQuerySnapshotPdao;
 import bio.terra.stairway.FlightMap;
 import bio.terra.stairway.FlightStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.sql.SQLException;
 import java.text.ParseException;
 import java.time.Instant;
@@ -123,6 +128,7 @@ import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.web.client.HttpClientErrorException;
@@ -161,6 +167,7 @@ class SnapshotServiceTest {
   @Mock private RawlsService rawlsService;
   @Mock private DuosClient duosClient;
   @Mock private SnapshotBuilderSettingsDao settingsDao;
+  @Mock private ApplicationEventPublisher eventPublisher;
   private final UUID snapshotId = UUID.randomUUID();
   private final UUID datasetId = UUID.randomUUID();
   private final UUID snapshotTableId = UUID.randomUUID();
@@ -169,6 +176,7 @@ class SnapshotServiceTest {
   private final DuosFirecloudGroupModel duosFirecloudGroup =
       DuosFixtures.createDbFirecloudGroup(DUOS_ID);
 
+  private final ApplicationConfiguration appConfig = new ApplicationConfiguration();
   private SnapshotService service;
 
   @BeforeEach
@@ -188,7 +196,10 @@ class SnapshotServiceTest {
             azureSynapsePdao,
             rawlsService,
             duosClient,
-            settingsDao);
+            settingsDao,
+            eventPublisher,
+            new TableDataCache(new SimpleMeterRegistry()),
+            appConfig);
   }
 
   @Test
@@ -468,6 +479,26 @@ class SnapshotServiceTest {
         containsInAnyOrder(IamAction.UPDATE_SNAPSHOT));
   }
 
+  @Test
+  void patchPublishesSnapshotUpdatedEvent() {
+    SnapshotPatchRequestModel patchRequest = new SnapshotPatchRequestModel().consentCode("c99");
+    when(snapshotDao.patch(snapshotId, patchRequest, TEST_USER)).thenReturn(true);
+    mockSnapshotSummary();
+
+    service.patch(snapshotId, patchRequest, TEST_USER);
+
+    verify(eventPublisher).publishEvent(new SnapshotUpdatedEvent(snapshotId));
+  }
+
+  @Test
+  void patchFailureDoesNotPublishEvent() {
+    SnapshotPatchRequestModel patchRequest = new SnapshotPatchRequestModel().description("d");
+    when(snapshotDao.patch(snapshotId, patchRequest, TEST_USER)).thenReturn(false);
+
+    assertThrows(RuntimeException.class, () -> service.patch(snapshotId, patchRequest, TEST_USER));
+    verifyNoInteractions(eventPublisher);
+  }
+
   @Test
   void listAuthorizedSnapshotsWhenEcmReturns() throws Exception {
     UUID snapshotId = UUID.randomUUID();
@@ -1573,7 +1604,8 @@ class SnapshotServiceTest {
             0,
             PDAO_ROW_ID_COLUMN,
             SqlSortDirection.ASC,
-            "");
+            "",
+            null);
     assertThat(
         "Correct total row count", snapshotPreviewModel.getTotalRowCount(), equalTo(totalRowCount));
     assertThat(
@@ -1590,12 +1622,13 @@ class SnapshotServiceTest {
           new SynapseDataResultModel()
               .filteredCount(filteredRowCount)
               .totalCount(totalRowCount)
+              .pageRowId(UUID.randomUUID().toString())
               .rowResult(new HashMap<>()));
     }
     when(azureSynapsePdao.getOrCreateExternalDataSourceForResource(any(), any(), any()))
         .thenReturn("");
-    when(azureSynapsePdao.getTableData(
-            any(), any(), any(), any(), anyInt(), anyInt(), any(), any(), any(), any()))
+    when(azureSynapsePdao.getTableDataPage(
+            any(), any(), any(), any(), anyInt(), any(), any(), any(), any(), any()))
         .thenReturn(values);
     testPreview(totalRowCount, filteredRowCount);
   }
@@ -1607,14 +1640,15 @@ class SnapshotServiceTest {
           new BigQueryDataResultModel()
               .filteredCount(filteredRowCount)
               .totalCount(totalRowCount)
+              .pageRowId(UUID.randomUUID().toString())
               .rowResult(new HashMap<>()));
     }
     try (MockedStatic<BigQueryPdao> utilities = Mockito.mockStatic(BigQueryPdao.class)) {
       utilities
           .when(
               () ->
-                  BigQueryPdao.getTable(
-                      any(), any(), any(), anyInt(), anyInt(), any(), any(), any()))
+                  BigQueryPdao.getTablePage(
+                      any(), any(), any(), anyInt(), any(), any(), any(), any()))
           .thenReturn(values);
       testPreview(totalRowCount, filteredRowCount);
     }
@@ -1656,4 +1690,34 @@ class SnapshotServiceTest {
     assertThat(
         service.retrieveAuthDomains(snapshotId, TEST_USER), containsInAnyOrder("group1", "group2"));
   }
+
+  @Test
+  void updateSnapshotBuilderSettingsStartsIndexFlight() {
+    appConfig.setSnapshotBuilderIndexEnabled(true);
+    Snapshot snapshot = mock(Snapshot.class);
+    when(snapshot.getCloudPlatform()).thenReturn(CloudPlatform.GCP);
+    when(snapshotDao.retrieveSnapshot(snapshotId)).thenReturn(snapshot);
+    JobBuilder jobBuilder = mock(JobBuilder.class);
+    when(jobBuilder.addParameter(any(), any())).thenReturn(jobBuilder);
+    when(jobService.newJob(
+            anyString(), eq(SnapshotBuilderIndexFlight.class), eq(null), eq(TEST_USER)))
+        .thenReturn(jobBuilder);
+    SnapshotBuilderSettings settings = new SnapshotBuilderSettings();
+
+    service.updateSnapshotBuilderSettings(snapshotId, settings, TEST_USER);
+
+    verify(settingsDao).upsertBySnapshotId(snapshotId, settings);
+    verify(jobBuilder).addParameter(JobMapKeys.SNAPSHOT_ID.getKeyName(), snapshotId);
+    verify(jobBuilder).submit();
+  }
+
+  @Test
+  void updateSnapshotBuilderSettingsWithoutIndex() {
+    SnapshotBuilderSettings settings = new SnapshotBuilderSettings();
+
+    service.updateSnapshotBuilderSettings(snapshotId, settings, TEST_USER);
+
+    verify(settingsDao).upsertBySnapshotId(snapshotId, settings);
+    verifyNoInteractions(jobService);
+  }
 }
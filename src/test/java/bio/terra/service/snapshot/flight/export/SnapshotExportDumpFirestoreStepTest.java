@@ -0,0 +1,194 @@
+package bio.terra.service.snapshot.flight.export;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import bio.terra.common.category.Unit;
+import bio.terra.service.filedata.google.firestore.FireStoreBatchQueryIterator;
+import bio.terra.service.filedata.google.firestore.FireStoreDao;
+import bio.terra.service.filedata.google.firestore.FireStoreFile;
+import bio.terra.service.filedata.google.gcs.GcsPdao;
+import bio.terra.service.resourcemanagement.google.GoogleBucketResource;
+import bio.terra.service.snapshot.Snapshot;
+import bio.terra.service.snapshot.SnapshotService;
+import bio.terra.service.snapshot.flight.SnapshotWorkingMapKeys;
+import bio.terra.stairway.FlightContext;
+import bio.terra.stairway.FlightMap;
+import bio.terra.stairway.StepResult;
+import bio.terra.stairway.StepStatus;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+@Tag(Unit.TAG)
+class SnapshotExportDumpFirestoreStepTest {
+  private static final UUID SNAPSHOT_ID = UUID.randomUUID();
+  private static final Snapshot SNAPSHOT = new Snapshot().id(SNAPSHOT_ID);
+  private static final String FLIGHT_ID = "flightId";
+  private static final GoogleBucketResource BUCKET =
+      new GoogleBucketResource().name("export-bucket");
+
+  @Mock private SnapshotService snapshotService;
+  @Mock private FireStoreDao fireStoreDao;
+  @Mock private GcsPdao gcsPdao;
+  @Mock private FlightContext flightContext;
+  @Mock private Storage storage;
+  @Mock private WriteChannel writeChannel;
+  @Mock private FireStoreBatchQueryIterator queryIterator;
+
+  private FlightMap workingMap;
+  private ExecutorService executor;
+  private SnapshotExportDumpFirestoreStep step;
+
+  @BeforeEach
+  void setup() {
+    workingMap = new FlightMap();
+    workingMap.put(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_BUCKET, BUCKET);
+    when(flightContext.getWorkingMap()).thenReturn(workingMap);
+    when(flightContext.getFlightId()).thenReturn(FLIGHT_ID);
+    when(snapshotService.retrieve(SNAPSHOT_ID)).thenReturn(SNAPSHOT);
+    when(gcsPdao.storageForBucket(BUCKET)).thenReturn(storage);
+    when(storage.writer(any(BlobInfo.class))).thenReturn(writeChannel);
+
+    executor = Executors.newSingleThreadExecutor();
+    step =
+        new SnapshotExportDumpFirestoreStep(
+            snapshotService, fireStoreDao, gcsPdao, SNAPSHOT_ID, new ObjectMapper(), executor, 3);
+  }
+
+  @AfterEach
+  void teardown() {
+    executor.shutdownNow();
+  }
+
+  private static QueryDocumentSnapshot document(String id) {
+    QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+    when(document.getData())
+        .thenReturn(
+            Map.of(
+                FireStoreFile.FILE_ID_FIELD_NAME, id, FireStoreFile.GS_PATH_FIELD_NAME, "gs://"));
+    return document;
+  }
+
+  private static QueryDocumentSnapshot lastDocument(String id) {
+    QueryDocumentSnapshot document = document(id);
+    when(document.getId()).thenReturn(id);
+    return document;
+  }
+
+  private List<String> writtenPartNames(int count) {
+    ArgumentCaptor<BlobInfo> blobInfo = ArgumentCaptor.forClass(BlobInfo.class);
+    verify(storage, times(count)).writer(blobInfo.capture());
+    return blobInfo.getAllValues().stream().map(BlobInfo::getName).toList();
+  }
+
+  @Test
+  void testDoStepWritesParts() throws Exception {
+    when(fireStoreDao.retrieveFilesCollectionIterator(SNAPSHOT, null)).thenReturn(queryIterator);
+    List<QueryDocumentSnapshot> batch1 = List.of(document("1"), lastDocument("2"));
+    List<QueryDocumentSnapshot> batch2 = List.of(document("3"), lastDocument("4"));
+    List<QueryDocumentSnapshot> batch3 = List.of(lastDocument("5"));
+    when(queryIterator.getBatch()).thenReturn(batch1, batch2, batch3, null);
+
+    StepResult result = step.doStep(flightContext);
+
+    assertThat(result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    assertThat(
+        "Parts are split after the batch that fills them",
+        writtenPartNames(2),
+        contains(
+            FLIGHT_ID + "_export_gs_path_mapping/gs_path_mapping-00000.json",
+            FLIGHT_ID + "_export_gs_path_mapping/gs_path_mapping-00001.json"));
+    verify(writeChannel, times(5)).write(any(ByteBuffer.class));
+    assertThat(
+        "The mapping table reads every part",
+        workingMap.get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_FILENAME, String.class),
+        equalTo(FLIGHT_ID + "_export_gs_path_mapping/gs_path_mapping-*.json"));
+    assertThat(
+        workingMap.get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_PART_COUNT, Integer.class),
+        equalTo(2));
+    assertThat(
+        workingMap.get(
+            SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_LAST_DOCUMENT_ID, String.class),
+        equalTo("5"));
+  }
+
+  @Test
+  void testDoStepEmptyCollection() throws Exception {
+    when(fireStoreDao.retrieveFilesCollectionIterator(SNAPSHOT, null)).thenReturn(queryIterator);
+    when(queryIterator.getBatch()).thenReturn(List.of());
+
+    StepResult result = step.doStep(flightContext);
+
+    assertThat(result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    assertThat(
+        "An empty part is written for an empty collection",
+        writtenPartNames(1),
+        contains(FLIGHT_ID + "_export_gs_path_mapping/gs_path_mapping-00000.json"));
+  }
+
+  @Test
+  void testDoStepResumesFromCheckpoint() throws Exception {
+    workingMap.put(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_PART_COUNT, 1);
+    workingMap.put(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_LAST_DOCUMENT_ID, "4");
+    when(fireStoreDao.retrieveFilesCollectionIterator(SNAPSHOT, "4")).thenReturn(queryIterator);
+    List<QueryDocumentSnapshot> batch = List.of(lastDocument("5"));
+    when(queryIterator.getBatch()).thenReturn(batch, null);
+
+    StepResult result = step.doStep(flightContext);
+
+    assertThat(result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_SUCCESS));
+    assertThat(
+        "Completed parts are not rewritten",
+        writtenPartNames(1),
+        contains(FLIGHT_ID + "_export_gs_path_mapping/gs_path_mapping-00001.json"));
+    assertThat(
+        workingMap.get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_PART_COUNT, Integer.class),
+        equalTo(2));
+  }
+
+  @Test
+  void testDoStepRetryKeepsCheckpoint() throws Exception {
+    when(fireStoreDao.retrieveFilesCollectionIterator(SNAPSHOT, null)).thenReturn(queryIterator);
+    List<QueryDocumentSnapshot> batch =
+        List.of(document("1"), document("2"), lastDocument("3"));
+    when(queryIterator.getBatch())
+        .thenReturn(batch)
+        .thenThrow(new IllegalStateException("Firestore unavailable"));
+
+    StepResult result = step.doStep(flightContext);
+
+    assertThat(result.getStepStatus(), equalTo(StepStatus.STEP_RESULT_FAILURE_RETRY));
+    assertThat(
+        "The completed part is recorded",
+        workingMap.get(SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_PART_COUNT, Integer.class),
+        equalTo(1));
+    assertThat(
+        workingMap.get(
+            SnapshotWorkingMapKeys.SNAPSHOT_EXPORT_GSPATHS_LAST_DOCUMENT_ID, String.class),
+        equalTo("3"));
+  }
+}
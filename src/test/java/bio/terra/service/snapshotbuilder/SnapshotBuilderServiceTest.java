@@ -6,15 +6,19 @@ import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -55,19 +59,23 @@ import bio.terra.service.snapshot.SnapshotSource;
 import bio.terra.service.snapshotbuilder.query.Query;
 import bio.terra.service.snapshotbuilder.query.SqlRenderContext;
 import bio.terra.service.snapshotbuilder.query.table.Concept;
+import bio.terra.service.snapshotbuilder.query.table.ConceptHierarchyIndex;
 import bio.terra.service.snapshotbuilder.utils.ConceptChildrenQueryBuilder;
 import bio.terra.service.snapshotbuilder.utils.CriteriaQueryBuilder;
 import bio.terra.service.snapshotbuilder.utils.EnumerateConceptsQueryBuilder;
 import bio.terra.service.snapshotbuilder.utils.HierarchyQueryBuilder;
 import bio.terra.service.snapshotbuilder.utils.QueryBuilderFactory;
+import bio.terra.service.tabulardata.TableDataCache;
 import bio.terra.service.tabulardata.google.bigquery.BigQuerySnapshotPdao;
 import com.google.cloud.bigquery.Field;
 import com.google.cloud.bigquery.FieldValue;
 import com.google.cloud.bigquery.FieldValueList;
 import com.google.cloud.bigquery.StandardSQLTypeName;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.sql.ResultSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -118,7 +126,8 @@ class SnapshotBuilderServiceTest {
             notificationService,
             azureSynapsePdao,
             queryBuilderFactory,
-            terraConfiguration);
+            terraConfiguration,
+            new TableDataCache(new SimpleMeterRegistry()));
   }
 
   @Test
@@ -346,6 +355,42 @@ class SnapshotBuilderServiceTest {
         is(snapshot.getCloudPlatform()));
   }
 
+  @Test
+  void getRollupCountForCohortsIsCachedUntilSettingsChange() {
+    Snapshot snapshot = makeSnapshot(CloudPlatform.GCP);
+    var settings = new SnapshotBuilderSettings();
+    var newSettings =
+        new SnapshotBuilderSettings().domainOptions(List.of(new SnapshotBuilderDomainOption()));
+    when(snapshotBuilderSettingsDao.getBySnapshotId(snapshot.getId()))
+        .thenReturn(settings, settings, newSettings);
+    when(snapshotService.retrieve(snapshot.getId())).thenReturn(snapshot);
+    when(snapshotService.retrieveSnapshotModel(snapshot.getId(), TEST_USER))
+        .thenReturn(new SnapshotModel().name("name").dataProject("data-project"));
+    var criteriaQueryBuilderMock = mock(CriteriaQueryBuilder.class);
+    when(queryBuilderFactory.criteriaQueryBuilder(any())).thenReturn(criteriaQueryBuilderMock);
+    Query query = mock(Query.class);
+    when(criteriaQueryBuilderMock.generateRollupCountsQueryForCohorts(any())).thenReturn(query);
+    when(query.renderSQL(any())).thenReturn("sql");
+    when(bigQuerySnapshotPdao.runQuery(eq("sql"), any(), eq(snapshot), any()))
+        .thenReturn(List.of(5), List.of(7));
+
+    var cohorts = List.of(new SnapshotBuilderCohort().name("cohort"));
+    var sameCohorts = List.of(new SnapshotBuilderCohort().name("cohort"));
+    assertThat(
+        snapshotBuilderService.getRollupCountForCohorts(snapshot.getId(), cohorts, TEST_USER),
+        equalTo(5));
+    assertThat(
+        "An equal request is served from the cache",
+        snapshotBuilderService.getRollupCountForCohorts(snapshot.getId(), sameCohorts, TEST_USER),
+        equalTo(5));
+    assertThat(
+        "A request after the settings change runs the query again",
+        snapshotBuilderService.getRollupCountForCohorts(snapshot.getId(), cohorts, TEST_USER),
+        equalTo(7));
+    verify(query, times(2)).renderSQL(any());
+    verify(bigQuerySnapshotPdao, times(2)).runQuery(eq("sql"), any(), eq(snapshot), any());
+  }
+
   @ParameterizedTest
   @MethodSource
   void fuzzyLowCount(int rollupCount, int expectedFuzzyLowCount) {
@@ -560,6 +605,113 @@ class SnapshotBuilderServiceTest {
                             .children(List.of(concept3))))));
   }
 
+  @Test
+  void getConceptChildrenReadsConceptHierarchyIndex() {
+    Snapshot snapshot = makeSnapshot(CloudPlatform.GCP);
+    when(snapshotService.retrieve(snapshot.getId())).thenReturn(snapshot);
+    var queryBuilder = mock(ConceptChildrenQueryBuilder.class);
+    when(queryBuilderFactory.conceptChildrenQueryBuilder()).thenReturn(queryBuilder);
+    when(queryBuilder.buildIndexedConceptChildrenQuery(1)).thenReturn(mock(Query.class));
+    var settings =
+        new SnapshotBuilderSettings()
+            .domainOptions(List.of(new SnapshotBuilderDomainOption().name("domainId")));
+    when(snapshotBuilderSettingsDao.getBySnapshotId(snapshot.getId())).thenReturn(settings);
+    when(bigQuerySnapshotPdao.getSnapshotBuilderTableDescription(
+            snapshot, ConceptHierarchyIndex.TABLE_NAME))
+        .thenReturn(
+            Optional.of(SnapshotBuilderService.conceptHierarchyIndexFingerprint(settings)));
+    var concept = concept("childConcept", 2, true);
+    when(bigQuerySnapshotPdao.runQuery(any(), any(), eq(snapshot), any()))
+        .thenReturn(List.of(concept));
+
+    var response = snapshotBuilderService.getConceptChildren(snapshot.getId(), 1, TEST_USER);
+
+    assertThat(response.getResult(), equalTo(List.of(concept)));
+    // The index is read in place of looking up the concept's domain and joining its tables
+    verify(queryBuilder, never()).retrieveDomainId(anyInt());
+    verify(queryBuilder, never()).buildConceptChildrenQuery(any(), anyInt());
+  }
+
+  @Test
+  void getConceptHierarchyIgnoresStaleConceptHierarchyIndex() {
+    Snapshot snapshot = makeSnapshot(CloudPlatform.GCP);
+    var conceptId = 1;
+    when(snapshotService.retrieve(snapshot.getId())).thenReturn(snapshot);
+    var queryBuilder = mock(HierarchyQueryBuilder.class);
+    when(queryBuilderFactory.hierarchyQueryBuilder()).thenReturn(queryBuilder);
+    when(queryBuilderFactory.conceptChildrenQueryBuilder())
+        .thenReturn(mock(ConceptChildrenQueryBuilder.class, Mockito.RETURNS_DEEP_STUBS));
+    var domain = new SnapshotBuilderDomainOption().name("domain");
+    var settings = new SnapshotBuilderSettings().domainOptions(List.of(domain));
+    when(snapshotBuilderSettingsDao.getBySnapshotId(snapshot.getId())).thenReturn(settings);
+    // The index was built from other settings
+    when(bigQuerySnapshotPdao.getSnapshotBuilderTableDescription(
+            snapshot, ConceptHierarchyIndex.TABLE_NAME))
+        .thenReturn(Optional.of("fingerprint of earlier settings"));
+    when(queryBuilder.generateQuery(domain, conceptId)).thenReturn(mock(Query.class));
+    var concept = concept("concept1", 2, false);
+    mockRunQueryForHierarchy(snapshot, domain.getName(), List.of(createResult(0, concept)));
+
+    assertThat(
+        snapshotBuilderService.getConceptHierarchy(snapshot.getId(), conceptId, TEST_USER),
+        equalTo(
+            new SnapshotBuilderGetConceptHierarchyResponse()
+                .result(
+                    List.of(
+                        new SnapshotBuilderParentConcept()
+                            .parentId(0)
+                            .children(List.of(concept))))));
+    verify(queryBuilder, never()).generateIndexedQuery(anyInt());
+  }
+
+  @Test
+  void createConceptHierarchyIndex() throws Exception {
+    Snapshot snapshot = makeSnapshot(CloudPlatform.GCP);
+    when(snapshotService.retrieve(snapshot.getId())).thenReturn(snapshot);
+    var condition = new SnapshotBuilderDomainOption().name("Condition");
+    var drug = new SnapshotBuilderDomainOption().name("Drug");
+    var settings = new SnapshotBuilderSettings().domainOptions(List.of(condition, drug));
+    when(snapshotBuilderSettingsDao.getBySnapshotId(snapshot.getId())).thenReturn(settings);
+    var queryBuilder = mock(HierarchyQueryBuilder.class);
+    when(queryBuilderFactory.hierarchyQueryBuilder()).thenReturn(queryBuilder);
+    Query conditionQuery = mock(Query.class);
+    when(conditionQuery.renderSQL(any())).thenReturn("condition sql");
+    when(queryBuilder.generateIndexQuery(condition)).thenReturn(conditionQuery);
+    Query drugQuery = mock(Query.class);
+    when(drugQuery.renderSQL(any())).thenReturn("drug sql");
+    when(queryBuilder.generateIndexQuery(drug)).thenReturn(drugQuery);
+
+    snapshotBuilderService.createConceptHierarchyIndex(snapshot.getId(), TEST_USER);
+
+    verify(bigQuerySnapshotPdao)
+        .createSnapshotBuilderTable(
+            snapshot,
+            ConceptHierarchyIndex.TABLE_NAME,
+            List.of("condition sql", "drug sql"),
+            SnapshotBuilderService.conceptHierarchyIndexFingerprint(settings));
+  }
+
+  @Test
+  void conceptHierarchyIndexFingerprintDependsOnDomainOptions() {
+    var settings =
+        new SnapshotBuilderSettings()
+            .domainOptions(List.of(new SnapshotBuilderDomainOption().name("Condition")));
+    var sameDomains =
+        new SnapshotBuilderSettings()
+            .domainOptions(List.of(new SnapshotBuilderDomainOption().name("Condition")))
+            .featureValueGroups(List.of());
+    var otherDomains =
+        new SnapshotBuilderSettings()
+            .domainOptions(List.of(new SnapshotBuilderDomainOption().name("Drug")));
+
+    String fingerprint = SnapshotBuilderService.conceptHierarchyIndexFingerprint(settings);
+    assertThat(
+        SnapshotBuilderService.conceptHierarchyIndexFingerprint(sameDomains), equalTo(fingerprint));
+    assertThat(
+        SnapshotBuilderService.conceptHierarchyIndexFingerprint(otherDomains),
+        not(equalTo(fingerprint)));
+  }
+
   private static SnapshotBuilderService.ParentQueryResult createResult(
       int parentId, SnapshotBuilderConcept concept) {
     return new SnapshotBuilderService.ParentQueryResult(
@@ -80,6 +80,23 @@ class ConceptChildrenQueryBuilderTest {
     assertQueryEquals(context.getPlatform().choose(GCP_EXPECTED, AZURE_EXPECTED), sql);
   }
 
+  @ParameterizedTest
+  @ArgumentsSource(SqlRenderContextProvider.class)
+  void buildIndexedConceptChildrenQuery(SqlRenderContext context) {
+    String sql =
+        new QueryBuilderFactory()
+            .conceptChildrenQueryBuilder()
+            .buildIndexedConceptChildrenQuery(101)
+            .renderSQL(context);
+    String expected =
+        """
+        SELECT dch.concept_name, dch.concept_id, dch.concept_code, dch.count, dch.has_children
+        FROM datarepo_concept_hierarchy AS dch
+        WHERE dch.parent_id = 101
+        ORDER BY dch.concept_name ASC""";
+    assertQueryEquals(expected, sql);
+  }
+
   @ParameterizedTest
   @ArgumentsSource(SqlRenderContextProvider.class)
   void buildGetDomainIdQuery(SqlRenderContext context) {
@@ -53,6 +53,56 @@ class HierarchyQueryBuilderTest {
     assertQueryEquals(EXPECTED, query.renderSQL(context));
   }
 
+  private static final String EXPECTED_INDEX =
+      """
+      SELECT
+          cr.concept_id_1 AS parent_id, cr.concept_id_2 AS concept_id, c.concept_name, c.concept_code,
+             COUNT(DISTINCT co.person_id) AS count,
+             COUNT(DISTINCT hc.descendant_concept_id) AS has_children
+        FROM concept_relationship AS cr
+               JOIN concept AS c ON c.concept_id = cr.concept_id_2
+               JOIN concept AS c1 ON c1.concept_id = cr.concept_id_1
+               LEFT JOIN (SELECT ca.ancestor_concept_id, ca.descendant_concept_id, ca.min_levels_of_separation
+                            FROM concept_ancestor AS ca
+                            JOIN concept AS c2 ON c2.concept_id = ca.descendant_concept_id
+                            WHERE c2.standard_concept = 'S') AS hc
+                  ON (hc.ancestor_concept_id = cr.concept_id_2
+                  AND hc.descendant_concept_id != cr.concept_id_2
+                  AND hc.min_levels_of_separation <= 1)
+               JOIN concept_ancestor AS ca1 ON ca1.ancestor_concept_id = cr.concept_id_2
+               LEFT JOIN condition_occurrence AS co ON co.condition_concept_id = ca1.descendant_concept_id
+        WHERE (cr.relationship_id = 'Subsumes' AND c1.standard_concept = 'S' AND c.standard_concept = 'S'
+          AND c1.domain_id = 'Condition')
+        GROUP BY c.concept_name, cr.concept_id_1, cr.concept_id_2, c.concept_code""";
+
+  @ParameterizedTest
+  @ArgumentsSource(SqlRenderContextProvider.class)
+  void generateIndexQuery(SqlRenderContext context) {
+    var query =
+        new QueryBuilderFactory()
+            .hierarchyQueryBuilder()
+            .generateIndexQuery(ConceptChildrenQueryBuilderTest.createDomainOption());
+    assertQueryEquals(EXPECTED_INDEX, query.renderSQL(context));
+  }
+
+  private static final String EXPECTED_INDEXED =
+      """
+      SELECT dch.parent_id, dch.concept_id, dch.concept_name, dch.concept_code, dch.count,
+             dch.has_children
+        FROM datarepo_concept_hierarchy AS dch
+               JOIN (SELECT ca.ancestor_concept_id, ca.descendant_concept_id
+                      FROM concept_ancestor AS ca
+                      WHERE (ca.descendant_concept_id = 1 AND ca.ancestor_concept_id != 1)) AS cas
+                      ON cas.ancestor_concept_id = dch.parent_id
+        ORDER BY dch.concept_name ASC""";
+
+  @ParameterizedTest
+  @ArgumentsSource(SqlRenderContextProvider.class)
+  void generateIndexedQuery(SqlRenderContext context) {
+    var query = new QueryBuilderFactory().hierarchyQueryBuilder().generateIndexedQuery(1);
+    assertQueryEquals(EXPECTED_INDEXED, query.renderSQL(context));
+  }
+
   private static final String EXPECTED_JOIN_TO_FILTER =
       """
       JOIN (SELECT ca.ancestor_concept_id, ca.descendant_concept_id
@@ -0,0 +1,107 @@
+package bio.terra.service.tabulardata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.common.SqlSortDirection;
+import bio.terra.common.category.Unit;
+import bio.terra.service.tabulardata.exception.InvalidPageTokenException;
+import bio.terra.service.tabulardata.google.bigquery.BigQueryDataResultModel;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Unit.TAG)
+class DataPageTokenTest {
+  private static final String SORT = "name";
+  private static final SqlSortDirection DIRECTION = SqlSortDirection.DESC;
+  private static final String FILTER = "WHERE name = 'a'";
+
+  @Test
+  void nextTokenContinuesAfterLastRow() {
+    UUID lastRowId = UUID.randomUUID();
+    List<BigQueryDataResultModel> firstPage =
+        List.of(row(UUID.randomUUID()), row(UUID.randomUUID()), row(lastRowId));
+
+    String encoded = DataPageToken.next(null, SORT, DIRECTION, FILTER, firstPage, 10, 100);
+    DataPageToken token = DataPageToken.decode(encoded, SORT, DIRECTION, FILTER);
+    assertThat("Token continues after the last row", token.afterRowId(), equalTo(lastRowId));
+    assertThat("Token counts the rows returned", token.rowsReturned(), equalTo(3L));
+    assertThat("Token carries the filtered count", token.filteredRowCount(), equalTo(10));
+    assertThat("Token carries the total count", token.totalRowCount(), equalTo(100));
+
+    String second =
+        DataPageToken.next(
+            token, SORT, DIRECTION, FILTER, List.of(row(UUID.randomUUID())), 10, 100);
+    assertThat(
+        "Rows returned accumulate over pages",
+        DataPageToken.decode(second, SORT, DIRECTION, FILTER).rowsReturned(),
+        equalTo(4L));
+  }
+
+  @Test
+  void noTokenAfterLastPage() {
+    assertThat(
+        "No token once every filtered row was returned",
+        DataPageToken.next(
+            null, SORT, DIRECTION, FILTER, List.of(row(UUID.randomUUID())), 1, 100),
+        nullValue());
+    assertThat(
+        "No token after an empty page",
+        DataPageToken.next(null, SORT, DIRECTION, FILTER, List.of(), 0, 100),
+        nullValue());
+  }
+
+  @Test
+  void noTokenDecodesToNull() {
+    assertThat(
+        "A missing token is the first page",
+        DataPageToken.decode(null, SORT, DIRECTION, FILTER),
+        nullValue());
+    assertThat(
+        "An empty token is the first page",
+        DataPageToken.decode("", SORT, DIRECTION, FILTER),
+        nullValue());
+  }
+
+  @Test
+  void tokenOnlyContinuesTheSameQuery() {
+    String encoded =
+        DataPageToken.next(
+            null, SORT, DIRECTION, FILTER, List.of(row(UUID.randomUUID())), 10, 100);
+
+    assertThrows(
+        InvalidPageTokenException.class,
+        () -> DataPageToken.decode(encoded, "other", DIRECTION, FILTER));
+    assertThrows(
+        InvalidPageTokenException.class,
+        () -> DataPageToken.decode(encoded, SORT, SqlSortDirection.ASC, FILTER));
+    assertThrows(
+        InvalidPageTokenException.class,
+        () -> DataPageToken.decode(encoded, SORT, DIRECTION, "WHERE name = 'b'"));
+  }
+
+  @Test
+  void malformedTokenIsRejected() {
+    assertThrows(
+        InvalidPageTokenException.class,
+        () -> DataPageToken.decode("not a token", SORT, DIRECTION, FILTER));
+    assertThrows(
+        InvalidPageTokenException.class,
+        () -> DataPageToken.decode("e30", SORT, DIRECTION, FILTER));
+  }
+
+  @Test
+  void emptyPageWithTokenIsRejected() {
+    DataPageToken token =
+        new DataPageToken(SORT, DIRECTION, "hash", UUID.randomUUID(), 3, 10, 100);
+    assertThrows(InvalidPageTokenException.class, () -> token.checkPageRead(List.of()));
+  }
+
+  private static BigQueryDataResultModel row(UUID rowId) {
+    return new BigQueryDataResultModel().pageRowId(rowId.toString());
+  }
+}
@@ -0,0 +1,157 @@
+package bio.terra.service.tabulardata;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import bio.terra.common.category.Unit;
+import bio.terra.model.ColumnStatisticsIntModel;
+import bio.terra.model.DatasetDataModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+@Tag(Unit.TAG)
+class TableDataCacheTest {
+  private static final UUID DATASET_ID = UUID.randomUUID();
+  private static final UUID SNAPSHOT_ID = UUID.randomUUID();
+  private static final List<Object> QUERY = Arrays.asList("data", "table", 10, 0, null);
+
+  private TableDataCache cache;
+  private AtomicInteger queries;
+
+  @BeforeEach
+  void beforeEach() {
+    cache = new TableDataCache(new SimpleMeterRegistry());
+    queries = new AtomicInteger();
+  }
+
+  @Test
+  void repeatedQueryIsCached() {
+    assertThat("Query is run", cache.getDatasetResult(DATASET_ID, QUERY, this::query), equalTo(1));
+    assertThat(
+        "Same query is answered from the cache",
+        cache.getDatasetResult(
+            DATASET_ID, Arrays.asList("data", "table", 10, 0, null), this::query),
+        equalTo(1));
+    assertThat(
+        "Different query is run",
+        cache.getDatasetResult(
+            DATASET_ID, Arrays.asList("data", "table", 10, 10, null), this::query),
+        equalTo(2));
+    assertThat(
+        "Same query of another resource is run",
+        cache.getSnapshotResult(SNAPSHOT_ID, QUERY, this::query),
+        equalTo(3));
+  }
+
+  @Test
+  void invalidateDropsOnlyThatResource() {
+    cache.getDatasetResult(DATASET_ID, QUERY, this::query);
+    cache.getSnapshotResult(SNAPSHOT_ID, QUERY, this::query);
+
+    cache.invalidate(DATASET_ID);
+
+    assertThat(
+        "Invalidated dataset query is run again",
+        cache.getDatasetResult(DATASET_ID, QUERY, this::query),
+        equalTo(3));
+    assertThat(
+        "Other resource is still cached",
+        cache.getSnapshotResult(SNAPSHOT_ID, QUERY, this::query),
+        equalTo(2));
+  }
+
+  @Test
+  void queryRunningDuringInvalidationIsNotCached() {
+    cache.getDatasetResult(
+        DATASET_ID,
+        QUERY,
+        () -> {
+          // The data changes while the query runs
+          cache.invalidate(DATASET_ID);
+          return query();
+        });
+
+    assertThat(
+        "Result read before the change is not served after it",
+        cache.getDatasetResult(DATASET_ID, QUERY, this::query),
+        equalTo(2));
+  }
+
+  @Test
+  void invalidateDoesNotWaitForRunningQuery() throws Exception {
+    CountDownLatch queryStarted = new CountDownLatch(1);
+    CountDownLatch invalidated = new CountDownLatch(1);
+    CompletableFuture<Integer> result =
+        CompletableFuture.supplyAsync(
+            () ->
+                cache.getDatasetResult(
+                    DATASET_ID,
+                    QUERY,
+                    () -> {
+                      queryStarted.countDown();
+                      try {
+                        invalidated.await();
+                      } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                      }
+                      return query();
+                    }));
+    queryStarted.await();
+
+    // Would deadlock if invalidation waited for the query
+    cache.invalidate(DATASET_ID);
+    invalidated.countDown();
+
+    assertThat("Running query completes", result.get(10, TimeUnit.SECONDS), equalTo(1));
+    assertThat(
+        "Result of the running query is not cached",
+        cache.getDatasetResult(DATASET_ID, QUERY, this::query),
+        equalTo(2));
+  }
+
+  @Test
+  void resultsAreWeighedByRows() {
+    assertThat(
+        "Page is weighed by its rows",
+        TableDataCache.weigh(new DatasetDataModel().addResultItem("row1").addResultItem("row2")),
+        equalTo(3));
+    assertThat(
+        "List is weighed by its elements", TableDataCache.weigh(List.of(1, 2, 3)), equalTo(4));
+    assertThat(
+        "Rowless result has the minimum weight",
+        TableDataCache.weigh(new ColumnStatisticsIntModel().minValue(1).maxValue(2)),
+        equalTo(1));
+  }
+
+  @Test
+  void failedQueryIsNotCached() {
+    assertThrows(
+        IllegalStateException.class,
+        () ->
+            cache.getDatasetResult(
+                DATASET_ID,
+                QUERY,
+                () -> {
+                  throw new IllegalStateException("query failed");
+                }));
+
+    assertThat(
+        "Query is run again after a failure",
+        cache.getDatasetResult(DATASET_ID, QUERY, this::query),
+        equalTo(1));
+  }
+
+  private Integer query() {
+    return queries.incrementAndGet();
+  }
+}
@@ -0,0 +1,113 @@
+package bio.terra.service.tabulardata.google;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import bio.terra.common.category.OnDemand;
+import com.google.cloud.bigquery.FieldValueList;
+import com.google.cloud.bigquery.TableId;
+import com.google.cloud.bigquery.TableResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares reading a large query result by paging through it with tabledata.list, as ref ids were
+ * read before, with reading the result table with {@link BigQueryStorageRowReader}. Reads a public
+ * table; queries and read sessions are billed to the project in the GOOGLE_CLOUD_PROJECT
+ * environment variable, using the application default credentials.
+ */
+@Tag(OnDemand.TAG)
+class BigQueryRowReaderBenchmarkTest {
+  private static final Logger logger =
+      LoggerFactory.getLogger(BigQueryRowReaderBenchmarkTest.class);
+
+  private static final String SOURCE_TABLE = "bigquery-public-data.usa_names.usa_1910_current";
+  private static final String FIELD = "name";
+
+  @ParameterizedTest
+  @ValueSource(ints = {1_000_000, 5_000_000})
+  void benchmark(int rowCount) throws InterruptedException {
+    BigQueryProject bigQueryProject = BigQueryProject.get(System.getenv("GOOGLE_CLOUD_PROJECT"));
+    String sql = String.format("SELECT %s FROM `%s` LIMIT %d", FIELD, SOURCE_TABLE, rowCount);
+
+    HeapSampler pagedHeap = new HeapSampler();
+    long start = System.nanoTime();
+    TableResult result = bigQueryProject.query(sql);
+    List<String> pagedValues = new ArrayList<>();
+    for (FieldValueList row : result.iterateAll()) {
+      pagedValues.add(row.get(0).getStringValue());
+    }
+    long pagedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    long pagedPeakHeap = pagedHeap.stop();
+
+    HeapSampler streamedHeap = new HeapSampler();
+    start = System.nanoTime();
+    TableId resultTable = bigQueryProject.queryToTable(sql, Map.of());
+    Queue<String> streamedValues = new ConcurrentLinkedQueue<>();
+    BigQueryRowReaderFactory rowReaderFactory = new BigQueryRowReaderFactory();
+    try {
+      rowReaderFactory
+          .forProject(bigQueryProject.getProjectId())
+          .readTable(
+              resultTable, List.of(FIELD), row -> streamedValues.add((String) row.get(FIELD)));
+    } finally {
+      rowReaderFactory.close();
+    }
+    long streamedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    long streamedPeakHeap = streamedHeap.stop();
+
+    assertThat("Both paths read every row", streamedValues.size(), equalTo(pagedValues.size()));
+    logger.info(
+        "Read {} rows: tabledata.list {} ms ({} rows/s, peak heap {} MB), "
+            + "Storage Read API {} ms ({} rows/s, peak heap {} MB)",
+        pagedValues.size(),
+        pagedMillis,
+        rowsPerSecond(pagedValues.size(), pagedMillis),
+        pagedPeakHeap / (1024 * 1024),
+        streamedMillis,
+        rowsPerSecond(streamedValues.size(), streamedMillis),
+        streamedPeakHeap / (1024 * 1024));
+  }
+
+  private static long rowsPerSecond(int rows, long millis) {
+    return millis == 0 ? rows : rows * 1000L / millis;
+  }
+
+  /** Samples the used heap until stopped, to estimate the peak heap used by a read. */
+  private static class HeapSampler {
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+    private final AtomicLong peak = new AtomicLong();
+
+    HeapSampler() {
+      System.gc();
+      long baseline = usedHeap();
+      sampler.scheduleAtFixedRate(
+          () -> peak.accumulateAndGet(usedHeap() - baseline, Math::max),
+          0,
+          50,
+          TimeUnit.MILLISECONDS);
+    }
+
+    long stop() {
+      sampler.shutdownNow();
+      return peak.get();
+    }
+
+    private static long usedHeap() {
+      Runtime runtime = Runtime.getRuntime();
+      return runtime.totalMemory() - runtime.freeMemory();
+    }
+  }
+}
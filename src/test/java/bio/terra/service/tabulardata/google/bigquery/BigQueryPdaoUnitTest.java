@@ -26,7 +26,9 @@ import bio.terra.app.configuration.ApplicationConfiguration;
 import bio.terra.app.model.GoogleCloudResource;
 import bio.terra.app.model.GoogleRegion;
 import bio.terra.common.BQTestUtils;
+import bio.terra.common.Column;
 import bio.terra.common.DateTimeUtils;
+import bio.terra.common.FakeBigQueryRowReader;
 import bio.terra.common.Relationship;
 import bio.terra.common.category.Unit;
 import bio.terra.common.exception.PdaoException;
@@ -55,6 +57,7 @@ import bio.terra.service.snapshot.SnapshotSource;
 import bio.terra.service.snapshot.SnapshotTable;
 import bio.terra.service.snapshot.exception.MismatchedValueException;
 import bio.terra.service.tabulardata.google.BigQueryProject;
+import bio.terra.service.tabulardata.google.BigQueryRowReaderFactory;
 import com.google.api.gax.paging.Page;
 import com.google.cloud.bigquery.BigQuery;
 import com.google.cloud.bigquery.BigQueryException;
@@ -73,6 +76,7 @@ import com.google.cloud.bigquery.TableInfo;
 import com.google.cloud.bigquery.TableResult;
 import com.google.cloud.bigquery.ViewDefinition;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -130,6 +134,7 @@ class BigQueryPdaoUnitTest {
   @Mock private BigQueryProject bigQueryProjectSnapshot;
   @Mock private BigQuery bigQuerySnapshot;
   @Mock private BigQueryProject bigQueryProjectDataset;
+  @Mock private BigQueryRowReaderFactory rowReaderFactory;
 
   private Snapshot snapshot;
   private BigQueryDatasetPdao bigQueryDatasetPdao;
@@ -144,10 +149,12 @@ class BigQueryPdaoUnitTest {
     when(bigQueryProjectDataset.getProjectId()).thenReturn(DATASET_PROJECT_ID);
     BigQueryProject.put(bigQueryProjectDataset);
 
-    bigQueryDatasetPdao = new BigQueryDatasetPdao();
+    bigQueryDatasetPdao = new BigQueryDatasetPdao(rowReaderFactory);
     bigQuerySnapshotPdao =
         new BigQuerySnapshotPdao(
-            mock(ApplicationConfiguration.class), mock(BigQueryConfiguration.class));
+            mock(ApplicationConfiguration.class),
+            mock(BigQueryConfiguration.class),
+            rowReaderFactory);
     snapshot = mockSnapshot();
   }
 
@@ -202,59 +209,109 @@ class BigQueryPdaoUnitTest {
   }
 
   @Test
-  void testGetRefIds() throws InterruptedException {
+  void testStreamRefIds() throws InterruptedException {
     String value1 = "value1";
     String value2 = "value2";
-    BQTestUtils.mockBQQuery(
-        bigQueryProjectDataset,
-        "SELECT "
-            + TABLE_1_COL1_NAME
-            + " "
-            + "FROM `"
-            + DATASET_PROJECT_ID
-            + ".datarepo_"
-            + DATASET_NAME
-            + "."
-            + TABLE_1_NAME
-            + "`",
-        Schema.of(Field.of(TABLE_1_COL1_NAME, LegacySQLTypeName.STRING)),
-        List.of(Map.of(TABLE_1_COL1_NAME, value1), Map.of(TABLE_1_COL1_NAME, value2)));
+    TableId tableId = TableId.of(DATASET_PROJECT_ID, "datarepo_" + DATASET_NAME, TABLE_1_NAME);
+    when(rowReaderFactory.forProject(DATASET_PROJECT_ID))
+        .thenReturn(
+            new FakeBigQueryRowReader()
+                .withTable(
+                    tableId,
+                    List.of(
+                        Map.of(TABLE_1_COL1_NAME, value1),
+                        Map.of(TABLE_1_COL1_NAME, value2),
+                        Map.of())));
 
     DatasetTable table = snapshot.getSourceDataset().getTables().get(0);
+    List<String> refIds = new ArrayList<>();
+    bigQueryDatasetPdao.streamRefIds(
+        snapshot.getSourceDataset(), table.getName(), table.getColumns().get(0), refIds::add);
+    assertThat("Null values are skipped", refIds, equalTo(List.of(value1, value2)));
+  }
+
+  @Test
+  void testStreamRefIdsFromArrayColumn() throws InterruptedException {
+    TableId tableId = TableId.of(DATASET_PROJECT_ID, "datarepo_" + DATASET_NAME, TABLE_1_NAME);
+    when(rowReaderFactory.forProject(DATASET_PROJECT_ID))
+        .thenReturn(
+            new FakeBigQueryRowReader()
+                .withTable(
+                    tableId,
+                    List.of(
+                        Map.of(TABLE_1_COL1_NAME, List.of("value1", "value2")),
+                        Map.of(TABLE_1_COL1_NAME, List.of()),
+                        Map.of(TABLE_1_COL1_NAME, List.of("value3")))));
+
+    Column arrayColumn =
+        new Column().name(TABLE_1_COL1_NAME).type(TableDataType.FILEREF).arrayOf(true);
+    List<String> refIds = new ArrayList<>();
+    bigQueryDatasetPdao.streamRefIds(
+        snapshot.getSourceDataset(), TABLE_1_NAME, arrayColumn, refIds::add);
     assertThat(
-        bigQueryDatasetPdao.getRefIds(
-            snapshot.getSourceDataset(), table.getName(), table.getColumns().get(0)),
-        equalTo(List.of(value1, value2)));
+        "Array values are flattened", refIds, equalTo(List.of("value1", "value2", "value3")));
+  }
+
+  @Test
+  void testStreamRefIdsStopsWhenConsumerDeclines() throws InterruptedException {
+    TableId tableId = TableId.of(DATASET_PROJECT_ID, "datarepo_" + DATASET_NAME, TABLE_1_NAME);
+    when(rowReaderFactory.forProject(DATASET_PROJECT_ID))
+        .thenReturn(
+            new FakeBigQueryRowReader()
+                .withTable(
+                    tableId,
+                    List.of(
+                        Map.of(TABLE_1_COL1_NAME, List.of("value1", "value2")),
+                        Map.of(TABLE_1_COL1_NAME, List.of("value3")))));
+
+    Column arrayColumn =
+        new Column().name(TABLE_1_COL1_NAME).type(TableDataType.FILEREF).arrayOf(true);
+    List<String> refIds = new ArrayList<>();
+    bigQueryDatasetPdao.streamRefIds(
+        snapshot.getSourceDataset(),
+        TABLE_1_NAME,
+        arrayColumn,
+        refId -> refIds.add(refId) && refIds.size() < 2);
+    assertThat(
+        "No values are read after the consumer declines",
+        refIds,
+        equalTo(List.of("value1", "value2")));
   }
 
   @Test
   void testGetSnapshotRefIds() throws InterruptedException {
     String value1 = "value1";
     String value2 = "value2";
+    TableId resultTable = TableId.of(SNAPSHOT_PROJECT_ID, "_anonymous", "result");
 
-    BQTestUtils.mockBQQuery(
-        bigQueryProjectSnapshot,
-        "SELECT "
-            + TABLE_1_COL1_NAME
-            + " "
-            + "FROM `"
-            + DATASET_PROJECT_ID
-            + ".datarepo_"
-            + DATASET_NAME
-            + "."
-            + TABLE_1_NAME
-            + "` S, "
-            + "`"
-            + SNAPSHOT_PROJECT_ID
-            + "."
-            + SNAPSHOT_NAME
-            + ".datarepo_row_ids` R "
-            + "WHERE S.datarepo_row_id = R.datarepo_row_id AND "
-            + "R.datarepo_table_id = '"
-            + TABLE_1_ID
-            + "'",
-        Schema.of(Field.of(TABLE_1_COL1_NAME, LegacySQLTypeName.STRING)),
-        List.of(Map.of(TABLE_1_COL1_NAME, value1), Map.of(TABLE_1_COL1_NAME, value2)));
+    when(bigQueryProjectSnapshot.queryToTable(
+            "SELECT "
+                + TABLE_1_COL1_NAME
+                + " "
+                + "FROM `"
+                + DATASET_PROJECT_ID
+                + ".datarepo_"
+                + DATASET_NAME
+                + "."
+                + TABLE_1_NAME
+                + "` S, "
+                + "`"
+                + SNAPSHOT_PROJECT_ID
+                + "."
+                + SNAPSHOT_NAME
+                + ".datarepo_row_ids` R "
+                + "WHERE S.datarepo_row_id = R.datarepo_row_id AND "
+                + "R.datarepo_table_id = '"
+                + TABLE_1_ID
+                + "'",
+            Map.of()))
+        .thenReturn(resultTable);
+    when(rowReaderFactory.forProject(SNAPSHOT_PROJECT_ID))
+        .thenReturn(
+            new FakeBigQueryRowReader()
+                .withTable(
+                    resultTable,
+                    List.of(Map.of(TABLE_1_COL1_NAME, value1), Map.of(TABLE_1_COL1_NAME, value2))));
 
     DatasetTable table = snapshot.getSourceDataset().getTables().get(0);
     assertThat(